@@ -29,6 +29,7 @@ import pdc.command.CmdReturn;
 import pdc.command.CmdTalk;
 import pdc.command.CmdWait;
 import pdc.command.CommandFactory;
+import chronos.pdc.command.CmdJournal;
 import chronos.pdc.command.Command;
 import chronos.pdc.command.Scheduler;
 
@@ -48,6 +49,8 @@ import chronos.pdc.command.Scheduler;
  *          Jul 1 2008 // Final commenting for Javadoc compliance <br>
  *          Aug 5 2014 // Linked CmdWindow with {@code Mainframe.StandardLayout} <br>
  *          Feb 15 2014 // Replaced ctor parm with {@code IOPanelInterface} for testing <br>
+ *          Oct 18, 2026 // Records each line entered in the Scheduler's journal, if any <br>
+ *          Oct 18, 2026 // Each Command schedules itself, so that one that waits fast-forwards <br>
  */
 public class CommandParser
 {
@@ -119,12 +122,16 @@ public class CommandParser
    */
   public boolean receiveCommand(String textIn)
   {
+    CmdJournal journal = _skedder.getJournal();
+    if (journal != null) {
+      journal.recordInput(_skedder.getTime(), textIn);
+    }
     ArrayList<String> cmdList = new ArrayList<String>(Arrays.asList(textIn.split(" ")));
     String cmdToken = cmdList.remove(0).toUpperCase();
     Command cmd = _factory.createCommand(cmdToken);
     if (cmd != null) {
       if (cmd.init(cmdList)) {
-        _skedder.sched(cmd);
+        cmd.schedule(_skedder);
         return true;
       } else {
         System.err.println("Couldn't schedule command " + cmd);
@@ -30,6 +30,7 @@ import hic.HeroDisplay;
  *          Oct 1 2015 // revised for new Hero generation rules <br>
  *          Nov 6, 2015 // revised to be called by NewHeroCiv <br>
  *          Nov 21, 2015 // updated JPanel to ChronosPanel and edited accordingly <br>
+ *          Oct 18, 2026 // save the Hero write-behind when created or overwritten <br>
  */
 public class HeroDisplayCiv
 {
@@ -64,9 +65,19 @@ public class HeroDisplayCiv
     _mfCiv.backToMain(null);
   }
 
+  /**
+   * Add the Hero to the dormitory, and queue it to be saved in the background, so that the GUI
+   * does not wait on the disk
+   * 
+   * @return true if added; false if a Hero of the same name exists
+   */
   public boolean createPerson()
   {
-    return _dorm.add(_hero);
+    if (!_dorm.add(_hero)) {
+      return false;
+    }
+    _dorm.saveLater(_hero.getName());
+    return true;
   }
 
   /**
@@ -98,9 +109,18 @@ public class HeroDisplayCiv
     _mfCiv.replaceLeftPanel(_heroDisp);
   }
 
+  /**
+   * Replace the Hero in the dormitory, and queue it to be saved in the background
+   * 
+   * @return true if replaced; else false
+   */
   public boolean overwritePerson()
   {
-    return _dorm.update(_hero);
+    if (!_dorm.update(_hero)) {
+      return false;
+    }
+    _dorm.saveLater(_hero.getName());
+    return true;
   }
 
   /**
@@ -9,14 +9,19 @@
 
 package civ;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.JOptionPane;
 
 import chronos.pdc.Adventure;
+import chronos.pdc.Chronos;
 import chronos.pdc.buildings.Inn;
 import chronos.pdc.character.Hero;
+import chronos.pdc.command.CmdJournal;
 import chronos.pdc.command.Scheduler;
 import chronos.pdc.registry.AdventureRegistry;
 import chronos.pdc.registry.BuildingRegistry;
@@ -26,6 +31,8 @@ import chronos.pdc.registry.RegistryFactory.RegKey;
 import hic.IOPanel;
 import hic.MainActionPanel;
 import hic.NewHeroIPPanel;
+import mylib.MsgCtrl;
+import mylib.pdc.MetaDie;
 import pdc.command.CommandFactory;
 
 /**
@@ -35,6 +42,8 @@ import pdc.command.CommandFactory;
  * @author Alan Cline
  * @version Nov 7, 2015 // original <br>
  *          Apr 4, 2018 // moved GUI methods into HIC <br>
+ *          Oct 18, 2026 // list Heroes from their nameplates without loading them <br>
+ *          Oct 18, 2026 // record the session in a command journal, if one is wanted <br>
  */
 
 public class MainActionCiv
@@ -83,10 +92,24 @@ public class MainActionCiv
   /** Create the registries required by the three main action buttons */
   public void constructCoreMembers()
   {
+    // Seed the dice first when the session is recorded, so that it can be replayed
+    long seed = System.nanoTime();
+    if (Chronos.JournalPath != null) {
+      MetaDie.setSessionSeed(seed);
+    }
+
     // Create the registries, scheduler, and command parser
     _rf = new RegistryFactory();
     _rf.initRegistries();
     _skedder = new Scheduler();
+    if (Chronos.JournalPath != null) {
+      try {
+        _skedder.setJournal(new CmdJournal(new File(Chronos.JournalPath), seed));
+      } catch (IOException ex) {
+        MsgCtrl.errMsgln("Cannot record the session in " + Chronos.JournalPath + ": "
+            + ex.getMessage());
+      }
+    }
 
     // Set up times for the patrons to visit the Inn
     ((Inn) ((BuildingRegistry) _rf.getRegistry(RegKey.BLDG)).getBuilding("Ugly Ogre Inn"))
@@ -227,15 +250,17 @@ public class MainActionCiv
   // return button;
   // }
 
+  /**
+   * Let the user pick a Hero by nameplate. The list comes from the dormitory index, so only the
+   * selected Hero's file is read.
+   */
   public void summonHero()
   {
-    List<Hero> heroList = _dorm.getAll();
+    Map<String, String> plates = _dorm.getNamePlates();
 
-    if (heroList.size() > 0) {
-      List<String> plateList = new ArrayList<String>(heroList.size());
-      for (Hero hero : heroList) {
-        plateList.add(hero.toNamePlate());
-      }
+    if (plates.size() > 0) {
+      List<String> nameList = new ArrayList<String>(plates.keySet());
+      List<String> plateList = new ArrayList<String>(plates.values());
 
       Object[] plateArray = plateList.toArray();
 
@@ -244,7 +269,7 @@ public class MainActionCiv
               JOptionPane.PLAIN_MESSAGE, null, plateArray, plateArray[0]);
 
       if (selectedPlate != null) {
-        Hero selectedHero = heroList.get(plateList.indexOf(selectedPlate));
+        Hero selectedHero = _dorm.getHero(nameList.get(plateList.indexOf(selectedPlate)));
         // _hdCiv.displayHero(selectedHero, false);
       }
     } else {
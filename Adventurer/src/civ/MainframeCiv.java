@@ -13,6 +13,7 @@ import chronos.civ.UserMsgInterface;
 import chronos.civ.UserMsgProxy;
 import hic.ChronosPanel;
 import hic.IOPanel;
+import mylib.dmc.WriteBehindQueue;
 
 /**
  * The main civ behind the Adventurer program. It initializes the system and brings up the
@@ -25,6 +26,7 @@ import hic.IOPanel;
  *          Aug 18 2014 // added {@code displayImage} to show Chronos logo on portal page <br>
  *          Nov 7, 2015 // re-architected HIC.Mainframe to separate better CIV.MainframeCiv <br>
  *          Nov 13, 2015 // allow BuildingDisplayCiv to talk to this object. <br>
+ *          Oct 18, 2026 // write any saves still queued before quitting <br>
  */
 public class MainframeCiv
 {
@@ -93,9 +95,10 @@ public class MainframeCiv
     return _output;
   }
 
-  /** Close down the application if user so specified */
+  /** Close down the application if user so specified, once all queued saves are written */
   public void quit()
   {
+    WriteBehindQueue.flushAll();
     System.exit(0);
   }
 
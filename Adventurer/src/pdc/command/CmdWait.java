@@ -10,7 +10,9 @@ package pdc.command;
 
 import java.util.List;
 
+import chronos.pdc.command.CmdHandle;
 import chronos.pdc.command.Command;
+import chronos.pdc.command.Scheduler;
 
 /**
  * Allow the Hero to wait for a certain amount of time. The Wait command defaults to 5 minutes
@@ -23,6 +25,7 @@ import chronos.pdc.command.Command;
  * @version Jun 21 2007 // original <br>
  *          Jul 4 2008 // Final commenting for Javadoc compliance <br>
  *          Jun 9, 2018 // clarified parm and no=parm commands <br>
+ *          Oct 18, 2026 // fast-forwards the game through the wait <br>
  * 
  * @see Command
  * @see pdc.GameClock
@@ -126,6 +129,20 @@ public class CmdWait extends Command
   }
 
 
+  /**
+   * Skips the game ahead by the wait time requested: the Commands due meanwhile run at once, and
+   * the game clock moves once, by the whole wait
+   * 
+   * @param skedder where the command is queued
+   * @return the handle of the command, which has run by the time it is returned
+   */
+  @Override
+  public CmdHandle schedule(Scheduler skedder)
+  {
+    return skedder.fastForward(this);
+  }
+
+
   /**
    * Increments the game clock by the wait time requested
    * 
@@ -1,6 +1,7 @@
 
 package test.pdc.command;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -9,6 +10,8 @@ import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Test;
 
+import chronos.pdc.command.DeltaCmdList;
+import chronos.pdc.command.Scheduler;
 import pdc.command.CmdWait;
 
 public class TestCmdWait
@@ -33,6 +36,20 @@ public class TestCmdWait
     assertTrue(_cmdWait.exec());
   }
 
+  @Test
+  public void testScheduleFastForwards()
+  {
+    DeltaCmdList queue = new DeltaCmdList();
+    Scheduler skedder = new Scheduler(queue, null);
+    queue.insert(new SimpleCommand(120));
+    queue.insert(new SimpleCommand(600));
+
+    assertTrue(_cmdWait.init(Arrays.asList("5", "m")));
+    _cmdWait.schedule(skedder);
+    assertEquals(300, skedder.getTime());
+    assertEquals(1, queue.size());
+  }
+
   @Test
   public void testWaitParsing()
   {
@@ -0,0 +1,133 @@
+/**
+ * DeferredOutput.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.civ;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds back the user messages sent to one or more outputs, and sends them all, in order, when
+ * flushed; used while the {@code Scheduler} fast-forwards, so that the display is updated once at
+ * the end rather than for each Command.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // messages held on several threads can be gathered in order <br>
+ */
+public class DeferredOutput
+{
+  /** Each message held back, in the order sent */
+  private final List<Msg> _msgs = new ArrayList<Msg>();
+
+
+  // ===============================================================================
+  // PUBLIC METHODS
+  // ===============================================================================
+
+  /**
+   * Wraps an output so that the messages sent to it are held back until flushed
+   *
+   * @param target where the messages are to be sent
+   * @return the output to use in its place
+   */
+  public UserMsgInterface defer(UserMsgInterface target)
+  {
+    return new UserMsgInterface() {
+      @Override
+      public String displayText(String msg)
+      {
+        hold(target, msg, false);
+        return msg;
+      }
+
+      @Override
+      public String displayErrorText(String errMsg)
+      {
+        hold(target, errMsg, true);
+        return errMsg;
+      }
+    };
+  }
+
+
+  /**
+   * Sends every message held back to its output, in the order sent
+   *
+   * @return the number of messages sent
+   */
+  public synchronized int flush()
+  {
+    for (Msg m : _msgs) {
+      if (m._error) {
+        m._target.displayErrorText(m._text);
+      } else {
+        m._target.displayText(m._text);
+      }
+    }
+    int sent = _msgs.size();
+    _msgs.clear();
+    return sent;
+  }
+
+
+  /**
+   * Hands every message held back to another {@code DeferredOutput}, after those it holds, as
+   * when each of several threads holds back its own messages
+   *
+   * @param other where the messages are to be held instead
+   */
+  public void moveTo(DeferredOutput other)
+  {
+    List<Msg> msgs;
+    synchronized (this) {
+      msgs = new ArrayList<Msg>(_msgs);
+      _msgs.clear();
+    }
+    synchronized (other) {
+      other._msgs.addAll(msgs);
+    }
+  }
+
+
+  /** @return the number of messages held back */
+  public synchronized int size()
+  {
+    return _msgs.size();
+  }
+
+
+  // ===============================================================================
+  // PRIVATE METHODS
+  // ===============================================================================
+
+  private synchronized void hold(UserMsgInterface target, String text, boolean error)
+  {
+    _msgs.add(new Msg(target, text, error));
+  }
+
+
+  /** A message held back, and where it goes */
+  private static final class Msg
+  {
+    private final UserMsgInterface _target;
+    private final String _text;
+    private final boolean _error;
+
+    private Msg(UserMsgInterface target, String text, boolean error)
+    {
+      _target = target;
+      _text = text;
+      _error = error;
+    }
+  }
+
+
+} // end of DeferredOutput class
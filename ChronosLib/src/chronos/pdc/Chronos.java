@@ -35,6 +35,8 @@ import mylib.MsgCtrl;
  *          Oct 28, 2015 // Added Hero registry path <br>
  *          Aug 5, 2017 // revised to point to directory of Hero files <br>
  *          May 12, 2018 // Added Gussian tolerance constant for stat comparisons <br>
+ *          Oct 18, 2026 // Added single-file Hero segment path <br>
+ *          Oct 18, 2026 // Added command journal path <br>
  */
 public class Chronos
 {
@@ -96,6 +98,10 @@ public class Chronos
 
   // public static String HeroRegPath = REGISTRY_PATH + "Dormitory.reg";
   public static String HeroRegPath = REGISTRY_PATH + "Dormitory/";
+  /** Single file holding every Hero; when not null, used instead of HeroRegPath */
+  public static String HeroSegPath = null;
+  /** File in which each session's Commands are recorded for replay; when null, none are */
+  public static String JournalPath = System.getProperty("chronos.journal");
   public static String AdventureRegPath = REGISTRY_PATH + "Adventures.reg";
   public static String BuildingRegPath = REGISTRY_PATH + "Buildings.reg";
   public static String ItemRegPath = REGISTRY_PATH + "Items.reg";
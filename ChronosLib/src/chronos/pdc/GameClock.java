@@ -20,6 +20,7 @@ package chronos.pdc;
  * @version June 5 2008 // original <br>
  *          July 2 2008 // Final commenting for Javadoc compliance <br>
  *          July 22, 2017 // updated per QATool <br>
+ *          Oct 18, 2026 // increment() may pass several days at once <br>
  */
 public class GameClock
 {
@@ -141,10 +142,10 @@ public class GameClock
     if (seconds > 0L) {
       _timeLog += seconds;
     }
-    // Adjust day counter
+    // Adjust day counter, for as many days as have passed
     if (_timeLog >= SECONDS_PER_DAY) {
-      _dayCount++;
-      _timeLog = _timeLog - SECONDS_PER_DAY; 
+      _dayCount += _timeLog / SECONDS_PER_DAY;
+      _timeLog = _timeLog % SECONDS_PER_DAY;
     }
   }
 
@@ -9,10 +9,12 @@
 
 package chronos.pdc;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import chronos.pdc.character.HeroCodec;
 import chronos.pdc.registry.OccupationRegistry;
 import chronos.pdc.registry.SkillRegistry;
 import mylib.ApplicationException;
@@ -30,6 +32,7 @@ import mylib.pdc.MetaDie;
  *          June 13, 2011 // TAA updated for registries <br>
  *          Feb 29, 2012 // ABC updated to add Skill object <br>
  *          June 3 2017 // ABC updated to display Skill actions <br>
+ *          Oct 18, 2026 // added writeTo() and readFrom() for the binary Hero format <br>
  */
 public class Occupation implements IRegistryElement, Serializable
 {
@@ -85,6 +88,31 @@ public class Occupation implements IRegistryElement, Serializable
   }
 
 
+  /** For {@code readFrom}, which fills in the fields without the SkillRegistry */
+  private Occupation()
+  {}
+
+
+  /**
+   * Read an Occupation written by {@code writeTo}. The Skills are rebuilt from the names and
+   * descriptions written, so the SkillRegistry is not needed.
+   *
+   * @param in the Hero file being read
+   * @return the Occupation
+   */
+  static public Occupation readFrom(HeroCodec.Reader in) throws IOException
+  {
+    Occupation ocp = new Occupation();
+    ocp._name = in.readString();
+    ocp._description = in.readString();
+    int size = in.readInt();
+    for (int k = 0; k < size; k++) {
+      ocp._skills.add(new Skill(in.readString(), in.readString()));
+    }
+    return ocp;
+  }
+
+
   /**
    * Converts each Skill name into a list of Skill objects. If a Skill is not found in the
    * SkillRegistry, it is not added to the Occupation
@@ -94,7 +122,7 @@ public class Occupation implements IRegistryElement, Serializable
    */
   private List<Skill> addSkills(List<String> skillNames)
   {
-    SkillRegistry skReg = new SkillRegistry();
+    SkillRegistry skReg = SkillRegistry.getShared();
     for (String skill : skillNames) {
       Skill regSkill = skReg.getSkill(skill);
       if (!(regSkill == null)) {
@@ -170,7 +198,7 @@ public class Occupation implements IRegistryElement, Serializable
 //    int ndx = _md.getRandom(1, _ocpTable.length) - 1;
 //    int ndx = _md.getRandom(1, ocpReg.getNbrElements() - 1);
 //    return new OccupationRegistry().getOccupation(_ocpTable[ndx]);
-    OccupationRegistry ocpReg = new OccupationRegistry();
+    OccupationRegistry ocpReg = OccupationRegistry.getShared();
     List<Occupation> ocps = ocpReg.getAll();
     int ndx = _md.getRandom(1, ocps.size() - 1);
     return ocps.get(ndx);
@@ -223,4 +251,21 @@ public class Occupation implements IRegistryElement, Serializable
   }
 
 
+  /**
+   * Write the Occupation's name, description, and the name and description of each Skill
+   *
+   * @param out the Hero file being written
+   */
+  public void writeTo(HeroCodec.Writer out) throws IOException
+  {
+    out.writeString(_name);
+    out.writeString(_description);
+    out.writeInt(_skills.size());
+    for (Skill s : _skills) {
+      out.writeString(s.getName());
+      out.writeString(s.getDescription());
+    }
+  }
+
+
 } // end of Occupation class
@@ -68,7 +68,7 @@ public abstract class Building implements IRegistryElement
   /** Path to Internal Display Image **/
   protected final String _internalImagePath;
   protected final List<NPC> _patrons = new ArrayList<NPC>();
-  private static final NPCRegistry _npcRegistry = new NPCRegistry();
+  private static final NPCRegistry _npcRegistry = NPCRegistry.getShared();
 
   
   // ================================================================================
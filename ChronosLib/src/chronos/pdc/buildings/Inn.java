@@ -109,8 +109,8 @@ public class Inn extends Building
    */
   public void initPatrons(Scheduler skedder)
   {
-    NPCRegistry npcReg = new NPCRegistry();
-    List<NPC> patrons = npcReg.getAll();
+    NPCRegistry npcReg = NPCRegistry.getShared();
+    List<NPC> patrons = new ArrayList<NPC>(npcReg.getAll());
     patrons.remove(npcReg.getNPC(INNKEEPER)); // Bork is always here
 
     // The starterList has no zero-delay intCmdEnter commands, each containing the
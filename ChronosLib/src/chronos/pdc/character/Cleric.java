@@ -9,6 +9,7 @@
 
 package chronos.pdc.character;
 
+import java.io.IOException;
 import java.util.Map;
 
 import chronos.civ.PersonKeys;
@@ -18,6 +19,7 @@ import chronos.pdc.character.TraitList.PrimeTraits;
  * @author Al Cline
  * @version Sep 4, 2015 // original <br>
  *          Oct 17, 2015 // added klass-specific inventory items <br>
+ *          Oct 18, 2026 // added spell point fields to the binary Hero format <br>
  */
 public class Cleric extends Klass {
 
@@ -95,5 +97,19 @@ public class Cleric extends Klass {
 		map.put(PersonKeys.CSP_PER_LEVEL, "" + _CSPsPerLevel);
 		map.put(PersonKeys.TURN_UNDEAD, "" + _turnUndead);
 	}
+
+	@Override
+	protected void readKlassFields(HeroCodec.Reader in) throws IOException {
+		_CSPsPerLevel = in.readInt();
+		_CSPs = in.readInt();
+		_turnUndead = in.readInt();
+	}
+
+	@Override
+	protected void writeKlassFields(HeroCodec.Writer out) throws IOException {
+		out.writeInt(_CSPsPerLevel);
+		out.writeInt(_CSPs);
+		out.writeInt(_turnUndead);
+	}
 } // end of Cleric class
 
@@ -1,5 +1,6 @@
 package chronos.pdc.character;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import chronos.pdc.Chronos;
@@ -188,6 +189,40 @@ public class Description implements Serializable
   }
 
 
+  /**
+   * Write the attributes the description is built from; the text itself is rebuilt on reading
+   *
+   * @param out the Hero file being written
+   */
+  public void writeTo(HeroCodec.Writer out) throws IOException
+  {
+    out.writeInt(_chr);
+    out.writeString(_raceDescriptor);
+    out.writeString(_hairColor);
+    out.writeString(_gender.toString());
+    out.writeInt(_height);
+    out.writeInt(_weight);
+  }
+
+
+  /**
+   * Read a description written by {@code writeTo}
+   *
+   * @param in the Hero file being read
+   * @return the description
+   */
+  static public Description readFrom(HeroCodec.Reader in) throws IOException
+  {
+    int chr = in.readInt();
+    String raceDescriptor = in.readString();
+    String hairColor = in.readString();
+    Gender gender = new Gender(in.readString());
+    int height = in.readInt();
+    int weight = in.readInt();
+    return new Description(chr, raceDescriptor, hairColor, gender, height, weight);
+  }
+
+
   private int findBucket(int value, int highValue, int lowValue)
   {
     if (value < lowValue) {
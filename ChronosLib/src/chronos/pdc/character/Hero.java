@@ -10,6 +10,7 @@
 
 package chronos.pdc.character;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -37,6 +38,8 @@ import mylib.dmc.IRegistryElement;
  *          May 22, 2017 // refined so all new Heroes are Peasant klass <br>
  *          June 2 2017 // refactored for clearer organization <br>
  *          Aug 6, 2017 // revised for serialization and to work with HeroRegistry <br>
+ *          Oct 18, 2026 // saved in the binary format of {@code HeroCodec} <br>
+ *          Oct 18, 2026 // saved through a temporary file so a crash cannot lose the Hero <br>
  */
 public class Hero implements IRegistryElement, Serializable
 {
@@ -300,26 +303,41 @@ public class Hero implements IRegistryElement, Serializable
 
 
 
-  /*
-   * Serialize the Hero to a file derived from its name.
+  /**
+   * Read a Hero written by {@code writeTo}
+   * 
+   * @param in the Hero file being read
+   * @return the Hero
+   */
+  static public Hero readFrom(HeroCodec.Reader in) throws IOException
+  {
+    Hero hero = new Hero();
+    hero._name = in.readString();
+    hero._AC = in.readInt();
+    hero._gold = in.readDouble();
+    hero._goldBanked = in.readDouble();
+    hero._traits = TraitList.readFrom(in);
+    hero._race = Race.readFrom(in);
+    hero._klass = Klass.readFrom(in, hero._traits);
+    hero._occ = Occupation.readFrom(in);
+    hero._inven = Inventory.readFrom(in);
+    // The languages and skills are those of the race and occupation, as when the Hero was created
+    hero._knownLangs = hero._race.getLanguages();
+    hero._skills = (ArrayList<Skill>) hero._occ.getSkills();
+    return hero;
+  }
+
+
+  /**
+   * Save the Hero to a file in the binary format of {@code HeroCodec}. The old file, if any, is
+   * replaced only once the new one is safely on disk.
    * 
    * @param pathname filename to save the Hero to
    */
   public void save(String pathname)
   {
-    // Write out Hero
-    FileOutputStream fileOut = null;
-    ObjectOutputStream oos = null;
     try {
-      fileOut = new FileOutputStream(pathname);
-    } catch (FileNotFoundException ex) {
-      ex.printStackTrace();
-    }
-    try {
-      oos = new ObjectOutputStream(fileOut);
-      oos.writeObject(this);
-      oos.flush();
-      oos.close();
+      HeroCodec.writeFile(new File(pathname), HeroCodec.encode(this));
     } catch (IOException ex) {
       System.err.println("Could not write out the Hero");
       System.err.println("\t" + ex.getMessage());
@@ -365,6 +383,26 @@ public class Hero implements IRegistryElement, Serializable
   }
 
 
+  /**
+   * Write the Hero's own fields, then each of its components. The traits come before the klass,
+   * which shares them.
+   * 
+   * @param out the Hero file being written
+   */
+  public void writeTo(HeroCodec.Writer out) throws IOException
+  {
+    out.writeString(_name);
+    out.writeInt(_AC);
+    out.writeDouble(_gold);
+    out.writeDouble(_goldBanked);
+    _traits.writeTo(out);
+    _race.writeTo(out);
+    _klass.writeTo(out);
+    _occ.writeTo(out);
+    _inven.writeTo(out);
+  }
+
+
   // ====================================================
   // PRIVATE METHODS
   // ====================================================
@@ -0,0 +1,555 @@
+/**
+ * HeroCodec.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.character;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes a Hero in a compact, versioned binary format, used for the Hero files in the
+ * dormitory in place of default Java serialization. Each class in the Hero's graph ({@code Hero},
+ * {@code TraitList}, {@code Race}, {@code Klass}, {@code Occupation}, and {@code Inventory}) writes
+ * its own fields in a fixed order with {@code writeTo}, and reads them back with
+ * {@code readFrom}; no reflection is used, and the format does not depend on
+ * {@code serialVersionUID}.
+ * <P>
+ * A Hero file holds a four-byte magic number, the format version, the Hero, and the CRC-32 of all
+ * that comes before it, so that a damaged or truncated file is always detected before it is
+ * decoded, whether or not it is in the dormitory index. Version 1 files, which have no checksum,
+ * are still read. Integers are
+ * written as variable-length zig-zag values, so that small numbers take a single byte. Each string
+ * is written once, then referred to by its position in a string table; the table starts with the
+ * names that nearly every Hero shares, such as race and klass names and "Common", so that those
+ * are never written at all.
+ * <P>
+ * Hero files written with Java serialization before this format existed are still read, so that a
+ * dormitory can be migrated one file at a time: {@code isLegacy} tells which format a file is in,
+ * and {@code decode} reads either.
+ * <P>
+ * NOTE: The order of the fields written, and of {@code SHARED_STRINGS}, is part of each format
+ * version. Change them only by adding a new version, and keep reading the old ones.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // added writeFile() to replace a Hero file without risk of losing it <br>
+ *          Oct 18, 2026 // added decode(ByteBuffer) to read a Hero in place from a mapped file <br>
+ *          Oct 18, 2026 // version 2 ends each file with a CRC-32 <br>
+ *          Oct 18, 2026 // content that cannot make a Hero is reported as a damaged file <br>
+ */
+public class HeroCodec
+{
+  /** Identifies a Hero file in this format: "CHRB" */
+  static public final int MAGIC = 0x43485242;
+  /** Format version written */
+  static public final int VERSION = 2;
+  /** First format version that ends with a checksum */
+  static private final int CHECKSUM_VERSION = 2;
+  /** Length of the checksum that ends the file */
+  static private final int CHECKSUM_LENGTH = 4;
+
+  /** First two bytes of any Java serialization stream */
+  static private final int JAVA_STREAM_MAGIC = 0xACED;
+
+  /** Strings in the table before any are written; append only, as part of each version */
+  static private final String[] SHARED_STRINGS = {
+      "Male", "Female", "Common", "Full", "None",
+      "Human", "Dwarf", "Elf", "Gnome", "Half-Elf", "Half-Orc", "Hobbit",
+      "Peasant", "Fighter", "Cleric", "Wizard", "Rogue",
+      "Dwarvish", "Elvish", "Gnomish", "Orcish", "Tolkeen", ""};
+
+
+  // ====================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ====================================================
+
+  /** All methods are static */
+  private HeroCodec()
+  {}
+
+
+  // ====================================================
+  // PUBLIC METHODS
+  // ====================================================
+
+  /**
+   * Read a Hero from the contents of a Hero file in either format
+   *
+   * @param bytes the whole file
+   * @return the Hero
+   * @throws IOException if the bytes are not a Hero in either format, or are of a newer version;
+   *         a {@code StreamCorruptedException} if they are damaged, even if their checksum matches
+   */
+  static public Hero decode(byte[] bytes) throws IOException
+  {
+    if (isLegacy(bytes)) {
+      try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+        return (Hero) ois.readObject();
+      } catch (ClassNotFoundException | RuntimeException ex) {
+        throw damaged("Not a serialized Hero", ex);
+      }
+    }
+    return decode(new Reader(bytes), ByteBuffer.wrap(bytes));
+  }
+
+
+  /**
+   * Read a Hero in place from a buffer, such as a slice of a memory-mapped file, without first
+   * copying it out
+   *
+   * @param buf the Hero, from its position to its limit; the position is not changed
+   * @return the Hero
+   * @throws IOException if the bytes are not a Hero in either format, or are of a newer version;
+   *         a {@code StreamCorruptedException} if they are damaged, even if their checksum matches
+   */
+  static public Hero decode(ByteBuffer buf) throws IOException
+  {
+    ByteBuffer bb = buf.duplicate();
+    if ((bb.remaining() >= 2)
+        && ((((bb.get(bb.position()) & 0xFF) << 8) | (bb.get(bb.position() + 1) & 0xFF))
+            == JAVA_STREAM_MAGIC)) {
+      byte[] bytes = new byte[bb.remaining()];
+      bb.get(bytes);
+      return decode(bytes);
+    }
+    return decode(new Reader(new BufferInputStream(bb.duplicate())), bb);
+  }
+
+
+  /**
+   * Write a Hero in the current format
+   *
+   * @param hero the Hero to write
+   * @return the contents of a Hero file
+   */
+  static public byte[] encode(Hero hero)
+  {
+    Writer out = new Writer();
+    try {
+      out.writeRawInt(MAGIC);
+      out.writeInt(VERSION);
+      hero.writeTo(out);
+      byte[] body = out.toByteArray();
+      out.writeRawInt((int) crc(ByteBuffer.wrap(body)));
+    } catch (IOException ex) {
+      // Cannot happen when writing to memory
+      throw new IllegalStateException(ex);
+    }
+    return out.toByteArray();
+  }
+
+
+  /**
+   * Verify if the contents of a Hero file were written by Java serialization
+   *
+   * @param bytes the whole file
+   * @return true if the file must be migrated to the current format
+   */
+  static public boolean isLegacy(byte[] bytes)
+  {
+    return (bytes.length >= 2)
+        && ((((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF)) == JAVA_STREAM_MAGIC);
+  }
+
+
+  /**
+   * Replace a Hero file so that a crash at any point leaves either the old file or the new one,
+   * never a partial file: the bytes are written to a temporary file beside it and forced to disk,
+   * then the temporary file is renamed over the old one in one atomic step, and the rename itself
+   * is forced to disk where the platform allows.
+   *
+   * @param file the Hero file
+   * @param bytes its new contents, as from {@code encode}
+   * @throws IOException if the file cannot be written; the old file is unchanged
+   */
+  static public void writeFile(File file, byte[] bytes) throws IOException
+  {
+    Path temp = new File(file.getPath() + ".tmp").toPath();
+    try {
+      try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) {
+          ch.write(buf);
+        }
+        ch.force(true);
+      }
+      Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    File dir = file.getAbsoluteFile().getParentFile();
+    try (FileChannel ch = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+      ch.force(true);
+    } catch (IOException ex) {
+      // Some platforms cannot open a directory; the rename is still atomic, if not yet durable
+    }
+  }
+
+
+  // ====================================================
+  // PRIVATE METHODS
+  // ====================================================
+
+  /**
+   * Compute the CRC-32 of a buffer's remaining bytes
+   *
+   * @param buf the bytes; its position is not changed
+   * @return the checksum
+   */
+  static private long crc(ByteBuffer buf)
+  {
+    CRC32 crc = new CRC32();
+    crc.update(buf.duplicate());
+    return crc.getValue();
+  }
+
+
+  /**
+   * Read the header of a file in the binary format, verify the checksum of a version that has one,
+   * then read the Hero
+   *
+   * @param in reader positioned at the start of the file
+   * @param whole the whole file, from its position to its limit
+   * @return the Hero
+   */
+  static private Hero decode(Reader in, ByteBuffer whole) throws IOException
+  {
+    if (in.readRawInt() != MAGIC) {
+      throw new StreamCorruptedException("Not a Hero file");
+    }
+    int version = in.readInt();
+    if (version < 1) {
+      throw new StreamCorruptedException("Unsupported Hero file version " + version);
+    }
+    if (version > VERSION) {
+      // Not damaged: a newer game wrote it
+      throw new IOException("Hero file version " + version + " is newer than this game reads");
+    }
+    if (version >= CHECKSUM_VERSION) {
+      int end = whole.limit() - CHECKSUM_LENGTH;
+      if (end < whole.position()) {
+        throw new EOFException("Hero file is too short for its checksum");
+      }
+      ByteBuffer body = whole.duplicate();
+      body.limit(end);
+      if ((int) crc(body) != whole.getInt(end)) {
+        throw new StreamCorruptedException("Hero file fails its checksum");
+      }
+    }
+    in._version = version;
+    try {
+      return Hero.readFrom(in);
+    } catch (RuntimeException ex) {
+      // Fields that cannot make a Hero, such as an unknown race name, despite the checksum
+      throw damaged("Hero file cannot be decoded", ex);
+    }
+  }
+
+
+  /**
+   * @param msg what is wrong with the file
+   * @param cause the error met while decoding it
+   * @return an exception that marks the file as damaged, with the cause attached
+   */
+  static private StreamCorruptedException damaged(String msg, Exception cause)
+  {
+    StreamCorruptedException ex = new StreamCorruptedException(msg + ": " + cause);
+    ex.initCause(cause);
+    return ex;
+  }
+
+
+  // ====================================================
+  // INNER CLASSES
+  // ====================================================
+
+  /** Writes the fields of a Hero's components, sharing repeated strings */
+  static public class Writer
+  {
+    private final ByteArrayOutputStream _bytes = new ByteArrayOutputStream(512);
+    private final DataOutputStream _out = new DataOutputStream(_bytes);
+    /** Position of each string in the table */
+    private final Map<String, Integer> _strings = new HashMap<String, Integer>();
+
+    Writer()
+    {
+      for (String s : SHARED_STRINGS) {
+        _strings.put(s, _strings.size());
+      }
+    }
+
+    public void writeBoolean(boolean b) throws IOException
+    {
+      _out.writeBoolean(b);
+    }
+
+    public void writeDouble(double d) throws IOException
+    {
+      _out.writeDouble(d);
+    }
+
+    /** Write a signed integer in one to five bytes; small values of either sign are shortest */
+    public void writeInt(int n) throws IOException
+    {
+      int v = (n << 1) ^ (n >> 31);
+      while ((v & ~0x7F) != 0) {
+        _out.writeByte((v & 0x7F) | 0x80);
+        v >>>= 7;
+      }
+      _out.writeByte(v);
+    }
+
+    /**
+     * Write an array of integers
+     *
+     * @param ints the integers, or null
+     */
+    public void writeInts(int[] ints) throws IOException
+    {
+      if (ints == null) {
+        writeInt(-1);
+        return;
+      }
+      writeInt(ints.length);
+      for (int n : ints) {
+        writeInt(n);
+      }
+    }
+
+    /**
+     * Write a string, or a reference to it if it has been written before
+     *
+     * @param s the string, or null
+     */
+    public void writeString(String s) throws IOException
+    {
+      if (s == null) {
+        writeInt(0);
+        return;
+      }
+      Integer index = _strings.get(s);
+      if (index != null) {
+        writeInt(index + 2);
+        return;
+      }
+      _strings.put(s, _strings.size());
+      byte[] utf = s.getBytes(StandardCharsets.UTF_8);
+      writeInt(1);
+      writeInt(utf.length);
+      _out.write(utf);
+    }
+
+    /**
+     * Write a list of strings
+     *
+     * @param list the strings, or null
+     */
+    public void writeStrings(List<String> list) throws IOException
+    {
+      if (list == null) {
+        writeInt(-1);
+        return;
+      }
+      writeInt(list.size());
+      for (String s : list) {
+        writeString(s);
+      }
+    }
+
+    void writeRawInt(int n) throws IOException
+    {
+      _out.writeInt(n);
+    }
+
+    byte[] toByteArray()
+    {
+      return _bytes.toByteArray();
+    }
+  } // end of Writer inner class
+
+
+  /** Reads the fields of a Hero's components in the order they were written */
+  static public class Reader
+  {
+    private final DataInputStream _in;
+    /** Strings in the order they were first written */
+    private final List<String> _strings = new ArrayList<String>();
+    /** Format version of the file being read */
+    private int _version;
+
+    Reader(byte[] bytes)
+    {
+      this(new ByteArrayInputStream(bytes));
+    }
+
+    /** @param in the Hero's bytes; {@code available()} must give the number left */
+    Reader(InputStream in)
+    {
+      _in = new DataInputStream(in);
+      for (String s : SHARED_STRINGS) {
+        _strings.add(s);
+      }
+    }
+
+    /** @return format version of the file being read, for fields added in later versions */
+    public int getVersion()
+    {
+      return _version;
+    }
+
+    public boolean readBoolean() throws IOException
+    {
+      return _in.readBoolean();
+    }
+
+    public double readDouble() throws IOException
+    {
+      return _in.readDouble();
+    }
+
+    /** Read an integer written by {@code Writer.writeInt} */
+    public int readInt() throws IOException
+    {
+      int v = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = _in.readUnsignedByte();
+        v |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (v >>> 1) ^ -(v & 1);
+        }
+      }
+      throw new StreamCorruptedException("Integer is too long");
+    }
+
+    /** @return the integers, or null */
+    public int[] readInts() throws IOException
+    {
+      int size = readInt();
+      if (size < 0) {
+        return null;
+      }
+      int[] ints = new int[checkSize(size)];
+      for (int k = 0; k < size; k++) {
+        ints[k] = readInt();
+      }
+      return ints;
+    }
+
+    /** @return the string, or null */
+    public String readString() throws IOException
+    {
+      int tag = readInt();
+      if (tag == 0) {
+        return null;
+      }
+      if (tag == 1) {
+        byte[] utf = new byte[checkSize(readInt())];
+        _in.readFully(utf);
+        String s = new String(utf, StandardCharsets.UTF_8);
+        _strings.add(s);
+        return s;
+      }
+      if ((tag < 0) || (tag - 2 >= _strings.size())) {
+        throw new StreamCorruptedException("No string " + (tag - 2) + " in the string table");
+      }
+      return _strings.get(tag - 2);
+    }
+
+    /** @return the strings, or null */
+    public ArrayList<String> readStrings() throws IOException
+    {
+      int size = readInt();
+      if (size < 0) {
+        return null;
+      }
+      ArrayList<String> list = new ArrayList<String>(checkSize(size));
+      for (int k = 0; k < size; k++) {
+        list.add(readString());
+      }
+      return list;
+    }
+
+    int readRawInt() throws IOException
+    {
+      return _in.readInt();
+    }
+
+    /** A size larger than what is left of the file means the file is damaged */
+    private int checkSize(int size) throws IOException
+    {
+      if ((size < 0) || (size > _in.available())) {
+        throw new EOFException("Size " + size + " runs past the end of the Hero file");
+      }
+      return size;
+    }
+  } // end of Reader inner class
+
+
+  /** Reads the remaining bytes of a buffer as a stream */
+  static private class BufferInputStream extends InputStream
+  {
+    private final ByteBuffer _buf;
+
+    BufferInputStream(ByteBuffer buf)
+    {
+      _buf = buf;
+    }
+
+    @Override
+    public int available()
+    {
+      return _buf.remaining();
+    }
+
+    @Override
+    public int read()
+    {
+      return _buf.hasRemaining() ? (_buf.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+    {
+      if (len == 0) {
+        return 0;
+      }
+      if (!_buf.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, _buf.remaining());
+      _buf.get(b, off, n);
+      return n;
+    }
+  } // end of BufferInputStream inner class
+
+
+} // end of HeroCodec class
@@ -9,6 +9,7 @@
 
 package chronos.pdc.character;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +31,7 @@ import chronos.pdc.registry.ItemRegistry;
  *          Jun 13, 2011 // ABC added data shuttle handling <br>
  *          Nov 25, 2011 // ABC replaced double cash with Items Gold and Silver <br>
  *          Oct 13, 2015 // updated for new Hero generation rules and categories <br>
+ *          Oct 18, 2026 // added writeTo() and readFrom() for the binary Hero format <br>
  */
 public class Inventory implements Serializable
 {
@@ -41,7 +43,7 @@ public class Inventory implements Serializable
 
   // Holds all inventory items
   private List<Item> _itemList;
-  private static ItemRegistry _itemRegistry = new ItemRegistry();
+  private static ItemRegistry _itemRegistry = ItemRegistry.getShared();
 
   // =============================================================================
   // CONSTRUCTOR(S) AND RELATED METHODS
@@ -236,5 +238,44 @@ public class Inventory implements Serializable
     }
     return false;
   }
+
+  /**
+   * Read an inventory written by {@code writeTo}
+   * 
+   * @param in the Hero file being read
+   * @return the inventory, with new Items of the same category, name, weight, and quantity
+   */
+  static public Inventory readFrom(HeroCodec.Reader in) throws IOException
+  {
+    Inventory inven = new Inventory();
+    int size = in.readInt();
+    ItemCategory[] cats = ItemCategory.values();
+    for (int k = 0; k < size; k++) {
+      int cat = in.readInt();
+      if ((cat < 0) || (cat >= cats.length)) {
+        throw new IOException("Unknown item category " + cat);
+      }
+      Item item = new Item(cats[cat], in.readString(), in.readDouble());
+      item.adjustQuantity(in.readInt() - item.getQuantity());
+      inven._itemList.add(item);
+    }
+    return inven;
+  }
+
+  /**
+   * Write each Item's category, name, weight, and quantity
+   * 
+   * @param out the Hero file being written
+   */
+  public void writeTo(HeroCodec.Writer out) throws IOException
+  {
+    out.writeInt(_itemList.size());
+    for (Item i : _itemList) {
+      out.writeInt(i.getCategory().ordinal());
+      out.writeString(i.getName());
+      out.writeDouble(i.getWeight());
+      out.writeInt(i.getQuantity());
+    }
+  }
 } // end of Inventory class
 
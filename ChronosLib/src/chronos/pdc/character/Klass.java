@@ -10,6 +10,7 @@
 
 package chronos.pdc.character;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +26,7 @@ import mylib.pdc.MetaDie;
  * @author Alan Cline
  * @version Sept 4 2015 // rewrite to support Hero rewrite <br>
  *          June 2 2017 // refactored for clearer organization <br>
+ *          Oct 18, 2026 // added writeTo() and readFrom() for the binary Hero format <br>
  */
 public abstract class Klass implements Serializable
 {
@@ -106,6 +108,26 @@ public abstract class Klass implements Serializable
   }
 
 
+  /**
+   * Read a klass written by {@code writeTo}, creating the subclass by name
+   *
+   * @param in the Hero file being read
+   * @param traits the Hero's traits, already read, which the klass shares
+   * @return the klass
+   */
+  static public Klass readFrom(HeroCodec.Reader in, TraitList traits) throws IOException
+  {
+    Klass klass = createKlass(in.readString(), traits);
+    klass._level = in.readInt();
+    klass._XP = in.readInt();
+    klass._HP_Max = in.readInt();
+    klass._currentHP = in.readInt();
+    klass._spellBook = in.readStrings();
+    klass.readKlassFields(in);
+    return klass;
+  }
+
+
   /**
    * Method called by each subsclass with its own specific data
    * 
@@ -182,6 +204,24 @@ public abstract class Klass implements Serializable
     return _spellBook;
   }
 
+  /**
+   * Write the klass name and the attributes all klasses have, then those of the subclass. The
+   * traits are written by the Hero.
+   *
+   * @param out the Hero file being written
+   */
+  public void writeTo(HeroCodec.Writer out) throws IOException
+  {
+    out.writeString(_klassName);
+    out.writeInt(_level);
+    out.writeInt(_XP);
+    out.writeInt(_HP_Max);
+    out.writeInt(_currentHP);
+    out.writeStrings(_spellBook);
+    writeKlassFields(out);
+  }
+
+
   public void loadKlassKeys(Map<PersonKeys, String> map)
   {
     map.put(PersonKeys.KLASSNAME, _klassName);
@@ -230,6 +270,16 @@ public abstract class Klass implements Serializable
   }
 
 
+  /** Read the attributes of a subclass, written by {@code writeKlassFields}; none by default */
+  protected void readKlassFields(HeroCodec.Reader in) throws IOException
+  {}
+
+
+  /** Write the attributes of a subclass, in the order {@code readKlassFields} reads them */
+  protected void writeKlassFields(HeroCodec.Writer out) throws IOException
+  {}
+
+
   /*************************
    ** OVERRIDDEN METHODS *
    *************************/
@@ -9,6 +9,7 @@
 
 package chronos.pdc.character;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import chronos.pdc.character.TraitList.PrimeTraits;
@@ -17,6 +18,7 @@ import chronos.pdc.character.TraitList.PrimeTraits;
  * @author Al Cline
  * @version Sep 6, 2015 // original <br>
  *          Oct 17, 2015 // added klass-specific inventory items <br>
+ *          Oct 18, 2026 // added thief skills to the binary Hero format <br>
  */
 public class Thief extends Klass
 {
@@ -171,6 +173,28 @@ public class Thief extends Klass
     return skills;
   }
 
+  /** Read the name and chance of each thief skill */
+  @Override
+  protected void readKlassFields(HeroCodec.Reader in) throws IOException
+  {
+    for (int k = 0; k < NBR_SKILLS; k++) {
+      _thiefSkills[k][0] = in.readString();
+      _thiefSkills[k][1] = in.readString();
+    }
+  }
+
+
+  /** Write the name and chance of each thief skill */
+  @Override
+  protected void writeKlassFields(HeroCodec.Writer out) throws IOException
+  {
+    for (int k = 0; k < NBR_SKILLS; k++) {
+      out.writeString(_thiefSkills[k][0]);
+      out.writeString(_thiefSkills[k][1]);
+    }
+  }
+
+
   // Adjust the thief skills by dex
   private String[][] adjThiefMods(String[][] skills, int[] adjTable)
   {
@@ -8,6 +8,7 @@ import static chronos.pdc.character.TraitList.PrimeTraits.INT;
 import static chronos.pdc.character.TraitList.PrimeTraits.STR;
 import static chronos.pdc.character.TraitList.PrimeTraits.WIS;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Map;
 import java.util.TreeMap;
@@ -20,6 +21,7 @@ import mylib.pdc.MetaDie;
  * 
  * @author Al Cline
  * @version May 23, 2017 // revised from original (unknown date) <br>
+ *          Oct 18, 2026 // added writeTo() and readFrom() for the binary Hero format <br>
  */
 public class TraitList implements Serializable
 {
@@ -333,6 +335,22 @@ public class TraitList implements Serializable
     _traits.put(largestTrait.ordinal(), oldPrime);
   }
 
+  /**
+   * Read a trait list written by {@code writeTo}
+   *
+   * @param in the Hero file being read
+   * @return the traits, with their derived AP, AP mods, and speed
+   */
+  static public TraitList readFrom(HeroCodec.Reader in) throws IOException
+  {
+    TraitList traits = new TraitList(in.readInts());
+    traits._AP = in.readInt();
+    traits._speed = in.readInt();
+    traits._apMods = in.readInts();
+    return traits;
+  }
+
+
   /**
    * Dump the trait map into an int[]
    *
@@ -362,6 +380,20 @@ public class TraitList implements Serializable
         "CHR: " + getTrait(PrimeTraits.CHR);
   }
 
+
+  /**
+   * Write the traits and the attributes derived from them
+   *
+   * @param out the Hero file being written
+   */
+  public void writeTo(HeroCodec.Writer out) throws IOException
+  {
+    out.writeInts(toArray());
+    out.writeInt(_AP);
+    out.writeInt(_speed);
+    out.writeInts(_apMods);
+  }
+
   private String addPolarity(int mod)
   {
     String modStr = (mod > 0) ? "+" + mod : Integer.toString(mod);
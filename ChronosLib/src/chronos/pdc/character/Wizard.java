@@ -9,6 +9,7 @@
 
 package chronos.pdc.character;
 
+import java.io.IOException;
 import java.util.Map;
 
 import chronos.civ.PersonKeys;
@@ -18,6 +19,7 @@ import chronos.pdc.character.TraitList.PrimeTraits;
  * @author Al Cline
  * @version Sep 4, 2015 // original <br>
  *          Oct 17, 2015 // added klass-specific inventory items <br>
+ *          Oct 18, 2026 // added spell point fields to the binary Hero format <br>
  */
 public class Wizard extends Klass {
 	/** Starting die and initial free HP for klass */
@@ -85,4 +87,18 @@ public class Wizard extends Klass {
 		map.put(PersonKeys.SPELLS_KNOWN, "" + _spellsKnown);
 	}
 
+	@Override
+	protected void readKlassFields(HeroCodec.Reader in) throws IOException {
+		_MSPsPerLevel = in.readInt();
+		_MSPs = in.readInt();
+		_spellsKnown = in.readInt();
+	}
+
+	@Override
+	protected void writeKlassFields(HeroCodec.Writer out) throws IOException {
+		out.writeInt(_MSPsPerLevel);
+		out.writeInt(_MSPs);
+		out.writeInt(_spellsKnown);
+	}
+
 } // end of Wizard class
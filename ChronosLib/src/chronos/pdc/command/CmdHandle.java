@@ -0,0 +1,110 @@
+/**
+ * CmdHandle.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.command;
+
+/**
+ * Returned by {@code Scheduler.sched()} for a Command queued there, so that the Command can be
+ * cancelled or moved to another time when the plans behind it change, without searching the
+ * queue for it.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *
+ * @see Scheduler
+ */
+public final class CmdHandle
+{
+  private final Scheduler _sked;
+  /** The Event now queued for the Command; replaced when the Command is rescheduled */
+  private volatile Event _evt;
+
+
+  // ===============================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ===============================================================================
+
+  /**
+   * @param sked the Scheduler that queued the Command
+   * @param evt the Event queued for the Command
+   */
+  CmdHandle(Scheduler sked, Event evt)
+  {
+    _sked = sked;
+    _evt = evt;
+  }
+
+
+  // ===============================================================================
+  // PUBLIC METHODS
+  // ===============================================================================
+
+  /**
+   * Removes the Command from the Scheduler, so that it never runs
+   *
+   * @return false if the Command has already run or been cancelled
+   */
+  public boolean cancel()
+  {
+    return _sked.cancel(this);
+  }
+
+
+  /** @return the Command queued */
+  public Command getCommand()
+  {
+    return _evt.getCommand();
+  }
+
+
+  /** @return the queue time at which the Command is due */
+  public long getTime()
+  {
+    return getEvent().getTime();
+  }
+
+
+  /**
+   * Moves the Command to a new time, after the given delay from the Scheduler's time; Commands
+   * already due at that time run first. A Command cannot be moved into the past.
+   *
+   * @param newDelay the game time before the Command is due; a negative delay is taken as 0
+   * @return false if the Command has already run or been cancelled
+   */
+  public boolean reschedule(int newDelay)
+  {
+    return _sked.reschedule(this, Math.max(0, newDelay));
+  }
+
+
+  @Override
+  public String toString()
+  {
+    return getCommand().getName() + " due at " + getTime();
+  }
+
+
+  // ===============================================================================
+  // PACKAGE METHODS, called by the Scheduler
+  // ===============================================================================
+
+  Event getEvent()
+  {
+    return _evt;
+  }
+
+
+  void setEvent(Event evt)
+  {
+    _evt = evt;
+  }
+
+
+} // end of CmdHandle class
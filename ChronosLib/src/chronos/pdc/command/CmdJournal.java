@@ -0,0 +1,419 @@
+/**
+ * CmdJournal.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.command;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import mylib.MsgCtrl;
+
+/**
+ * Records a game session as it is played: each line the user enters, each Command scheduled and
+ * each Command executed, in order, with the game time of each and the Command's arguments. The
+ * journal starts with the seed of the session's dice, so that a {@code CmdReplay} can play the
+ * session again with the same rolls.
+ * <P>
+ * The journal is a binary file that is only ever appended to. Each record is its type, the length
+ * of its data, a CRC-32 checksum of that data, then the data itself, so that a reader can stop
+ * cleanly at a record left unfinished when the game ended abruptly.
+ * <P>
+ * A journal that cannot be written is reported once, and then no longer written; the game goes
+ * on without it.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *
+ * @see CmdReplay
+ * @see Scheduler
+ */
+public class CmdJournal implements Closeable
+{
+  /** Marks the start of a journal file */
+  static private final int MAGIC = 0x434A4E4C; // "CJNL"
+  static private final int VERSION = 1;
+
+  /** Kinds of records */
+  public enum EntryType {
+    /** A line the user entered */
+    INPUT,
+    /** A Command put on the queue */
+    SCHED,
+    /** A Command taken from the queue and executed */
+    EXEC
+  };
+
+  private final DataOutputStream _out;
+  private final long _seed;
+  /** Data of the record being written, before its length and checksum are known */
+  private final ByteArrayOutputStream _buf = new ByteArrayOutputStream(256);
+  private final DataOutputStream _data = new DataOutputStream(_buf);
+  private final CRC32 _crc = new CRC32();
+  /** Set once writing fails, after which nothing more is written */
+  private boolean _failed = false;
+
+
+  // ===============================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ===============================================================================
+
+  /**
+   * Creates a new journal file, replacing any already there
+   *
+   * @param file where the journal is written
+   * @param seed the session seed of the dice
+   * @throws IOException if the file cannot be created
+   */
+  public CmdJournal(File file, long seed) throws IOException
+  {
+    this(new FileOutputStream(file), seed);
+  }
+
+
+  /**
+   * Starts a journal on a stream, such as one held in memory for a replay
+   *
+   * @param out where the journal is written
+   * @param seed the session seed of the dice
+   * @throws IOException if the journal's header cannot be written
+   */
+  public CmdJournal(OutputStream out, long seed) throws IOException
+  {
+    _out = new DataOutputStream(new BufferedOutputStream(out));
+    _seed = seed;
+    _out.writeInt(MAGIC);
+    _out.writeInt(VERSION);
+    _out.writeLong(seed);
+  }
+
+
+  // ===============================================================================
+  // PUBLIC METHODS
+  // ===============================================================================
+
+  /** Writes the records still buffered, and closes the journal */
+  @Override
+  public synchronized void close()
+  {
+    flush();
+    try {
+      _out.close();
+    } catch (IOException ex) {
+      fail(ex);
+    }
+  }
+
+
+  /** Writes the records still buffered, such as after each user Command */
+  public synchronized void flush()
+  {
+    if (_failed) {
+      return;
+    }
+    try {
+      _out.flush();
+    } catch (IOException ex) {
+      fail(ex);
+    }
+  }
+
+
+  /** @return the session seed of the dice */
+  public long getSeed()
+  {
+    return _seed;
+  }
+
+
+  /**
+   * Records a Command taken from the queue and executed
+   *
+   * @param time the queue time when the Command was executed
+   * @param cmd the Command executed
+   * @param ok what its {@code exec()} returned
+   */
+  public synchronized void recordExec(long time, Command cmd, boolean ok)
+  {
+    write(new Entry(EntryType.EXEC, time, cmd.getName(), cmd.getParms(), ok));
+  }
+
+
+  /**
+   * Records a line the user entered
+   *
+   * @param time the queue time when the line was entered
+   * @param line the line as entered
+   */
+  public synchronized void recordInput(long time, String line)
+  {
+    write(new Entry(EntryType.INPUT, time, line, Collections.<String> emptyList(), true));
+  }
+
+
+  /**
+   * Records a Command put on the queue
+   *
+   * @param evt the Event queued for the Command, with its due time
+   */
+  public synchronized void recordSched(Event evt)
+  {
+    Command cmd = evt.getCommand();
+    write(new Entry(EntryType.SCHED, evt.getTime(), cmd.getName(), cmd.getParms(), true));
+  }
+
+
+  /**
+   * Reads a journal from a file; see {@link #read(InputStream)}
+   *
+   * @param file where the journal was written
+   * @return the session seed and records
+   * @throws IOException if the file cannot be read, or is not a journal
+   */
+  public static Session read(File file) throws IOException
+  {
+    try (InputStream in = new FileInputStream(file)) {
+      return read(in);
+    }
+  }
+
+
+  /**
+   * Reads every whole record of a journal, in the order written. Reading stops quietly at a
+   * record that is cut short or does not match its checksum, as when the game stopped while it
+   * was being written.
+   *
+   * @param in where the journal was written
+   * @return the session seed and records
+   * @throws IOException if the journal cannot be read, or its header is not a journal's
+   */
+  public static Session read(InputStream in) throws IOException
+  {
+    DataInputStream din = new DataInputStream(new BufferedInputStream(in));
+    if ((din.readInt() != MAGIC) || (din.readInt() != VERSION)) {
+      throw new IOException("CmdJournal.read: not a command journal");
+    }
+    long seed = din.readLong();
+    List<Entry> entries = new ArrayList<Entry>();
+    CRC32 crc = new CRC32();
+    EntryType[] types = EntryType.values();
+    try {
+      while (true) {
+        int type = din.read();
+        if ((type < 0) || (type >= types.length)) {
+          break;
+        }
+        int length = din.readInt();
+        int sum = din.readInt();
+        if (length < 0) {
+          break;
+        }
+        byte[] data = new byte[length];
+        din.readFully(data);
+        crc.reset();
+        crc.update(data);
+        if ((int) crc.getValue() != sum) {
+          break;
+        }
+        entries.add(Entry.decode(types[type], data));
+      }
+    } catch (EOFException ex) {
+      // The last record was cut short
+    }
+    return new Session(seed, entries);
+  }
+
+
+  // ===============================================================================
+  // PRIVATE METHODS
+  // ===============================================================================
+
+  /** Reports the first failure to write, and writes nothing more */
+  private void fail(IOException ex)
+  {
+    if (!_failed) {
+      _failed = true;
+      MsgCtrl.errMsgln("CmdJournal: journal no longer written: " + ex.getMessage());
+    }
+  }
+
+
+  /** Appends one record: its type, the length of its data, the data's checksum, and the data */
+  private void write(Entry entry)
+  {
+    if (_failed) {
+      return;
+    }
+    try {
+      _buf.reset();
+      entry.encode(_data);
+      _data.flush();
+      _crc.reset();
+      _crc.update(_buf.toByteArray());
+      _out.write(entry._type.ordinal());
+      _out.writeInt(_buf.size());
+      _out.writeInt((int) _crc.getValue());
+      _buf.writeTo(_out);
+    } catch (IOException ex) {
+      fail(ex);
+    }
+  }
+
+
+  // ===============================================================================
+  // INNER CLASS: Entry
+  // ===============================================================================
+
+  /** One record of the journal */
+  public static final class Entry
+  {
+    private final EntryType _type;
+    private final long _time;
+    /** The name of the Command, or the line the user entered */
+    private final String _text;
+    private final List<String> _parms;
+    private final boolean _ok;
+
+    private Entry(EntryType type, long time, String text, List<String> parms, boolean ok)
+    {
+      _type = type;
+      _time = time;
+      _text = text;
+      _parms = Collections.unmodifiableList(new ArrayList<String>(parms));
+      _ok = ok;
+    }
+
+    /** @return the Command's arguments, or none for a user's line */
+    public List<String> getParms()
+    {
+      return _parms;
+    }
+
+    /** @return the name of the Command, or the line the user entered */
+    public String getText()
+    {
+      return _text;
+    }
+
+    /** @return the queue time of the record; for a Command scheduled, when it is due */
+    public long getTime()
+    {
+      return _time;
+    }
+
+    public EntryType getType()
+    {
+      return _type;
+    }
+
+    /** @return what the Command's {@code exec()} returned; true for other records */
+    public boolean isOk()
+    {
+      return _ok;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof Entry)) {
+        return false;
+      }
+      Entry other = (Entry) obj;
+      return (_type == other._type) && (_time == other._time) && _text.equals(other._text)
+          && _parms.equals(other._parms) && (_ok == other._ok);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return _text.hashCode() * 31 + (int) _time;
+    }
+
+    @Override
+    public String toString()
+    {
+      String parms = _parms.isEmpty() ? "" : " " + String.join(" ", _parms);
+      String failed = _ok ? "" : " (failed)";
+      return _type + " at " + _time + ": " + _text + parms + failed;
+    }
+
+    private void encode(DataOutputStream out) throws IOException
+    {
+      out.writeLong(_time);
+      out.writeUTF(_text);
+      out.writeBoolean(_ok);
+      out.writeShort(_parms.size());
+      for (String parm : _parms) {
+        out.writeUTF(parm);
+      }
+    }
+
+    private static Entry decode(EntryType type, byte[] data) throws IOException
+    {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+      long time = in.readLong();
+      String text = in.readUTF();
+      boolean ok = in.readBoolean();
+      int nbrParms = in.readShort();
+      List<String> parms = new ArrayList<String>(nbrParms);
+      for (int k = 0; k < nbrParms; k++) {
+        parms.add(in.readUTF());
+      }
+      return new Entry(type, time, text, parms, ok);
+    }
+  }
+
+
+  // ===============================================================================
+  // INNER CLASS: Session
+  // ===============================================================================
+
+  /** A journal as read back: the session seed of the dice, and every whole record */
+  public static final class Session
+  {
+    private final long _seed;
+    private final List<Entry> _entries;
+
+    private Session(long seed, List<Entry> entries)
+    {
+      _seed = seed;
+      _entries = Collections.unmodifiableList(entries);
+    }
+
+    /** @return every whole record, in the order written */
+    public List<Entry> getEntries()
+    {
+      return _entries;
+    }
+
+    /** @return the session seed of the dice */
+    public long getSeed()
+    {
+      return _seed;
+    }
+  }
+
+
+} // end of CmdJournal class
@@ -0,0 +1,250 @@
+/**
+ * CmdReplay.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.command;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import chronos.pdc.GameClock;
+import chronos.pdc.command.CmdJournal.Entry;
+import chronos.pdc.command.CmdJournal.EntryType;
+import mylib.pdc.MetaDie;
+
+/**
+ * Plays a session recorded by a {@code CmdJournal} again, as fast as the Commands run, with no
+ * display, and finds where the Commands queued and executed first differ from those recorded;
+ * for regression tests and benchmarks against real sessions.
+ * <P>
+ * The replay seeds the dice with the recorded session seed, restarts the game clock, and has the
+ * caller build the world again on a given {@code Scheduler}, as the game did before the user's
+ * first line. Each line the user entered is then fed, in order, to the parser returned, such as
+ * {@code CommandParser.receiveCommand()}. Only the Commands queued and executed are compared; the
+ * lines entered are the same by design.
+ * <P>
+ * Only the session seed is recorded, not a seed for each Command: every die created without a
+ * seed is seeded from it, and the {@code Scheduler} runs the Commands one at a time, in order,
+ * while it has a journal, so the dice are rolled in the same order each time the session plays.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // notes why the session seed alone makes a replay repeatable <br>
+ *
+ * @see CmdJournal
+ */
+public class CmdReplay
+{
+  private final CmdJournal.Session _session;
+
+
+  // ===============================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ===============================================================================
+
+  /**
+   * @param session a journal read back by {@code CmdJournal.read()}
+   */
+  public CmdReplay(CmdJournal.Session session)
+  {
+    _session = session;
+  }
+
+
+  /**
+   * @param file where the journal was written
+   * @throws IOException if the file cannot be read, or is not a journal
+   */
+  public CmdReplay(File file) throws IOException
+  {
+    this(CmdJournal.read(file));
+  }
+
+
+  // ===============================================================================
+  // PUBLIC METHODS
+  // ===============================================================================
+
+  /** @return the lines the user entered, in order */
+  public List<String> getInputs()
+  {
+    List<String> inputs = new ArrayList<String>();
+    for (Entry e : _session.getEntries()) {
+      if (e.getType() == EntryType.INPUT) {
+        inputs.add(e.getText());
+      }
+    }
+    return inputs;
+  }
+
+
+  /** @return the session seed of the dice */
+  public long getSeed()
+  {
+    return _session.getSeed();
+  }
+
+
+  /**
+   * Plays the session again and compares it with the one recorded
+   *
+   * @param sked where the Commands are to be queued; it must be empty
+   * @param world builds the world on the Scheduler, as at the start of the session, and returns
+   *        the parser to be fed each line the user entered
+   * @return how the replay compares with the recording, and how long it took
+   * @throws IOException if the replay cannot be recorded to compare it
+   */
+  public Result run(Scheduler sked, Function<Scheduler, Predicate<String>> world)
+      throws IOException
+  {
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    CmdJournal journal = new CmdJournal(buf, getSeed());
+    CmdJournal previous = sked.getJournal();
+    List<String> inputs = getInputs();
+    long elapsed;
+
+    MetaDie.setSessionSeed(getSeed());
+    GameClock.getInstance().clear();
+    sked.setJournal(journal);
+    try {
+      long start = System.nanoTime();
+      Predicate<String> parser = world.apply(sked);
+      for (String line : inputs) {
+        parser.test(line);
+      }
+      elapsed = System.nanoTime() - start;
+    } finally {
+      sked.setJournal(previous);
+      MetaDie.clearSessionSeed();
+      journal.close();
+    }
+    List<Entry> expected = commandsOf(_session.getEntries());
+    List<Entry> actual =
+        commandsOf(CmdJournal.read(new ByteArrayInputStream(buf.toByteArray())).getEntries());
+    return new Result(inputs.size(), expected, actual, elapsed);
+  }
+
+
+  // ===============================================================================
+  // PRIVATE METHODS
+  // ===============================================================================
+
+  /** @return the records of the Commands queued and executed, without the lines entered */
+  private static List<Entry> commandsOf(List<Entry> entries)
+  {
+    List<Entry> cmds = new ArrayList<Entry>(entries.size());
+    for (Entry e : entries) {
+      if (e.getType() != EntryType.INPUT) {
+        cmds.add(e);
+      }
+    }
+    return cmds;
+  }
+
+
+  // ===============================================================================
+  // INNER CLASS: Result
+  // ===============================================================================
+
+  /** How a replay compares with its recording, and how long it took */
+  public static final class Result
+  {
+    private final int _nbrInputs;
+    private final int _nbrExecs;
+    private final long _elapsed;
+    /** Place of the first record that differs, or -1 if none does */
+    private final int _divergence;
+    private final Entry _expected;
+    private final Entry _actual;
+
+    private Result(int nbrInputs, List<Entry> expected, List<Entry> actual, long elapsed)
+    {
+      _nbrInputs = nbrInputs;
+      _elapsed = elapsed;
+      int execs = 0;
+      for (Entry e : actual) {
+        if (e.getType() == EntryType.EXEC) {
+          execs++;
+        }
+      }
+      _nbrExecs = execs;
+      int k = 0;
+      while ((k < expected.size()) && (k < actual.size())
+          && expected.get(k).equals(actual.get(k))) {
+        k++;
+      }
+      boolean same = (k == expected.size()) && (k == actual.size());
+      _divergence = same ? -1 : k;
+      _expected = (same || (k >= expected.size())) ? null : expected.get(k);
+      _actual = (same || (k >= actual.size())) ? null : actual.get(k);
+    }
+
+    /** @return the record of the replay that differs first, or null if there is none */
+    public Entry getActual()
+    {
+      return _actual;
+    }
+
+    /** @return the place of the first record that differs, or -1 if the replay is the same */
+    public int getDivergence()
+    {
+      return _divergence;
+    }
+
+    /** @return the nanoseconds the replay took, with the building of the world */
+    public long getElapsedNanos()
+    {
+      return _elapsed;
+    }
+
+    /** @return the record of the journal that differs first, or null if there is none */
+    public Entry getExpected()
+    {
+      return _expected;
+    }
+
+    /** @return the number of Commands the replay executed */
+    public int getExecCount()
+    {
+      return _nbrExecs;
+    }
+
+    /** @return the number of lines fed to the parser */
+    public int getInputCount()
+    {
+      return _nbrInputs;
+    }
+
+    /** @return true if the replay queued and executed the same Commands as the recording */
+    public boolean isSame()
+    {
+      return _divergence < 0;
+    }
+
+    @Override
+    public String toString()
+    {
+      String speed = _nbrInputs + " lines, " + _nbrExecs + " commands in "
+          + (_elapsed / 1000000) + " ms";
+      if (isSame()) {
+        return "Replay matches: " + speed;
+      }
+      return "Replay differs at record " + _divergence + ": expected " + _expected + ", was "
+          + _actual + "; " + speed;
+    }
+  }
+
+
+} // end of CmdReplay class
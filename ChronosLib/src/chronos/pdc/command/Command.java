@@ -12,6 +12,7 @@
 package chronos.pdc.command;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import chronos.civ.UserMsgInterface;
@@ -64,6 +65,10 @@ import chronos.civ.UserMsgInterface;
  *          Feb 19 2008 // Moved {@code getTalkee} from subcommands into this base class. <br>
  *          Jul 4 2008 // Final commenting for Javadoc compliance <br>
  *          Jun 13, 2018 // Revised slightly to pass CommandProxy tests <br>
+ *          Oct 18, 2026 // Added {@code getOwners} so the Scheduler can cancel by owner <br>
+ *          Oct 18, 2026 // Added {@code getOutput} so the Scheduler can defer messages <br>
+ *          Oct 18, 2026 // Added {@code schedule} so a command that waits can fast-forward <br>
+ *          Oct 18, 2026 // Added {@code getResources} so the Scheduler knows what runs at once <br>
  */
 public abstract class Command
 {
@@ -222,6 +227,29 @@ public abstract class Command
     return _name;
   }
 
+  /**
+   * Gets the objects this command acts on, such as an {@code NPC} or an {@code Inn}, so that the
+   * {@code Scheduler} can cancel every command queued for one of them. By default, none.
+   * 
+   * @return the owners of the command, even if empty
+   */
+  public List<Object> getOwners()
+  {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Gets the objects this command changes when it runs, so that the {@code Scheduler} runs only
+   * commands that share none of them at the same time. By default, its owners; a command with
+   * none may change anything, and runs alone.
+   * 
+   * @return the objects changed by {@code exec()}, even if empty
+   */
+  public List<Object> getResources()
+  {
+    return getOwners();
+  }
+
   /**
    * Gets the command's parms
    * 
@@ -254,6 +282,18 @@ public abstract class Command
     return true;
   }
 
+  /**
+   * Puts the command on the {@code Scheduler}. By default, it is queued with {@code sched()}; a
+   * command that waits, such as {@code CmdWait}, overrides this to fast-forward the game instead.
+   * 
+   * @param skedder where the command is queued
+   * @return the handle with which the command can be cancelled or rescheduled
+   */
+  public CmdHandle schedule(Scheduler skedder)
+  {
+    return skedder.sched(this);
+  }
+
   /**
    * Resets the delay (when Patrons initialize in the Inn).
    * 
@@ -283,6 +323,17 @@ public abstract class Command
   }
 
 
+  /**
+   * Gets where the command sends its user messages
+   * 
+   * @return the output, or null if none has been set
+   */
+  public UserMsgInterface getOutput()
+  {
+    return _output;
+  }
+
+
   public void setOutput(UserMsgInterface output)
   {
     _output = output;
@@ -9,37 +9,32 @@
 
 package chronos.pdc.command;
 
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.TreeSet;
 
 
 
 /**
  * Puts Events on an insertion list in the order in which the Events should be executed. Events
- * are Commands, wrapped with a delta value, and placed on a DeltaQueue (DQ), a specialized
- * priority queue.
+ * are Commands, wrapped with the absolute game time at which they are due, and placed on a
+ * DeltaQueue (DQ), a specialized priority queue.
  * <P>
- * For example, the four delays of d1=10, d2=25, d3=7, and d4=29 would be inserted as 7, 3, 15,
- * and 4, the difference between the delays, representing d3, d1, d2, and d4 respectively. This
- * algorithm ensures that the Events (commands) are executed in the order of their delays by
- * looking only at the first item in the DQ each time.
+ * Each Command's delay is taken relative to the time of the last Command taken from the DQ, so
+ * the four delays of d1=10, d2=25, d3=7, and d4=29 queued at time 100 would be due at 110, 125,
+ * 107, and 129, and taken as d3, d1, d2, and d4 respectively. Because the due times are absolute,
+ * taking an Event never changes the Events still queued.
  * <p>
  * ALGORITHM:
  * <ol>
- * <li>If the list is empty, simply add the Event to the DQ.
- * <li>If the new delta is less than the first node's delta, insert new Event in front, and
- * decrement the (now second) node's delta to the difference, so second node's running delta
- * total is the same as before the insertion.
- * <li>If the new delta is greater than the first node's delta, reset the new delta to the
- * difference between them and check next node (now current). Repeat step 2 until the new delta
- * (continually decreasing) is inserted, or there are no more items on the list.
- * <li>If the new delta has not been inserted but there are no more nodes, then decrement the
- * new delta by the last node's delta and add it to the end of the list.
+ * <li>On insert, wrap the Command in an Event due at the current time plus its delay, stamped
+ * with the next sequence number, and add it to the tree: O(log n).
+ * <li>On take, remove the first Event of the tree, the Event due first, and advance the current
+ * time to its due time: O(log n).
+ * <li>On cancel, remove the Event from the tree: O(log n).
+ * <li>Events due at the same time are taken in the order they were inserted, by sequence number.
  * </ol>
  * <P>
- * Implemented as a BlockingQueue, but following Douglas Comer ("Operating System Design: The
- * XINU Approach", (c) 1984, pp123-131) who implemented the algorithm as a LinkedList.
+ * This replaces the delta list of Douglas Comer ("Operating System Design: The XINU Approach",
+ * (c) 1984, pp123-131), in which each take rewrote the delta of every Event left in the list.
  * 
  * @author Alan Cline
  * @version Aug 18 2006 // original <br>
@@ -49,27 +44,32 @@ import java.util.concurrent.PriorityBlockingQueue;
  *          June 10, 2018 // updated Javadoc and for testing <br>
  *          June 14, 2018 // modified as needed to pass tests <br>
  *          June 16, 2018 // Moved all clock references outside this library routine <br>
+ *          Oct 18, 2026 // absolute due times on a heap instead of rewriting deltas <br>
+ *          Oct 18, 2026 // implements EventQueue, and queued Commands may be cancelled <br>
+ *          Oct 18, 2026 // kept in a sorted tree, so that cancel() need not search <br>
+ *          Oct 18, 2026 // take only the Events due by a given time, for fast-forward <br>
+ *          Oct 18, 2026 // a negative delay is taken as none, as in the TimingWheel <br>
+ * 
+ * @see TimingWheel
  */
-public class DeltaCmdList
+public class DeltaCmdList implements EventQueue
 {
   /** The actual Delta Queue (DQ) */
-  private PriorityBlockingQueue<Event> _dlist = null;
-  private int DEFAULT_QUEUE_SIZE = 11;
+  private TreeSet<Event> _dlist = null;
+
+  /** Due time of the last Event taken, from which the delays of new Commands are counted */
+  private long _now = 0;
+  /** Sequence number for the next Event inserted */
+  private long _nextSeq = 0;
 
   // ------------------------------------------------------------------------------------
   // CONSTRUCTOR
   // ------------------------------------------------------------------------------------
 
-  /** Default constuctor creates the DQ, currently implemented as a PriorityBlockingQueue. */
+  /** Default constuctor creates the DQ, currently implemented as a TreeSet. */
   public DeltaCmdList()
   {
-    _dlist = new PriorityBlockingQueue<Event>(DEFAULT_QUEUE_SIZE, new Comparator<Event>() {
-      @Override
-      public int compare(Event first, Event second)
-      {
-        return first.getDelta() - second.getDelta();
-      }
-    });
+    _dlist = new TreeSet<Event>();
   }
 
 
@@ -77,10 +77,27 @@ public class DeltaCmdList
   // PUBLIC METHODS
   // ------------------------------------------------------------------------------------
 
-  /** Clear the DQ of all elements. Mostly used for testing, has infrequent use */
-  public void clear()
+  /**
+   * Removes a queued Event from the DQ
+   * 
+   * @param evt the Event returned when its Command was inserted
+   * @return false if the Event had already been taken or cancelled
+   */
+  @Override
+  public synchronized boolean cancel(Event evt)
+  {
+    // The tree finds Events by due time and order, so be sure it is this very Event
+    return (_dlist.ceiling(evt) == evt) && _dlist.remove(evt);
+  }
+
+
+  /** Clear the DQ of all elements, and restart its time. Mostly used for testing */
+  @Override
+  public synchronized void clear()
   {
     _dlist.clear();
+    _now = 0;
+    _nextSeq = 0;
   }
 
 
@@ -89,66 +106,118 @@ public class DeltaCmdList
    * 
    * @return the array in the order the Commands will be executed
    */
-  public Object[] toArray()
+  @Override
+  public synchronized Object[] toArray()
   {
-    Object[] ary = new Object[_dlist.size()];
-    ary = _dlist.toArray();
-    Arrays.sort(ary);
-    return ary;
+    return _dlist.toArray();
   }
 
 
   /**
-   * Takes the next Event from the DQ (Delta Queue)
+   * Takes the next Event from the DQ (Delta Queue), and advances the DQ's time to when it was due
    * 
    * @return the command to be executed next, or NullCommand if the DQ is empty
    */
-  public Command getNextCmd()
+  @Override
+  public synchronized Command getNextCmd()
+  {
+    Event evt = getNextEvent();
+    return (evt == null) ? new NullCommand() : evt.getCommand();
+  }
+
+
+  /**
+   * Takes the next Event from the DQ, and advances the DQ's time to when it was due
+   * 
+   * @return the Event taken, or null if the DQ is empty
+   */
+  @Override
+  public synchronized Event getNextEvent()
+  {
+    Event evt = _dlist.pollFirst();
+    if (evt != null) {
+      _now = evt.getTime();
+    }
+    return evt;
+  }
+
+
+  /**
+   * Takes the next Event from the DQ if it is due by the given time; else advances the DQ's time
+   * to the given time
+   * 
+   * @param until the latest due time to take
+   * @return the Event taken, or null if none is due by then
+   */
+  @Override
+  public synchronized Event getNextEvent(long until)
   {
-    if (_dlist.isEmpty()) {
-      return new NullCommand();
+    if (!_dlist.isEmpty() && (_dlist.first().getTime() <= until)) {
+      return getNextEvent();
     }
-    Event evt;
-    try {
-      evt = _dlist.take();
-      int deltaTime = evt.getDelta();
-      Command cmd = evt.getCommand();
-      for (Event e : _dlist) {
-        e.setDelta(e.getDelta() - deltaTime);
-      }
-      return cmd;
-
-    } catch (InterruptedException e1) {
-      e1.printStackTrace();
-      return new NullCommand();
+    _now = Math.max(_now, until);
+    return null;
+  }
+
+
+  /**
+   * Gets the time of the DQ, from which the delays of Commands inserted are counted
+   * 
+   * @return the due time of the last Event taken, or 0 if none has been taken
+   */
+  @Override
+  public synchronized long getTime()
+  {
+    return _now;
+  }
+
+
+  /**
+   * Inserts a Command into the DQ, due after its delay from the time of the last Command taken.
+   * User commands also contain a duration, which is used to generate an internal CmdEnd to
+   * trigger the CmdParser to get the next user Command.
+   * 
+   * @param cmd a command containing the delay to be used for its due time
+   * @return the Event queued, with which the Command may be cancelled
+   * @throws NullPointerException if parm is null
+   */
+  @Override
+  public synchronized Event insert(Command cmd)
+  {
+    if (cmd == null) {
+      throw new NullPointerException("DeltaCmdList.insert: null Command");
     }
+    return insert(cmd, cmd.getDelay());
   }
 
 
   /**
-   * Inserts a Command into the DQ based on its delta. This is the main engine for building the
-   * DQ by implementing the algorithm defined in the class description. User commands also
-   * contain a duration, which is used to generate an internal CmdEnd to trigger the CmdParser
-   * to get the next user Command.
+   * Inserts a Command into the DQ, due after a given delay from the time of the last Command
+   * taken, as when it is rescheduled. A Command is never due before that time.
    * 
-   * @param cmd a command containing the delay to be used for inserting the delta.
-   * @throws NullPointrException if parm is null
+   * @param cmd the command to be queued
+   * @param delay the game time before the command is due; a negative delay is taken as 0
+   * @return the Event queued, with which the Command may be cancelled
+   * @throws NullPointerException if cmd is null
    */
-  public void insert(Command cmd)
+  @Override
+  public synchronized Event insert(Command cmd, int delay)
   {
-    // Wrap the command with an Event for insertion when the final delta is known
-    Event newEvent = new Event(cmd);
-    _dlist.add(newEvent);
+    Event evt = new Event(cmd, _now + Math.max(0, delay), _nextSeq++);
+    _dlist.add(evt);
+    return evt;
   }
 
-  public boolean isEmpty()
+  @Override
+  public synchronized boolean isEmpty()
   {
     return _dlist.isEmpty();
   }
 
 
   /** Get the number of elements in the DQ */
-  public int size()
+  @Override
+  public synchronized int size()
   {
     return _dlist.size();
   }
@@ -11,26 +11,34 @@ package chronos.pdc.command;
 
 
 /**
- * Wrap Commands using the Command.delay to create a delta because the delay attribute of
- * Command should not be modified here.
+ * Wrap Commands with the absolute game time at which each is due, because the delay attribute of
+ * Command should not be modified here. Events are immutable, so that they can sit in a priority
+ * queue without their keys ever changing under it.
+ * <P>
+ * Events are ordered by their due time, then by the order in which they were queued, so that
+ * Events due at the same time run first-in, first-out.
  * 
  * @author Alan Cline
  * @version Aug 25 2006 // original <br>
  *          Jul 5, 2008 // Final commenting for Javadoc compliance <br>
  *          June 10, 2017 // Updated Javadoc and for testing <br>
+ *          Oct 18, 2026 // keyed on absolute time and queue order, and made immutable <br>
  * 
  * @see DeltaCmdList
  */
 public class Event implements Comparable<Event>
 {
-  /**
-   * The key into the DeltaList, taken from Command.delay. The _delta is the time before
-   * execution relative to the previous command's delta.
-   */
-  private int _delta;
+  /** The delay of the Command when it was queued */
+  private final int _delta;
+
+  /** Absolute game time at which the Command is due; the key into the DeltaCmdList */
+  private final long _time;
+
+  /** Order in which the Event was queued, to break ties between Events due at the same time */
+  private final long _seq;
 
   /** Can be any object, but is most likely a Command */
-  private Command _cmd;
+  private final Command _cmd;
 
 
   // ===============================================================================
@@ -38,13 +46,29 @@ public class Event implements Comparable<Event>
   // ===============================================================================
 
   /**
-   * Builds an Event around the command being encapsulated, and the command's delay.
+   * Builds an Event around the command being encapsulated, due after the command's delay from
+   * time zero.
    * 
    * @param cmd the Command to be wrapped into the Event and enqueued.
    */
   public Event(Command cmd)
+  {
+    this(cmd, cmd.getDelay(), 0);
+  }
+
+
+  /**
+   * Builds an Event around the command being encapsulated, due at an absolute time.
+   * 
+   * @param cmd the Command to be wrapped into the Event and enqueued.
+   * @param time absolute game time at which the Command is due
+   * @param seq order in which the Event is queued
+   */
+  public Event(Command cmd, long time, long seq)
   {
     _delta = cmd.getDelay();
+    _time = time;
+    _seq = seq;
     _cmd = cmd;
   }
 
@@ -56,7 +80,8 @@ public class Event implements Comparable<Event>
   @Override
   public int compareTo(Event other)
   {
-    return _delta - other._delta;
+    int cmp = Long.compare(_time, other._time);
+    return (cmp != 0) ? cmp : Long.compare(_seq, other._seq);
   }
 
 
@@ -74,7 +99,7 @@ public class Event implements Comparable<Event>
   /**
    * Gets the delta value
    * 
-   * @return the delta from the Event.
+   * @return the delay of the Command when it was queued
    */
   public int getDelta()
   {
@@ -83,13 +108,24 @@ public class Event implements Comparable<Event>
 
 
   /**
-   * Sets the Event's delay .
+   * Gets the order in which the Event was queued
+   * 
+   * @return the sequence number, unique within the queue
+   */
+  public long getSeq()
+  {
+    return _seq;
+  }
+
+
+  /**
+   * Gets the time at which the Command is due
    * 
-   * @param value time before execution relative to the previous command's delta
+   * @return the absolute game time
    */
-  public void setDelta(int value)
+  public long getTime()
   {
-    _delta = value;
+    return _time;
   }
 
 
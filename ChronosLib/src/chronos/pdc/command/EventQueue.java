@@ -0,0 +1,100 @@
+/**
+ * EventQueue.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.command;
+
+/**
+ * Where the {@code Scheduler} keeps its pending Commands, each wrapped in an {@code Event} due at
+ * an absolute game time. The queue keeps its own time: the due time of the last Command taken,
+ * from which the delays of Commands inserted are counted. Commands due at the same time are taken
+ * in the order they were inserted.
+ * <P>
+ * Either a {@code DeltaCmdList}, a sorted tree that suits a few hundred Commands, or a
+ * {@code TimingWheel}, which suits many Commands due far in the future.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // insert at a given delay, and take the whole Event <br>
+ *          Oct 18, 2026 // take only the Events due by a given time <br>
+ *
+ * @see Scheduler
+ */
+public interface EventQueue
+{
+  /**
+   * Removes a queued Event, so that its Command is never taken
+   *
+   * @param evt the Event returned when its Command was inserted
+   * @return false if the Event had already been taken or cancelled
+   */
+  boolean cancel(Event evt);
+
+  /** Remove every Event, and restart the queue's time */
+  void clear();
+
+  /**
+   * Takes the Event due first, and advances the queue's time to when it was due
+   *
+   * @return the command to be executed next, or NullCommand if the queue is empty
+   */
+  Command getNextCmd();
+
+  /**
+   * Takes the Event due first, and advances the queue's time to when it was due
+   *
+   * @return the Event taken, or null if the queue is empty
+   */
+  Event getNextEvent();
+
+  /**
+   * Takes the Event due first if it is due by the given time; else advances the queue's time to
+   * the given time, as when the game skips ahead
+   *
+   * @param until the latest due time to take
+   * @return the Event taken, or null if none is due by then
+   */
+  Event getNextEvent(long until);
+
+  /**
+   * @return the due time of the last Event taken, or 0 if none has been taken
+   */
+  long getTime();
+
+  /**
+   * Inserts a Command, due after its delay from the queue's time
+   *
+   * @param cmd a command containing the delay to be used for its due time
+   * @return the Event queued, with which the Command may be cancelled
+   * @throws NullPointerException if parm is null
+   */
+  Event insert(Command cmd);
+
+  /**
+   * Inserts a Command, due after a given delay from the queue's time instead of its own
+   *
+   * @param cmd the command to be queued
+   * @param delay the game time before the command is due; a negative delay is taken as 0
+   * @return the Event queued, with which the Command may be cancelled
+   * @throws NullPointerException if cmd is null
+   */
+  Event insert(Command cmd, int delay);
+
+  /** @return true if no Event is queued */
+  boolean isEmpty();
+
+  /** @return the number of Events queued */
+  int size();
+
+  /**
+   * @return the Events queued, in the order their Commands will be taken
+   */
+  Object[] toArray();
+
+} // end of EventQueue interface
@@ -9,15 +9,48 @@
 
 package chronos.pdc.command;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import chronos.civ.DeferredOutput;
+import chronos.civ.UserMsgInterface;
 import chronos.pdc.GameClock;
+import mylib.pdc.MetaDie;
 
 
 /**
- * This {@code Scheduler} singleton is implemented with {@code DeltaCmdList}, a delta priority
- * queue with {@code GameClock}. The {@code Scheduler} pops a command only from the front of
- * the queue, which increments the game clock by the duration of the {@code Command}. This
- * class implements {@code Runnable} because it runs in its own thread to give time to the
- * windowing system.
+ * This {@code Scheduler} singleton is implemented with an {@code EventQueue}, by default the
+ * {@code DeltaCmdList} priority queue, with {@code GameClock}. Worlds that queue many Commands
+ * far into the future select a {@code TimingWheel} instead. The {@code Scheduler} pops a command
+ * only from the front of the queue, which increments the game clock by the duration of the
+ * {@code Command}. This class implements {@code Runnable} because it runs in its own thread to
+ * give time to the windowing system.
+ * <P>
+ * Each Command scheduled returns a {@code CmdHandle}, with which it can be cancelled or moved to
+ * another time. The Commands queued are also indexed by their owners, such as an {@code NPC} or
+ * an {@code Inn}, so that all of an owner's Commands can be cancelled at once.
+ * <P>
+ * A user Command that waits, such as {@code CmdWait}, asks to fast-forward the game to its due
+ * time by scheduling itself with {@code fastForward(Command)}: the Commands due before it run in
+ * one tight loop, the game clock moves once, and the messages they send to the user are held back
+ * until the end; the Commands due after it stay queued. Other user Commands, scheduled with
+ * {@code sched()}, run the queue as before. While fast-forwarding, the Commands due at the same
+ * time run in parallel on a fork-join pool when they change different resources, as named by
+ * {@code Command.getResources()}; Commands that share a resource run one after the other, in
+ * order, and a Command with no resources runs alone.
+ * <P>
+ * When given a {@code CmdJournal}, the {@code Scheduler} records each Command it queues and each
+ * Command it executes, with its game time, in the order they run. While there is a journal, or
+ * the dice have a session seed, every Command runs on the calling thread, in the order taken:
+ * Commands run in parallel would queue others, and roll shared dice, in an order that depends on
+ * the threads, and the session could not be replayed.
  * 
  * @author Alan Cline
  * @version Aug 29 2006 // Original creation <br>
@@ -26,15 +59,31 @@ import chronos.pdc.GameClock;
  *          Apr 11 2008 // Move this class into a Runnable thread to run concurrently with the
  *          windowing system <br>
  *          Jul 3 2008 // Final commenting for Javadoc compliance <br>
+ *          Oct 18, 2026 // the queue may be a TimingWheel as well as a DeltaCmdList <br>
+ *          Oct 18, 2026 // sched() returns a handle to cancel or reschedule; cancel by owner <br>
+ *          Oct 18, 2026 // fast-forward through the Commands due within a given time <br>
+ *          Oct 18, 2026 // fast-forward runs the Commands of different owners in parallel <br>
+ *          Oct 18, 2026 // records the Commands queued and executed in a journal <br>
+ *          Oct 18, 2026 // a user Command with a delay runs the queue only up to its due time <br>
+ *          Oct 18, 2026 // only a Command that asks fast-forwards; sched() runs the queue <br>
+ *          Oct 18, 2026 // parallel by the resources changed; serial while journaled or seeded <br>
+ *          Oct 18, 2026 // setJournal() documents that a journal turns off parallel runs <br>
  * 
  * @see pdc.command.DeltaCmdList
+ * @see pdc.command.TimingWheel
  * @see civ.CommandParser
  * 
  */
 public class Scheduler
 {
   /** Internal references: command events are queued here */
-  private DeltaCmdList _dq;
+  private EventQueue _dq;
+  /** The Events queued for each owner, for those Commands that have owners */
+  private final Map<Object, Set<Event>> _byOwner = new IdentityHashMap<Object, Set<Event>>();
+  /** Runs the Commands of different resources that are due together; null to run them in turn */
+  private final ForkJoinPool _pool;
+  /** Records the Commands queued and executed; null for none */
+  private volatile CmdJournal _journal = null;
 
   /**
    * Creates the {@code Scheduler} and its components. However, if a {@code Scheduler} does not
@@ -44,21 +93,161 @@ public class Scheduler
    */
   public Scheduler()
   {
-    _dq = new DeltaCmdList();
+    this(new DeltaCmdList());
+  }
+
+
+  /**
+   * Creates the {@code Scheduler} on a given queue, such as a {@code TimingWheel}, which runs
+   * Commands in parallel on the common fork-join pool
+   * 
+   * @param queue where command events are queued
+   */
+  public Scheduler(EventQueue queue)
+  {
+    this(queue, ForkJoinPool.commonPool());
+  }
+
+
+  /**
+   * Creates the {@code Scheduler} on a given queue and fork-join pool
+   * 
+   * @param queue where command events are queued
+   * @param pool runs the Commands of different resources that are due together; null to run
+   *        every Command on the calling thread
+   */
+  public Scheduler(EventQueue queue, ForkJoinPool pool)
+  {
+    _dq = queue;
+    _pool = pool;
+  }
+
+
+  /**
+   * Removes every Command queued for an owner, such as all the comings and goings of one
+   * {@code NPC}, or of every Patron of one {@code Inn}
+   * 
+   * @param owner one of the objects returned by {@code Command.getOwners()}
+   * @return the number of Commands cancelled
+   */
+  public synchronized int cancelAll(Object owner)
+  {
+    Set<Event> owned = _byOwner.remove(owner);
+    if (owned == null) {
+      return 0;
+    }
+    int cancelled = 0;
+    for (Event evt : owned) {
+      if (_dq.cancel(evt)) {
+        unindex(evt);
+        cancelled++;
+      }
+    }
+    return cancelled;
+  }
+
+
+  /**
+   * Skips the game ahead by running every Command due within the given time, in order, in one
+   * loop. The game clock is moved once, by the whole time skipped, rather than by the duration of
+   * each Command, and the messages the Commands send to the user are held back until the end.
+   * 
+   * @param seconds game time to skip
+   * @return the number of Commands run
+   */
+  public int fastForward(long seconds)
+  {
+    long until;
+    synchronized (this) {
+      until = _dq.getTime() + seconds;
+    }
+    DeferredOutput deferred = new DeferredOutput();
+    int ran = 0;
+    for (Event evt = takeNextEvent(until); evt != null; evt = takeNextEvent(until)) {
+      // Gather every Command due at the same time
+      List<Command> due = new ArrayList<Command>();
+      due.add(evt.getCommand());
+      for (Event same = takeNextEvent(evt.getTime()); same != null;
+          same = takeNextEvent(evt.getTime())) {
+        due.add(same.getCommand());
+      }
+      boolean[] ok = runTogether(due, deferred);
+      CmdJournal journal = _journal;
+      if (journal != null) {
+        for (int k = 0; k < due.size(); k++) {
+          journal.recordExec(evt.getTime(), due.get(k), ok[k]);
+        }
+      }
+      ran += due.size();
+    }
+    GameClock.getInstance().increment(seconds);
+    deferred.flush();
+    return ran;
+  }
+
+
+  /**
+   * Queues a user Command that waits, such as {@code CmdWait}, and skips the game ahead to its due
+   * time, as {@code fastForward(long)} does; the Commands due after it stay queued
+   * 
+   * @param cmd the user-given {@code Command}, due after its delay
+   * @return the handle of the Command, which has run by the time it is returned
+   */
+  public CmdHandle fastForward(Command cmd)
+  {
+    CmdHandle handle = queue(cmd);
+    fastForward(cmd.getDelay());
+    flushJournal();
+    return handle;
   }
 
+
+  /** @return where the Commands queued and executed are recorded, or null if nowhere */
+  public CmdJournal getJournal()
+  {
+    return _journal;
+  }
+
+
+  /**
+   * Gets the time of the queue, from which the delays of the Commands scheduled are counted
+   * 
+   * @return the due time of the last Command taken, or 0 if none has been taken
+   */
+  public synchronized long getTime()
+  {
+    return _dq.getTime();
+  }
+
+
   /**
    * Wrap the {@code Command} in an Event wrapper and put it on the {@code DeltaQueue}.
    * {@code Command} and {@code intCmdEnd} both are pushed onto the DQ.
    * 
    * @param cmd the user-given {@code Command}
+   * @return the handle with which the Command can be cancelled or rescheduled
    */
-  public void sched(Command cmd)
+  public CmdHandle sched(Command cmd)
   {
-    _dq.insert(cmd);
+    CmdHandle handle = queue(cmd);
     if (cmd.isUserInput()) {
       doOneUserCommand();
+      flushJournal();
     }
+    return handle;
+  }
+
+
+  /**
+   * Records the Commands queued and executed from now on, or stops recording them. While there
+   * is a journal, fast-forward runs every Command on the calling thread, in the order taken, so
+   * that the journal, and the rolls of the dice, are the same each time the session is played.
+   * 
+   * @param journal where the Commands are recorded; null to record them nowhere
+   */
+  public void setJournal(CmdJournal journal)
+  {
+    _journal = journal;
   }
 
 
@@ -72,19 +261,300 @@ public class Scheduler
     // Link to the game clock singleton
     GameClock clock = GameClock.getInstance();
 
-    Command cmdToDo = _dq.getNextCmd();
+    Command cmdToDo = takeNextCmd();
     // while (cmdToDo.isInternal()) {
     // Do commands in delta order, regardless of internal or not 
     while (!_dq.isEmpty()) {
-      if (cmdToDo.exec() == true) {
+      boolean ok = cmdToDo.exec();
+      if (ok == true) {
         // Don't increment the clock if the commands fail for some reason
         clock.increment(cmdToDo.getDuration());
       }
-      cmdToDo = _dq.getNextCmd();
+      CmdJournal journal = _journal;
+      if (journal != null) {
+        journal.recordExec(getTime(), cmdToDo, ok);
+      }
+      cmdToDo = takeNextCmd();
     }
 //    cmdToDo.exec();
 //    clock.increment(cmdToDo.getDuration());
   }
 
 
+  // ===============================================================================
+  // PACKAGE METHODS, called by CmdHandle
+  // ===============================================================================
+
+  /**
+   * Removes a Command from the queue
+   * 
+   * @param handle returned when the Command was scheduled
+   * @return false if the Command has already run or been cancelled
+   */
+  synchronized boolean cancel(CmdHandle handle)
+  {
+    Event evt = handle.getEvent();
+    if (!_dq.cancel(evt)) {
+      return false;
+    }
+    unindex(evt);
+    return true;
+  }
+
+
+  /**
+   * Moves a Command to a new time on the queue
+   * 
+   * @param handle returned when the Command was scheduled
+   * @param newDelay the game time before the Command is due
+   * @return false if the Command has already run or been cancelled
+   */
+  synchronized boolean reschedule(CmdHandle handle, int newDelay)
+  {
+    Event evt = handle.getEvent();
+    if (!_dq.cancel(evt)) {
+      return false;
+    }
+    unindex(evt);
+    Event moved = _dq.insert(evt.getCommand(), newDelay);
+    index(moved);
+    record(moved);
+    handle.setEvent(moved);
+    return true;
+  }
+
+
+  // ===============================================================================
+  // PRIVATE METHODS
+  // ===============================================================================
+
+  /** Writes out the records held by the journal, if there is one */
+  private void flushJournal()
+  {
+    CmdJournal journal = _journal;
+    if (journal != null) {
+      journal.flush();
+    }
+  }
+
+
+  /** Adds a queued Event to the Events of each of its Command's owners */
+  private void index(Event evt)
+  {
+    for (Object owner : evt.getCommand().getOwners()) {
+      Set<Event> owned = _byOwner.get(owner);
+      if (owned == null) {
+        owned = new HashSet<Event>();
+        _byOwner.put(owner, owned);
+      }
+      owned.add(evt);
+    }
+  }
+
+
+  /**
+   * Wraps a Command in an Event, puts it on the queue, and indexes and records it
+   * 
+   * @param cmd the Command to queue
+   * @return the handle with which the Command can be cancelled or rescheduled
+   */
+  private synchronized CmdHandle queue(Command cmd)
+  {
+    Event evt = _dq.insert(cmd);
+    index(evt);
+    record(evt);
+    return new CmdHandle(this, evt);
+  }
+
+
+  /** Records a Command queued, if there is a journal */
+  private void record(Event evt)
+  {
+    CmdJournal journal = _journal;
+    if (journal != null) {
+      journal.recordSched(evt);
+    }
+  }
+
+
+  /**
+   * Takes the next Command from the queue, and forgets its owners
+   * 
+   * @return the command to be executed next, or NullCommand if the queue is empty
+   */
+  private synchronized Command takeNextCmd()
+  {
+    Event evt = _dq.getNextEvent();
+    if (evt == null) {
+      return new NullCommand();
+    }
+    unindex(evt);
+    return evt.getCommand();
+  }
+
+
+  /**
+   * Runs a Command, holding back the messages it sends to the user
+   * 
+   * @param cmd to be executed
+   * @param deferred where the messages are held
+   * @return what the Command's {@code exec()} returned
+   */
+  private static boolean runDeferred(Command cmd, DeferredOutput deferred)
+  {
+    UserMsgInterface output = cmd.getOutput();
+    if (output != null) {
+      cmd.setOutput(deferred.defer(output));
+    }
+    try {
+      return cmd.exec();
+    } finally {
+      if (output != null) {
+        cmd.setOutput(output);
+      }
+    }
+  }
+
+
+  /**
+   * Runs Commands due at the same time, in parallel where they change different resources. A
+   * Command with no resources may change anything, so it waits for those before it, and those
+   * after it wait for it.
+   * 
+   * @param due the Commands, in the order they were taken
+   * @param deferred where the messages to the user are held, in the order of the Commands
+   * @return what each Command's {@code exec()} returned, in the order they were taken
+   */
+  private boolean[] runTogether(List<Command> due, DeferredOutput deferred)
+  {
+    boolean[] ok = new boolean[due.size()];
+    int from = 0;
+    for (int k = 0; k <= due.size(); k++) {
+      if ((k == due.size()) || due.get(k).getResources().isEmpty()) {
+        runByResource(due, from, k, ok, deferred);
+        if (k < due.size()) {
+          ok[k] = runDeferred(due.get(k), deferred);
+        }
+        from = k + 1;
+      }
+    }
+    return ok;
+  }
+
+
+  /**
+   * Runs Commands that all have resources: those that share a resource, even through other
+   * Commands, in order on one thread, and each such group in parallel with the others. While
+   * there is a journal, or a session seed, they all run in order on the calling thread instead.
+   * 
+   * @param due the Commands, in the order they were taken
+   * @param from the first of the Commands to run, each of which has a resource
+   * @param to the end of the Commands to run, exclusive
+   * @param ok where what each Command's {@code exec()} returned is put, by its place in due
+   * @param deferred where the messages to the user are held, in the order of the groups
+   */
+  private void runByResource(List<Command> due, int from, int to, boolean[] ok,
+      DeferredOutput deferred)
+  {
+    boolean serial = (_pool == null) || (_journal != null) || MetaDie.isSessionSeeded();
+    List<List<Integer>> groups = serial ? null : groupByResource(due, from, to);
+    if (serial || (groups.size() < 2)) {
+      for (int k = from; k < to; k++) {
+        ok[k] = runDeferred(due.get(k), deferred);
+      }
+      return;
+    }
+    List<DeferredOutput> outputs = new ArrayList<DeferredOutput>(groups.size());
+    List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(groups.size());
+    for (List<Integer> group : groups) {
+      DeferredOutput groupOutput = new DeferredOutput();
+      outputs.add(groupOutput);
+      tasks.add(_pool.submit(() -> {
+        for (int k : group) {
+          ok[k] = runDeferred(due.get(k), groupOutput);
+        }
+      }));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+    for (DeferredOutput groupOutput : outputs) {
+      groupOutput.moveTo(deferred);
+    }
+  }
+
+
+  /**
+   * Splits Commands into groups that share no resource, each group in the order the Commands were
+   * taken
+   * 
+   * @param due the Commands, in the order they were taken
+   * @param from the first of the Commands to split, each of which has a resource
+   * @param to the end of the Commands to split, exclusive
+   * @return the places in due of each group's Commands, in the order of their first Commands
+   */
+  private static List<List<Integer>> groupByResource(List<Command> due, int from, int to)
+  {
+    // Union-find over the Commands, joined by the resources they share
+    int[] parent = new int[to - from];
+    Map<Object, Integer> firstUser = new IdentityHashMap<Object, Integer>();
+    for (int k = 0; k < parent.length; k++) {
+      parent[k] = k;
+      for (Object resource : due.get(from + k).getResources()) {
+        Integer first = firstUser.putIfAbsent(resource, k);
+        if (first != null) {
+          parent[root(parent, k)] = root(parent, first);
+        }
+      }
+    }
+    Map<Integer, List<Integer>> groups = new LinkedHashMap<Integer, List<Integer>>();
+    for (int k = 0; k < parent.length; k++) {
+      groups.computeIfAbsent(root(parent, k), r -> new ArrayList<Integer>()).add(from + k);
+    }
+    return new ArrayList<List<Integer>>(groups.values());
+  }
+
+
+  /** @return the index that stands for the group a Command belongs to */
+  private static int root(int[] parent, int k)
+  {
+    while (parent[k] != k) {
+      parent[k] = parent[parent[k]];
+      k = parent[k];
+    }
+    return k;
+  }
+
+
+  /**
+   * Takes the next Event from the queue if it is due by the given time, and forgets its owners
+   * 
+   * @param until the latest due time to take
+   * @return the Event taken, or null if none is due by then
+   */
+  private synchronized Event takeNextEvent(long until)
+  {
+    Event evt = _dq.getNextEvent(until);
+    if (evt != null) {
+      unindex(evt);
+    }
+    return evt;
+  }
+
+
+  /** Removes an Event that has left the queue from the Events of its Command's owners */
+  private void unindex(Event evt)
+  {
+    for (Object owner : evt.getCommand().getOwners()) {
+      Set<Event> owned = _byOwner.get(owner);
+      if (owned != null) {
+        owned.remove(evt);
+        if (owned.isEmpty()) {
+          _byOwner.remove(owner);
+        }
+      }
+    }
+  }
+
+
 } // end Scheduler class
@@ -0,0 +1,397 @@
+/**
+ * TimingWheel.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Keeps Events on a hierarchy of timing wheels, a queue that suits many Commands due far in the
+ * future, such as the Patrons of an Inn who arrive hours later. Inserting or cancelling an Event
+ * takes the same short time however many are queued, where a heap takes longer as it grows.
+ * <P>
+ * ALGORITHM:
+ * <ol>
+ * <li>There are three wheels: 60 one-second slots for the Events due in the current minute, 60
+ * one-minute slots for the rest of the current hour, and 24 one-hour slots for the rest of the
+ * current day. Events due on a later day are kept by day.
+ * <li>An Event is put in a slot of the smallest wheel that reaches its due time: O(1). It can be
+ * found there again from its due time alone, so is cancelled in O(1).
+ * <li>Taking an Event takes from the first slot of the second wheel that is not empty. When the
+ * second wheel is empty, the queue's time advances to the next slot of the minute wheel that is
+ * not empty, and that slot's Events cascade down into the second wheel; likewise from the hour
+ * wheel to the minute wheel, and from the later days to the hour wheel.
+ * <li>Events due at the same time are taken in the order they were inserted, because each slot
+ * keeps its Events in that order, and a slot cascades before any later Event can be put below it.
+ * </ol>
+ * <P>
+ * Like the {@code DeltaCmdList}, the wheels keep their own time, the due time of the last Command
+ * taken, rather than follow the {@code GameClock}. A negative delay is taken as no delay.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // insert at a given delay, and take the whole Event <br>
+ *          Oct 18, 2026 // take only the Events due by a given time, for fast-forward <br>
+ *
+ * @see DeltaCmdList
+ * @see Scheduler
+ */
+public class TimingWheel implements EventQueue
+{
+  static private final long SECONDS_PER_MINUTE = 60L;
+  static private final long SECONDS_PER_HOUR = 3600L;
+  static private final long SECONDS_PER_DAY = 86400L;
+
+  /** The second, minute and hour wheels, smallest first */
+  private final Wheel[] _wheels = {
+      new Wheel(1L, 60),
+      new Wheel(SECONDS_PER_MINUTE, 60),
+      new Wheel(SECONDS_PER_HOUR, 24)};
+
+  /** Events due after the current day, by day */
+  private final TreeMap<Long, LinkedHashSet<Event>> _later =
+      new TreeMap<Long, LinkedHashSet<Event>>();
+
+  /** Due time of the last Event taken, from which the delays of new Commands are counted */
+  private long _now = 0;
+  /** Sequence number for the next Event inserted */
+  private long _nextSeq = 0;
+  /** Number of Events queued */
+  private int _size = 0;
+
+
+  // ===============================================================================
+  // PUBLIC METHODS
+  // ===============================================================================
+
+  /**
+   * Removes a queued Event from the slot for its due time
+   *
+   * @param evt the Event returned when its Command was inserted
+   * @return false if the Event had already been taken or cancelled
+   */
+  @Override
+  public synchronized boolean cancel(Event evt)
+  {
+    if (evt.getTime() < _now) {
+      return false;
+    }
+    LinkedHashSet<Event> slot = slotFor(evt.getTime(), false);
+    if ((slot == null) || !slot.remove(evt)) {
+      return false;
+    }
+    // Drop a later day once it has no Events
+    Long day = evt.getTime() / SECONDS_PER_DAY;
+    if (slot.isEmpty() && (_later.get(day) == slot)) {
+      _later.remove(day);
+    }
+    _size--;
+    return true;
+  }
+
+
+  /** Remove every Event, and restart the wheels' time. Mostly used for testing */
+  @Override
+  public synchronized void clear()
+  {
+    for (Wheel w : _wheels) {
+      w.clear();
+    }
+    _later.clear();
+    _now = 0;
+    _nextSeq = 0;
+    _size = 0;
+  }
+
+
+  /**
+   * Takes the Event due first, cascading Events down the wheels as the wheels' time advances
+   *
+   * @return the command to be executed next, or NullCommand if no Event is queued
+   */
+  @Override
+  public synchronized Command getNextCmd()
+  {
+    Event evt = getNextEvent();
+    return (evt == null) ? new NullCommand() : evt.getCommand();
+  }
+
+
+  /**
+   * Takes the Event due first, cascading Events down the wheels as the wheels' time advances
+   *
+   * @return the Event taken, or null if no Event is queued
+   */
+  @Override
+  public synchronized Event getNextEvent()
+  {
+    return (_size == 0) ? null : getNextEvent(Long.MAX_VALUE);
+  }
+
+
+  /**
+   * Takes the Event due first if it is due by the given time, cascading Events down the wheels
+   * as the wheels' time advances; else advances the wheels' time to the given time. The wheels'
+   * time can be moved ahead of a slot that is not yet due without moving any Event.
+   *
+   * @param until the latest due time to take
+   * @return the Event taken, or null if none is due by then
+   */
+  @Override
+  public synchronized Event getNextEvent(long until)
+  {
+    Wheel seconds = _wheels[0];
+    while (_size > 0) {
+      int k = seconds.nextSlot(seconds.indexOf(_now));
+      if (k >= 0) {
+        long due = _now - (_now % SECONDS_PER_MINUTE) + k;
+        if (due > until) {
+          break;
+        }
+        _now = due;
+        Iterator<Event> it = seconds._slots[k].iterator();
+        Event evt = it.next();
+        it.remove();
+        _size--;
+        return evt;
+      }
+      if (!advance(until)) {
+        break;
+      }
+    }
+    _now = Math.max(_now, until);
+    return null;
+  }
+
+
+  /**
+   * Gets the time of the wheels, from which the delays of Commands inserted are counted
+   *
+   * @return the due time of the last Event taken, or 0 if none has been taken
+   */
+  @Override
+  public synchronized long getTime()
+  {
+    return _now;
+  }
+
+
+  /**
+   * Inserts a Command into the slot for its due time, after its delay from the wheels' time
+   *
+   * @param cmd a command containing the delay to be used for its due time
+   * @return the Event queued, with which the Command may be cancelled
+   * @throws NullPointerException if parm is null
+   */
+  @Override
+  public synchronized Event insert(Command cmd)
+  {
+    if (cmd == null) {
+      throw new NullPointerException("TimingWheel.insert: null Command");
+    }
+    return insert(cmd, cmd.getDelay());
+  }
+
+
+  /**
+   * Inserts a Command into the slot for its due time, after a given delay from the wheels' time,
+   * as when it is rescheduled
+   *
+   * @param cmd the command to be queued
+   * @param delay the game time before the command is due
+   * @return the Event queued, with which the Command may be cancelled
+   * @throws NullPointerException if cmd is null
+   */
+  @Override
+  public synchronized Event insert(Command cmd, int delay)
+  {
+    Event evt = new Event(cmd, _now + Math.max(0, delay), _nextSeq++);
+    place(evt);
+    _size++;
+    return evt;
+  }
+
+
+  @Override
+  public synchronized boolean isEmpty()
+  {
+    return _size == 0;
+  }
+
+
+  @Override
+  public synchronized int size()
+  {
+    return _size;
+  }
+
+
+  /**
+   * Collects the Events from every slot
+   *
+   * @return the array in the order the Commands will be executed
+   */
+  @Override
+  public synchronized Object[] toArray()
+  {
+    List<Event> all = new ArrayList<Event>(_size);
+    for (Wheel w : _wheels) {
+      for (LinkedHashSet<Event> slot : w._slots) {
+        all.addAll(slot);
+      }
+    }
+    for (LinkedHashSet<Event> day : _later.values()) {
+      all.addAll(day);
+    }
+    Object[] ary = all.toArray();
+    Arrays.sort(ary);
+    return ary;
+  }
+
+
+  // ===============================================================================
+  // PRIVATE METHODS
+  // ===============================================================================
+
+  /**
+   * Advances the wheels' time to the next slot that is not empty on a larger wheel, or to the
+   * next day with Events, and cascades that slot's Events down. Called only when the second
+   * wheel has nothing left in the current minute, so every smaller wheel is empty.
+   *
+   * @param until the latest time to advance to
+   * @return false if the next slot starts after that time, and nothing was moved
+   */
+  private boolean advance(long until)
+  {
+    for (int level = 1; level < _wheels.length; level++) {
+      Wheel w = _wheels[level];
+      int k = w.nextSlot(w.indexOf(_now) + 1);
+      if (k >= 0) {
+        long start = _now - (_now % w.range()) + (k * w._span);
+        if (start > until) {
+          return false;
+        }
+        _now = start;
+        cascade(w._slots[k]);
+        return true;
+      }
+    }
+    long start = _later.firstKey() * SECONDS_PER_DAY;
+    if (start > until) {
+      return false;
+    }
+    _now = start;
+    cascade(_later.pollFirstEntry().getValue());
+    return true;
+  }
+
+
+  /** Moves each Event of a slot, in order, to its slot for the wheels' new time */
+  private void cascade(LinkedHashSet<Event> slot)
+  {
+    List<Event> events = new ArrayList<Event>(slot);
+    slot.clear();
+    for (Event evt : events) {
+      place(evt);
+    }
+  }
+
+
+  /** Puts an Event at the end of the slot for its due time */
+  private void place(Event evt)
+  {
+    slotFor(evt.getTime(), true).add(evt);
+  }
+
+
+  /**
+   * Finds the slot for a due time: the smallest wheel whose current turn reaches it, else the
+   * day it is due
+   *
+   * @param time absolute time, not before the wheels' time
+   * @param create whether to make a slot for a day that has none
+   * @return the slot, or null if there is no slot for the day and none is to be made
+   */
+  private LinkedHashSet<Event> slotFor(long time, boolean create)
+  {
+    for (Wheel w : _wheels) {
+      if ((time / w.range()) == (_now / w.range())) {
+        return w._slots[w.indexOf(time)];
+      }
+    }
+    Long day = time / SECONDS_PER_DAY;
+    LinkedHashSet<Event> slot = _later.get(day);
+    if ((slot == null) && create) {
+      slot = new LinkedHashSet<Event>();
+      _later.put(day, slot);
+    }
+    return slot;
+  }
+
+
+  // ===============================================================================
+  // INNER CLASS: Wheel
+  // ===============================================================================
+
+  /** One wheel of slots, each holding the Events due within its span, in insertion order */
+  private static final class Wheel
+  {
+    /** Seconds covered by each slot */
+    private final long _span;
+    private final LinkedHashSet<Event>[] _slots;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Wheel(long span, int nbrSlots)
+    {
+      _span = span;
+      _slots = new LinkedHashSet[nbrSlots];
+      for (int k = 0; k < nbrSlots; k++) {
+        _slots[k] = new LinkedHashSet<Event>();
+      }
+    }
+
+    private void clear()
+    {
+      for (LinkedHashSet<Event> slot : _slots) {
+        slot.clear();
+      }
+    }
+
+    /** @return the slot that a time falls in */
+    private int indexOf(long time)
+    {
+      return (int) ((time / _span) % _slots.length);
+    }
+
+    /** @return the first slot from the given one that is not empty, or -1 if there is none */
+    private int nextSlot(int from)
+    {
+      for (int k = from; k < _slots.length; k++) {
+        if (!_slots[k].isEmpty()) {
+          return k;
+        }
+      }
+      return -1;
+    }
+
+    /** @return seconds covered by one turn of the wheel */
+    private long range()
+    {
+      return _span * _slots.length;
+    }
+  }
+
+
+} // end of TimingWheel class
@@ -9,6 +9,8 @@
 
 package chronos.pdc.command;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import chronos.pdc.NPC;
@@ -26,6 +28,8 @@ import chronos.pdc.buildings.Inn;
  *          merged <br>
  *          Jul 5, 2008 // Final commenting for Javadoc compliance<br>
  *          Jun 15, 2018 // Revised as needed for new test file <br>
+ *          Oct 18, 2026 // Owned by its Patron and Inn <br>
+ *          Oct 18, 2026 // Changes only its Inn, so Patrons of other buildings run in parallel <br>
  * 
  * @see Command
  */
@@ -117,6 +121,29 @@ public class intCmdPatronEnter extends Command
     return true;
   }
 
+  /**
+   * The command is cancelled along with the other commands of its Patron, or of its Inn.
+   * 
+   * @return the Patron and the Inn
+   */
+  @Override
+  public List<Object> getOwners()
+  {
+    return Arrays.asList(_npc, _inn);
+  }
+
+  /**
+   * Only the Inn is changed: Patrons who come and go at the same time in different buildings may
+   * run together, but those of one Inn run in turn.
+   * 
+   * @return the Inn
+   */
+  @Override
+  public List<Object> getResources()
+  {
+    return Collections.singletonList(_inn);
+  }
+
   /**
    * Get the Patron inside this command to which it applies.
    * 
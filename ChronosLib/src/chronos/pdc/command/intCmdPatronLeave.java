@@ -11,6 +11,8 @@
 
 package chronos.pdc.command;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import chronos.pdc.NPC;
@@ -31,6 +33,11 @@ import chronos.pdc.buildings.Inn;
  *          <DD>
  *          <DT>2.1 Jul 5 2008 // Final commenting for Javadoc compliance
  *          <DD>
+ *          <DT>2.2 Oct 18, 2026 // Owned by its Patron and Inn
+ *          <DD>
+ *          <DT>2.3 Oct 18, 2026 // Changes only its Inn, so Patrons of other buildings run in
+ *          parallel
+ *          <DD>
  *          </DL>
  * @see Command
  */
@@ -123,6 +130,30 @@ public class intCmdPatronLeave extends Command
     }
     
 
+    /**
+     * The command is cancelled along with the other commands of its Patron, or of its Inn.
+     * 
+     * @return the Patron and the Inn
+     */
+    @Override
+    public List<Object> getOwners()
+    {
+      return Arrays.asList(_npc, _inn);
+    }
+
+    /**
+     * Only the Inn is changed: Patrons who come and go at the same time in different buildings may
+     * run together, but those of one Inn run in turn.
+     * 
+     * @return the Inn
+     */
+    @Override
+    public List<Object> getResources()
+    {
+      return Collections.singletonList(_inn);
+    }
+
+
     @Override
     public String toString()
     {
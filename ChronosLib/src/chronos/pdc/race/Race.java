@@ -10,6 +10,7 @@
 
 package chronos.pdc.race;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +20,7 @@ import java.util.Map;
 import chronos.civ.PersonKeys;
 import chronos.pdc.character.Description;
 import chronos.pdc.character.Gender;
+import chronos.pdc.character.HeroCodec;
 import chronos.pdc.character.TraitList;
 import chronos.pdc.character.TraitList.PrimeTraits;
 import mylib.pdc.MetaDie;
@@ -32,6 +34,7 @@ import mylib.pdc.MetaDie;
  *          June 17 2017 // Modified trait limits <br>
  *          Aug 10, 2017 // updated per QATool <br>
  *          Aug 15, 2017 // expand {@code equals()} to include gender <br>
+ *          Oct 18, 2026 // added writeTo() and readFrom() for the binary Hero format <br>
  */
 public abstract class Race implements Serializable
 {
@@ -137,6 +140,30 @@ public abstract class Race implements Serializable
   }
 
 
+  /**
+   * Read a Race written by {@code writeTo}, creating the subclass by name. Nothing is rolled
+   * again; every random attribute is read back as it was.
+   *
+   * @param in the Hero file being read
+   * @return the Race
+   */
+  static public Race readFrom(HeroCodec.Reader in) throws IOException
+  {
+    String raceName = in.readString();
+    Gender gender = new Gender(in.readString());
+    Race race = createRace(raceName, gender, in.readString());
+    race._raceLang = in.readString();
+    race._languages = in.readStrings();
+    race._height = in.readInt();
+    race._weight = in.readInt();
+    race._hunger = in.readString();
+    race._racialPoisonResist = in.readInt();
+    race._racialThiefMods = in.readInts();
+    race._description = Description.readFrom(in);
+    return race;
+  }
+
+
   // ====================================================
   // PROTECTED METHODS
   // ====================================================
@@ -299,6 +326,27 @@ public abstract class Race implements Serializable
   // PUBLIC METHODS
   // ====================================================
 
+  /**
+   * Write the Race name, and every attribute that was rolled or can change. The attributes fixed
+   * for each subclass are set again when it is created on reading.
+   *
+   * @param out the Hero file being written
+   */
+  public void writeTo(HeroCodec.Writer out) throws IOException
+  {
+    out.writeString(_raceName);
+    out.writeString(_gender.toString());
+    out.writeString(_hairColor);
+    out.writeString(_raceLang);
+    out.writeStrings(_languages);
+    out.writeInt(_height);
+    out.writeInt(_weight);
+    out.writeString(_hunger);
+    out.writeInt(_racialPoisonResist);
+    out.writeInts(_racialThiefMods);
+    _description.writeTo(out);
+  }
+
 
 
   // ====================================================
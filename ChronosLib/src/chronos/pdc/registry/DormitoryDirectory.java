@@ -0,0 +1,451 @@
+/**
+ * DormitoryDirectory.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.registry;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import chronos.pdc.character.Hero;
+import chronos.pdc.character.HeroCodec;
+
+/**
+ * Keeps each Hero in its own file in the dormitory directory, listed by a {@code DormitoryIndex}
+ * so that the Heroes can be listed without reading their files. Hero files that are not in the
+ * index, or have changed since it was written, are read in parallel when the store is opened, on a
+ * bounded pool of threads, and indexed. A file that cannot be read is reported and skipped without
+ * stopping the others, and the time to read each file is kept for reporting.
+ * <P>
+ * A Hero file that cannot be read, because it fails its checksum, is cut short, or is not a Hero
+ * at all, is moved into the quarantine directory beside the dormitory, e.g.,
+ * {@code Dormitory.quarantine}, so that it is not read again at every start, and can be examined
+ * or restored by hand. A file that could not be read for any other reason, such as an error of the
+ * disk or a version newer than this game reads, is reported and left where it is, to be read
+ * again later. Temporary files left by a crash while a Hero was being saved are deleted; the Hero
+ * file they were to replace is intact.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original, from the file handling of HeroRegistry <br>
+ *          Oct 18, 2026 // quarantine Hero files that cannot be read <br>
+ *          Oct 18, 2026 // quarantine only damaged files, not those that failed to be read <br>
+ */
+class DormitoryDirectory implements HeroStore
+{
+  /** Extension for all hero file names in the registry directory: "dormitory" */
+  static private final String HEROFILE_EXT = ".chr";
+  /** Extension of a temporary file written while saving a Hero */
+  static private final String TEMP_EXT = HEROFILE_EXT + ".tmp";
+  /** Extension of the quarantine directory, placed beside the dormitory directory */
+  static private final String QUARANTINE_EXT = ".quarantine";
+  /** Most threads used to read Hero files at once */
+  static private final int MAX_LOAD_THREADS = Runtime.getRuntime().availableProcessors();
+
+  /** Directory of where all the Heroes are stored */
+  private final String _dirname;
+  /** Nameplate and file of every Hero in the dormitory */
+  private final DormitoryIndex _plates;
+  /** Time to read each Hero file, in milliseconds, by file name */
+  private final Map<String, Double> _fileLoadMillis = new LinkedHashMap<String, Double>();
+  /** Names of the Hero files that could not be read */
+  private final List<String> _loadFailures = new ArrayList<String>();
+
+
+  // ========================================================
+  // CONSTRUCTOR
+  // ========================================================
+
+  /**
+   * Reads the dormitory index, but no Hero files until opened
+   *
+   * @param dirname directory containing all the Hero files
+   */
+  DormitoryDirectory(String dirname)
+  {
+    _dirname = dirname;
+    _plates = new DormitoryIndex(dirname);
+  }
+
+
+  // ========================================================
+  // PUBLIC METHODS
+  // ========================================================
+
+  @Override
+  public void clear()
+  {
+    _plates.clear();
+  }
+
+
+  /** @return the dormitory index file, which is kept beside the dormitory directory */
+  @Override
+  public File getFile()
+  {
+    return _plates.getIndexFile();
+  }
+
+
+  @Override
+  public Map<String, Double> getFileLoadMillis()
+  {
+    return Collections.unmodifiableMap(_fileLoadMillis);
+  }
+
+
+  @Override
+  public List<String> getLoadFailures()
+  {
+    return Collections.unmodifiableList(_loadFailures);
+  }
+
+
+  @Override
+  public String getNamePlate(String name)
+  {
+    DormitoryIndex.Entry entry = _plates.get(name);
+    return (entry == null) ? null : entry.getNamePlate();
+  }
+
+
+  @Override
+  public Map<String, String> getNamePlates()
+  {
+    Map<String, String> plates = new LinkedHashMap<String, String>();
+    for (DormitoryIndex.Entry entry : _plates.getAll()) {
+      plates.put(entry.getName(), entry.getNamePlate());
+    }
+    return plates;
+  }
+
+
+  /**
+   * A Hero is saved when the checksum of its encoding matches the index entry, and its file is as
+   * it was indexed
+   */
+  @Override
+  public boolean isSaved(EncodedHero hero)
+  {
+    String fileName = hero._name + HEROFILE_EXT;
+    DormitoryIndex.Entry entry = _plates.get(hero._name);
+    return (entry != null) && (entry.getChecksum() == hero._checksum)
+        && entry.getFileName().equals(fileName)
+        && entry.isCurrent(new File(_dirname + fileName));
+  }
+
+
+  /**
+   * Read a Hero's file, verifying its checksum if the file has not changed since it was indexed.
+   * A file that is damaged is quarantined, and its Hero removed from the index; a file that could
+   * not be read for another reason stays indexed.
+   */
+  @Override
+  public Hero load(String name) throws IOException
+  {
+    DormitoryIndex.Entry entry = _plates.get(name);
+    if (entry == null) {
+      return null;
+    }
+    File heroFile = new File(_dirname + entry.getFileName());
+    HeroLoader loader = new HeroLoader(heroFile, entry);
+    try {
+      Hero hero = loader.call();
+      _plates.put(loader._entry);
+      return hero;
+    } catch (IOException ex) {
+      if (isDamaged(ex) && heroFile.isFile()) {
+        _plates.remove(name);
+        quarantine(heroFile);
+        _plates.write();
+      }
+      throw ex;
+    }
+  }
+
+
+  /**
+   * Reads each Hero file that is not indexed, or has changed since it was, in parallel. A file
+   * that cannot be read is reported and skipped, and quarantined if it is damaged. The index is rewritten if any file
+   * had to be read.
+   */
+  @Override
+  public List<Hero> open()
+  {
+    List<Hero> heroes = new ArrayList<Hero>();
+    // Create a File to point to the directory from which to read
+    File regFile = new File(_dirname);
+    deleteTempFiles(regFile);
+    File[] heroList = regFile.listFiles((dir, name) -> name.endsWith(HEROFILE_EXT));
+    if (heroList == null) {
+      heroList = new File[0];
+    }
+    int nbrIndexed = _plates.size();
+    List<File> unindexed = _plates.retainCurrent(heroList);
+    if (!unindexed.isEmpty()) {
+      int nbrThreads = Math.min(MAX_LOAD_THREADS, unindexed.size());
+      ExecutorService pool = Executors.newFixedThreadPool(nbrThreads, r -> {
+        Thread t = new Thread(r, "HeroRegistry loader");
+        t.setDaemon(true);
+        return t;
+      });
+      try {
+        List<HeroLoader> loaders = new ArrayList<HeroLoader>(unindexed.size());
+        List<Future<Hero>> loads = new ArrayList<Future<Hero>>(unindexed.size());
+        for (File heroFile : unindexed) {
+          HeroLoader loader = new HeroLoader(heroFile);
+          loaders.add(loader);
+          loads.add(pool.submit(loader));
+        }
+        for (int k = 0; k < unindexed.size(); k++) {
+          Hero hero = collect(loaders.get(k), loads.get(k));
+          if (hero != null) {
+            heroes.add(hero);
+          }
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+    if (!unindexed.isEmpty() || (_plates.size() != nbrIndexed)) {
+      _plates.write();
+    }
+    return heroes;
+  }
+
+
+  /** The Hero's file is not deleted */
+  @Override
+  public void remove(String name)
+  {
+    _plates.remove(name);
+  }
+
+
+  @Override
+  public int size()
+  {
+    return _plates.size();
+  }
+
+
+  /**
+   * Write each Hero to its file, indexing each file as written, then rewrite the index once. Each
+   * file is replaced only once the new one is safely on disk.
+   */
+  @Override
+  public void write(Collection<EncodedHero> batch) throws IOException
+  {
+    List<String> failed = new ArrayList<String>();
+    for (EncodedHero eh : batch) {
+      String fileName = eh._name + HEROFILE_EXT;
+      File heroFile = new File(_dirname + fileName);
+      try {
+        HeroCodec.writeFile(heroFile, eh._bytes);
+        _plates.put(new DormitoryIndex.Entry(eh._name, eh._namePlate, fileName,
+            eh._bytes.length, heroFile.lastModified(), eh._checksum));
+      } catch (IOException ex) {
+        failed.add(eh._name + " (" + ex.getMessage() + ")");
+      }
+    }
+    if (failed.size() < batch.size()) {
+      _plates.write();
+    }
+    if (!failed.isEmpty()) {
+      throw new IOException("Could not write out Heroes " + failed);
+    }
+  }
+
+
+  /**
+   * Get the quarantine directory for a dormitory directory: a directory of the same name with a
+   * {@code .quarantine} extension, in the dormitory's parent
+   *
+   * @param dirname the dormitory directory
+   * @return the quarantine directory, which may not yet exist
+   */
+  static File quarantineDir(String dirname)
+  {
+    File dir = new File(dirname).getAbsoluteFile();
+    return new File(dir.getParentFile(), dir.getName() + QUARANTINE_EXT);
+  }
+
+
+  // ========================================================
+  // PRIVATE METHODS
+  // ========================================================
+
+  /**
+   * Delete the temporary files of saves cut short by a crash; each was still to be renamed over
+   * its Hero file, which is intact
+   *
+   * @param dir the dormitory directory
+   */
+  private void deleteTempFiles(File dir)
+  {
+    File[] temps = dir.listFiles((d, name) -> name.endsWith(TEMP_EXT));
+    if (temps == null) {
+      return;
+    }
+    for (File temp : temps) {
+      System.err.println("Deleting unfinished save " + temp.getName());
+      temp.delete();
+    }
+  }
+
+
+  /**
+   * A Hero file is damaged if it fails its checksum, is cut short, or is not a Hero file at all;
+   * not if it could not be read, could not be decoded by this code, or is of a newer version
+   *
+   * @param ex why the file could not be read
+   * @return true if the file should be quarantined
+   */
+  static private boolean isDamaged(Throwable ex)
+  {
+    return (ex instanceof StreamCorruptedException) || (ex instanceof EOFException);
+  }
+
+
+  /**
+   * Move a Hero file that cannot be read out of the dormitory, into the quarantine directory,
+   * without replacing any file already quarantined under the same name
+   *
+   * @param heroFile the Hero file
+   */
+  private void quarantine(File heroFile)
+  {
+    File qdir = quarantineDir(_dirname);
+    File target = new File(qdir, heroFile.getName());
+    for (int k = 1; target.exists(); k++) {
+      target = new File(qdir, heroFile.getName() + "." + k);
+    }
+    try {
+      Files.createDirectories(qdir.toPath());
+      Files.move(heroFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      System.err.println("\tMoved " + heroFile.getName() + " to " + target);
+    } catch (IOException ex) {
+      System.err.println("\tCould not quarantine " + heroFile.getName() + ": " + ex.getMessage());
+    }
+  }
+
+
+  /**
+   * Wait for one Hero file to be read, and index it, or report the failure
+   *
+   * @param loader the task reading the file
+   * @param load the result of reading it
+   * @return the Hero, or null if the file could not be read
+   */
+  private Hero collect(HeroLoader loader, Future<Hero> load)
+  {
+    String name = loader._heroFile.getName();
+    try {
+      Hero hero = load.get();
+      _plates.put(loader._entry);
+      _fileLoadMillis.put(name, loader._millis);
+      return hero;
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      System.err.println("Could not read back Hero " + name);
+      System.err.println("\t" + cause.getMessage());
+      _fileLoadMillis.put(name, loader._millis);
+      _loadFailures.add(name);
+      if (isDamaged(cause)) {
+        quarantine(loader._heroFile);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      _loadFailures.add(name);
+    }
+    return null;
+  }
+
+
+  /**
+   * Reads one Hero file, timing the read and building the file's index entry. A file written by
+   * Java serialization is migrated to the binary format of {@code HeroCodec} as it is read.
+   */
+  static private class HeroLoader implements Callable<Hero>
+  {
+    private final File _heroFile;
+    /** Entry the file was indexed under, whose checksum must match if it is current; or null */
+    private final DormitoryIndex.Entry _expected;
+    /** Time taken to read the file, set before the read's result is available */
+    private double _millis;
+    /** Index entry for the file, set when the Hero has been read */
+    private DormitoryIndex.Entry _entry;
+
+    HeroLoader(File heroFile)
+    {
+      this(heroFile, null);
+    }
+
+    HeroLoader(File heroFile, DormitoryIndex.Entry expected)
+    {
+      _heroFile = heroFile;
+      _expected = expected;
+    }
+
+    @Override
+    public Hero call() throws IOException
+    {
+      long start = System.nanoTime();
+      try {
+        long modified = _heroFile.lastModified();
+        byte[] bytes = Files.readAllBytes(_heroFile.toPath());
+        if ((_expected != null) && (_expected.getLength() == bytes.length)
+            && (_expected.getModified() == modified)
+            && (_expected.getChecksum() != DormitoryIndex.checksum(bytes))) {
+          throw new StreamCorruptedException("Checksum mismatch in " + _heroFile.getName());
+        }
+        Hero hero = HeroCodec.decode(bytes);
+        if (HeroCodec.isLegacy(bytes)) {
+          bytes = migrate(hero);
+          modified = _heroFile.lastModified();
+        }
+        _entry = new DormitoryIndex.Entry(hero.getName(), hero.toNamePlate(),
+            _heroFile.getName(), bytes.length, modified, DormitoryIndex.checksum(bytes));
+        return hero;
+      } finally {
+        _millis = (System.nanoTime() - start) / 1.0e6;
+      }
+    }
+
+    /**
+     * Rewrite the file in the binary format, through a temporary file so that the Hero is never
+     * lost if the rewrite fails
+     *
+     * @param hero the Hero read from the file
+     * @return the new contents of the file
+     */
+    private byte[] migrate(Hero hero) throws IOException
+    {
+      byte[] bytes = HeroCodec.encode(hero);
+      HeroCodec.writeFile(_heroFile, bytes);
+      return bytes;
+    }
+  } // end of HeroLoader inner class
+
+
+} // end of DormitoryDirectory class
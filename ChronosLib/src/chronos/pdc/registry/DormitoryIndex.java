@@ -0,0 +1,343 @@
+/**
+ * DormitoryIndex.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.registry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A compact index of the Hero files in the dormitory, so that the {@code HeroRegistry} can list
+ * the Heroes by their nameplates without deserializing each one. For each Hero, the index holds
+ * its name, its nameplate, and the name, length, modification time, and CRC-32 checksum of its
+ * file. The length and modification time tell whether an entry is still current; the checksum is
+ * verified when the Hero is finally read.
+ * <P>
+ * The index is kept in a file beside the dormitory directory, e.g., {@code Dormitory.idx}, so
+ * that the directory holds only Hero files. The index is rewritten to a temporary file and then
+ * renamed over the old one, so a crash never leaves it half written. An index that cannot be
+ * read is treated as empty, and is rebuilt from the Hero files themselves.
+ * <P>
+ * The index is synchronized, since Heroes are saved, and their entries replaced, on a background
+ * thread.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // synchronized for saves on a background thread <br>
+ */
+public class DormitoryIndex
+{
+  /** Identifies an index file */
+  static private final int MAGIC = 0x44494458; // "DIDX"
+  /** Format of the index file, for future changes */
+  static private final int VERSION = 1;
+  /** Extension of the index file, placed beside the dormitory directory */
+  static public final String INDEX_EXT = ".idx";
+
+  /** The index file */
+  private final File _indexFile;
+  /** Entries by lower-case Hero name, in the order added */
+  private final Map<String, Entry> _entries = new LinkedHashMap<String, Entry>();
+
+
+  /** What the index knows about one Hero and its file */
+  static public class Entry
+  {
+    private final String _name;
+    private final String _namePlate;
+    private final String _fileName;
+    private final long _length;
+    private final long _modified;
+    private final long _checksum;
+
+    /**
+     * @param name the Hero's name
+     * @param namePlate the Hero's nameplate, as from {@code Hero.toNamePlate()}
+     * @param fileName name of the Hero's file within the dormitory
+     * @param length length of the file in bytes
+     * @param modified last-modified time of the file
+     * @param checksum CRC-32 of the file's contents
+     */
+    public Entry(String name, String namePlate, String fileName, long length, long modified,
+        long checksum)
+    {
+      _name = name;
+      _namePlate = namePlate;
+      _fileName = fileName;
+      _length = length;
+      _modified = modified;
+      _checksum = checksum;
+    }
+
+    public long getChecksum()
+    {
+      return _checksum;
+    }
+
+    public String getFileName()
+    {
+      return _fileName;
+    }
+
+    public long getLength()
+    {
+      return _length;
+    }
+
+    public long getModified()
+    {
+      return _modified;
+    }
+
+    public String getName()
+    {
+      return _name;
+    }
+
+    public String getNamePlate()
+    {
+      return _namePlate;
+    }
+
+    /**
+     * Verify that the file has not changed since it was indexed
+     *
+     * @param file the Hero's file
+     * @return true if its length and modification time are as indexed
+     */
+    public boolean isCurrent(File file)
+    {
+      return (file.length() == _length) && (file.lastModified() == _modified);
+    }
+  } // end of Entry inner class
+
+
+  // ========================================================
+  // CONSTRUCTOR
+  // ========================================================
+
+  /**
+   * Read the index for a dormitory directory, if there is one
+   *
+   * @param dirname the dormitory directory
+   */
+  public DormitoryIndex(String dirname)
+  {
+    _indexFile = indexFile(dirname);
+    read();
+  }
+
+
+  // ========================================================
+  // PUBLIC METHODS
+  // ========================================================
+
+  /**
+   * Compute the CRC-32 checksum of some bytes
+   *
+   * @param bytes the bytes, usually a whole Hero file
+   * @return the checksum
+   */
+  static public long checksum(byte[] bytes)
+  {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length);
+    return crc.getValue();
+  }
+
+
+  /**
+   * Get the index file for a dormitory directory: a file of the same name with an {@code .idx}
+   * extension, in the directory's parent
+   *
+   * @param dirname the dormitory directory
+   * @return the index file
+   */
+  static public File indexFile(String dirname)
+  {
+    File dir = new File(dirname).getAbsoluteFile();
+    return new File(dir.getParentFile(), dir.getName() + INDEX_EXT);
+  }
+
+
+  /** Remove all entries */
+  public synchronized void clear()
+  {
+    _entries.clear();
+  }
+
+
+  /**
+   * Find the entry for a Hero
+   *
+   * @param name the Hero's name, without regard to case
+   * @return the entry, or null if the Hero is not indexed
+   */
+  public synchronized Entry get(String name)
+  {
+    return (name == null) ? null : _entries.get(name.toLowerCase());
+  }
+
+
+  /** @return a copy of all entries, in the order added */
+  public synchronized Collection<Entry> getAll()
+  {
+    return new ArrayList<Entry>(_entries.values());
+  }
+
+
+  /** @return the index file */
+  public File getIndexFile()
+  {
+    return _indexFile;
+  }
+
+
+  /**
+   * Add or replace the entry for a Hero
+   *
+   * @param entry the Hero's entry
+   */
+  public synchronized void put(Entry entry)
+  {
+    _entries.put(entry.getName().toLowerCase(), entry);
+  }
+
+
+  /**
+   * Remove the entry for a Hero
+   *
+   * @param name the Hero's name, without regard to case
+   * @return the entry removed, or null if the Hero was not indexed
+   */
+  public synchronized Entry remove(String name)
+  {
+    return (name == null) ? null : _entries.remove(name.toLowerCase());
+  }
+
+
+  /**
+   * Keep only the entries whose file is among those given and unchanged since it was indexed
+   *
+   * @param files the Hero files now in the dormitory
+   * @return the files that have no current entry, and so must be read to index them
+   */
+  public synchronized List<File> retainCurrent(File[] files)
+  {
+    Map<String, File> byName = new LinkedHashMap<String, File>();
+    for (File f : files) {
+      byName.put(f.getName(), f);
+    }
+    List<Entry> current = new ArrayList<Entry>();
+    for (Entry entry : _entries.values()) {
+      File f = byName.get(entry.getFileName());
+      if ((f != null) && entry.isCurrent(f)) {
+        current.add(entry);
+        byName.remove(entry.getFileName());
+      }
+    }
+    _entries.clear();
+    for (Entry entry : current) {
+      put(entry);
+    }
+    return new ArrayList<File>(byName.values());
+  }
+
+
+  /** @return number of Heroes indexed */
+  public synchronized int size()
+  {
+    return _entries.size();
+  }
+
+
+  /**
+   * Write the index to a temporary file and rename it over the old index
+   *
+   * @return true if written; else false, and the error is reported
+   */
+  public synchronized boolean write()
+  {
+    File temp = new File(_indexFile.getPath() + ".tmp");
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(_entries.size());
+      for (Entry e : _entries.values()) {
+        out.writeUTF(e._name);
+        out.writeUTF(e._namePlate);
+        out.writeUTF(e._fileName);
+        out.writeLong(e._length);
+        out.writeLong(e._modified);
+        out.writeLong(e._checksum);
+      }
+    } catch (IOException ex) {
+      System.err.println("Could not write the dormitory index " + _indexFile);
+      System.err.println("\t" + ex.getMessage());
+      temp.delete();
+      return false;
+    }
+    try {
+      Files.move(temp.toPath(), _indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      return true;
+    } catch (IOException ex) {
+      System.err.println("Could not replace the dormitory index " + _indexFile);
+      System.err.println("\t" + ex.getMessage());
+      temp.delete();
+      return false;
+    }
+  }
+
+
+  // ========================================================
+  // PRIVATE METHODS
+  // ========================================================
+
+  /** Read the index file; a missing or unreadable file leaves the index empty */
+  private void read()
+  {
+    if (!_indexFile.isFile()) {
+      return;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(_indexFile)))) {
+      if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+        return;
+      }
+      int count = in.readInt();
+      for (int k = 0; k < count; k++) {
+        put(new Entry(in.readUTF(), in.readUTF(), in.readUTF(), in.readLong(), in.readLong(),
+            in.readLong()));
+      }
+    } catch (IOException ex) {
+      System.err.println("Could not read the dormitory index; it will be rebuilt");
+      System.err.println("\t" + ex.getMessage());
+      _entries.clear();
+    }
+  }
+
+
+} // end of DormitoryIndex class
@@ -0,0 +1,659 @@
+/**
+ * DormitorySegment.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.registry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import chronos.pdc.character.Hero;
+import chronos.pdc.character.HeroCodec;
+
+/**
+ * Keeps every Hero in one append-only segment file, in place of one file per Hero in the
+ * dormitory directory. Saving a batch of Heroes appends a record for each, and forces the file to
+ * disk once; deleting a Hero appends a tombstone. The file is memory-mapped, and each Hero is
+ * decoded in place from the mapping, so listing and reading Heroes takes no system calls at all
+ * once the store is open.
+ * <P>
+ * The file holds a header, then records, each of which is
+ * <UL>
+ * <LI>a type byte, {@code PUT} or {@code DELETE};</LI>
+ * <LI>the length of the rest of the record, and the CRC-32 of the type, the length and the rest,
+ * as four-byte ints;</LI>
+ * <LI>the Hero's name and, for a {@code PUT}, its nameplate, each as a two-byte length and UTF-8
+ * bytes;</LI>
+ * <LI>for a {@code PUT}, the Hero as encoded by {@code HeroCodec}.</LI>
+ * </UL>
+ * The in-memory index gives the offset of the latest {@code PUT} of each Hero that has not since
+ * been deleted; it is rebuilt by scanning the file when the store is opened. A record whose
+ * checksum fails, even in its length, is reported, and the scan resumes at the next whole record
+ * after it. Only when no whole record follows, as when a crash cut the last append short, are the
+ * bytes cut off, so the next append starts cleanly. Damaged bytes are first copied to a
+ * {@code .damaged} file beside the segment, for recovery, since compacting drops them.
+ * <P>
+ * Replaced and deleted Heroes leave dead records behind. Once the dead records outweigh the live
+ * ones, and are more than {@code COMPACT_MIN_BYTES}, the live records are copied to a new file,
+ * which is forced to disk and renamed over the old one in one atomic step. {@code compact} can also
+ * be called directly.
+ * <P>
+ * Only one store in one JVM may have a segment file open at once.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // checksum the type and length too; resync past damaged records <br>
+ */
+public class DormitorySegment implements HeroStore
+{
+  /** Identifies a segment file */
+  static private final int MAGIC = 0x44534547; // "DSEG"
+  /** Format of the segment file, for future changes; 2 when the checksum took in the length */
+  static private final int VERSION = 2;
+  /** Length of the magic number and version */
+  static private final int HEADER_LENGTH = 8;
+  /** Length of a record's type, length, and checksum */
+  static private final int RECORD_HEADER_LENGTH = 9;
+  /** Length of a record's type and length, which the checksum takes in before the rest */
+  static private final int CHECKED_HEADER_LENGTH = 5;
+  /** Suffix of the file to which bytes cut off the end of the segment are copied */
+  static public final String DAMAGED_SUFFIX = ".damaged";
+  /** Record type of a Hero */
+  static private final byte PUT = 1;
+  /** Record type of a deleted Hero */
+  static private final byte DELETE = 2;
+  /** Least number of dead bytes worth compacting */
+  static public final long COMPACT_MIN_BYTES = 64 * 1024;
+
+  /** The segment file */
+  private final File _file;
+  /** The whole file as last mapped; null if the file is empty */
+  private MappedByteBuffer _map;
+  /** Latest record of each live Hero, by lower-case Hero name, in the order first stored */
+  private final Map<String, Slot> _slots = new LinkedHashMap<String, Slot>();
+  /** Length of the file, and so the offset of the next record */
+  private long _length;
+  /** Length of the live records */
+  private long _liveBytes;
+  /** Whether the file is not a segment file, and so must not be written */
+  private boolean _foreign;
+  /** Records that could not be read when opened */
+  private final List<String> _loadFailures = new ArrayList<String>();
+
+
+  /** Where a Hero's latest record is in the file */
+  static private class Slot
+  {
+    private final String _name;
+    private final String _namePlate;
+    /** Offset of the record */
+    private final int _offset;
+    /** Length of the whole record */
+    private final int _length;
+    /** Offset of the encoded Hero */
+    private final int _heroOffset;
+
+    Slot(String name, String namePlate, int offset, int length, int heroOffset)
+    {
+      _name = name;
+      _namePlate = namePlate;
+      _offset = offset;
+      _length = length;
+      _heroOffset = heroOffset;
+    }
+  } // end of Slot inner class
+
+
+  // ========================================================
+  // CONSTRUCTOR
+  // ========================================================
+
+  /**
+   * Creates a store on a segment file, which is not read until opened, and not created until a
+   * Hero is written
+   *
+   * @param filepath path of the segment file
+   */
+  public DormitorySegment(String filepath)
+  {
+    _file = new File(filepath);
+  }
+
+
+  // ========================================================
+  // PUBLIC METHODS
+  // ========================================================
+
+  @Override
+  public synchronized void clear()
+  {
+    _slots.clear();
+  }
+
+
+  /**
+   * Copy the live records to a new file, and rename it over the old one, dropping all dead
+   * records. The new file is forced to disk before the rename, so a crash leaves one file or the
+   * other, never a mix.
+   *
+   * @throws IOException if the new file cannot be written; the old file is unchanged
+   */
+  public synchronized void compact() throws IOException
+  {
+    checkWritable();
+    Path temp = new File(_file.getPath() + ".tmp").toPath();
+    Map<String, Slot> moved = new LinkedHashMap<String, Slot>();
+    long length = HEADER_LENGTH;
+    try {
+      try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        writeFully(ch, header());
+        for (Map.Entry<String, Slot> e : _slots.entrySet()) {
+          Slot s = e.getValue();
+          writeFully(ch, slice(s._offset, s._length));
+          int offset = (int) length;
+          moved.put(e.getKey(), new Slot(s._name, s._namePlate, offset, s._length,
+              offset + (s._heroOffset - s._offset)));
+          length += s._length;
+        }
+        ch.force(true);
+      }
+      Files.move(temp, _file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    _slots.clear();
+    _slots.putAll(moved);
+    _length = length;
+    _liveBytes = length - HEADER_LENGTH;
+    remap();
+  }
+
+
+  /** @return bytes of the file taken by records that have been replaced or deleted */
+  public synchronized long getDeadBytes()
+  {
+    return (_length < HEADER_LENGTH) ? 0 : _length - HEADER_LENGTH - _liveBytes;
+  }
+
+
+  /** @return the segment file */
+  @Override
+  public File getFile()
+  {
+    return _file;
+  }
+
+
+  /** @return empty, since there is only one file, which is mapped rather than read */
+  @Override
+  public Map<String, Double> getFileLoadMillis()
+  {
+    return Collections.emptyMap();
+  }
+
+
+  /** @return bytes of the file taken by the latest record of each live Hero */
+  public synchronized long getLiveBytes()
+  {
+    return _liveBytes;
+  }
+
+
+  /** @return the offsets of records that failed their checksum or were cut short when opened */
+  @Override
+  public List<String> getLoadFailures()
+  {
+    return Collections.unmodifiableList(_loadFailures);
+  }
+
+
+  @Override
+  public synchronized String getNamePlate(String name)
+  {
+    Slot slot = (name == null) ? null : _slots.get(name.toLowerCase());
+    return (slot == null) ? null : slot._namePlate;
+  }
+
+
+  @Override
+  public synchronized Map<String, String> getNamePlates()
+  {
+    Map<String, String> plates = new LinkedHashMap<String, String>();
+    for (Slot slot : _slots.values()) {
+      plates.put(slot._name, slot._namePlate);
+    }
+    return plates;
+  }
+
+
+  /** A Hero is saved if its record holds the same nameplate and encoding, byte for byte */
+  @Override
+  public synchronized boolean isSaved(EncodedHero hero)
+  {
+    Slot slot = _slots.get(hero._name.toLowerCase());
+    return (slot != null) && slot._name.equals(hero._name)
+        && slot._namePlate.equals(hero._namePlate)
+        && slice(slot._heroOffset, slot._offset + slot._length - slot._heroOffset)
+            .equals(ByteBuffer.wrap(hero._bytes));
+  }
+
+
+  /** The Hero is decoded in place from the mapped file */
+  @Override
+  public synchronized Hero load(String name) throws IOException
+  {
+    Slot slot = (name == null) ? null : _slots.get(name.toLowerCase());
+    if (slot == null) {
+      return null;
+    }
+    return HeroCodec.decode(slice(slot._heroOffset, slot._offset + slot._length
+        - slot._heroOffset));
+  }
+
+
+  /**
+   * Map the file and scan its records to build the index. No Hero is decoded: all are read on
+   * demand. A damaged record is reported and skipped. Damaged bytes with no whole record after
+   * them are reported, copied aside, and the file truncated before them.
+   *
+   * @return an empty list
+   */
+  @Override
+  public synchronized List<Hero> open()
+  {
+    _slots.clear();
+    _loadFailures.clear();
+    _length = 0;
+    _liveBytes = 0;
+    _map = null;
+    _foreign = false;
+    if (!_file.isFile() || (_file.length() == 0)) {
+      return Collections.emptyList();
+    }
+    try {
+      remap();
+      if ((_length < HEADER_LENGTH) || (_map.getInt(0) != MAGIC)
+          || (_map.getInt(4) != VERSION)) {
+        _foreign = true;
+        throw new StreamCorruptedException("Not a dormitory segment: " + _file);
+      }
+      long end = scan();
+      if (end < _length) {
+        System.err.println("Discarding incomplete record at " + end + " of " + _file);
+        _loadFailures.add("record at " + end);
+        saveAside((int) end, (int) _length);
+        try (FileChannel ch = FileChannel.open(_file.toPath(), StandardOpenOption.WRITE)) {
+          ch.truncate(end);
+          ch.force(true);
+        }
+        remap();
+      }
+    } catch (IOException ex) {
+      System.err.println("Could not read the dormitory segment " + _file);
+      System.err.println("\t" + ex.getMessage());
+      _loadFailures.add(_file.getName());
+      _slots.clear();
+      _map = null;
+    }
+    compactIfWorthwhile();
+    return Collections.emptyList();
+  }
+
+
+  /** Append a tombstone for the Hero, so that it stays deleted when the file is next opened */
+  @Override
+  public synchronized void remove(String name)
+  {
+    Slot slot = (name == null) ? null : _slots.remove(name.toLowerCase());
+    if (slot == null) {
+      return;
+    }
+    _liveBytes -= slot._length;
+    try {
+      append(Collections.singletonList(record(DELETE, slot._name, null, null)));
+    } catch (IOException ex) {
+      System.err.println("Could not delete Hero " + slot._name + " from " + _file);
+      System.err.println("\t" + ex.getMessage());
+    }
+    compactIfWorthwhile();
+  }
+
+
+  @Override
+  public synchronized int size()
+  {
+    return _slots.size();
+  }
+
+
+  /** Append a record for each Hero, and force the file to disk once for the whole batch */
+  @Override
+  public synchronized void write(Collection<EncodedHero> batch) throws IOException
+  {
+    List<byte[]> records = new ArrayList<byte[]>(batch.size());
+    for (EncodedHero eh : batch) {
+      records.add(record(PUT, eh._name, eh._namePlate, eh._bytes));
+    }
+    long offset = append(records);
+    int k = 0;
+    for (EncodedHero eh : batch) {
+      byte[] rec = records.get(k++);
+      int heroOffset = (int) offset + rec.length - eh._bytes.length;
+      Slot old = _slots.put(eh._name.toLowerCase(),
+          new Slot(eh._name, eh._namePlate, (int) offset, rec.length, heroOffset));
+      if (old != null) {
+        _liveBytes -= old._length;
+      }
+      _liveBytes += rec.length;
+      offset += rec.length;
+    }
+    compactIfWorthwhile();
+  }
+
+
+  // ========================================================
+  // PRIVATE METHODS
+  // ========================================================
+
+  /**
+   * Append records to the file in one write, writing the header first if the file is new, then
+   * force the file to disk and map it again
+   *
+   * @param records the records
+   * @return offset of the first record
+   */
+  private long append(List<byte[]> records) throws IOException
+  {
+    checkWritable();
+    int size = 0;
+    for (byte[] rec : records) {
+      size += rec.length;
+    }
+    boolean isNew = (_length == 0);
+    ByteBuffer buf = ByteBuffer.allocate((isNew ? HEADER_LENGTH : 0) + size);
+    if (isNew) {
+      buf.put(header());
+    }
+    for (byte[] rec : records) {
+      buf.put(rec);
+    }
+    buf.flip();
+    if (_length + buf.remaining() > Integer.MAX_VALUE) {
+      throw new IOException("Dormitory segment is full: " + _file);
+    }
+    long offset = Math.max(_length, HEADER_LENGTH);
+    try (FileChannel ch = FileChannel.open(_file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ch.position(_length);
+      writeFully(ch, buf);
+      ch.force(false);
+      _length = ch.size();
+      _map = ch.map(FileChannel.MapMode.READ_ONLY, 0, _length);
+    }
+    return offset;
+  }
+
+
+  /** Refuse to write over a file that is not a segment file */
+  private void checkWritable() throws IOException
+  {
+    if (_foreign) {
+      throw new StreamCorruptedException("Not a dormitory segment: " + _file);
+    }
+  }
+
+
+  /** Compact if the dead records outweigh the live ones and are big enough to bother */
+  private void compactIfWorthwhile()
+  {
+    long dead = getDeadBytes();
+    if (!_foreign && (dead >= COMPACT_MIN_BYTES) && (dead > _liveBytes)) {
+      try {
+        compact();
+      } catch (IOException ex) {
+        System.err.println("Could not compact the dormitory segment " + _file);
+        System.err.println("\t" + ex.getMessage());
+      }
+    }
+  }
+
+
+  /** @return a new file's header */
+  static private ByteBuffer header()
+  {
+    ByteBuffer buf = ByteBuffer.allocate(HEADER_LENGTH);
+    buf.putInt(MAGIC).putInt(VERSION).flip();
+    return buf;
+  }
+
+
+  /**
+   * Read a string written by {@code record}
+   *
+   * @param buf the record, positioned at the string, and left after it
+   * @return the string
+   */
+  static private String readString(ByteBuffer buf)
+  {
+    byte[] utf = new byte[buf.getShort() & 0xFFFF];
+    buf.get(utf);
+    return new String(utf, StandardCharsets.UTF_8);
+  }
+
+
+  /**
+   * Build a record
+   *
+   * @param type {@code PUT} or {@code DELETE}
+   * @param name the Hero's name
+   * @param namePlate the Hero's nameplate; null for a {@code DELETE}
+   * @param hero the encoded Hero; null for a {@code DELETE}
+   * @return the whole record
+   */
+  static private byte[] record(byte type, String name, String namePlate, byte[] hero)
+      throws IOException
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream body = new DataOutputStream(bytes);
+    writeString(body, name);
+    if (type == PUT) {
+      writeString(body, namePlate);
+      body.write(hero);
+    }
+    byte[] b = bytes.toByteArray();
+    ByteBuffer rec = ByteBuffer.allocate(RECORD_HEADER_LENGTH + b.length);
+    rec.put(type).putInt(b.length);
+    CRC32 crc = new CRC32();
+    crc.update(rec.array(), 0, CHECKED_HEADER_LENGTH);
+    crc.update(b, 0, b.length);
+    rec.putInt((int) crc.getValue()).put(b);
+    return rec.array();
+  }
+
+
+  /**
+   * Read the length of the record at an offset, if the record is whole and undamaged
+   *
+   * @param pos offset of the record
+   * @return the length of the whole record, or -1 if there is no good record there
+   */
+  private int recordLength(int pos)
+  {
+    if (_length - pos < RECORD_HEADER_LENGTH) {
+      return -1;
+    }
+    byte type = _map.get(pos);
+    int len = _map.getInt(pos + 1);
+    if (((type != PUT) && (type != DELETE)) || (len < 0)
+        || (pos + (long) RECORD_HEADER_LENGTH + len > _length)) {
+      return -1;
+    }
+    CRC32 check = new CRC32();
+    check.update(slice(pos, CHECKED_HEADER_LENGTH));
+    check.update(slice(pos + RECORD_HEADER_LENGTH, len));
+    return ((int) check.getValue() == _map.getInt(pos + CHECKED_HEADER_LENGTH))
+        ? RECORD_HEADER_LENGTH + len : -1;
+  }
+
+
+  /** Map the whole file again, after it has grown or been replaced */
+  private void remap() throws IOException
+  {
+    try (FileChannel ch = FileChannel.open(_file.toPath(), StandardOpenOption.READ)) {
+      _length = ch.size();
+      if (_length > Integer.MAX_VALUE) {
+        throw new IOException("Dormitory segment is too large to map: " + _file);
+      }
+      _map = ch.map(FileChannel.MapMode.READ_ONLY, 0, _length);
+    }
+  }
+
+
+  /**
+   * Find the next good record after a damaged one, whose length cannot be trusted
+   *
+   * @param from the first offset to try
+   * @return offset of the next good record, or -1 if there is none
+   */
+  private int resync(int from)
+  {
+    for (int pos = from; pos + RECORD_HEADER_LENGTH <= _length; pos++) {
+      if (recordLength(pos) >= 0) {
+        return pos;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Copy damaged bytes to the end of the {@code .damaged} file, before they are skipped or cut
+   * off, so that they can be recovered by hand
+   *
+   * @param from offset of the first damaged byte
+   * @param to offset after the last damaged byte
+   */
+  private void saveAside(int from, int to) throws IOException
+  {
+    File aside = new File(_file.getPath() + DAMAGED_SUFFIX);
+    try (FileChannel out = FileChannel.open(aside.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      writeFully(out, slice(from, to - from));
+      out.force(true);
+    }
+    System.err.println("\tDamaged bytes copied to " + aside);
+  }
+
+
+  /**
+   * Read each record after the header into the index, skipping past damaged records to the next
+   * good one
+   *
+   * @return offset of the end of the last good record, if no good record follows damaged bytes;
+   *         else the length of the file
+   * @throws IOException if damaged bytes cannot be copied aside
+   */
+  private long scan() throws IOException
+  {
+    int pos = HEADER_LENGTH;
+    while (pos < _length) {
+      int recLength = recordLength(pos);
+      if (recLength < 0) {
+        int next = resync(pos + 1);
+        if (next < 0) {
+          return pos;
+        }
+        System.err.println("Skipping damaged record at " + pos + " of " + _file);
+        _loadFailures.add("record at " + pos);
+        saveAside(pos, next);
+        pos = next;
+        continue;
+      }
+      ByteBuffer body = slice(pos + RECORD_HEADER_LENGTH, recLength - RECORD_HEADER_LENGTH);
+      try {
+        byte type = _map.get(pos);
+        String name = readString(body);
+        Slot old;
+        if (type == PUT) {
+          String namePlate = readString(body);
+          old = _slots.put(name.toLowerCase(), new Slot(name, namePlate, pos, recLength,
+              pos + RECORD_HEADER_LENGTH + body.position()));
+          _liveBytes += recLength;
+        } else {
+          old = _slots.remove(name.toLowerCase());
+        }
+        if (old != null) {
+          _liveBytes -= old._length;
+        }
+      } catch (RuntimeException ex) {
+        // A record whose checksum matches but whose strings do not fit is from a bad writer
+        System.err.println("Skipping malformed record at " + pos + " of " + _file);
+        _loadFailures.add("record at " + pos);
+      }
+      pos += recLength;
+    }
+    return pos;
+  }
+
+
+  /**
+   * Get part of the mapped file, without copying it
+   *
+   * @param offset where the part starts
+   * @param length length of the part
+   * @return a read-only view of the part
+   */
+  private ByteBuffer slice(int offset, int length)
+  {
+    return _map.duplicate().position(offset).limit(offset + length).slice();
+  }
+
+
+  /** Write all of a buffer, however many calls it takes */
+  static private void writeFully(FileChannel ch, ByteBuffer buf) throws IOException
+  {
+    while (buf.hasRemaining()) {
+      ch.write(buf);
+    }
+  }
+
+
+  /** Write a string as a two-byte length and UTF-8 bytes */
+  static private void writeString(DataOutputStream out, String s) throws IOException
+  {
+    byte[] utf = s.getBytes(StandardCharsets.UTF_8);
+    if (utf.length > 0xFFFF) {
+      throw new IOException("String too long for a dormitory record: " + s.length());
+    }
+    out.writeShort(utf.length);
+    out.write(utf);
+  }
+
+
+} // end of DormitorySegment class
@@ -0,0 +1,40 @@
+/**
+ * EncodedHero.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.registry;
+
+import chronos.pdc.character.Hero;
+import chronos.pdc.character.HeroCodec;
+
+/**
+ * A Hero encoded by {@code HeroCodec}, with its name and nameplate, as queued to be written to a
+ * {@code HeroStore}. It is taken on the thread that changed the Hero, and never changes, so it can
+ * be written on another.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ */
+class EncodedHero
+{
+  final String _name;
+  final String _namePlate;
+  final byte[] _bytes;
+  final long _checksum;
+
+  /** @param hero the Hero to encode as it is now */
+  EncodedHero(Hero hero)
+  {
+    _name = hero.getName();
+    _namePlate = hero.toNamePlate();
+    _bytes = HeroCodec.encode(hero);
+    _checksum = DormitoryIndex.checksum(_bytes);
+  }
+
+} // end of EncodedHero class
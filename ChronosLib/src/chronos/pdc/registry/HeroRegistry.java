@@ -11,21 +11,38 @@
 package chronos.pdc.registry;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.StreamCorruptedException;
 import java.util.List;
+import java.util.Map;
 
 import chronos.pdc.Chronos;
 import chronos.pdc.character.Hero;
 import mylib.ApplicationException;
+import mylib.dmc.WriteBehindQueue;
 import mylib.pdc.Registry;
 
 /**
  * Manages a collection of Hero objects, although each Hero is saved into its own individual file.
  * This is the only {@code Registry} subclass that currently saves its data to a file. The other
  * Registries are read-only, in-memory copies that must be initialized each time.
+ * <P>
+ * The Heroes are kept on disk by a {@code HeroStore}: by default a {@code DormitoryDirectory},
+ * with one file per Hero in {@code Chronos.HeroRegPath}; or, if {@code Chronos.HeroSegPath} is
+ * set, a {@code DormitorySegment}, with all of them in that one memory-mapped file.
+ * <P>
+ * Heroes are loaded lazily. At startup the store lists each Hero's nameplate, so that the Heroes
+ * can be listed with {@code getNamePlates()}; a Hero is decoded only when first retrieved. Hero
+ * files that are not in the dormitory index, or have changed since it was written, are read in
+ * parallel on a bounded pool of threads and indexed. A file that cannot be read is reported,
+ * quarantined, and skipped without stopping the others, and the time to read each file, and all
+ * of them, is kept for reporting.
+ * <P>
+ * Heroes are saved write-behind: {@code saveLater} encodes the Hero on the caller's thread and
+ * returns at once, and the file is written, with the others queued about the same time, on a
+ * background thread by a {@code WriteBehindQueue}. {@code saveAll} and {@code saveHero} go
+ * through the same queue, but wait for it to be written. A Hero whose encoding matches the
+ * checksum in the index is not written again. The index is the only state shared with
+ * the background thread, and is synchronized.
  * 
  * @author Tim Armstrong, Alan Cline
  * @version Mar 13, 2013 // original <br>
@@ -37,6 +54,16 @@ import mylib.pdc.Registry;
  *          Aug 4, 2017 // solved from serialization problems <br>
  *          Aug 6, 2017 // moved from a collection of Hero objects to a collection of names plates
  *          for referencing the Hero files. <br>
+ *          Oct 18, 2026 // load Hero files in parallel, isolating failures and timing each file
+ *          <br>
+ *          Oct 18, 2026 // load Heroes lazily from a nameplate index <br>
+ *          Oct 18, 2026 // read Heroes with HeroCodec, migrating serialized files <br>
+ *          Oct 18, 2026 // save only the Heroes that changed, each through a temporary file <br>
+ *          Oct 18, 2026 // save Heroes write-behind on a background thread <br>
+ *          Oct 18, 2026 // moved file handling to HeroStore, to allow a single-file dormitory
+ *          <br>
+ *          Oct 18, 2026 // quarantine Hero files that cannot be read <br>
+ *          Oct 18, 2026 // delete() waits for a save already being written <br>
  */
 // public class HeroRegistry extends ConcreteRegistry<Hero>
 public class HeroRegistry extends Registry<Hero>
@@ -46,8 +73,15 @@ public class HeroRegistry extends Registry<Hero>
 
   /** Directory of where all the Heroes are stored; the HeroRegistry is not stored as a file */
   private String _dirname;
-  /** Extension for all hero file names in the registry directory: "dormitory" */
-  private final String HEROFILE_EXT = ".chr";
+
+  // NOTE: These fields are set by initialize(), which runs within the superclass constructor, so
+  // they must not have initializers, which would run afterwards.
+  /** Nameplate and encoding of every Hero saved, whether loaded or not */
+  private HeroStore _store;
+  /** Time to read all the Hero files, in milliseconds */
+  private double _loadMillis;
+  /** Encoded Heroes waiting to be written, by lower-case Hero name */
+  private WriteBehindQueue<String, EncodedHero> _autosave;
 
   // /** HeroRegistry is serialized to an object stream between sessions. */
   // private ObjectOutputStream _outStream = null;
@@ -74,6 +108,52 @@ public class HeroRegistry extends Registry<Hero>
   // PUBLIC METHODS
   // ========================================================
 
+  /**
+   * Add a new Hero, unless a Hero of the same name is already loaded or in the dormitory
+   * 
+   * @param hero the Hero to add
+   * @return true if added; else false
+   */
+  @Override
+  public boolean add(Hero hero)
+  {
+    if ((hero != null) && isUnloaded(hero.getKey())) {
+      return false;
+    }
+    return super.add(hero);
+  }
+
+
+  /**
+   * Verifies if a Hero of the same name is loaded or in the dormitory
+   * 
+   * @param target Hero whose name to look for
+   * @return true if the registry contains the Hero, else false
+   */
+  @Override
+  public boolean contains(Hero target)
+  {
+    return super.contains(target) || ((target != null) && isUnloaded(target.getKey()));
+  }
+
+
+  /**
+   * Remove a Hero from the registry, whether it has been loaded or not, along with any save of it
+   * still waiting to be written. A save of it already being written is waited for, so that it
+   * cannot index the Hero again once removed. The Hero's file is not deleted.
+   * 
+   * @param hero the Hero to remove
+   */
+  @Override
+  public void delete(Hero hero)
+  {
+    super.delete(hero);
+    _autosave.remove(hero.getKey().toLowerCase());
+    flushSaves();
+    _store.remove(hero.getKey());
+  }
+
+
   // /**
   // * Compare two registries, although only one should be instantiated. Required for serialization.
   // * The only field to compare is filename where the registry is stored.
@@ -102,6 +182,26 @@ public class HeroRegistry extends Registry<Hero>
   // }
 
 
+  /**
+   * Retrieve a Hero by name, reading its file from the dormitory if it has not yet been loaded
+   * 
+   * @param name name of the Hero
+   * @return the Hero; or null if there is none, or its file cannot be read
+   */
+  @Override
+  public Hero get(String name)
+  {
+    Hero hero = super.get(name);
+    if ((hero == null) && isUnloaded(name)) {
+      hero = loadHero(name);
+      if (hero != null) {
+        super.add(hero);
+      }
+    }
+    return hero;
+  }
+
+
   /**
    * Retrieves the Hero with the requested unique name
    * 
@@ -111,17 +211,97 @@ public class HeroRegistry extends Registry<Hero>
    */
   public Hero getHero(String name)
   {
-    return super.get(name);
+    return get(name);
   }
 
 
+  /**
+   * Gets all the Heroes, reading the file of each one not yet loaded. Use {@code getNamePlates()}
+   * instead when only a list of the Heroes is needed.
+   * 
+   * @return all the Heroes
+   */
   @Override
   public List<Hero> getAll()
   {
+    for (String name : _store.getNamePlates().keySet()) {
+      if (super.get(name) == null) {
+        Hero hero = loadHero(name);
+        if (hero != null) {
+          super.add(hero);
+        }
+      }
+    }
     return super.getAll();
   }
 
 
+  /**
+   * Get the time taken to read each Hero file when the registry was initialized. Files that were
+   * already indexed are not read then, and so are not listed.
+   * 
+   * @return milliseconds by file name, in the order the files were listed
+   */
+  public Map<String, Double> getFileLoadMillis()
+  {
+    return _store.getFileLoadMillis();
+  }
+
+
+  /**
+   * Get the names of the Hero files that could not be read when the registry was initialized
+   * 
+   * @return the file names, empty if all were read
+   */
+  public List<String> getLoadFailures()
+  {
+    return _store.getLoadFailures();
+  }
+
+
+  /** @return time to read all the Hero files when the registry was initialized, in milliseconds */
+  public double getLoadMillis()
+  {
+    return _loadMillis;
+  }
+
+
+  /** @return number of Heroes queued to be saved but not yet written */
+  public int getPendingSaves()
+  {
+    return _autosave.getPending();
+  }
+
+
+  /**
+   * Get the nameplate of every Hero, without reading any Hero files
+   * 
+   * @return nameplates by Hero name: those in the dormitory, then those added but not saved
+   */
+  public Map<String, String> getNamePlates()
+  {
+    Map<String, String> plates = _store.getNamePlates();
+    for (Hero hero : super.getAll()) {
+      if (_store.getNamePlate(hero.getName()) == null) {
+        plates.put(hero.getName(), hero.toNamePlate());
+      }
+    }
+    return plates;
+  }
+
+
+  /**
+   * Verify if a Hero's file has been read
+   * 
+   * @param name name of the Hero
+   * @return true if the Hero is in memory
+   */
+  public boolean isLoaded(String name)
+  {
+    return super.get(name) != null;
+  }
+
+
   // /** Required for serialization */
   // @Override
   // public int hashCode()
@@ -142,29 +322,84 @@ public class HeroRegistry extends Registry<Hero>
 
 
   /**
-   * Call the Hero's save method to dump all Heroes to individual files
+   * Save each loaded Hero that has changed since it was last saved or read, along with any saves
+   * already queued, and wait for them to be written; the index is rewritten once if any were.
+   * <P>
+   * A Hero has changed if the checksum of its encoding differs from the one indexed. Heroes are
+   * changed in place, often through the lists they hand out, so there is no dirty flag for them
+   * to set; instead, each loaded Hero is encoded and checksummed. Heroes not loaded cannot have
+   * changed, so are not even looked at. The cost of finding the changes is thus in proportion to
+   * the Heroes loaded, and only the cost of writing them is in proportion to what changed.
+   * 
+   * @return the number of Hero files written; zero if they could not be written, which is
+   *         reported, and they stay queued to be tried again
    */
-  public void saveAll()
+  public int saveAll()
   {
     for (int k = 0; k < _list.size(); k++) {
-      saveHero(_list.get(k).getName());
+      queueSave(_list.get(k));
     }
+    return flushSaves();
   }
 
 
   /**
-   * Call the Hero's save method to serialize a file using the Hero's name.
+   * Save a Hero to a file using the Hero's name, if the Hero has changed since it was last saved
+   * or read, and wait for it to be written
    * 
-   * @param key unique reference to hero to be serialized into the hero folder, in this case, the
+   * @param name unique reference to hero to be saved into the hero folder, in this case, the
    *        Hero's name
+   * @return true if the file was written
    */
-  public void saveHero(String name)
+  public boolean saveHero(String name)
+  {
+    Hero hero = super.get(name);
+    return (hero != null) && queueSave(hero) && (flushSaves() > 0);
+  }
+
+
+  /**
+   * Queue a Hero to be saved in the background, if it has changed since it was last saved or
+   * read, and return at once. The Hero is encoded now, so may be changed again right away.
+   * 
+   * @param name name of the Hero
+   * @return true if queued; false if the Hero is not loaded or has not changed
+   */
+  public boolean saveLater(String name)
+  {
+    Hero hero = super.get(name);
+    return (hero != null) && queueSave(hero);
+  }
+
+
+  /**
+   * Get the number of Heroes, loaded or not
+   * 
+   * @return the number of Heroes in the registry
+   */
+  @Override
+  public int size()
   {
-    Hero hero = getHero(name);
-    if (hero != null) {
-      String heroPath = _dirname + name + HEROFILE_EXT;
-      hero.save(heroPath);
+    int size = _store.size();
+    for (Hero hero : super.getAll()) {
+      if (_store.getNamePlate(hero.getName()) == null) {
+        size++;
+      }
     }
+    return size;
+  }
+
+
+  // ========================================================
+  // PROTECTED METHODS
+  // ========================================================
+
+  /** Remove all Heroes, loaded or not, from the registry; the Hero files are not deleted */
+  @Override
+  protected void clear()
+  {
+    super.clear();
+    _store.clear();
   }
 
 
@@ -173,34 +408,101 @@ public class HeroRegistry extends Registry<Hero>
   // ========================================================
 
   /**
-   * Reads each Hero file and extracts their nameplate (name, gender, race, klass)
+   * Opens the Hero store, and adds to the registry any Heroes it had to read to list them
    * 
-   * @param dirname directory containing all the serialized Heroes
+   * @param dirname directory containing all the Hero files, unless {@code Chronos.HeroSegPath}
+   *        is set
    */
   private void initialize(String dirname)
   {
-    // Create a File to point to the directory from which to read
-    File regFile = new File(dirname);
-    File[] heroList = regFile.listFiles();
-    if (heroList.length != 0) {
-      FileInputStream fileIn = null;
-      ObjectInputStream ois = null;
-      try {
-        for (int k = 0; k < heroList.length; k++) {
-          fileIn = new FileInputStream(heroList[k]);
-          ois = new ObjectInputStream(fileIn);
-          Hero hero = (Hero) ois.readObject();
-          _list.add(hero);
-          ois.close();
-        }
-      } catch (StreamCorruptedException scex) {
-        System.err.println("Input stream header corrupted; could not read back Heroes");
-        System.err.println("\t" + scex.getMessage());
-      } catch (IOException | ClassNotFoundException ex) {
-        System.err.println("Could not read back the HeroRegistry");
-        System.err.println("\t" + ex.getMessage());
-      }
+    long start = System.nanoTime();
+    if (Chronos.HeroSegPath != null) {
+      _store = new DormitorySegment(Chronos.HeroSegPath);
+    } else {
+      _store = new DormitoryDirectory(dirname);
+    }
+    _autosave = new WriteBehindQueue<String, EncodedHero>("Dormitory " + _store.getFile(),
+        this::writeHeroes);
+    _list.addAll(_store.open());
+    _loadMillis = (System.nanoTime() - start) / 1.0e6;
+  }
+
+
+  /**
+   * Verify if a Hero is in the dormitory index but has not been read
+   * 
+   * @param name name of the Hero
+   * @return true if the Hero's file has yet to be read
+   */
+  private boolean isUnloaded(String name)
+  {
+    return (_store.getNamePlate(name) != null) && (super.get(name) == null);
+  }
+
+
+  /**
+   * Read a Hero from the store, reporting any failure
+   * 
+   * @param name name of the Hero
+   * @return the Hero; or null if it cannot be read
+   */
+  private Hero loadHero(String name)
+  {
+    try {
+      return _store.load(name);
+    } catch (IOException ex) {
+      System.err.println("Could not read back Hero " + name);
+      System.err.println("\t" + ex.getMessage());
+      return null;
+    }
+  }
+
+
+  /**
+   * Write every queued Hero now, reporting any that cannot be written
+   * 
+   * @return the number of Hero files written
+   */
+  private int flushSaves()
+  {
+    try {
+      return _autosave.flush();
+    } catch (IOException ex) {
+      System.err.println(ex.getMessage());
+      return 0;
+    }
+  }
+
+
+  /**
+   * Encode a Hero and queue it to be written, unless it is saved as it is and no save of it is
+   * waiting or being written, which would then overwrite it
+   * 
+   * @param hero the Hero to save
+   * @return true if queued
+   */
+  private boolean queueSave(Hero hero)
+  {
+    String key = hero.getName().toLowerCase();
+    EncodedHero eh = new EncodedHero(hero);
+    if (_store.isSaved(eh) && !_autosave.isPending(key)) {
+      return false;
     }
+    _autosave.put(key, eh);
+    return true;
+  }
+
+
+  /**
+   * Write a batch of encoded Heroes to the store. Runs on the background thread of the
+   * write-behind queue, or on a thread waiting for it to flush.
+   * 
+   * @param batch the encoded Heroes, by lower-case Hero name
+   * @throws IOException naming the Heroes that could not be written
+   */
+  private void writeHeroes(Map<String, EncodedHero> batch) throws IOException
+  {
+    _store.write(batch.values());
   }
 
 
@@ -220,12 +522,27 @@ public class HeroRegistry extends Registry<Hero>
 
     }
 
+    /**
+     * Get the dormitory index file, which is kept beside the dormitory directory; or the segment
+     * file, if Heroes are kept in one
+     */
+    public File getIndexFile()
+    {
+      return _store.getFile();
+    }
+
+    /** Get the directory where Hero files that cannot be read are moved */
+    public File getQuarantineDir()
+    {
+      return DormitoryDirectory.quarantineDir(_dirname);
+    }
+
     /*
      * Clear all heroes from the hero registry, but keep the registry
      */
     public void clear()
     {
-      _list.clear();
+      HeroRegistry.this.clear();
     }
 
 
@@ -234,4 +551,3 @@ public class HeroRegistry extends Registry<Hero>
 
 
 } // end of HeroRegistry class
-
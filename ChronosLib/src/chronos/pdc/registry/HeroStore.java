@@ -0,0 +1,103 @@
+/**
+ * HeroStore.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.pdc.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import chronos.pdc.character.Hero;
+
+/**
+ * Where the {@code HeroRegistry} keeps its Heroes on disk: either one file per Hero in the
+ * dormitory directory, with {@code DormitoryDirectory}, or all of them in one file, with
+ * {@code DormitorySegment}. A store lists each Hero by name and nameplate without reading the
+ * Hero, reads a Hero when asked, and writes batches of Heroes already encoded.
+ * <P>
+ * The registry reads and lists Heroes on its own thread, but writes them from the thread of its
+ * write-behind queue, so a store must be safe for both.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ */
+interface HeroStore
+{
+  /** Forget every Hero, without changing what is on disk */
+  void clear();
+
+  /**
+   * @return the file that a test must delete, along with any Hero files, to leave no trace of
+   *         the store
+   */
+  File getFile();
+
+  /** @return time to read each Hero file when opened, in milliseconds, by file name */
+  Map<String, Double> getFileLoadMillis();
+
+  /** @return names of the Hero files or records that could not be read when opened */
+  List<String> getLoadFailures();
+
+  /**
+   * Find a Hero's nameplate without reading the Hero
+   *
+   * @param name the Hero's name, without regard to case
+   * @return the nameplate, or null if the Hero is not stored
+   */
+  String getNamePlate(String name);
+
+  /** @return nameplates of all stored Heroes, by Hero name, in the order stored */
+  Map<String, String> getNamePlates();
+
+  /**
+   * Verify that a Hero is stored exactly as encoded, so need not be written again
+   *
+   * @param hero the Hero as encoded now
+   * @return true if the stored copy is the same
+   */
+  boolean isSaved(EncodedHero hero);
+
+  /**
+   * Read a stored Hero
+   *
+   * @param name the Hero's name, without regard to case
+   * @return the Hero, or null if not stored
+   * @throws IOException if the Hero cannot be read
+   */
+  Hero load(String name) throws IOException;
+
+  /**
+   * Read what is stored, reporting what cannot be read
+   *
+   * @return the Heroes that had to be read in full to list them; the others are read on demand
+   */
+  List<Hero> open();
+
+  /**
+   * Remove a Hero from the store
+   *
+   * @param name the Hero's name, without regard to case
+   */
+  void remove(String name);
+
+  /** @return number of Heroes stored */
+  int size();
+
+  /**
+   * Write a batch of Heroes, each replacing any stored copy
+   *
+   * @param batch the Heroes, as encoded when queued
+   * @throws IOException naming the Heroes that could not be written; the others were
+   */
+  void write(Collection<EncodedHero> batch) throws IOException;
+
+} // end of HeroStore interface
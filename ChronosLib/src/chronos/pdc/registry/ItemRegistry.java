@@ -30,6 +30,7 @@ import chronos.pdc.Item.ItemCategory;
  *          May 6, 2013 // updated getInstance(boolean) <br>
  *          May 27 2017 // converted weights to lbs as standard measure <br>
  *          July 31, 2017 // updated per QATool <br>
+ *          Oct 18, 2026 // added getShared() for one frozen copy per JVM <br>
  */
 public class ItemRegistry extends Registry<Item>
 {
@@ -105,6 +106,29 @@ public class ItemRegistry extends Registry<Item>
   }
 
 
+  /**
+   * Get the single, frozen {@code ItemRegistry} shared by all callers in the JVM.
+   * It is built from the static tables the first time it is requested, and cannot be changed.
+   * 
+   * @return the shared, read-only ItemRegistry
+   */
+  public static ItemRegistry getShared()
+  {
+    return SharedHolder.SHARED;
+  }
+
+
+  /** Builds the shared registry lazily and thread-safely, on first use of the holder class */
+  private static class SharedHolder
+  {
+    static final ItemRegistry SHARED = new ItemRegistry();
+
+    static {
+      SHARED.freeze();
+    }
+  }
+
+
   /**
    * Create the Item Registry with the tables given, converting each element to a Item object and
    * saving it in the database.
@@ -23,6 +23,7 @@ import mylib.pdc.Registry;
  * @version Jan 21, 2013 // original <br>
  *          July 31, 2017 // updaed per QATool <br>
  *          Aug 9, 2017 // updated to support new Building: Stables <br>
+ *          Oct 18, 2026 // added getShared() for one frozen copy per JVM <br>
  */
 public class NPCRegistry extends Registry<NPC>
 {
@@ -508,6 +509,29 @@ public class NPCRegistry extends Registry<NPC>
   }
 
 
+  /**
+   * Get the single, frozen {@code NPCRegistry} shared by all callers in the JVM.
+   * It is built from the static tables the first time it is requested, and cannot be changed.
+   * 
+   * @return the shared, read-only NPCRegistry
+   */
+  public static NPCRegistry getShared()
+  {
+    return SharedHolder.SHARED;
+  }
+
+
+  /** Builds the shared registry lazily and thread-safely, on first use of the holder class */
+  private static class SharedHolder
+  {
+    static final NPCRegistry SHARED = new NPCRegistry();
+
+    static {
+      SHARED.freeze();
+    }
+  }
+
+
   /**
    * Get a particular NPC by name
    * 
@@ -36,6 +36,7 @@ import mylib.pdc.Registry;
  *          July 21, 2017 // ABC removed trait (or action) from ctor because actions are for Skills,
  *          not Occupations <br>
  *          July 31, 2017 // update per QATool <br>
+ *          Oct 18, 2026 // added getShared() for one frozen copy per JVM <br>
  */
 public class OccupationRegistry extends Registry<Occupation>
 {
@@ -310,6 +311,29 @@ public class OccupationRegistry extends Registry<Occupation>
   }
 
 
+  /**
+   * Get the single, frozen {@code OccupationRegistry} shared by all callers in the JVM.
+   * It is built from the static tables the first time it is requested, and cannot be changed.
+   * 
+   * @return the shared, read-only OccupationRegistry
+   */
+  public static OccupationRegistry getShared()
+  {
+    return SharedHolder.SHARED;
+  }
+
+
+  /** Builds the shared registry lazily and thread-safely, on first use of the holder class */
+  private static class SharedHolder
+  {
+    static final OccupationRegistry SHARED = new OccupationRegistry();
+
+    static {
+      SHARED.freeze();
+    }
+  }
+
+
   /**
    * Creates the Occupation Registry with the static tables given, converting each element to an
    * Occupation object and saving it in the database. Each Occupation has a Skill that must exist in
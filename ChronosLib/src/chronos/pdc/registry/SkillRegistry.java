@@ -25,6 +25,7 @@ import mylib.pdc.Registry;
  * @author Alan Cline
  * @version Jan 1 2010 // original <br>
  *          July 30, 2017 // revised per QATool <br>
+ *          Oct 18, 2026 // added getShared() for one frozen copy per JVM <br>
  */
 public class SkillRegistry extends Registry<Skill>
 {
@@ -176,6 +177,29 @@ public class SkillRegistry extends Registry<Skill>
   }
 
 
+  /**
+   * Get the single, frozen {@code SkillRegistry} shared by all callers in the JVM.
+   * It is built from the static tables the first time it is requested, and cannot be changed.
+   * 
+   * @return the shared, read-only SkillRegistry
+   */
+  public static SkillRegistry getShared()
+  {
+    return SharedHolder.SHARED;
+  }
+
+
+  /** Builds the shared registry lazily and thread-safely, on first use of the holder class */
+  private static class SharedHolder
+  {
+    static final SkillRegistry SHARED = new SkillRegistry();
+
+    static {
+      SHARED.freeze();
+    }
+  }
+
+
   /**
    * Create the Skill Registry with the tables given, converting each element to a Skill object
    * and saving it in the database.
@@ -24,6 +24,7 @@ import mylib.MsgCtrl;
 /**
  * @author Alan Cline
  * @version July 22, 2017 // initially updated per QATool <br>
+ *          Oct 18, 2026 // several days may elapse at once <br>
  */
 public class TestGameClock
 {
@@ -104,6 +105,12 @@ public class TestGameClock
     gtime = _clock.getGameTime();
     MsgCtrl.msgln("18 hours later game time is " + gtime);
     assertEquals("Day 3 12:00 AM", gtime);
+
+    // Let 2 days and 2 hours elapse at once
+    _clock.increment(50 * SECONDS_PER_HOUR);
+    gtime = _clock.getGameTime();
+    MsgCtrl.msgln("50 hours later game time is " + gtime);
+    assertEquals("Day 5 2:00 AM", gtime);
   }
 
   
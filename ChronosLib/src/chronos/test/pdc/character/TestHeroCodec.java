@@ -0,0 +1,257 @@
+/**
+ * TestHeroCodec.java Copyright (c) 2026, Alan Cline. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists,
+ * requires prior specific permission and/or a fee. Request permission to use by email:
+ * acline@carolla.com
+ */
+
+package chronos.test.pdc.character;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import chronos.civ.PersonKeys;
+import chronos.pdc.character.Hero;
+import chronos.pdc.character.HeroCodec;
+import mylib.MsgCtrl;
+
+/**
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // added tests for the checksum, and for version 1 files <br>
+ *          Oct 18, 2026 // added test of damaged content under a matching checksum <br>
+ */
+public class TestHeroCodec
+{
+  private Hero _hero;
+
+
+  @Before
+  public void setUp()
+  {
+    _hero = new Hero("Gromet", "Female", "Red", "Half-Elf");
+    assertNotNull(_hero);
+  }
+
+  @After
+  public void tearDown()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    _hero = null;
+  }
+
+
+  // ===============================================================================
+  // BEGIN TESTING
+  // ===============================================================================
+
+  /**
+   * @Normal.Test Hero decode(byte[]) -- a Hero read back has every attribute it was written with
+   */
+  @Test
+  public void testRoundTrip() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    byte[] bytes = HeroCodec.encode(_hero);
+    assertFalse(HeroCodec.isLegacy(bytes));
+    Hero copy = HeroCodec.decode(bytes);
+
+    assertEquals(_hero, copy);
+    assertEquals(attributes(_hero), attributes(copy));
+    assertEquals(_hero.toNamePlate(), copy.toNamePlate());
+    assertEquals(_hero.getOcpSkills(), copy.getOcpSkills());
+    assertEquals(_hero.getRaceSkills(), copy.getRaceSkills());
+    // Writing the copy gives the same bytes
+    assertArrayEquals(bytes, HeroCodec.encode(copy));
+  }
+
+
+  /**
+   * @Normal.Test Hero decode(byte[]) -- a Hero file written by Java serialization is still read,
+   *              and its binary form is smaller
+   */
+  @Test
+  public void testDecode_Legacy() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(legacy)) {
+      oos.writeObject(_hero);
+    }
+    byte[] bytes = legacy.toByteArray();
+    assertTrue(HeroCodec.isLegacy(bytes));
+
+    Hero copy = HeroCodec.decode(bytes);
+    assertEquals(attributes(_hero), attributes(copy));
+
+    byte[] compact = HeroCodec.encode(copy);
+    MsgCtrl.msgln("\t Serialized " + bytes.length + " bytes; binary " + compact.length + " bytes");
+    assertTrue(compact.length < bytes.length);
+  }
+
+
+  /**
+   * @Error.Test Hero decode(byte[]) -- files that are not Heroes, are of a newer version, or are
+   *             cut short are rejected
+   */
+  @Test
+  public void testErrorDecode() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    byte[] bytes = HeroCodec.encode(_hero);
+
+    // Wrong magic number
+    byte[] bad = bytes.clone();
+    bad[0] = 'X';
+    try {
+      HeroCodec.decode(bad);
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (StreamCorruptedException ex) {
+      MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+    }
+
+    // Newer version, which follows the magic number; the file is not damaged
+    bad = bytes.clone();
+    bad[4] = (byte) ((HeroCodec.VERSION + 1) << 1);
+    try {
+      HeroCodec.decode(bad);
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (IOException ex) {
+      assertFalse(ex instanceof StreamCorruptedException);
+      MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+    }
+
+    // Truncated
+    try {
+      HeroCodec.decode(Arrays.copyOf(bytes, bytes.length / 2));
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (IOException ex) {
+      MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+    }
+  }
+
+
+  /**
+   * @Error.Test Hero decode(byte[]) -- a file with any byte changed fails its checksum
+   */
+  @Test
+  public void testErrorDecode_Checksum() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    byte[] bytes = HeroCodec.encode(_hero);
+    for (int k : new int[] {8, bytes.length / 2, bytes.length - 1}) {
+      byte[] bad = bytes.clone();
+      bad[k] ^= 0x01;
+      try {
+        HeroCodec.decode(bad);
+        fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+      } catch (StreamCorruptedException ex) {
+        MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+      }
+    }
+  }
+
+
+  /**
+   * @Error.Test Hero decode(byte[]) -- content that cannot make a Hero, under a checksum that
+   *             matches it, is reported as a damaged file rather than by a RuntimeException
+   */
+  @Test
+  public void testErrorDecode_DamagedContent() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    byte[] bytes = HeroCodec.encode(_hero);
+    int nbrDamaged = 0;
+    // Change each byte after the header, and checksum the change
+    for (int k = 5; k < bytes.length - 4; k++) {
+      byte[] bad = bytes.clone();
+      bad[k] ^= 0x08;
+      CRC32 crc = new CRC32();
+      crc.update(bad, 0, bad.length - 4);
+      ByteBuffer.wrap(bad).putInt(bad.length - 4, (int) crc.getValue());
+      try {
+        HeroCodec.decode(bad);
+      } catch (StreamCorruptedException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          nbrDamaged++;
+        }
+      } catch (IOException ex) {
+        // A file cut short inside, which is damaged as well
+      } catch (RuntimeException ex) {
+        fail("Byte " + k + ": " + ex);
+      }
+    }
+    MsgCtrl.msgln("	 " + nbrDamaged + " changes could not make a Hero");
+    assertTrue(nbrDamaged > 0);
+  }
+
+
+  /**
+   * @Normal.Test Hero decode(byte[]) -- a version 1 file, which has no checksum, is still read
+   */
+  @Test
+  public void testDecode_Version1() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    byte[] bytes = HeroCodec.encode(_hero);
+    // Version 1 is the same, without the checksum
+    byte[] v1 = Arrays.copyOf(bytes, bytes.length - 4);
+    v1[4] = (byte) (1 << 1);
+    Hero copy = HeroCodec.decode(v1);
+    assertEquals(attributes(_hero), attributes(copy));
+    assertArrayEquals(bytes, HeroCodec.encode(copy));
+  }
+
+
+  // ===============================================================================
+  // PRIVATE HELPER METHODS
+  // ===============================================================================
+
+  /** Get a Hero's attributes, without the Inventory, which is shown by identity */
+  static private Map<PersonKeys, String> attributes(Hero hero)
+  {
+    Map<PersonKeys, String> map = hero.loadAttributes();
+    map.remove(PersonKeys.INVENTORY);
+    return map;
+  }
+
+
+} // end of TestHeroCodec class
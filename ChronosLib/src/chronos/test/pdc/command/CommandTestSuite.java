@@ -26,9 +26,12 @@ import org.junit.runners.Suite;
     // TODO Verify that all classes below have tests that pass, or don't need them
 
     /* chronos.pdc.registry test files */
+    TestCmdJournal.class,
+    TestCmdReplay.class,
     TestCommand.class,
     TestDeltaCmdList.class,
     TestEvent.class,
+    TestTimingWheel.class,
     // TestintCmdPatronEnter.class,
     // TestintCmdPatronLeave.class,
     // TestScheduler.class,
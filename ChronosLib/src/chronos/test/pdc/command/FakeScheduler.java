@@ -1,5 +1,6 @@
 package chronos.test.pdc.command;
 
+import chronos.pdc.command.CmdHandle;
 import chronos.pdc.command.Command;
 import chronos.pdc.command.Scheduler;
 
@@ -14,8 +15,9 @@ public class FakeScheduler extends Scheduler
     }
     
     @Override
-    public void sched(Command cmd)
+    public CmdHandle sched(Command cmd)
     {
         command = cmd;
+        return null;
     }
 }
\ No newline at end of file
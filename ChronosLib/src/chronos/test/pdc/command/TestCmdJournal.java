@@ -0,0 +1,184 @@
+/**
+ * TestCmdJournal.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.test.pdc.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import chronos.pdc.GameClock;
+import chronos.pdc.command.CmdJournal;
+import chronos.pdc.command.CmdJournal.Entry;
+import chronos.pdc.command.CmdJournal.EntryType;
+import chronos.pdc.command.DeltaCmdList;
+import chronos.pdc.command.Event;
+import chronos.pdc.command.Scheduler;
+import mylib.MsgCtrl;
+
+/**
+ * Tests that the {@code CmdJournal} reads back what it wrote, and what the {@code Scheduler}
+ * writes to it
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ */
+public class TestCmdJournal
+{
+  @AfterEach
+  public void tearDown()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    GameClock.getInstance().clear();
+  }
+
+
+  // ===============================================================================
+  // BEGIN TESTING
+  // ===============================================================================
+
+  /**
+   * @Normal.Test Session read(InputStream) -- every record is read back as written, and a record
+   *              cut short or damaged ends the journal without error
+   */
+  @Test
+  public void testRead() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    CmdJournal journal = new CmdJournal(buf, 1806L);
+    CommandProxy talk = new CommandProxy("TALK", 0, 1, "Talk command", null);
+    talk.init(Arrays.asList("Bork", "the", "Barbarian"));
+    journal.recordInput(0, "talk Bork the Barbarian");
+    journal.recordSched(new Event(talk, 60, 0));
+    journal.recordExec(60, talk, false);
+    journal.close();
+    byte[] bytes = buf.toByteArray();
+
+    CmdJournal.Session session = CmdJournal.read(new ByteArrayInputStream(bytes));
+    assertEquals(1806L, session.getSeed());
+    List<Entry> entries = session.getEntries();
+    for (Entry e : entries) {
+      MsgCtrl.msgln("\t " + e);
+    }
+    assertEquals(3, entries.size());
+    assertEquals(EntryType.INPUT, entries.get(0).getType());
+    assertEquals("talk Bork the Barbarian", entries.get(0).getText());
+    assertTrue(entries.get(0).getParms().isEmpty());
+    assertEquals(EntryType.SCHED, entries.get(1).getType());
+    assertEquals(60, entries.get(1).getTime());
+    assertEquals(Arrays.asList("Bork", "the", "Barbarian"), entries.get(1).getParms());
+    assertEquals(EntryType.EXEC, entries.get(2).getType());
+    assertEquals("TALK", entries.get(2).getText());
+    assertFalse(entries.get(2).isOk());
+
+    // Cut the last record short
+    byte[] torn = Arrays.copyOf(bytes, bytes.length - 3);
+    assertEquals(2, CmdJournal.read(new ByteArrayInputStream(torn)).getEntries().size());
+
+    // Damage the last record
+    byte[] damaged = bytes.clone();
+    damaged[damaged.length - 1] ^= 0x40;
+    List<Entry> kept = CmdJournal.read(new ByteArrayInputStream(damaged)).getEntries();
+    assertEquals(entries.subList(0, 2), kept);
+  }
+
+
+  /**
+   * @Error.Test Session read(InputStream) -- not a journal
+   */
+  @Test
+  public void testRead_Error()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    byte[] notJournal = "Not a journal at all".getBytes();
+    Assertions.assertThrows(IOException.class, () -> {
+      CmdJournal.read(new ByteArrayInputStream(notJournal));
+    });
+    Assertions.assertThrows(IOException.class, () -> {
+      CmdJournal.read(new ByteArrayInputStream(new byte[3]));
+    });
+  }
+
+
+  /**
+   * @Normal.Test Scheduler.setJournal(CmdJournal) -- the Scheduler records each Command queued
+   *              when it is queued, and each Command executed when it runs, with its game time
+   */
+  @Test
+  public void testSchedulerRecords() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    CmdJournal journal = new CmdJournal(buf, 0L);
+    Scheduler sked = new Scheduler(new DeltaCmdList(), null);
+    sked.setJournal(journal);
+
+    sked.sched(new InternalCmd("ARRIVE", 5));
+    sked.sched(new InternalCmd("DEPART", 10));
+    // Waiting runs the Commands due meanwhile
+    sked.fastForward(new CommandProxy("WAIT", 7, 1, "Wait command", null));
+    sked.setJournal(null);
+    sked.sched(new InternalCmd("UNRECORDED", 1));
+    journal.close();
+
+    String[] expected = {"SCHED at 5: ARRIVE", "SCHED at 10: DEPART", "SCHED at 7: WAIT",
+        "EXEC at 5: ARRIVE", "EXEC at 7: WAIT"};
+    List<Entry> entries = CmdJournal.read(new ByteArrayInputStream(buf.toByteArray()))
+        .getEntries();
+    assertEquals(expected.length, entries.size());
+    for (int k = 0; k < expected.length; k++) {
+      MsgCtrl.msgln("\t " + entries.get(k));
+      assertEquals(expected[k], entries.get(k).toString());
+    }
+  }
+
+
+  // ===============================================================================
+  // PRIVATE HELPERS
+  // ===============================================================================
+
+  /** A Command the game queues by itself */
+  private static class InternalCmd extends CommandProxy
+  {
+    InternalCmd(String name, int delay)
+    {
+      super(name, delay, 1, "Internal command", null);
+    }
+
+    @Override
+    public boolean isUserInput()
+    {
+      return false;
+    }
+  }
+
+
+} // end of TestCmdJournal class
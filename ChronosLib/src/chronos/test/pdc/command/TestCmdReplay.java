@@ -0,0 +1,294 @@
+/**
+ * TestCmdReplay.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.test.pdc.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import chronos.pdc.GameClock;
+import chronos.pdc.command.CmdJournal;
+import chronos.pdc.command.CmdReplay;
+import chronos.pdc.command.DeltaCmdList;
+import chronos.pdc.command.Scheduler;
+import chronos.pdc.command.TimingWheel;
+import mylib.MsgCtrl;
+import mylib.pdc.MetaDie;
+
+/**
+ * Tests that a session recorded by the {@code CmdJournal} plays again the same, with the same
+ * rolls of the dice, and that a replay that differs is caught where it first differs
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // Added test of a replay on a Scheduler that runs in parallel <br>
+ */
+public class TestCmdReplay
+{
+  /** Lines a user might enter: a name, then a delay for WAIT, or arguments */
+  static private final String[] SESSION = {"LOOK", "WAIT 600", "TALK Bork the Barbarian",
+      "WAIT 3600", "INSPECT Bork", "WAIT 7200", "LOOK"};
+
+  /** Lines that only wait, so that every Command runs by fast-forwarding */
+  static private final String[] WAITS = {"WAIT 3600", "WAIT 7200", "WAIT 1800", "WAIT 18000"};
+
+  @AfterEach
+  public void tearDown()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MetaDie.clearSessionSeed();
+    GameClock.getInstance().clear();
+  }
+
+
+  // ===============================================================================
+  // BEGIN TESTING
+  // ===============================================================================
+
+  /**
+   * @Normal.Test Result run(Scheduler, Function) -- a recorded session plays again the same,
+   *              with Commands due at random times, and on another kind of queue
+   */
+  @Test
+  public void testRun() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    CmdReplay replay = new CmdReplay(record(20260101L));
+    assertEquals(20260101L, replay.getSeed());
+    assertEquals(Arrays.asList(SESSION), replay.getInputs());
+
+    CmdReplay.Result result = replay.run(new Scheduler(new DeltaCmdList(), null), this::world);
+    MsgCtrl.msgln("\t " + result);
+    assertTrue(result.isSame());
+    assertEquals(-1, result.getDivergence());
+    assertEquals(SESSION.length, result.getInputCount());
+    assertTrue(result.getExecCount() > 100);
+
+    // The wheels take the same Commands in the same order as the heap
+    result = replay.run(new Scheduler(new TimingWheel()), this::world);
+    MsgCtrl.msgln("\t " + result);
+    assertTrue(result.isSame());
+  }
+
+
+  /**
+   * @Normal.Test Result run(Scheduler, Function) -- a parser that has changed since the session
+   *              was recorded is caught at the first Command that differs
+   */
+  @Test
+  public void testRun_Differs() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    CmdReplay replay = new CmdReplay(record(1806L));
+    // This parser drops the arguments of each line
+    CmdReplay.Result result = replay.run(new Scheduler(new DeltaCmdList(), null),
+        sked -> {
+          Predicate<String> parser = world(sked);
+          return line -> parser.test(line.startsWith("WAIT") ? line : line.split(" ")[0]);
+        });
+    MsgCtrl.msgln("\t " + result);
+    assertFalse(result.isSame());
+    assertTrue(result.getDivergence() > 0);
+    assertEquals("TALK", result.getExpected().getText());
+    assertEquals(Arrays.asList("Bork", "the", "Barbarian"), result.getExpected().getParms());
+    assertNotNull(result.getActual());
+    assertTrue(result.getActual().getParms().isEmpty());
+
+    // Other dice roll other times
+    assertFalse(record(1806L).getEntries().equals(record(1807L).getEntries()));
+  }
+
+
+  /**
+   * @Normal.Test Result run(Scheduler, Function) -- a session recorded on a Scheduler with a
+   *              fork-join pool, where many Patrons with owners of their own are due together and
+   *              queue their returns with shared dice, plays again the same each time
+   */
+  @Test
+  public void testRun_Parallel() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      CmdReplay replay = new CmdReplay(
+          record(4321L, new Scheduler(new DeltaCmdList(), pool), this::crowdedWorld, WAITS));
+      assertEquals(Arrays.asList(WAITS), replay.getInputs());
+      for (int k = 0; k < 5; k++) {
+        CmdReplay.Result result =
+            replay.run(new Scheduler(new TimingWheel(), pool), this::crowdedWorld);
+        MsgCtrl.msgln("\t " + result);
+        assertTrue(result.isSame());
+        assertTrue(result.getExecCount() > 100);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+
+  // ===============================================================================
+  // PRIVATE HELPERS
+  // ===============================================================================
+
+  /** Plays the session once, recording it as the game does, and reads the journal back */
+  private CmdJournal.Session record(long seed) throws IOException
+  {
+    return record(seed, new Scheduler(new DeltaCmdList(), null), this::world, SESSION);
+  }
+
+
+  /**
+   * Plays a session once on the given Scheduler, recording it as the game does, and reads the
+   * journal back
+   */
+  private CmdJournal.Session record(long seed, Scheduler sked,
+      Function<Scheduler, Predicate<String>> world, String[] session) throws IOException
+  {
+    MetaDie.setSessionSeed(seed);
+    GameClock.getInstance().clear();
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    CmdJournal journal = new CmdJournal(buf, seed);
+    sked.setJournal(journal);
+    Predicate<String> parser = world.apply(sked);
+    for (String line : session) {
+      parser.test(line);
+    }
+    journal.close();
+    MetaDie.clearSessionSeed();
+    return CmdJournal.read(new ByteArrayInputStream(buf.toByteArray()));
+  }
+
+
+  /**
+   * Builds a small world on the Scheduler: Patrons who come and go at random times, each coming
+   * back once more; then returns a parser that records each line as the game's parser does
+   */
+  private Predicate<String> world(Scheduler sked)
+  {
+    MetaDie md = new MetaDie();
+    for (int k = 0; k < 100; k++) {
+      sked.sched(new PatronCmd("PATRON_" + k, md.getRandom(1, 12000), sked, md));
+    }
+    return line -> {
+      CmdJournal journal = sked.getJournal();
+      if (journal != null) {
+        journal.recordInput(sked.getTime(), line);
+      }
+      List<String> words = new ArrayList<String>(Arrays.asList(line.split(" ")));
+      String name = words.remove(0);
+      if (name.equals("WAIT")) {
+        int delay = Integer.parseInt(words.remove(0));
+        sked.fastForward(new CommandProxy(name, delay, 1, "Wait command", null));
+      } else {
+        CommandProxy cmd = new CommandProxy(name, 0, 1, "User command", null);
+        cmd.init(words);
+        sked.sched(cmd);
+      }
+      return true;
+    };
+  }
+
+
+  /**
+   * Builds a crowded world on the Scheduler: Patrons, each the owner of its own visits, who come
+   * and go on the hour, so that many are due together; then returns a parser for lines that
+   * wait, which records each line as the game's parser does
+   */
+  private Predicate<String> crowdedWorld(Scheduler sked)
+  {
+    MetaDie md = new MetaDie();
+    for (int k = 0; k < 100; k++) {
+      String name = "PATRON_" + k;
+      PatronCmd cmd = new PatronCmd(name, md.getRandom(1, 4) * 3600, sked, md);
+      cmd._owners = Collections.singletonList(name);
+      sked.sched(cmd);
+    }
+    return line -> {
+      CmdJournal journal = sked.getJournal();
+      if (journal != null) {
+        journal.recordInput(sked.getTime(), line);
+      }
+      List<String> words = new ArrayList<String>(Arrays.asList(line.split(" ")));
+      words.remove(0);
+      int delay = Integer.parseInt(words.remove(0));
+      sked.fastForward(new CommandProxy("WAIT", delay, 1, "Wait command", null));
+      return true;
+    };
+  }
+
+
+  /** A Patron's visit, which queues the Patron's return at a random time */
+  private static class PatronCmd extends CommandProxy
+  {
+    private final Scheduler _sked;
+    private final MetaDie _md;
+    /** Owners of the visit and of the return it queues; none by default */
+    private List<Object> _owners = Collections.emptyList();
+
+    PatronCmd(String name, int delay, Scheduler sked, MetaDie md)
+    {
+      super(name, delay, 1, "Patron command", null);
+      _sked = sked;
+      _md = md;
+    }
+
+    @Override
+    public boolean exec()
+    {
+      if (!_name.endsWith("_AGAIN")) {
+        int delay = _owners.isEmpty() ? _md.getRandom(1, 3600) : _md.getRandom(1, 4) * 3600;
+        PatronCmd again = new PatronCmd(_name + "_AGAIN", delay, _sked, _md);
+        again._owners = _owners;
+        _sked.sched(again);
+      }
+      return true;
+    }
+
+    @Override
+    public List<Object> getOwners()
+    {
+      return _owners;
+    }
+
+    @Override
+    public boolean isUserInput()
+    {
+      return false;
+    }
+  }
+
+
+} // end of TestCmdReplay class
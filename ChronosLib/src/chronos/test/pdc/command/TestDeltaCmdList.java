@@ -11,6 +11,7 @@
 package chronos.test.pdc.command;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -32,6 +33,9 @@ import mylib.MsgCtrl;
  * @version June 10, 2018 // original <br>
  *          June 15, 2018 // Added more test helpers and beefed up some of the tests. The
  *          {@code PriorityBlockingQueue} is proving to be problematic. <br>
+ *          Oct 18, 2026 // Added tests for absolute due times and FIFO ties <br>
+ *          Oct 18, 2026 // Added test for cancel() <br>
+ *          Oct 18, 2026 // Added test for a negative delay <br>
  */
 public class TestDeltaCmdList
 {
@@ -111,6 +115,27 @@ public class TestDeltaCmdList
   // BEGIN TESTING
   // ===============================================================================
 
+  /**
+   * @Normal.Test boolean cancel(Event) -- a cancelled Command is never taken
+   */
+  @Test
+  public void testCancel()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _dq.insert(_noWaitCmd);
+    Event evt = _dq.insert(_mediumWaitCmd);
+    _dq.insert(_longWaitCmd);
+    assertTrue(_dq.cancel(evt));
+    assertFalse(_dq.cancel(evt));
+    assertEquals(2, _dq.size());
+    assertEquals("NO_WAIT", _dq.getNextCmd().getName());
+    assertEquals("LONG_WAIT", _dq.getNextCmd().getName());
+  }
+
+
   /**
    * @Normal.Test Command getNextCmd() -- Return commands in proper order from DQ
    */
@@ -135,6 +160,84 @@ public class TestDeltaCmdList
   }
 
 
+  /**
+   * @Normal.Test Command getNextCmd() -- Commands due at the same time are returned in the order
+   *              they were inserted, however many there are
+   */
+  @Test
+  public void testGetNextCmd_SameTime()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    int nbrCmds = 1000;
+    CommandProxy[] cmds = new CommandProxy[nbrCmds];
+    for (int k = 0; k < nbrCmds; k++) {
+      // Ten delays, each shared by a hundred commands inserted in a scattered order
+      cmds[k] = new CommandProxy("CMD_" + k, (k * 7) % 10, 1, "Same-time command", null);
+      _dq.insert(cmds[k]);
+    }
+    assertEquals(nbrCmds, _dq.size());
+
+    int lastDelay = -1;
+    int lastIndex = -1;
+    for (int k = 0; k < nbrCmds; k++) {
+      Command cmd = _dq.getNextCmd();
+      int index = Integer.parseInt(cmd.getName().substring(4));
+      assertTrue(cmd.getDelay() >= lastDelay);
+      if (cmd.getDelay() == lastDelay) {
+        assertTrue(index > lastIndex);
+      }
+      lastDelay = cmd.getDelay();
+      lastIndex = index;
+    }
+    assertTrue(_dq.isEmpty());
+  }
+
+
+  /**
+   * @Normal.Test Command getNextCmd() -- Commands inserted later are due after their delay from
+   *              the last command taken, and taking a command does not change those still queued
+   */
+  @Test
+  public void testGetNextCmd_RelativeToNow()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    loadQueue();
+    Object[] before = _dq.toArray();
+    assertEquals(0, _dq.getTime());
+
+    // Take NO_WAIT and SMALL_WAIT; the DQ is now at time 3
+    assertEquals("NO_WAIT", _dq.getNextCmd().getName());
+    assertEquals("SMALL_WAIT", _dq.getNextCmd().getName());
+    assertEquals(3, _dq.getTime());
+
+    // The Events left are the same objects, with the same due times
+    Object[] after = _dq.toArray();
+    assertEquals(before.length - 2, after.length);
+    for (int k = 0; k < after.length; k++) {
+      Event evt = (Event) after[k];
+      assertTrue(evt == before[k + 2]);
+      assertEquals(evt.getCommand().getDelay(), evt.getTime());
+    }
+
+    // Due at 3 + 3 = 6: after MEDIUM_WAIT (5), but before LONG_WAIT and SAME_WAIT (7)
+    _dq.insert(_smallWaitCmd);
+    String[] expCmds = {"MEDIUM_WAIT", "SMALL_WAIT", "LONG_WAIT", "SAME_WAIT"};
+    for (String exp : expCmds) {
+      assertEquals(exp, _dq.getNextCmd().getName());
+    }
+    assertEquals(7, _dq.getTime());
+
+    _dq.clear();
+    assertEquals(0, _dq.getTime());
+  }
+
+
   /**
    * @Error.Test void getNextCmd() -- Pulling from empty queue
    */
@@ -188,6 +291,29 @@ public class TestDeltaCmdList
   }
 
 
+  /**
+   * @Error.Test Event insert(Command, int) -- a negative delay is taken as none, so the Command is
+   *             not due before the time of the last Command taken
+   */
+  @Test
+  public void testInsert_NegativeDelay()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    loadQueue();
+    assertEquals("NO_WAIT", _dq.getNextCmd().getName());
+    assertEquals("SMALL_WAIT", _dq.getNextCmd().getName());
+    assertEquals(3, _dq.getTime());
+
+    Event evt = _dq.insert(_longWaitCmd, -10);
+    assertEquals(3, evt.getTime());
+    assertEquals(_longWaitCmd, _dq.getNextCmd());
+    assertEquals(3, _dq.getTime());
+  }
+
+
   /**
    * @Error.Test void insert(Command) -- Contained in test for testGetNextCmd()
    */
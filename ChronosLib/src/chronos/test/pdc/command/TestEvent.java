@@ -22,6 +22,7 @@ import mylib.MsgCtrl;
  * 
  * @author Al Cline
  * @version June 15, 2018 // original <br>
+ *          Oct 18, 2026 // Events are immutable; setDelta() removed <br>
  */
 public class TestEvent
 {
@@ -114,15 +115,28 @@ public class TestEvent
 
 
   /**
-   * @Not.Needed void setDelta(int) -- setter
+   * @Not.Needed long getSeq() -- getter
    */
   @Test
-  public void testSetDelta()
+  public void testGetSeq()
   {
     MsgCtrl.auditMsgsOn(true);
     MsgCtrl.errorMsgsOn(true);
     MsgCtrl.where(this);
-    MsgCtrl.msgln(MsgCtrl.NOTEST + MsgCtrl.SETTER);
+    MsgCtrl.msgln(MsgCtrl.NOTEST + MsgCtrl.GETTER);
+  }
+
+
+  /**
+   * @Not.Needed long getTime() -- getter
+   */
+  @Test
+  public void testGetTime()
+  {
+    MsgCtrl.auditMsgsOn(true);
+    MsgCtrl.errorMsgsOn(true);
+    MsgCtrl.where(this);
+    MsgCtrl.msgln(MsgCtrl.NOTEST + MsgCtrl.GETTER);
   }
 
 
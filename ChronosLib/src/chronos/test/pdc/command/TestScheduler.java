@@ -9,25 +9,51 @@
 
 package chronos.test.pdc.command;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import chronos.civ.UserMsgInterface;
 import chronos.pdc.GameClock;
+import chronos.pdc.command.CmdHandle;
+import chronos.pdc.command.DeltaCmdList;
 import chronos.pdc.command.Scheduler;
+import chronos.pdc.command.TimingWheel;
 import mylib.MsgCtrl;
+import mylib.pdc.MetaDie;
 
 /**
  * @author Al Cline
  * @version June 15, 2018 // original <br>
+ *          Oct 18, 2026 // Added tests for command handles and cancelling by owner <br>
+ *          Oct 18, 2026 // Added test for fastForward() <br>
+ *          Oct 18, 2026 // Added test for running the Commands of different owners in parallel <br>
+ *          Oct 18, 2026 // Added test that a delayed user Command runs only up to its time <br>
+ *          Oct 18, 2026 // That test now fast-forwards explicitly with fastForward(Command) <br>
+ *          Oct 18, 2026 // Added test that a Command cannot be rescheduled into the past <br>
+ *          Oct 18, 2026 // Added tests that Commands run in parallel by resource, not owner <br>
  */
 public class TestScheduler
 {
+  static private final int SECONDS_PER_DAY = 86400;
+
   static private Scheduler _sked;
   static private GameClock _clock;
 
@@ -89,6 +115,342 @@ public class TestScheduler
   }
 
 
+  /**
+   * @Normal.Test boolean CmdHandle.cancel() -- a cancelled Command leaves the queue, and can be
+   *              cancelled only once
+   */
+  @Test
+  public void testCancel()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DeltaCmdList queue = new DeltaCmdList();
+    Scheduler sked = new Scheduler(queue);
+    CmdHandle enter = sked.sched(new OwnedCmd("ENTER", 10));
+    CmdHandle leave = sked.sched(new OwnedCmd("LEAVE", 20));
+    assertEquals(2, queue.size());
+
+    assertTrue(enter.cancel());
+    assertFalse(enter.cancel());
+    assertEquals(1, queue.size());
+    assertEquals("LEAVE", queue.getNextCmd().getName());
+    // Already taken
+    assertFalse(leave.cancel());
+  }
+
+
+  /**
+   * @Normal.Test int fastForward(long) -- every Command due within the time skipped runs, in
+   *              order, the clock moves once, and user messages are held back until the end
+   */
+  @Test
+  public void testFastForward()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    final List<String> shown = new ArrayList<String>();
+    UserMsgInterface output = new UserMsgInterface() {
+      @Override
+      public String displayText(String msg)
+      {
+        shown.add(msg);
+        return msg;
+      }
+
+      @Override
+      public String displayErrorText(String errMsg)
+      {
+        return displayText(errMsg);
+      }
+    };
+
+    // Patrons due every 10 seconds for two days
+    TimingWheel queue = new TimingWheel();
+    Scheduler sked = new Scheduler(queue);
+    int nbrCmds = 2 * SECONDS_PER_DAY / 10;
+    List<OwnedCmd> cmds = new ArrayList<OwnedCmd>();
+    for (int k = 1; k <= nbrCmds; k++) {
+      OwnedCmd cmd = new OwnedCmd("PATRON_" + k, 10 * k);
+      cmd.setOutput(output);
+      cmd._shown = shown;
+      cmds.add(cmd);
+      sked.sched(cmd);
+    }
+
+    long start = System.currentTimeMillis();
+    long before = _clock.getTimelog();
+    assertEquals(nbrCmds / 2, sked.fastForward(SECONDS_PER_DAY));
+    MsgCtrl.msgln("\t Fast-forwarded one day in " + (System.currentTimeMillis() - start) + " ms");
+
+    assertEquals(before, _clock.getTimelog());
+    assertEquals(SECONDS_PER_DAY, queue.getTime());
+    assertEquals(nbrCmds / 2, queue.size());
+    // Each ran in order, with nothing shown until all had run
+    assertEquals(nbrCmds / 2, shown.size());
+    for (int k = 0; k < nbrCmds / 2; k++) {
+      assertEquals("PATRON_" + (k + 1), shown.get(k));
+      assertTrue(cmds.get(k)._ran);
+      assertTrue(cmds.get(k).getOutput() == output);
+    }
+    assertFalse(cmds.get(nbrCmds / 2)._ran);
+  }
+
+
+  /**
+   * @Normal.Test int fastForward(long) -- Commands due together run in parallel when their owners
+   *              differ, in order when they share one, and alone when they have none; messages
+   *              are still shown in the order the Commands were queued
+   */
+  @Test
+  public void testFastForward_Parallel() throws InterruptedException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    final List<String> shown = Collections.synchronizedList(new ArrayList<String>());
+    UserMsgInterface output = new UserMsgInterface() {
+      @Override
+      public String displayText(String msg)
+      {
+        shown.add(msg);
+        return msg;
+      }
+
+      @Override
+      public String displayErrorText(String errMsg)
+      {
+        return displayText(errMsg);
+      }
+    };
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    Scheduler sked = new Scheduler(new DeltaCmdList(), pool);
+    String[] towns = {"Arbor", "Biljur'Baz", "Carfini", "Dunmar"};
+    int cmdsPerTown = 3;
+    // Each town's first Command waits until every town has started one
+    CountDownLatch started = new CountDownLatch(towns.length);
+    AtomicInteger together = new AtomicInteger();
+    AtomicInteger townsRan = new AtomicInteger();
+    List<String> expShown = new ArrayList<String>();
+    List<List<String>> ranByTown = new ArrayList<List<String>>();
+
+    for (String town : towns) {
+      List<String> ran = Collections.synchronizedList(new ArrayList<String>());
+      ranByTown.add(ran);
+      for (int k = 0; k < cmdsPerTown; k++) {
+        String name = town + "_" + k;
+        boolean first = (k == 0);
+        OwnedCmd cmd = new OwnedCmd(name, 10, town);
+        cmd._action = () -> {
+          ran.add(name);
+          townsRan.incrementAndGet();
+          if (first) {
+            started.countDown();
+            try {
+              if (started.await(5, TimeUnit.SECONDS)) {
+                together.incrementAndGet();
+              }
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        };
+        schedWithOutput(sked, cmd, output, shown);
+        expShown.add(name);
+      }
+    }
+    // With no owner, waits for every Command before it
+    OwnedCmd barrier = new OwnedCmd("BARRIER", 10);
+    barrier._action = () -> assertEquals(towns.length * cmdsPerTown, townsRan.get());
+    schedWithOutput(sked, barrier, output, shown);
+    expShown.add("BARRIER");
+    OwnedCmd late = new OwnedCmd("LATE", 10, towns[0]);
+    late._action = () -> assertTrue(barrier._ran);
+    schedWithOutput(sked, late, output, shown);
+    expShown.add("LATE");
+
+    assertEquals(expShown.size(), sked.fastForward(10));
+    pool.shutdown();
+
+    assertEquals(towns.length, together.get());
+    for (int t = 0; t < towns.length; t++) {
+      for (int k = 0; k < cmdsPerTown; k++) {
+        assertEquals(towns[t] + "_" + k, ranByTown.get(t).get(k));
+      }
+    }
+    assertTrue(late._ran);
+    assertEquals(expShown, shown);
+  }
+
+
+  /**
+   * @Normal.Test int fastForward(long) -- Commands due together are grouped by the resources they
+   *              change, not by their owners: a Patron who comes and goes in two Inns at once
+   *              does not keep the Inns from running in parallel, but the visits of one Inn run in
+   *              order
+   */
+  @Test
+  public void testFastForward_ByResource()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    ForkJoinPool pool = new ForkJoinPool(2);
+    Scheduler sked = new Scheduler(new DeltaCmdList(), pool);
+    String[] inns = {"Ugly Ogre Inn", "Rat's Pack"};
+    String traveller = "Falsoon";
+    CountDownLatch started = new CountDownLatch(inns.length);
+    AtomicInteger together = new AtomicInteger();
+    List<List<String>> ranByInn = new ArrayList<List<String>>();
+
+    for (String inn : inns) {
+      List<String> ran = Collections.synchronizedList(new ArrayList<String>());
+      ranByInn.add(ran);
+      String[] patrons = {"Bork_" + inn, traveller, "Gwendolyn_" + inn};
+      for (int k = 0; k < patrons.length; k++) {
+        String name = inn + "_" + k;
+        boolean first = (k == 0);
+        OwnedCmd cmd = new OwnedCmd(name, 10, patrons[k], inn);
+        cmd._resources = Arrays.asList(inn);
+        cmd._action = () -> {
+          ran.add(name);
+          if (first) {
+            started.countDown();
+            try {
+              if (started.await(5, TimeUnit.SECONDS)) {
+                together.incrementAndGet();
+              }
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        };
+        sked.sched(cmd);
+      }
+    }
+
+    assertEquals(6, sked.fastForward(10));
+    pool.shutdown();
+
+    assertEquals(inns.length, together.get());
+    for (int t = 0; t < inns.length; t++) {
+      assertEquals(Arrays.asList(inns[t] + "_0", inns[t] + "_1", inns[t] + "_2"),
+          ranByInn.get(t));
+    }
+  }
+
+
+  /**
+   * @Normal.Test int fastForward(long) -- while the dice have a session seed, Commands that change
+   *              different resources still run one at a time, in order, on the calling thread
+   */
+  @Test
+  public void testFastForward_SessionSeed()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    Scheduler sked = new Scheduler(new DeltaCmdList(), pool);
+    List<String> ran = Collections.synchronizedList(new ArrayList<String>());
+    List<String> expRan = new ArrayList<String>();
+    Thread caller = Thread.currentThread();
+    for (int k = 0; k < 8; k++) {
+      String name = "TOWN_" + k;
+      OwnedCmd cmd = new OwnedCmd(name, 10, name);
+      cmd._action = () -> {
+        assertTrue(Thread.currentThread() == caller);
+        ran.add(name);
+      };
+      sked.sched(cmd);
+      expRan.add(name);
+    }
+
+    MetaDie.setSessionSeed(42L);
+    try {
+      assertEquals(expRan.size(), sked.fastForward(10));
+    } finally {
+      MetaDie.clearSessionSeed();
+      pool.shutdown();
+    }
+    assertEquals(expRan, ran);
+  }
+
+
+  /**
+   * @Normal.Test boolean CmdHandle.reschedule(int) -- a rescheduled Command moves to its new time,
+   *              behind those already due then, but never before the queue's time
+   */
+  @Test
+  public void testReschedule()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DeltaCmdList queue = new DeltaCmdList();
+    Scheduler sked = new Scheduler(queue);
+    CmdHandle early = sked.sched(new OwnedCmd("EARLY", 5));
+    sked.sched(new OwnedCmd("MIDDLE", 30));
+    sked.sched(new OwnedCmd("LATE", 60));
+
+    assertTrue(early.reschedule(30));
+    assertEquals(30, early.getTime());
+    MsgCtrl.msgln("\t" + early);
+    assertEquals(3, queue.size());
+    assertEquals("MIDDLE", queue.getNextCmd().getName());
+    assertEquals("EARLY", queue.getNextCmd().getName());
+    assertEquals("LATE", queue.getNextCmd().getName());
+    assertFalse(early.reschedule(10));
+    assertTrue(queue.isEmpty());
+
+    // A Command cannot be moved before the queue's time
+    CmdHandle past = sked.sched(new OwnedCmd("PAST", 10));
+    assertTrue(past.reschedule(-100));
+    assertEquals(queue.getTime(), past.getTime());
+  }
+
+
+  /**
+   * @Normal.Test int cancelAll(Object) -- every Command of an owner is cancelled, and no other
+   */
+  @Test
+  public void testCancelAll()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DeltaCmdList queue = new DeltaCmdList();
+    Scheduler sked = new Scheduler(queue);
+    String inn = "Ugly Ogre Inn";
+    String pub = "Rat's Pack";
+    String patron = "Patron";
+    CmdHandle first = sked.sched(new OwnedCmd("ENTER_INN", 10, patron, inn));
+    sked.sched(new OwnedCmd("LEAVE_INN", 40, patron, inn));
+    sked.sched(new OwnedCmd("ENTER_PUB", 50, patron, pub));
+    sked.sched(new OwnedCmd("NOBODY", 60));
+
+    // A Command cancelled by its handle is not counted again
+    assertTrue(first.cancel());
+    assertEquals(1, sked.cancelAll(inn));
+    assertEquals(0, sked.cancelAll(inn));
+    assertEquals(2, queue.size());
+
+    assertEquals(1, sked.cancelAll(patron));
+    assertEquals(0, sked.cancelAll(pub));
+    assertEquals(1, queue.size());
+    assertEquals("NOBODY", queue.getNextCmd().getName());
+  }
+
+
   /**
    * @Normal.Test void sched(Command) -- increment clock after successful cmd.exec()
    */
@@ -106,4 +468,97 @@ public class TestScheduler
   }
 
 
+  /**
+   * @Normal.Test CmdHandle fastForward(Command) -- a user Command that waits runs the Commands due
+   *              before it, and itself, but leaves those due after it on the queue
+   */
+  @Test
+  public void testFastForward_Command()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DeltaCmdList queue = new DeltaCmdList();
+    Scheduler sked = new Scheduler(queue, null);
+    OwnedCmd arrive = new OwnedCmd("ARRIVE", 5);
+    OwnedCmd depart = new OwnedCmd("DEPART", 10);
+    sked.sched(arrive);
+    sked.sched(depart);
+
+    sked.fastForward(new CommandProxy("WAIT", 7, 1, "Wait command", null));
+    assertTrue(arrive._ran);
+    assertFalse(depart._ran);
+    assertEquals(7, sked.getTime());
+    assertEquals(1, queue.size());
+    assertEquals("DEPART", queue.getNextCmd().getName());
+  }
+
+
+  // ===============================================================================
+  // PRIVATE HELPERS
+  // ===============================================================================
+
+  /** Schedule a command that shows its name on the output when it runs */
+  private void schedWithOutput(Scheduler sked, OwnedCmd cmd, UserMsgInterface output,
+      List<String> shown)
+  {
+    cmd.setOutput(output);
+    cmd._shown = shown;
+    sked.sched(cmd);
+  }
+
+
+  /** An internal Command, so that scheduling it does not run the queue, with any owners */
+  private static class OwnedCmd extends CommandProxy
+  {
+    private final List<Object> _owners;
+    /** What the command changes, if not its owners */
+    private List<Object> _resources;
+    /** What the output has shown, which must be nothing while the command runs */
+    private List<String> _shown;
+    private volatile boolean _ran = false;
+    /** Run as well, if any */
+    private Runnable _action;
+
+    OwnedCmd(String name, int delay, Object... owners)
+    {
+      super(name, delay, 1, "Owned command", null);
+      _owners = Arrays.asList(owners);
+    }
+
+    @Override
+    public boolean exec()
+    {
+      if (_action != null) {
+        _action.run();
+      }
+      _ran = true;
+      if (_output != null) {
+        assertTrue(_shown.isEmpty());
+        _output.displayText(_name);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isUserInput()
+    {
+      return false;
+    }
+
+    @Override
+    public List<Object> getOwners()
+    {
+      return _owners;
+    }
+
+    @Override
+    public List<Object> getResources()
+    {
+      return (_resources != null) ? _resources : _owners;
+    }
+  }
+
+
 } // end of TestScheduler.java class
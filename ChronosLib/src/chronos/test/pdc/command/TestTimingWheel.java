@@ -0,0 +1,240 @@
+/**
+ * TestTimingWheel.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.test.pdc.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import chronos.pdc.command.Command;
+import chronos.pdc.command.DeltaCmdList;
+import chronos.pdc.command.Event;
+import chronos.pdc.command.TimingWheel;
+import mylib.MsgCtrl;
+
+/**
+ * Tests the {@code TimingWheel} against the {@code DeltaCmdList}, which must take the same
+ * Commands in the same order at the same times
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // Added test for getNextEvent(long) <br>
+ */
+public class TestTimingWheel
+{
+  static private final int SECONDS_PER_HOUR = 3600;
+  static private final int SECONDS_PER_DAY = 86400;
+
+  private TimingWheel _wheel;
+
+  @BeforeEach
+  public void setUp()
+  {
+    _wheel = new TimingWheel();
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    _wheel.clear();
+  }
+
+
+  // ===============================================================================
+  // BEGIN TESTING
+  // ===============================================================================
+
+  /**
+   * @Normal.Test Command getNextCmd() -- Commands are taken in order of their due times, whether
+   *              due in seconds, minutes, hours or days, and in the order inserted when due
+   *              together
+   */
+  @Test
+  public void testGetNextCmd()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    int[] delays = {3 * SECONDS_PER_DAY, 59, 0, 61, SECONDS_PER_HOUR, 59, SECONDS_PER_DAY + 1,
+        7 * 60, SECONDS_PER_HOUR - 1, 0};
+    for (int k = 0; k < delays.length; k++) {
+      _wheel.insert(new CommandProxy("CMD_" + k, delays[k], 1, "Wheel command", null));
+    }
+    String[] expCmds = {"CMD_2", "CMD_9", "CMD_1", "CMD_5", "CMD_3", "CMD_7", "CMD_8", "CMD_4",
+        "CMD_6", "CMD_0"};
+    for (String exp : expCmds) {
+      Command cmd = _wheel.getNextCmd();
+      MsgCtrl.msgln("\t Cmd pulled = " + cmd.getName() + " at " + _wheel.getTime());
+      assertEquals(exp, cmd.getName());
+      assertEquals(cmd.getDelay(), _wheel.getTime());
+    }
+    assertTrue(_wheel.isEmpty());
+    assertEquals("NullCommand", _wheel.getNextCmd().getName());
+  }
+
+
+  /**
+   * @Normal.Test Command getNextCmd() -- with Commands inserted as others are taken, the wheels
+   *              take the same Commands at the same times as the heap
+   */
+  @Test
+  public void testGetNextCmd_SameAsHeap()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DeltaCmdList heap = new DeltaCmdList();
+    Random rand = new Random(1806);
+    int nbrCmds = 20000;
+    int inserted = 0;
+    while (inserted < nbrCmds || !heap.isEmpty()) {
+      // Insert a few, of every range, then take one
+      for (int k = 0; (k < 3) && (inserted < nbrCmds); k++) {
+        int delay = randomDelay(rand);
+        CommandProxy cmd = new CommandProxy("CMD_" + inserted++, delay, 1, "Wheel command", null);
+        heap.insert(cmd);
+        _wheel.insert(cmd);
+      }
+      assertEquals(heap.size(), _wheel.size());
+      Command expCmd = heap.getNextCmd();
+      assertTrue(expCmd == _wheel.getNextCmd());
+      assertEquals(heap.getTime(), _wheel.getTime());
+    }
+    assertTrue(_wheel.isEmpty());
+    MsgCtrl.msgln("\t " + nbrCmds + " commands taken by " + _wheel.getTime() + " seconds");
+  }
+
+
+  /**
+   * @Normal.Test Event getNextEvent(long) -- only the Commands due by a given time are taken, and
+   *              the wheels' time then moves to that time, as the heap's does
+   */
+  @Test
+  public void testGetNextEvent_Until()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DeltaCmdList heap = new DeltaCmdList();
+    Random rand = new Random(2026);
+    for (int k = 0; k < 5000; k++) {
+      int delay = randomDelay(rand);
+      CommandProxy cmd = new CommandProxy("CMD_" + k, delay, 1, "Wheel command", null);
+      heap.insert(cmd);
+      _wheel.insert(cmd);
+    }
+    // Skip ahead by random spans, inserting more from each new time
+    while (!heap.isEmpty()) {
+      long until = heap.getTime() + randomDelay(rand);
+      Event expEvt = heap.getNextEvent(until);
+      while (expEvt != null) {
+        assertTrue(expEvt.getCommand() == _wheel.getNextEvent(until).getCommand());
+        expEvt = heap.getNextEvent(until);
+      }
+      assertNull(_wheel.getNextEvent(until));
+      assertEquals(until, heap.getTime());
+      assertEquals(until, _wheel.getTime());
+      if (rand.nextInt(4) == 0) {
+        int delay = randomDelay(rand);
+        CommandProxy cmd = new CommandProxy("LATER", delay, 1, "Wheel command", null);
+        heap.insert(cmd);
+        _wheel.insert(cmd);
+      }
+      assertEquals(heap.size(), _wheel.size());
+    }
+  }
+
+
+  /**
+   * @Normal.Test boolean cancel(Event) -- a cancelled Command is never taken, wherever it waits
+   */
+  @Test
+  public void testCancel()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    int[] delays = {5, 10 * 60, 5 * SECONDS_PER_HOUR, 2 * SECONDS_PER_DAY};
+    List<Event> kept = new ArrayList<Event>();
+    for (int k = 0; k < delays.length; k++) {
+      kept.add(_wheel.insert(new CommandProxy("KEEP_" + k, delays[k], 1, "Kept", null)));
+      Event gone = _wheel.insert(new CommandProxy("GONE_" + k, delays[k], 1, "Cancelled", null));
+      assertTrue(_wheel.cancel(gone));
+      assertFalse(_wheel.cancel(gone));
+    }
+    assertEquals(delays.length, _wheel.size());
+    assertEquals(delays.length, _wheel.toArray().length);
+
+    // Cancel the last one once it has cascaded down to the second wheel
+    assertEquals("KEEP_0", _wheel.getNextCmd().getName());
+    assertEquals("KEEP_1", _wheel.getNextCmd().getName());
+    assertEquals("KEEP_2", _wheel.getNextCmd().getName());
+    assertFalse(_wheel.cancel(kept.get(0)));
+    assertTrue(_wheel.cancel(kept.get(3)));
+    assertTrue(_wheel.isEmpty());
+    assertEquals("NullCommand", _wheel.getNextCmd().getName());
+  }
+
+
+  /**
+   * @Error.Test Event insert(Command) -- null Command
+   */
+  @Test
+  public void testInsert_Error()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    Assertions.assertThrows(NullPointerException.class, () -> {
+      _wheel.insert(null);
+    });
+    assertTrue(_wheel.isEmpty());
+  }
+
+
+  // ===============================================================================
+  // PRIVATE HELPERS
+  // ===============================================================================
+
+  /** A delay of seconds, minutes, hours or days, with many the same */
+  private int randomDelay(Random rand)
+  {
+    switch (rand.nextInt(4)) {
+      case 0:
+        return rand.nextInt(60);
+      case 1:
+        return 60 * rand.nextInt(60);
+      case 2:
+        return rand.nextInt(6 * SECONDS_PER_HOUR);
+      default:
+        return rand.nextInt(4 * SECONDS_PER_DAY);
+    }
+  }
+
+
+} // end of TestTimingWheel class
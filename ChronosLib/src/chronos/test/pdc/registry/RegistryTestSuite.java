@@ -20,6 +20,7 @@ import org.junit.runners.Suite;
  * @author Alan Cline
  * @version Jan 17, 2015 // original <br>
  *          Mar 29 2016 // reviewed and updated for overall QA (<br>
+ *          Oct 18, 2026 // added TestDormitorySegment <br>
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
@@ -27,6 +28,7 @@ import org.junit.runners.Suite;
     /* CHRONOS.PDC.REGISTRY TEST FILES */
     TestAdventureRegistry.class,
     TestBuildingRegistry.class,
+    TestDormitorySegment.class,
     // TestHelpTextObject.class,    // this doesn't seem to be used yet
     TestHeroRegistry.class,
     TestItemRegistry.class,
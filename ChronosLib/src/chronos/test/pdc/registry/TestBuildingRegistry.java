@@ -10,8 +10,10 @@ package chronos.test.pdc.registry;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -20,12 +22,14 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import chronos.pdc.buildings.Building;
+import chronos.pdc.buildings.Inn;
 import chronos.pdc.registry.BuildingRegistry;
 import mylib.MsgCtrl;
 
 /**
  * @author Al Cline
  * @version August 9, 2017 // original <br>
+ *          Oct 18, 2026 // added getElementsByType test <br>
  */
 public class TestBuildingRegistry
 {
@@ -123,6 +127,27 @@ public class TestBuildingRegistry
   }
 
 
+  /**
+   * @Normal.Test List getElementsByType(Object) -- only the Inn is returned, and the view follows
+   *              deletes
+   */
+  @Test
+  public void testGetElementsByType()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    Building inn = _bldgReg.getBuilding("Ugly Ogre Inn");
+    List<Object> inns = _bldgReg.getElementsByType(inn);
+    assertEquals(1, inns.size());
+    assertTrue(inns.get(0) instanceof Inn);
+
+    _bldgReg.delete(inn);
+    assertEquals(0, inns.size());
+  }
+
+
   /**
    * @Not.Needed List getBuildingList() -- tested in testCtor
    */
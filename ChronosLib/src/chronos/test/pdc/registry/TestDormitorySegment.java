@@ -0,0 +1,258 @@
+/**
+ * TestDormitorySegment.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package chronos.test.pdc.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import chronos.pdc.Chronos;
+import chronos.pdc.Item;
+import chronos.pdc.Item.ItemCategory;
+import chronos.pdc.character.Hero;
+import chronos.pdc.registry.DormitorySegment;
+import chronos.pdc.registry.HeroRegistry;
+import mylib.MsgCtrl;
+
+/**
+ * Tests the {@code HeroRegistry} with its Heroes kept in a single {@code DormitorySegment} file
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // added test for a damaged length in the middle of the file <br>
+ */
+public class TestDormitorySegment
+{
+  static private final String[][] HEROES = {
+      {"Falsoon", "Male", "Brown", "Human"},
+      {"Blythe", "Female", "Red", "Elf"},
+      {"Balthazar", "Male", "Bald", "Hobbit"},
+      {"Borca", "Male", "Black", "Half-Orc"}};
+
+  private File _segFile;
+  /** Saved to restore the registry location */
+  private String _segPath;
+  private HeroRegistry _heroReg;
+
+
+  @Before
+  public void setUp() throws IOException
+  {
+    _segFile = File.createTempFile("Dormitory", ".seg");
+    _segFile.delete();
+    _segPath = Chronos.HeroSegPath;
+    Chronos.HeroSegPath = _segFile.getPath();
+    _heroReg = new HeroRegistry();
+    for (String[] h : HEROES) {
+      assertTrue(_heroReg.add(new Hero(h[0], h[1], h[2], h[3])));
+    }
+    assertEquals(HEROES.length, _heroReg.saveAll());
+  }
+
+  @After
+  public void tearDown()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    Chronos.HeroSegPath = _segPath;
+    _segFile.delete();
+    new File(_segFile.getPath() + ".tmp").delete();
+    new File(_segFile.getPath() + DormitorySegment.DAMAGED_SUFFIX).delete();
+    _heroReg = null;
+  }
+
+
+  // ===============================================================================
+  // BEGIN TESTING
+  // ===============================================================================
+
+  /**
+   * @Normal.Test HeroRegistry() -- Heroes saved to the segment are listed when it is reopened,
+   *              and decoded only when retrieved
+   */
+  @Test
+  public void testReopen()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    HeroRegistry reg2 = new HeroRegistry();
+    assertEquals(HEROES.length, reg2.size());
+    assertEquals(_heroReg.getNamePlates(), reg2.getNamePlates());
+    assertFalse(reg2.isLoaded("Blythe"));
+
+    Hero blythe = reg2.get("Blythe");
+    assertEquals(_heroReg.get("Blythe"), blythe);
+    assertEquals(_heroReg.get("Blythe").toNamePlate(), blythe.toNamePlate());
+    assertTrue(reg2.isLoaded("Blythe"));
+    // Nothing changed, so nothing is appended
+    long length = _segFile.length();
+    assertEquals(0, reg2.saveAll());
+    assertEquals(length, _segFile.length());
+  }
+
+
+  /**
+   * @Normal.Test void delete(Hero) -- a deleted Hero stays deleted when the segment is reopened
+   */
+  @Test
+  public void testDelete_Tombstone()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _heroReg.delete(_heroReg.get("Borca"));
+
+    HeroRegistry reg2 = new HeroRegistry();
+    assertEquals(HEROES.length - 1, reg2.size());
+    assertNull(reg2.get("Borca"));
+    DormitorySegment seg = new DormitorySegment(_segFile.getPath());
+    seg.open();
+    assertTrue(seg.getDeadBytes() > 0);
+  }
+
+
+  /**
+   * @Normal.Test void compact() -- replaced records are dropped, and every Hero is kept
+   */
+  @Test
+  public void testCompact() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // Save one Hero many times
+    Hero falsoon = _heroReg.get("Falsoon");
+    Item hammer = new Item(ItemCategory.ARMS, "Warhammer", 5.0);
+    for (int k = 0; k < 5; k++) {
+      falsoon.getInventory().getAll().add(hammer);
+      assertEquals(1, _heroReg.saveAll());
+      falsoon.getInventory().getAll().remove(hammer);
+      assertEquals(1, _heroReg.saveAll());
+    }
+
+    DormitorySegment seg = new DormitorySegment(_segFile.getPath());
+    seg.open();
+    long live = seg.getLiveBytes();
+    assertTrue(seg.getDeadBytes() > live);
+    seg.compact();
+    assertEquals(0, seg.getDeadBytes());
+    assertEquals(live + 8, _segFile.length());
+    MsgCtrl.msgln("\t Compacted to " + _segFile.length() + " bytes");
+
+    HeroRegistry reg2 = new HeroRegistry();
+    assertEquals(_heroReg.getNamePlates(), reg2.getNamePlates());
+    assertEquals(falsoon, reg2.get("Falsoon"));
+  }
+
+
+  /**
+   * @Error.Test HeroRegistry() -- a record cut short at the end of the segment, as by a crash, is
+   *             cut off, and the Heroes before it are kept
+   */
+  @Test
+  public void testErrorOpen_TornRecord() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    long length = _segFile.length();
+    try (RandomAccessFile raf = new RandomAccessFile(_segFile, "rw")) {
+      raf.seek(length);
+      // A PUT record claiming more bytes than follow it
+      raf.writeByte(1);
+      raf.writeInt(500);
+      raf.writeInt(0);
+      raf.write(new byte[20]);
+    }
+
+    HeroRegistry reg2 = new HeroRegistry();
+    assertEquals(HEROES.length, reg2.size());
+    assertEquals(1, reg2.getLoadFailures().size());
+    assertEquals(length, _segFile.length());
+    assertEquals(29, new File(_segFile.getPath() + DormitorySegment.DAMAGED_SUFFIX).length());
+  }
+
+
+  /**
+   * @Error.Test HeroRegistry() -- a record whose length is damaged, in the middle of the file,
+   *             is skipped, and the Heroes after it are kept, with nothing cut off the file
+   */
+  @Test
+  public void testErrorOpen_DamagedLength() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    long length = _segFile.length();
+    try (RandomAccessFile raf = new RandomAccessFile(_segFile, "rw")) {
+      // Skip the header and the first record, whose length follows its type byte
+      raf.seek(9);
+      long second = 8 + 9 + raf.readInt();
+      raf.seek(second + 1);
+      int len = raf.readInt();
+      raf.seek(second + 1);
+      raf.writeInt(len + 1000);
+    }
+
+    HeroRegistry reg2 = new HeroRegistry();
+    assertEquals(HEROES.length - 1, reg2.size());
+    assertEquals(1, reg2.getLoadFailures().size());
+    assertNull(reg2.get("Blythe"));
+    assertEquals(_heroReg.get("Balthazar"), reg2.get("Balthazar"));
+    assertEquals(_heroReg.get("Borca"), reg2.get("Borca"));
+    assertEquals(length, _segFile.length());
+    assertTrue(new File(_segFile.getPath() + DormitorySegment.DAMAGED_SUFFIX).length() > 0);
+  }
+
+
+  /**
+   * @Error.Test HeroRegistry() -- a record that fails its checksum is skipped, and the other
+   *             Heroes are kept
+   */
+  @Test
+  public void testErrorOpen_DamagedRecord() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // Damage the last Hero saved
+    try (RandomAccessFile raf = new RandomAccessFile(_segFile, "rw")) {
+      raf.seek(_segFile.length() - 1);
+      int b = raf.read();
+      raf.seek(_segFile.length() - 1);
+      raf.write(b ^ 0xFF);
+    }
+
+    HeroRegistry reg2 = new HeroRegistry();
+    assertEquals(HEROES.length - 1, reg2.size());
+    assertEquals(1, reg2.getLoadFailures().size());
+    assertNull(reg2.get("Borca"));
+    assertEquals(_heroReg.get("Falsoon"), reg2.get("Falsoon"));
+  }
+
+
+} // end of TestDormitorySegment class
@@ -16,7 +16,12 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -25,7 +30,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import chronos.pdc.Chronos;
+import chronos.pdc.Item;
+import chronos.pdc.Item.ItemCategory;
 import chronos.pdc.character.Hero;
+import chronos.pdc.character.HeroCodec;
 import chronos.pdc.registry.HeroRegistry;
 import chronos.pdc.registry.HeroRegistry.MockHeroRegistry;
 import mylib.MsgCtrl;
@@ -39,6 +47,13 @@ import mylib.MsgCtrl;
  *          Sept 6, 2017 // revised to pass QATool tests <br>
  *          May 11, 2018 // tried to update to JUnit 5 annotations but JUnit 5 annottions are
  *          being ignored; went back to JUnit 4. <br>
+ *          Oct 18, 2026 // added test for a corrupted file among good ones <br>
+ *          Oct 18, 2026 // added test for lazy loading from the nameplate index <br>
+ *          Oct 18, 2026 // added test for migrating serialized Hero files <br>
+ *          Oct 18, 2026 // added test for saving only changed Heroes <br>
+ *          Oct 18, 2026 // added test for saving in the background <br>
+ *          Oct 18, 2026 // added tests for quarantining damaged files and unfinished saves <br>
+ *          Oct 18, 2026 // added test that a file of a newer version is not quarantined <br>
  */
 public class TestHeroRegistry
 {
@@ -115,6 +130,12 @@ public class TestHeroRegistry
     MsgCtrl.errorMsgsOn(false);
     // clear registry
     _mock.clear();
+    _mock.getIndexFile().delete();
+    File quarantine = _mock.getQuarantineDir();
+    if (quarantine.isDirectory()) {
+      clearFolder(quarantine);
+      quarantine.delete();
+    }
     _heroReg = null;
     // Delete all Hero files in the test directory to prepare for next test
     clearFolder(_testDir);
@@ -334,6 +355,205 @@ public class TestHeroRegistry
   }
 
 
+  /**
+   * @Normal.Test void initialize(String dirname) -- Heroes that were saved are listed from the
+   *              index, and each one's file is read only when that Hero is retrieved
+   */
+  @Test
+  public void testInitialize_Lazy()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // SETUP Save all the Heroes, which indexes them
+    loadRegistry();
+    _heroReg.saveAll();
+    assertTrue(_mock.getIndexFile().isFile());
+
+    // RUN
+    HeroRegistry newReg = new HeroRegistry();
+
+    // VERIFY No Hero files were read, but all the Heroes are listed
+    assertEquals(0, newReg.getFileLoadMillis().size());
+    assertEquals(NBR_HEROES, newReg.size());
+    Map<String, String> plates = newReg.getNamePlates();
+    assertEquals(NBR_HEROES, plates.size());
+    assertEquals(_hero4.toNamePlate(), plates.get("Borca"));
+    assertFalse(newReg.isLoaded("Borca"));
+    assertTrue(newReg.contains(_hero4));
+
+    // Retrieving a Hero reads only that Hero's file
+    Hero borca = newReg.get("Borca");
+    assertNotNull(borca);
+    assertEquals("Borca", borca.getName());
+    assertTrue(newReg.isLoaded("Borca"));
+    assertFalse(newReg.isLoaded("Gromet"));
+    assertEquals(NBR_HEROES, newReg.size());
+
+    // An indexed Hero cannot be added again
+    assertFalse(newReg.add(new Hero("Gromet", "Male", "Black", "Dwarf")));
+    assertEquals(NBR_HEROES, newReg.getAll().size());
+  }
+
+
+  /**
+   * @Error.Test void initialize(String dirname) -- A corrupted Hero file is skipped and
+   *             reported; the good files around it are still loaded, and each read is timed.
+   *             Files already in the index are not read.
+   */
+  @Test
+  public void testInitialize_CorruptFile() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // SETUP Save all the Heroes, and one file that is not a Hero
+    for (Hero h : _heroList) {
+      _heroReg.add(h);
+      _heroReg.saveHero(h.getName());
+    }
+    try (FileOutputStream out = new FileOutputStream(TESTDIRPATH + "Corrupted.chr")) {
+      out.write("not a serialized Hero".getBytes());
+    }
+
+    // RUN
+    HeroRegistry newReg = new HeroRegistry();
+
+    // VERIFY
+    assertEquals(NBR_HEROES, newReg.size());
+    assertNotNull(newReg.get("Gromet"));
+    assertEquals(1, newReg.getLoadFailures().size());
+    assertEquals("Corrupted.chr", newReg.getLoadFailures().get(0));
+    assertEquals(1, newReg.getFileLoadMillis().size());
+    assertTrue(newReg.getLoadMillis() > 0);
+    // The file is moved out of the dormitory, so is not read again
+    assertFalse(new File(TESTDIRPATH + "Corrupted.chr").exists());
+    assertTrue(new File(_mock.getQuarantineDir(), "Corrupted.chr").isFile());
+    assertEquals(0, new HeroRegistry().getLoadFailures().size());
+    MsgCtrl.msgln("\t Loaded " + newReg.size() + " Heroes in " + newReg.getLoadMillis() + " ms");
+  }
+
+
+  /**
+   * @Error.Test HeroRegistry() -- a Hero file that fails its checksum is quarantined, whether or
+   *             not it is in the index, and an unfinished save is deleted, leaving the Hero it was
+   *             to replace
+   */
+  @Test
+  public void testInitialize_Quarantine() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // SETUP Save all the Heroes, then damage one, and leave a save of another unfinished
+    loadRegistry();
+    assertEquals(NBR_HEROES, _heroReg.saveAll());
+    File borcaFile = new File(TESTDIRPATH + "Borca.chr");
+    byte[] bytes = Files.readAllBytes(borcaFile.toPath());
+    bytes[bytes.length / 2] ^= 0xFF;
+    Files.write(borcaFile.toPath(), bytes);
+    File unfinished = new File(TESTDIRPATH + "Gromet.chr.tmp");
+    Files.write(unfinished.toPath(), new byte[] {1, 2, 3});
+
+    // RUN Without the index, every file is read when the registry is created
+    _mock.getIndexFile().delete();
+    HeroRegistry newReg = new HeroRegistry();
+
+    // VERIFY
+    assertEquals(NBR_HEROES - 1, newReg.size());
+    assertEquals(1, newReg.getLoadFailures().size());
+    assertTrue(new File(_mock.getQuarantineDir(), "Borca.chr").isFile());
+    assertFalse(borcaFile.exists());
+    assertFalse(unfinished.exists());
+    assertNotNull(newReg.get("Gromet"));
+
+    // RUN Damage an indexed Hero, which is read only when retrieved
+    File blytheFile = new File(TESTDIRPATH + "Blythe.chr");
+    long modified = blytheFile.lastModified();
+    bytes = Files.readAllBytes(blytheFile.toPath());
+    bytes[bytes.length - 1] ^= 0xFF;
+    Files.write(blytheFile.toPath(), bytes);
+    blytheFile.setLastModified(modified);
+    newReg = new HeroRegistry();
+    assertEquals(NBR_HEROES - 1, newReg.size());
+    assertNull(newReg.get("Blythe"));
+
+    // VERIFY
+    assertEquals(NBR_HEROES - 2, newReg.size());
+    assertTrue(new File(_mock.getQuarantineDir(), "Blythe.chr").isFile());
+    assertEquals(NBR_HEROES - 2, new HeroRegistry().size());
+  }
+
+
+  /**
+   * @Error.Test HeroRegistry() -- a Hero file of a newer version is reported, but is not damaged,
+   *             so is left in the dormitory rather than quarantined
+   */
+  @Test
+  public void testInitialize_NewerVersion() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // SETUP Save all the Heroes, then mark one as written by a newer game
+    loadRegistry();
+    assertEquals(NBR_HEROES, _heroReg.saveAll());
+    File borcaFile = new File(TESTDIRPATH + "Borca.chr");
+    byte[] bytes = Files.readAllBytes(borcaFile.toPath());
+    bytes[4] = (byte) ((HeroCodec.VERSION + 1) << 1);
+    Files.write(borcaFile.toPath(), bytes);
+
+    // RUN
+    _mock.getIndexFile().delete();
+    HeroRegistry newReg = new HeroRegistry();
+
+    // VERIFY
+    assertEquals(NBR_HEROES - 1, newReg.size());
+    assertEquals(1, newReg.getLoadFailures().size());
+    assertTrue(borcaFile.isFile());
+    assertFalse(new File(_mock.getQuarantineDir(), "Borca.chr").exists());
+    assertEquals(1, new HeroRegistry().getLoadFailures().size());
+  }
+
+
+  /**
+   * @Normal.Test void initialize(String dirname) -- A Hero file written by Java serialization is
+   *              read, and rewritten in the binary format
+   */
+  @Test
+  public void testInitialize_MigrateSerialized() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // SETUP Write a Hero the way it was saved before the binary format
+    File heroFile = new File(TESTDIRPATH + _hero3.getName() + ".chr");
+    try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(heroFile))) {
+      oos.writeObject(_hero3);
+    }
+    assertTrue(HeroCodec.isLegacy(Files.readAllBytes(heroFile.toPath())));
+
+    // RUN
+    HeroRegistry newReg = new HeroRegistry();
+
+    // VERIFY The Hero is read, and its file is now in the binary format
+    assertEquals(0, newReg.getLoadFailures().size());
+    Hero hero = newReg.get(_hero3.getName());
+    assertNotNull(hero);
+    assertEquals(_hero3.toNamePlate(), hero.toNamePlate());
+    assertEquals(_hero3.getOcpSkills(), hero.getOcpSkills());
+    byte[] bytes = Files.readAllBytes(heroFile.toPath());
+    assertFalse(HeroCodec.isLegacy(bytes));
+    assertEquals(_hero3, HeroCodec.decode(bytes));
+    assertEquals(1, _testDir.listFiles().length);
+  }
+
+
   /**
    * @Normal.Test boolean saveAll() -- save all Heroes that populate the registry
    */
@@ -368,6 +588,84 @@ public class TestHeroRegistry
   }
 
 
+  /**
+   * @Normal.Test boolean saveAll() -- only the Heroes changed since the last save are written,
+   *              and no temporary files are left behind
+   */
+  @Test
+  public void testSaveAll_OnlyChanged()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // SETUP: Save a populated registry
+    loadRegistry();
+    assertEquals(NBR_HEROES, _heroReg.saveAll());
+    File borcaFile = new File(TESTDIRPATH + "Borca.chr");
+    long borcaModified = borcaFile.lastModified();
+
+    // RUN: Nothing changed, so nothing is written
+    assertEquals(0, _heroReg.saveAll());
+    assertFalse(_heroReg.saveHero("Borca"));
+
+    // RUN: Change one Hero
+    Hero gromet = _heroReg.get("Gromet");
+    Item hammer = new Item(ItemCategory.ARMS, "Warhammer", 5.0);
+    gromet.getInventory().getAll().add(hammer);
+    assertEquals(1, _heroReg.saveAll());
+    // Restore the shared test Hero
+    gromet.getInventory().getAll().remove(hammer);
+
+    // VERIFY Only the changed Hero was written, and each file is a whole Hero
+    assertEquals(borcaModified, borcaFile.lastModified());
+    assertEquals(NBR_HEROES, _testDir.listFiles().length);
+    HeroRegistry reg2 = new HeroRegistry();
+    assertEquals(1, reg2.get("Gromet").getInventory().size());
+    assertEquals(0, reg2.get("Borca").getInventory().size());
+  }
+
+  /**
+   * @Normal.Test boolean saveLater(String name) -- the Hero is encoded when queued, and written in
+   *              the background; updates queued before the write are coalesced
+   */
+  @Test
+  public void testSaveLater() throws InterruptedException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // SETUP: Save a populated registry
+    loadRegistry();
+    assertEquals(NBR_HEROES, _heroReg.saveAll());
+    assertFalse(_heroReg.saveLater("Borca"));
+    assertFalse(_heroReg.saveLater("Nobody"));
+
+    // RUN: Change one Hero twice, queueing each change
+    Hero gromet = _heroReg.get("Gromet");
+    Item hammer = new Item(ItemCategory.ARMS, "Warhammer", 5.0);
+    Item axe = new Item(ItemCategory.ARMS, "Battleaxe", 6.0);
+    gromet.getInventory().getAll().add(hammer);
+    assertTrue(_heroReg.saveLater("Gromet"));
+    gromet.getInventory().getAll().add(axe);
+    assertTrue(_heroReg.saveLater("Gromet"));
+    // Restore the shared test Hero; the queued copy keeps both Items
+    gromet.getInventory().getAll().remove(hammer);
+    gromet.getInventory().getAll().remove(axe);
+    assertEquals(1, _heroReg.getPendingSaves());
+
+    // VERIFY The background thread writes the latest copy
+    for (int k = 0; (k < 100) && (_heroReg.getPendingSaves() > 0); k++) {
+      Thread.sleep(50);
+    }
+    assertEquals(0, _heroReg.getPendingSaves());
+    HeroRegistry reg2 = new HeroRegistry();
+    assertEquals(2, reg2.get("Gromet").getInventory().size());
+  }
+
+
+
   /**
    * @Special.Test boolean saveAll() -- save a registry without any Heroes
    */
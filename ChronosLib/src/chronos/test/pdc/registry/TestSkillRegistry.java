@@ -10,7 +10,11 @@
 package chronos.test.pdc.registry;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 
@@ -84,13 +88,9 @@ public class TestSkillRegistry
   }
 
 
-  /*
-   * TODO Currently, the in-memory table is initialized for each ctor call. In the future, it must
-   * be read once from a file and probably be a singleton
-   */
   /**
-   * @Normal.Test SkillRegistry() -- constructor should be created only once, but for now, multiple
-   *              initializations will be sufficient
+   * @Normal.Test SkillRegistry getShared() -- the same frozen registry is returned each time, and
+   *              it cannot be changed
    */
   @Test
   public void testCtor_SingleInstance()
@@ -100,10 +100,22 @@ public class TestSkillRegistry
     MsgCtrl.where(this);
 
     // SkillRegisty should be created only once
-//    SkillRegistry otherSkReg = new SkillRegistry();
-//    MsgCtrl.msgln("\t Original skill registry = " + _skReg);
-//    MsgCtrl.msgln("\t Second skill registry = " + otherSkReg);
-//    assertEquals(_skReg, otherSkReg);
+    SkillRegistry sharedReg = SkillRegistry.getShared();
+    assertSame(sharedReg, SkillRegistry.getShared());
+    assertTrue(sharedReg.isFrozen());
+    assertEquals(_skReg.size(), sharedReg.size());
+
+    // Lookups match the unfrozen registry
+    for (Skill skill : _skReg.getAll()) {
+      assertSame(_skReg.getSkill(skill.getName()), sharedReg.getSkill(skill.getName()));
+    }
+    assertNull(sharedReg.getSkill("Basket Weaving"));
+
+    // The shared registry cannot be changed
+    Skill archery = sharedReg.getSkill("Archery");
+    assertFalse(sharedReg.add(new Skill("Basket Weaving", "Weave baskets")));
+    sharedReg.delete(archery);
+    assertEquals(_skReg.size(), sharedReg.size());
   }
 
 
@@ -0,0 +1,330 @@
+/**
+ * CachedDbReadWriter.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+package mylib.dmc;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@code DbReadWriter} with a bounded, read-through cache for {@code get(name)}, so that hot
+ * lookups, such as buildings or NPCs by name, are answered from memory instead of opening and
+ * querying the database each time.
+ * <P>
+ * The cache is keyed by each element's {@code getKey()}, without regard to case, and holds at
+ * most the given number of elements; the least recently used is evicted first. Only elements that
+ * were found are cached. Every write through this read writer invalidates the keys it touches, and
+ * {@code clear()} empties the cache.
+ * <P>
+ * WARNING: Elements returned from the cache are the same instances each time. Changes made to one
+ * must be stored with {@code updateElement} so that the database and the cache agree.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // added constructor with an indexed lower-case key field <br>
+ */
+public class CachedDbReadWriter<E extends IRegistryElement> extends DbReadWriter<E>
+{
+  /** Number of elements cached, unless set otherwise */
+  static public final int DEFAULT_CAPACITY = 256;
+
+  /** Elements by lower-case key, in least- to most-recently used order */
+  private final LinkedHashMap<String, E> _cache;
+
+  /** Maximum number of elements cached */
+  private final int _capacity;
+
+  /** Lookups answered from the cache */
+  private long _hits = 0;
+  /** Lookups passed on to the database */
+  private long _misses = 0;
+  /** Elements dropped to stay within capacity */
+  private long _evictions = 0;
+
+
+  // ================================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ================================================================================
+
+  /**
+   * Creates a cached read writer for a registry that has no indexed key field
+   *
+   * @param filepath absolute path name for the file associated with the db
+   * @param capacity maximum number of elements cached
+   * @throws NullPointerException if the file path is null or empty
+   * @throws IllegalArgumentException if the capacity is less than 1
+   */
+  public CachedDbReadWriter(String filepath, int capacity)
+  {
+    super(filepath);
+    _capacity = checkCapacity(capacity);
+    _cache = newCache();
+  }
+
+
+  /**
+   * Creates a cached read writer for a registry with an indexed key field
+   *
+   * @param filepath absolute path name for the file associated with the db
+   * @param type class of the elements stored
+   * @param keyField name of the field within {@code type} that holds the key
+   * @param capacity maximum number of elements cached
+   * @throws NullPointerException if any argument is null or empty
+   * @throws IllegalArgumentException if {@code type} has no field named {@code keyField}, or the
+   *           capacity is less than 1
+   */
+  public CachedDbReadWriter(String filepath, Class<E> type, String keyField, int capacity)
+  {
+    super(filepath, type, keyField);
+    _capacity = checkCapacity(capacity);
+    _cache = newCache();
+  }
+
+
+  /**
+   * Creates a cached read writer for a registry with indexed key and lower-case key fields, so
+   * that lookups that miss the cache stay indexed even when they ignore case
+   *
+   * @param filepath absolute path name for the file associated with the db
+   * @param type class of the elements stored
+   * @param keyField name of the field within {@code type} that holds the key
+   * @param lowerKeyField name of the String field within {@code type} for the lower-case key
+   * @param capacity maximum number of elements cached
+   * @throws NullPointerException if the file path, type, or key field is null or empty
+   * @throws IllegalArgumentException if {@code type} has no field named {@code keyField}, or no
+   *           String field named {@code lowerKeyField}, or the capacity is less than 1
+   */
+  public CachedDbReadWriter(String filepath, Class<E> type, String keyField,
+      String lowerKeyField, int capacity)
+  {
+    super(filepath, type, keyField, lowerKeyField);
+    _capacity = checkCapacity(capacity);
+    _cache = newCache();
+  }
+
+
+  // ================================================================================
+  // PUBLIC METHODS
+  // ================================================================================
+
+  @Override
+  public synchronized DbBatchResult addAll(Collection<E> objs)
+  {
+    invalidate(objs);
+    return super.addAll(objs);
+  }
+
+
+  @Override
+  public synchronized boolean addElement(E obj)
+  {
+    if (obj != null) {
+      invalidate(obj.getKey());
+    }
+    return super.addElement(obj);
+  }
+
+
+  /** Deletes all elements in the registry, and empties the cache */
+  @Override
+  public synchronized void clear()
+  {
+    _cache.clear();
+    super.clear();
+  }
+
+
+  @Override
+  public synchronized DbBatchResult deleteAll(Collection<E> targets)
+  {
+    invalidate(targets);
+    return super.deleteAll(targets);
+  }
+
+
+  @Override
+  public synchronized void deleteElement(E target)
+  {
+    if (target != null) {
+      invalidate(target.getKey());
+    }
+    super.deleteElement(target);
+  }
+
+
+  /**
+   * Retrieve the element that matches the name, from the cache if it is there, else from the
+   * database, caching what is found
+   *
+   * @param name key of the target object, without regard to case
+   * @return the object with matching name; else null if not found
+   */
+  @Override
+  public synchronized E get(String name)
+  {
+    if (name == null) {
+      return null;
+    }
+    String key = name.toLowerCase();
+    E elem = _cache.get(key);
+    if (elem != null) {
+      _hits++;
+      return elem;
+    }
+    _misses++;
+    elem = super.get(name);
+    if (elem != null) {
+      _cache.put(key, elem);
+    }
+    return elem;
+  }
+
+
+  /** @return maximum number of elements cached */
+  public int getCapacity()
+  {
+    return _capacity;
+  }
+
+
+  /** @return number of elements dropped to stay within capacity */
+  public synchronized long getEvictions()
+  {
+    return _evictions;
+  }
+
+
+  /** @return number of lookups answered from the cache */
+  public synchronized long getHits()
+  {
+    return _hits;
+  }
+
+
+  /**
+   * Fraction of lookups answered from the cache
+   *
+   * @return the hit ratio; or 0 if no lookups have been made
+   */
+  public synchronized double getHitRatio()
+  {
+    long total = _hits + _misses;
+    return (total > 0) ? (double) _hits / total : 0.0;
+  }
+
+
+  /** @return number of lookups passed on to the database */
+  public synchronized long getMisses()
+  {
+    return _misses;
+  }
+
+
+  /** @return number of elements now cached */
+  public synchronized int getCacheSize()
+  {
+    return _cache.size();
+  }
+
+
+  /** Zero the hit, miss, and eviction counters, leaving the cache as it is */
+  public synchronized void resetStats()
+  {
+    _hits = 0;
+    _misses = 0;
+    _evictions = 0;
+  }
+
+
+  /**
+   * Set how deeply elements are read and stored, and empty the cache, whose elements were read
+   * with the old profile
+   *
+   * @param profile the activation and update depths to use
+   */
+  @Override
+  public synchronized void setProfile(DbActivationProfile profile)
+  {
+    super.setProfile(profile);
+    _cache.clear();
+  }
+
+
+  @Override
+  public synchronized boolean updateElement(E obj)
+  {
+    if (obj != null) {
+      invalidate(obj.getKey());
+    }
+    return super.updateElement(obj);
+  }
+
+
+  @Override
+  public synchronized DbBatchResult upsertAll(Collection<E> objs)
+  {
+    invalidate(objs);
+    return super.upsertAll(objs);
+  }
+
+
+  // ================================================================================
+  // PRIVATE METHODS
+  // ================================================================================
+
+  /** @throws IllegalArgumentException if the capacity is less than 1 */
+  static private int checkCapacity(int capacity)
+  {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+    }
+    return capacity;
+  }
+
+
+  /** Drop a key from the cache */
+  private void invalidate(String key)
+  {
+    if (key != null) {
+      _cache.remove(key.toLowerCase());
+    }
+  }
+
+
+  /** Drop the keys of a collection of elements from the cache */
+  private void invalidate(Collection<E> objs)
+  {
+    for (E obj : objs) {
+      if (obj != null) {
+        invalidate(obj.getKey());
+      }
+    }
+  }
+
+
+  /** Create the access-ordered map that evicts its eldest entry when over capacity */
+  @SuppressWarnings("serial")
+  private LinkedHashMap<String, E> newCache()
+  {
+    return new LinkedHashMap<String, E>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, E> eldest)
+      {
+        if (size() > _capacity) {
+          _evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+
+} // end of CachedDbReadWriter class
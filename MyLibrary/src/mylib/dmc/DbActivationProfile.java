@@ -0,0 +1,297 @@
+/**
+ * DbActivationProfile.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+package mylib.dmc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.db4o.config.CommonConfiguration;
+import com.db4o.config.ObjectClass;
+
+/**
+ * How deeply a {@code DbReadWriter} loads and stores each element's object graph. db4o
+ * activates (reads) and updates (rewrites) an object's references only to a given depth; deeper
+ * objects are left as unfilled shells on read and untouched on store.
+ * <P>
+ * A profile holds the database-wide activation and update depths, any per-class overrides, the
+ * classes whose updates must cascade through their whole graph, and two per-call depths: the
+ * listing depth, used when only each element's key is wanted, and the edit depth, used when an
+ * element is fetched to be changed and stored again. For example:
+ *
+ * <Pre>
+ *    DbActivationProfile profile = DbActivationProfile.keysOnly()
+ *        .activate(Hero.class, 3)
+ *        .cascadeOnUpdate(Inventory.class);
+ * </Pre>
+ *
+ * A profile is applied when the database file is opened.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ */
+public class DbActivationProfile
+{
+  /** Depth that reaches the whole object graph of any element in these registries */
+  static public final int ALL = 255;
+
+  /** Activation depth for objects with no per-class override */
+  private final int _activationDepth;
+  /** Update depth for objects with no per-class override */
+  private final int _updateDepth;
+  /** Depth used for listings, where only the key of each element is read */
+  private int _listingDepth = 1;
+  /** Depth used when an element is fetched to be edited */
+  private int _editDepth = ALL;
+
+  /** Per-class activation depths */
+  private final Map<Class<?>, Integer> _activations = new HashMap<Class<?>, Integer>();
+  /** Per-class update depths */
+  private final Map<Class<?>, Integer> _updates = new HashMap<Class<?>, Integer>();
+  /** Classes whose stores rewrite their whole object graph */
+  private final Set<Class<?>> _cascades = new HashSet<Class<?>>();
+
+
+  // ================================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ================================================================================
+
+  /**
+   * Create a profile with the given database-wide depths and no per-class overrides
+   *
+   * @param activationDepth levels of each object's graph loaded on read; at least 1
+   * @param updateDepth levels of each object's graph rewritten on store; at least 1
+   * @throws IllegalArgumentException if either depth is less than 1
+   */
+  public DbActivationProfile(int activationDepth, int updateDepth)
+  {
+    checkDepth(activationDepth);
+    checkDepth(updateDepth);
+    _activationDepth = activationDepth;
+    _updateDepth = updateDepth;
+  }
+
+
+  /**
+   * The whole object graph is loaded on every read and rewritten on every store. This was the
+   * only behavior before profiles were added, and is still the default.
+   *
+   * @return a new profile with all depths set to {@code ALL}
+   */
+  static public DbActivationProfile full()
+  {
+    return new DbActivationProfile(ALL, ALL);
+  }
+
+
+  /**
+   * Only each element's own fields are loaded and stored. Nested objects are activated only when
+   * an element is fetched for editing, or when a per-class override asks for more.
+   *
+   * @return a new profile with database-wide depths of 1
+   */
+  static public DbActivationProfile keysOnly()
+  {
+    return new DbActivationProfile(1, 1);
+  }
+
+
+  // ================================================================================
+  // PUBLIC METHODS
+  // ================================================================================
+
+  /**
+   * Override the activation depth for one class
+   *
+   * @param type class whose instances are loaded to this depth
+   * @param depth levels loaded on read; at least 1
+   * @return this profile, for chaining
+   */
+  public DbActivationProfile activate(Class<?> type, int depth)
+  {
+    checkDepth(depth);
+    _activations.put(type, depth);
+    return this;
+  }
+
+
+  /**
+   * Rewrite the whole object graph of a class each time one of its instances is stored, as is
+   * needed when its nested objects are changed in place
+   *
+   * @param type class whose stores cascade
+   * @return this profile, for chaining
+   */
+  public DbActivationProfile cascadeOnUpdate(Class<?> type)
+  {
+    _cascades.add(type);
+    return this;
+  }
+
+
+  /**
+   * Set the depth used when an element is fetched to be edited
+   *
+   * @param depth levels loaded by {@code DbReadWriter.getForEdit}; at least 1
+   * @return this profile, for chaining
+   */
+  public DbActivationProfile editDepth(int depth)
+  {
+    checkDepth(depth);
+    _editDepth = depth;
+    return this;
+  }
+
+
+  /**
+   * Set the depth used when only the keys of the elements are wanted
+   *
+   * @param depth levels loaded by {@code DbReadWriter.getKeys}; at least 1
+   * @return this profile, for chaining
+   */
+  public DbActivationProfile listingDepth(int depth)
+  {
+    checkDepth(depth);
+    _listingDepth = depth;
+    return this;
+  }
+
+
+  /**
+   * Override the update depth for one class
+   *
+   * @param type class whose instances are stored to this depth
+   * @param depth levels rewritten on store; at least 1
+   * @return this profile, for chaining
+   */
+  public DbActivationProfile update(Class<?> type, int depth)
+  {
+    checkDepth(depth);
+    _updates.put(type, depth);
+    return this;
+  }
+
+
+  /** @return activation depth for objects with no per-class override */
+  public int getActivationDepth()
+  {
+    return _activationDepth;
+  }
+
+
+  /**
+   * Get the activation depth for a class, which is its own override, else the depth of its
+   * nearest superclass with an override, else the database-wide depth
+   *
+   * @param type class to look up
+   * @return the activation depth
+   */
+  public int getActivationDepth(Class<?> type)
+  {
+    return depthFor(type, _activations, _activationDepth);
+  }
+
+
+  /** @return classes whose stores rewrite their whole object graph */
+  public Set<Class<?>> getCascades()
+  {
+    return Collections.unmodifiableSet(_cascades);
+  }
+
+
+  /** @return depth used when an element is fetched to be edited */
+  public int getEditDepth()
+  {
+    return _editDepth;
+  }
+
+
+  /** @return depth used when only the keys of the elements are wanted */
+  public int getListingDepth()
+  {
+    return _listingDepth;
+  }
+
+
+  /** @return update depth for objects with no per-class override */
+  public int getUpdateDepth()
+  {
+    return _updateDepth;
+  }
+
+
+  /**
+   * Get the update depth for a class, found the same way as its activation depth
+   *
+   * @param type class to look up
+   * @return the update depth
+   */
+  public int getUpdateDepth(Class<?> type)
+  {
+    return depthFor(type, _updates, _updateDepth);
+  }
+
+
+  // ================================================================================
+  // PACKAGE METHODS
+  // ================================================================================
+
+  /**
+   * Apply this profile to a database configuration before the file is opened
+   *
+   * @param common configuration of the container about to be opened
+   */
+  void configure(CommonConfiguration common)
+  {
+    common.activationDepth(_activationDepth);
+    common.updateDepth(_updateDepth);
+    for (Map.Entry<Class<?>, Integer> entry : _activations.entrySet()) {
+      ObjectClass oc = common.objectClass(entry.getKey());
+      oc.minimumActivationDepth(entry.getValue());
+      oc.maximumActivationDepth(entry.getValue());
+    }
+    for (Map.Entry<Class<?>, Integer> entry : _updates.entrySet()) {
+      common.objectClass(entry.getKey()).updateDepth(entry.getValue());
+    }
+    for (Class<?> type : _cascades) {
+      common.objectClass(type).cascadeOnUpdate(true);
+    }
+  }
+
+
+  // ================================================================================
+  // PRIVATE METHODS
+  // ================================================================================
+
+  /** @throws IllegalArgumentException if the depth is less than 1 */
+  static private void checkDepth(int depth)
+  {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Depth must be positive: " + depth);
+    }
+  }
+
+
+  /** Find the override for a class or its nearest superclass, else use the default */
+  static private int depthFor(Class<?> type, Map<Class<?>, Integer> overrides, int dflt)
+  {
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      Integer depth = overrides.get(c);
+      if (depth != null) {
+        return depth;
+      }
+    }
+    return dflt;
+  }
+
+
+} // end of DbActivationProfile class
@@ -0,0 +1,107 @@
+/**
+ * DbBatchResult.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+package mylib.dmc;
+
+/**
+ * Counts and timing for one batch operation of {@code DbReadWriter}, such as {@code addAll}. The
+ * whole batch is committed in a single transaction, so the elapsed time includes the commit.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ */
+public class DbBatchResult
+{
+  /** Name of the batch operation, e.g., "addAll" */
+  private final String _operation;
+  /** Number of elements passed in */
+  private final int _requested;
+  /** Number of elements stored or deleted */
+  private final int _written;
+  /** Elapsed time for the whole batch, in nanoseconds */
+  private final long _elapsedNanos;
+
+  /** Nanoseconds per second */
+  static private final double NANOS_PER_SEC = 1.0e9;
+
+
+  // ================================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ================================================================================
+
+  /**
+   * Record the results of one batch
+   *
+   * @param operation name of the batch operation
+   * @param requested number of elements passed in
+   * @param written number of elements stored or deleted
+   * @param elapsedNanos elapsed time for the batch, in nanoseconds
+   */
+  public DbBatchResult(String operation, int requested, int written, long elapsedNanos)
+  {
+    _operation = operation;
+    _requested = requested;
+    _written = written;
+    _elapsedNanos = elapsedNanos;
+  }
+
+
+  // ================================================================================
+  // PUBLIC METHODS
+  // ================================================================================
+
+  /** @return elapsed time for the whole batch, in milliseconds */
+  public double getElapsedMillis()
+  {
+    return _elapsedNanos / 1.0e6;
+  }
+
+
+  /** @return number of elements passed in */
+  public int getRequested()
+  {
+    return _requested;
+  }
+
+
+  /** @return number of elements skipped, such as duplicates or keys not found */
+  public int getSkipped()
+  {
+    return _requested - _written;
+  }
+
+
+  /**
+   * Elements passed in per second, whether written or skipped, since all must be checked
+   *
+   * @return the throughput; or 0 if no time elapsed
+   */
+  public double getThroughput()
+  {
+    return (_elapsedNanos > 0) ? (_requested * NANOS_PER_SEC) / _elapsedNanos : 0.0;
+  }
+
+
+  /** @return number of elements stored or deleted */
+  public int getWritten()
+  {
+    return _written;
+  }
+
+
+  /** @return one line summary for logging */
+  @Override
+  public String toString()
+  {
+    return String.format("%s: %d requested, %d written, %d skipped in %.1f ms (%.0f/sec)",
+        _operation, _requested, _written, getSkipped(), getElapsedMillis(), getThroughput());
+  }
+
+
+} // end of DbBatchResult class
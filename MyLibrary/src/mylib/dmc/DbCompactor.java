@@ -0,0 +1,345 @@
+/**
+ * DbCompactor.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+package mylib.dmc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.db4o.Db4oEmbedded;
+import com.db4o.EmbeddedObjectContainer;
+import com.db4o.config.EmbeddedConfiguration;
+import com.db4o.defragment.Defragment;
+import com.db4o.defragment.DefragmentConfig;
+import com.db4o.ext.DatabaseFileLockedException;
+import com.db4o.ext.StoredClass;
+
+/**
+ * Reclaims the free space that deletes leave behind in a db4o file, such as a registry
+ * {@code .reg} file or an adventure's {@code .dgn} file. db4o never shrinks its files, so they
+ * only grow until compacted.
+ * <P>
+ * Compacting works on a copy, so the original is untouched until the very end:
+ * <OL>
+ * <LI>the file is claimed, so no {@code DbReadWriter} in this JVM can open it for writing, and
+ * opened, which fails if another process has it open. The original is held open, and so locked
+ * against other processes, until it has been replaced;</LI>
+ * <LI>the number of stored objects of each class is counted, and the file is copied;</LI>
+ * <LI>db4o's {@code Defragment} rewrites the copy compactly, rebuilding the key-field index if
+ * one was given;</LI>
+ * <LI>the compact copy is counted again, and must match the original class by class;</LI>
+ * <LI>the original is counted once more, and must not have changed;</LI>
+ * <LI>the compact copy is moved over the original in one atomic rename.</LI>
+ * </OL>
+ * If any step fails, the original is left as it was and the copy is deleted. Where the platform
+ * cannot rename over a file held open, as on Windows, the rename fails and nothing is compacted.
+ * <P>
+ * The compactor can be run offline from the command line, with the files to compact as
+ * arguments, or scheduled to run periodically in the background with {@code schedule}. A
+ * scheduled run that finds the file in use skips it until the next period.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // hold the original open until it is replaced <br>
+ *          Oct 18, 2026 // also index a lower-case key field <br>
+ */
+public class DbCompactor
+{
+  /** Suffix of the working copy, next to the original */
+  static public final String COMPACT_SUFFIX = ".compact";
+
+  /** Suffix of the backup that {@code Defragment} makes of the working copy */
+  static private final String BACKUP_SUFFIX = ".backup";
+
+  /** Path of the file to compact */
+  private final String _filepath;
+  /** Class whose key field is indexed, or null for none */
+  private final Class<?> _type;
+  /** Name of the indexed key field, or null for none */
+  private final String _keyField;
+  /** Name of the indexed lower-case key field, or null for none */
+  private final String _lowerKeyField;
+
+  /** File size before the last compaction, in bytes */
+  private long _bytesBefore = 0;
+  /** File size after the last compaction, in bytes */
+  private long _bytesAfter = 0;
+  /** Number of objects verified in the last compaction */
+  private long _objectCount = 0;
+  /** Elapsed time of the last compaction, in nanoseconds */
+  private long _elapsedNanos = 0;
+
+  /** Runs scheduled compactions; shared by all DbCompactors */
+  static private ScheduledExecutorService _scheduler = null;
+
+
+  // ================================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ================================================================================
+
+  /**
+   * Creates a compactor for a db4o file with no indexed fields
+   *
+   * @param filepath path of the file to compact
+   * @throws NullPointerException if the file path is null or empty
+   */
+  public DbCompactor(String filepath)
+  {
+    this(filepath, null, null, null);
+  }
+
+
+  /**
+   * Creates a compactor for a db4o file whose key field is indexed, as by a
+   * {@code DbReadWriter} built with the same type and key field
+   *
+   * @param filepath path of the file to compact
+   * @param type class of the elements stored; null if no field is indexed
+   * @param keyField name of the indexed field within {@code type}; null if none
+   * @throws NullPointerException if the file path is null or empty
+   */
+  public DbCompactor(String filepath, Class<?> type, String keyField)
+  {
+    this(filepath, type, keyField, null);
+  }
+
+
+  /**
+   * Creates a compactor for a db4o file whose key and lower-case key fields are indexed, as by a
+   * {@code DbReadWriter} built with the same type and fields
+   *
+   * @param filepath path of the file to compact
+   * @param type class of the elements stored; null if no field is indexed
+   * @param keyField name of the indexed field within {@code type}; null if none
+   * @param lowerKeyField name of the indexed lower-case key field within {@code type}; null if
+   *          none
+   * @throws NullPointerException if the file path is null or empty
+   */
+  public DbCompactor(String filepath, Class<?> type, String keyField, String lowerKeyField)
+  {
+    if ((filepath == null) || (filepath.trim().length() == 0)) {
+      throw new NullPointerException("File path cannot be null or empty");
+    }
+    _filepath = filepath;
+    _type = type;
+    _keyField = keyField;
+    _lowerKeyField = lowerKeyField;
+  }
+
+
+  /**
+   * Compact each file named on the command line, offline, and print the results
+   *
+   * @param args paths of the db4o files to compact
+   */
+  public static void main(String[] args)
+  {
+    if (args.length == 0) {
+      System.err.println("Usage: DbCompactor <file.reg|file.dgn> ...");
+      return;
+    }
+    for (String path : args) {
+      DbCompactor compactor = new DbCompactor(path);
+      try {
+        compactor.compact();
+        System.out.println(compactor);
+      } catch (IOException | RuntimeException ex) {
+        System.err.println(path + ": " + ex.getMessage());
+      }
+    }
+  }
+
+
+  // ================================================================================
+  // PUBLIC METHODS
+  // ================================================================================
+
+  /**
+   * Compact the file in place, verifying the object count before the compact copy replaces it
+   *
+   * @throws IOException if the file cannot be copied, defragmented, or replaced
+   * @throws DatabaseFileLockedException if the file is open for writing
+   * @throws IllegalStateException if the compact copy does not hold the same objects
+   */
+  public synchronized void compact() throws IOException
+  {
+    long start = System.nanoTime();
+    File orig = new File(_filepath);
+    if (!orig.isFile()) {
+      throw new IOException("No such file " + _filepath);
+    }
+    File work = new File(_filepath + COMPACT_SUFFIX);
+    File backup = new File(work.getPath() + BACKUP_SUFFIX);
+
+    if (!DbReadWriter.claim(_filepath)) {
+      throw new DatabaseFileLockedException(_filepath);
+    }
+    try {
+      // Hold the original open, and so locked against other processes, until it is replaced
+      EmbeddedObjectContainer held = Db4oEmbedded.openFile(newConfiguration(), _filepath);
+      try {
+        Map<String, Long> counts = countObjects(held);
+        Files.copy(orig.toPath(), work.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        DefragmentConfig defrag = new DefragmentConfig(work.getPath(), backup.getPath());
+        defrag.db4oConfig(newConfiguration());
+        defrag.forceBackupDelete(true);
+        Defragment.defrag(defrag);
+
+        EmbeddedObjectContainer db = Db4oEmbedded.openFile(newConfiguration(), work.getPath());
+        try {
+          Map<String, Long> compacted = countObjects(db);
+          if (!compacted.equals(counts)) {
+            throw new IllegalStateException("Compacted copy of " + _filepath + " holds "
+                + compacted + " but the original holds " + counts);
+          }
+        } finally {
+          db.close();
+        }
+        if (!countObjects(held).equals(counts)) {
+          throw new IllegalStateException(_filepath + " changed while it was being compacted");
+        }
+
+        _bytesBefore = orig.length();
+        Files.move(work.toPath(), orig.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        _bytesAfter = orig.length();
+        _objectCount = 0;
+        for (long n : counts.values()) {
+          _objectCount += n;
+        }
+      } finally {
+        // On a platform that allows the rename, this closes the replaced file
+        held.close();
+      }
+    } finally {
+      Files.deleteIfExists(work.toPath());
+      Files.deleteIfExists(backup.toPath());
+      DbReadWriter.unclaim(_filepath);
+      _elapsedNanos = System.nanoTime() - start;
+    }
+  }
+
+
+  /** @return file size after the last compaction, in bytes */
+  public synchronized long getBytesAfter()
+  {
+    return _bytesAfter;
+  }
+
+
+  /** @return file size before the last compaction, in bytes */
+  public synchronized long getBytesBefore()
+  {
+    return _bytesBefore;
+  }
+
+
+  /** @return elapsed time of the last compaction, in milliseconds */
+  public synchronized double getElapsedMillis()
+  {
+    return _elapsedNanos / 1.0e6;
+  }
+
+
+  /** @return number of objects verified in the last compaction */
+  public synchronized long getObjectCount()
+  {
+    return _objectCount;
+  }
+
+
+  /**
+   * Compact the file in the background every period, starting one period from now. A run that
+   * fails, as when the file is in use, is reported and tried again at the next period.
+   *
+   * @param period time between compactions
+   * @param unit unit of the period
+   * @return the scheduled task, which can be cancelled
+   */
+  public ScheduledFuture<?> schedule(long period, TimeUnit unit)
+  {
+    return scheduler().scheduleWithFixedDelay(() -> {
+      try {
+        compact();
+      } catch (IOException | RuntimeException ex) {
+        System.err.println("DbCompactor skipped " + _filepath + ": " + ex.getMessage());
+      }
+    }, period, period, unit);
+  }
+
+
+  /** @return one line summary of the last compaction for logging */
+  @Override
+  public synchronized String toString()
+  {
+    return String.format("%s: %d objects, %d bytes to %d bytes in %.1f ms", _filepath,
+        _objectCount, _bytesBefore, _bytesAfter, getElapsedMillis());
+  }
+
+
+  // ================================================================================
+  // PRIVATE METHODS
+  // ================================================================================
+
+  /**
+   * Count the stored objects of each application class; db4o's own classes are not counted
+   *
+   * @param db the open database
+   * @return number of objects by class name
+   */
+  static private Map<String, Long> countObjects(EmbeddedObjectContainer db)
+  {
+    Map<String, Long> counts = new TreeMap<String, Long>();
+    for (StoredClass sc : db.ext().storedClasses()) {
+      if (!sc.getName().startsWith("com.db4o")) {
+        counts.put(sc.getName(), (long) sc.getIDs().length);
+      }
+    }
+    return counts;
+  }
+
+
+  /** @return a configuration that indexes the key fields, if there are any */
+  private EmbeddedConfiguration newConfiguration()
+  {
+    EmbeddedConfiguration config = Db4oEmbedded.newConfiguration();
+    if ((_type != null) && (_keyField != null)) {
+      config.common().objectClass(_type).objectField(_keyField).indexed(true);
+    }
+    if ((_type != null) && (_lowerKeyField != null)) {
+      config.common().objectClass(_type).objectField(_lowerKeyField).indexed(true);
+    }
+    return config;
+  }
+
+
+  /** @return the daemon thread that runs scheduled compactions, created on first use */
+  static private synchronized ScheduledExecutorService scheduler()
+  {
+    if (_scheduler == null) {
+      _scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "DbCompactor");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+    return _scheduler;
+  }
+
+
+} // end of DbCompactor class
@@ -0,0 +1,170 @@
+/**
+ * DbCursor.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+package mylib.dmc;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.db4o.EmbeddedObjectContainer;
+import com.db4o.query.Predicate;
+
+/**
+ * Iterates the elements of a {@code DbReadWriter} one at a time without copying them into a list.
+ * Only the object IDs of the query are held in memory; each element is fetched and activated to
+ * the cursor's depth when {@code next()} reaches it, so a database larger than the heap can be
+ * scanned. Objects already visited are held by db4o only through weak references, so they can be
+ * garbage collected once the caller lets them go.
+ * <P>
+ * The database stays open for the life of the cursor, so {@code close()} must be called, usually
+ * with try-with-resources:
+ *
+ * <Pre>
+ *    try (DbCursor&ltHero&gt cursor = dbrw.cursor()) {
+ *      while (cursor.hasNext()) {
+ *        Hero hero = cursor.next();
+ *      }
+ *    }
+ * </Pre>
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ */
+public class DbCursor<E extends IRegistryElement> implements Iterator<E>, AutoCloseable
+{
+  /** Read writer that opened the database for this cursor */
+  private final DbReadWriter<E> _rw;
+  /** Container that was open when the cursor was created */
+  private final EmbeddedObjectContainer _db;
+  /** IDs of the candidate elements, in query order */
+  private final long[] _ids;
+  /** Elements not accepted by this filter are skipped; null to accept all */
+  private final Predicate<E> _filter;
+  /** Depth to which each element is activated when it is reached */
+  private final int _depth;
+
+  /** Index of the next candidate ID to fetch */
+  private int _ndx = 0;
+  /** Element fetched by {@code hasNext()} but not yet returned by {@code next()} */
+  private E _next = null;
+  /** Set once the cursor has released the database */
+  private boolean _closed = false;
+
+
+  // ================================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ================================================================================
+
+  /**
+   * Created only by {@code DbReadWriter}, which has already opened the database and counted this
+   * cursor as one of its users
+   *
+   * @param rw read writer that owns the database
+   * @param db the open container
+   * @param ids IDs of the candidate elements
+   * @param filter elements not matched are skipped; null to accept all
+   * @param depth activation depth for each element
+   */
+  DbCursor(DbReadWriter<E> rw, EmbeddedObjectContainer db, long[] ids, Predicate<E> filter,
+      int depth)
+  {
+    _rw = rw;
+    _db = db;
+    _ids = ids;
+    _filter = filter;
+    _depth = depth;
+  }
+
+
+  // ================================================================================
+  // PUBLIC METHODS
+  // ================================================================================
+
+  /**
+   * Activate an element more deeply than the cursor did, e.g., before editing it
+   *
+   * @param elem an element returned by this cursor
+   * @param depth levels of the element's object graph to load
+   */
+  public void activate(E elem, int depth)
+  {
+    synchronized (_rw) {
+      checkOpen();
+      _db.activate(elem, depth);
+    }
+  }
+
+
+  /**
+   * Release the database. The database file itself is closed when no other cursor or session is
+   * using it. Closing a cursor more than once has no effect.
+   */
+  @Override
+  public void close()
+  {
+    if (!_closed) {
+      _closed = true;
+      _next = null;
+      _rw.releaseCursor();
+    }
+  }
+
+
+  @Override
+  public boolean hasNext()
+  {
+    if (_next != null) {
+      return true;
+    }
+    if (_closed) {
+      return false;
+    }
+    synchronized (_rw) {
+      checkOpen();
+      while ((_next == null) && (_ndx < _ids.length)) {
+        E elem = _db.ext().getByID(_ids[_ndx++]);
+        if (elem == null) {
+          continue; // deleted since the query ran
+        }
+        _db.activate(elem, _depth);
+        if ((_filter == null) || _filter.match(elem)) {
+          _next = elem;
+        }
+      }
+    }
+    return _next != null;
+  }
+
+
+  @Override
+  public E next()
+  {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    E elem = _next;
+    _next = null;
+    return elem;
+  }
+
+
+  // ================================================================================
+  // PRIVATE METHODS
+  // ================================================================================
+
+  /** @throws IllegalStateException if the cursor has been closed */
+  private void checkOpen()
+  {
+    if (_closed) {
+      throw new IllegalStateException("DbCursor has been closed");
+    }
+  }
+
+
+} // end of DbCursor class
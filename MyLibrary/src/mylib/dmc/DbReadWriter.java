@@ -9,8 +9,23 @@
 
 package mylib.dmc;
 
+import java.io.File;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.db4o.Db4oEmbedded;
 import com.db4o.EmbeddedObjectContainer;
@@ -22,6 +37,7 @@ import com.db4o.ext.Db4oIOException;
 import com.db4o.ext.IncompatibleFileFormatException;
 import com.db4o.ext.OldFormatException;
 import com.db4o.query.Predicate;
+import com.db4o.query.Query;
 
 /**
  * Handles all object persistence operations and database management with a db4o database, and
@@ -29,9 +45,38 @@ import com.db4o.query.Predicate;
  * <P>
  * Implementation Note: db4o queries always return a {@code List<?>} of some kind instead of
  * retrieving individual elements. {@code DbReadWriter} requires all contained elements (objects) to
- * implement the {@code IRegistryElement} interface. Therefore, the private helper method
- * {@code getAllList()} is usually called before any other action is taken, and the in-memory
- * {@code List<IRegistryElement>} is used.
+ * implement the {@code IRegistryElement} interface. Lookups by key query only for the matching
+ * elements. When the element class and the name of its key field are given to the constructor,
+ * that field is indexed and the key lookups use the index; otherwise, each element's
+ * {@code getKey()} is evaluated.
+ * <P>
+ * By default, each public method opens the database file, does its work, and closes the file
+ * again. For loops of many calls, {@code openSession()} keeps one container open until
+ * {@code closeSession()} is called, the session has been idle for too long, or the JVM shuts down.
+ * Writes made during a session are committed in batches instead of one at a time.
+ * <P>
+ * Bulk loads should use {@code addAll}, {@code deleteAll}, or {@code upsertAll}, which check the
+ * keys already stored in one pass and commit the whole collection as a single transaction.
+ * <P>
+ * Large registries should be scanned with {@code cursor()} or {@code stream()} rather than
+ * {@code getAll()}. A cursor holds only the object IDs and activates each element shallowly as it
+ * is reached; the database stays open until every cursor has been closed.
+ * <P>
+ * How much of each element's object graph is read and rewritten is set by a
+ * {@code DbActivationProfile}. The default profile loads and stores the whole graph. A lighter
+ * profile can be given to {@code setProfile}; then {@code getKeys()} reads only the keys for
+ * listings, and {@code getForEdit} fully activates the one element about to be changed.
+ * <P>
+ * If another process or read writer holds the database file's lock, opening it is retried with
+ * exponential backoff, up to the limits given to {@code setLockRetry}; if the lock is still held,
+ * the {@code DatabaseFileLockedException} is thrown to the caller. The time spent waiting is kept
+ * for monitoring. A read writer that is {@code setReadOnly} neither takes nor waits for the lock,
+ * so any number of readers can share the file with one writer.
+ * <P>
+ * Implementation Note: db4o's file lock is a Java {@code FileLock}, which belongs to the whole
+ * JVM; a second container opening the file in the same JVM can release the first one's lock when
+ * its own open fails. Writers in this JVM therefore also claim the file's path in a static table
+ * before db4o opens it, and a claimed path is treated as locked.
  * <P>
  * WARNING: Do not call the {@code ObjectContainer}'s {@code open()} and {@code close()} methods
  * directly; use this class's {@code open()} and {@code close()} methods.
@@ -43,6 +88,14 @@ import com.db4o.query.Predicate;
  *          Mar 18, 2013 // revised after adding IRegistryElement <br>
  *          Dec 7, 2013 // changed dbOpen signature <br>
  *          Dec 23, 2015 // refactored for better encapsulation <br>
+ *          Oct 18, 2026 // added long-lived session mode with batched commits <br>
+ *          Oct 18, 2026 // added indexed key queries and a non-activating size() <br>
+ *          Oct 18, 2026 // added addAll, deleteAll, and upsertAll batch operations <br>
+ *          Oct 18, 2026 // added streaming cursors with lazy, shallow activation <br>
+ *          Oct 18, 2026 // replaced fixed activation and update depths with profiles <br>
+ *          Oct 18, 2026 // retry a locked file with backoff instead of exiting; read-only mode <br>
+ *          Oct 18, 2026 // a batch stopped by any error is rolled back before closing <br>
+ *          Oct 18, 2026 // indexed lower-case key for lookups that ignore case <br>
  */
 public class DbReadWriter<E extends IRegistryElement>
 {
@@ -58,6 +111,84 @@ public class DbReadWriter<E extends IRegistryElement>
   /** Exception message for null argument */
   static private final String ERR_NULL_ARG = "Argument cannot be null or empty";
 
+  /** Class of the elements stored, if known; else all {@code IRegistryElement}s are queried */
+  private final Class<E> _type;
+
+  /** Name of the indexed field holding each element's key; null if not indexed */
+  private final String _keyField;
+
+  /** Name of the indexed field holding each element's key in lower case; null if none */
+  private final String _lowerKeyField;
+
+  /** The lower-case key field, set from {@code getKey()} each time an element is stored */
+  private final Field _lowerKey;
+
+  /** Number of writes in a session that are committed together, unless set otherwise */
+  static public final int DEFAULT_COMMIT_BATCH = 100;
+
+  /** Db stays open between calls until the session is closed */
+  private boolean _session = false;
+
+  /** Number of writes in a session that are committed together */
+  private int _commitBatch = DEFAULT_COMMIT_BATCH;
+
+  /** Writes made in the session since the last commit */
+  private int _pending = 0;
+
+  /** Time of the last call made during a session, for closing idle sessions */
+  private long _lastUse = 0;
+
+  /** Closes the session when the JVM shuts down */
+  private Thread _shutdownHook = null;
+
+  /** Closes the session when it has been idle too long; shared by all DbReadWriters */
+  static private ScheduledExecutorService _idleTimer = null;
+
+  /** Idle check for the current session, if it has an idle timeout */
+  private ScheduledFuture<?> _idleCheck = null;
+
+  /** Activation depth of each element reached by a cursor, unless set otherwise */
+  static public final int DEFAULT_CURSOR_DEPTH = 1;
+
+  /** Number of cursors still open; the db is not closed while any are */
+  private int _cursors = 0;
+
+  /** Number of times a locked file is tried before giving up, unless set otherwise */
+  static public final int DEFAULT_LOCK_ATTEMPTS = 6;
+
+  /** Wait before the first retry of a locked file, unless set otherwise */
+  static public final long DEFAULT_LOCK_BACKOFF_MILLIS = 25;
+
+  /** Longest wait between retries of a locked file, unless set otherwise */
+  static public final long DEFAULT_LOCK_MAX_BACKOFF_MILLIS = 800;
+
+  /** Number of times a locked file is tried before giving up */
+  private int _lockAttempts = DEFAULT_LOCK_ATTEMPTS;
+
+  /** Wait before the first retry; doubled for each retry after that */
+  private long _lockBackoff = DEFAULT_LOCK_BACKOFF_MILLIS;
+
+  /** Longest wait between retries */
+  private long _lockMaxBackoff = DEFAULT_LOCK_MAX_BACKOFF_MILLIS;
+
+  /** Total time spent waiting for the file lock, in milliseconds */
+  private long _lockWaitMillis = 0;
+
+  /** Number of opens that found the file locked at least once */
+  private int _lockContentions = 0;
+
+  /** Db is opened read-only and without taking the file lock */
+  private boolean _readOnly = false;
+
+  /** This read writer holds the claim on its file's path in {@code _claimedPaths} */
+  private boolean _claimed = false;
+
+  /** Absolute paths of the files open for writing by read writers in this JVM */
+  static private final Set<String> _claimedPaths = new HashSet<String>();
+
+  /** Activation and update depths applied when the db is opened */
+  private DbActivationProfile _profile = DbActivationProfile.full();
+
   // ================================================================================
   // CONSTRUCTOR(S) AND RELATED METHODS
   // ================================================================================
@@ -75,6 +206,63 @@ public class DbReadWriter<E extends IRegistryElement>
     }
 
     _regPath = filepath;
+    _type = null;
+    _keyField = null;
+    _lowerKeyField = null;
+    _lowerKey = null;
+  }
+
+
+  /**
+   * Creates the read writer for a particular registry, with an index on the field that holds the
+   * value returned by each element's {@code getKey()} method. Lookups that ignore case use the
+   * index only when the key matches exactly; use the constructor that also names a lower-case
+   * key field to keep them indexed.
+   * 
+   * @param filepath absolute path name for the file associated with the db
+   * @param type class of the elements stored
+   * @param keyField name of the field within {@code type} that holds the key
+   * @throws NullPointerException if any argument is null or empty
+   * @throws IllegalArgumentException if {@code type} has no field named {@code keyField}
+   */
+  public DbReadWriter(String filepath, Class<E> type, String keyField)
+      throws NullPointerException, IllegalArgumentException
+  {
+    this(filepath, type, keyField, null);
+  }
+
+
+  /**
+   * Creates the read writer for a particular registry, with indexes on the field that holds the
+   * value returned by each element's {@code getKey()} method and on a String field that holds the
+   * same key in lower case. The read writer sets the lower-case field each time it stores an
+   * element, so the element class only declares it. Every lookup by key, with or without regard to
+   * case, is then an indexed query.
+   * 
+   * @param filepath absolute path name for the file associated with the db
+   * @param type class of the elements stored
+   * @param keyField name of the field within {@code type} that holds the key
+   * @param lowerKeyField name of the String field within {@code type} for the lower-case key;
+   *          null if none
+   * @throws NullPointerException if the file path, type, or key field is null or empty
+   * @throws IllegalArgumentException if {@code type} has no field named {@code keyField}, or no
+   *           String field named {@code lowerKeyField}
+   */
+  public DbReadWriter(String filepath, Class<E> type, String keyField, String lowerKeyField)
+      throws NullPointerException, IllegalArgumentException
+  {
+    if (!exists(filepath) || (type == null) || !exists(keyField)) {
+      throw new NullPointerException(ERR_NULL_ARG);
+    }
+    if (!hasField(type, keyField)) {
+      throw new IllegalArgumentException(type.getName() + " has no key field " + keyField);
+    }
+
+    _regPath = filepath;
+    _type = type;
+    _keyField = keyField;
+    _lowerKeyField = lowerKeyField;
+    _lowerKey = (lowerKeyField == null) ? null : stringField(type, lowerKeyField);
   }
 
 
@@ -82,12 +270,47 @@ public class DbReadWriter<E extends IRegistryElement>
   // PUBLIC METHODS
   // ================================================================================
 
+  /**
+   * Add a collection of new objects in one transaction. Objects whose key is already stored, or
+   * repeated earlier in the collection, are skipped, as {@code addElement} would skip them.
+   * 
+   * @param objs objects to add; null elements are skipped
+   * @return the counts and throughput for the batch
+   */
+  public synchronized DbBatchResult addAll(Collection<E> objs)
+  {
+    long start = System.nanoTime();
+    int written = 0;
+    try {
+      _db = open();
+      beginBatch();
+      Map<String, List<E>> stored = storedByKey();
+      for (E obj : objs) {
+        if ((obj != null) && !hasExactKey(stored, obj.getKey())) {
+          store(obj);
+          addByKey(stored, obj);
+          written++;
+        }
+      }
+      commitBatch();
+    } catch (Db4oIOException | DatabaseClosedException | DatabaseReadOnlyException ex) {
+      written = rollbackBatch(ex);
+    } catch (RuntimeException ex) {
+      abortBatch();
+      throw ex;
+    } finally {
+      release();
+    }
+    return new DbBatchResult("addAll", objs.size(), written, System.nanoTime() - start);
+  }
+
+
   /**
    * Add a new object into the database and guarantee it is unique.
    * 
    * @param obj object to add
    */
-  public boolean addElement(E obj)
+  public synchronized boolean addElement(E obj)
   {
     // Guard: null object not permitted
     if (obj == null) {
@@ -96,15 +319,15 @@ public class DbReadWriter<E extends IRegistryElement>
     try {
       _db = open();
       if (!containsElement(obj.getKey())) {
-        _db.store(obj);
-        _db.commit();
+        store(obj);
+        commit(1);
         return true;
       }
     } catch (DatabaseClosedException | DatabaseReadOnlyException ex) {
       System.err.println(ex.getMessage());
       ex.printStackTrace();
     } finally {
-      close();
+      release();
     }
     return false;
   }
@@ -117,31 +340,158 @@ public class DbReadWriter<E extends IRegistryElement>
    * WARNING: This method is for testing only. An application should never have a need to clear the
    * database, file, and DbReadWriter.
    */
-  public void clear()
+  public synchronized void clear()
   {
     try {
-      open();
-      for (E elem : getAllList()) {
-        _db.delete(elem);
+      _db = open();
+      // Deleted by ID, so that no element is activated
+      long[] ids = extentQuery().execute().ext().getIDs();
+      for (long id : ids) {
+        _db.delete(_db.ext().getByID(id));
       }
-      _db.commit();
+      commit(ids.length);
     } catch (Db4oIOException | DatabaseClosedException | DatabaseReadOnlyException ex) {
       handleDbException(ex);
     } finally {
-      close();
+      release();
+    }
+  }
+
+
+  /**
+   * Commit all writes made so far in the current session. Outside of a session, every write is
+   * already committed, so nothing is done.
+   */
+  public synchronized void commit()
+  {
+    if (_open && (_pending > 0)) {
+      try {
+        _db.commit();
+        _pending = 0;
+      } catch (Db4oIOException | DatabaseClosedException | DatabaseReadOnlyException ex) {
+        handleDbException(ex);
+      }
+    }
+  }
+
+
+  /**
+   * Commit any pending writes and close the database, ending the session. Calls made afterwards
+   * open and close the database themselves again.
+   */
+  public synchronized void closeSession()
+  {
+    if (!_session) {
+      return;
+    }
+    commit();
+    _session = false;
+    if (_idleCheck != null) {
+      _idleCheck.cancel(false);
+      _idleCheck = null;
+    }
+    if (_shutdownHook != null) {
+      try {
+        Runtime.getRuntime().removeShutdownHook(_shutdownHook);
+      } catch (IllegalStateException ex) {
+        // JVM is already shutting down, and this may be the hook itself
+      }
+      _shutdownHook = null;
     }
+    release();
   }
 
-  public boolean contains(final E target)
+
+  public synchronized boolean contains(final E target)
   {
     try {
       open();
       return containsElement(target.getKey());
     } finally {
-      close();
+      release();
+    }
+  }
+
+  /**
+   * Open a cursor over all stored elements, each activated {@code DEFAULT_CURSOR_DEPTH} deep
+   * 
+   * @return a cursor that must be closed when done
+   */
+  public DbCursor<E> cursor()
+  {
+    return cursor(null, DEFAULT_CURSOR_DEPTH);
+  }
+
+
+  /**
+   * Open a cursor over the stored elements that match a filter. Only the object IDs are read
+   * when the cursor is opened; each element is fetched and activated to the given depth when the
+   * cursor reaches it, and the filter is applied after activation. The database stays open, even
+   * outside of a session, until the cursor is closed.
+   * 
+   * @param filter elements not matched are skipped; null to accept all
+   * @param depth levels of each element's object graph to load; at least 1
+   * @return a cursor that must be closed when done
+   * @throws IllegalArgumentException if the depth is less than 1
+   */
+  public synchronized DbCursor<E> cursor(Predicate<E> filter, int depth)
+  {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Cursor activation depth must be positive");
+    }
+    _db = open();
+    long[] ids;
+    try {
+      ids = extentQuery().execute().ext().getIDs();
+    } catch (Db4oIOException | DatabaseClosedException ex) {
+      handleDbException(ex);
+      ids = new long[0];
+    }
+    _cursors++;
+    return new DbCursor<E>(this, _db, ids, filter, depth);
+  }
+
+
+  /**
+   * Delete every stored object whose key matches, without regard to case, the key of one of the
+   * given objects, all in one transaction.
+   * 
+   * @param targets objects whose keys are to be deleted; null elements are skipped
+   * @return the counts and throughput for the batch; written is the number of objects deleted
+   */
+  public synchronized DbBatchResult deleteAll(Collection<E> targets)
+  {
+    long start = System.nanoTime();
+    int written = 0;
+    try {
+      _db = open();
+      beginBatch();
+      Map<String, List<E>> stored = storedByKey();
+      for (E target : targets) {
+        if (target == null) {
+          continue;
+        }
+        List<E> matches = stored.remove(target.getKey().toLowerCase());
+        if (matches != null) {
+          for (E el : matches) {
+            _db.delete(el);
+            written++;
+          }
+        }
+      }
+      commitBatch();
+    } catch (Db4oIOException | DatabaseClosedException | DatabaseReadOnlyException ex) {
+      written = rollbackBatch(ex);
+    } catch (RuntimeException ex) {
+      abortBatch();
+      throw ex;
+    } finally {
+      release();
     }
+    return new DbBatchResult("deleteAll", targets.size(), written, System.nanoTime() - start);
   }
 
+
   /**
    * Delete an object from the database. The object must be retrieved before being deleted. The
    * caller must handle exceptions if the database is closed or Read-Only.
@@ -149,7 +499,7 @@ public class DbReadWriter<E extends IRegistryElement>
    * @param target object to delete
    * @return true if delete was successful, else false
    */
-  public void deleteElement(E target)
+  public synchronized void deleteElement(E target)
   {
     if (target == null) {
       return;
@@ -157,24 +507,23 @@ public class DbReadWriter<E extends IRegistryElement>
 
     try {
       _db = open();
-      for (E el : getAllList()) {
-        if (el.getKey().equalsIgnoreCase(target.getKey())) {
-          _db.delete(el);
-        }
+      List<E> matches = findByKey(target.getKey(), true);
+      for (E el : matches) {
+        _db.delete(el);
       }
-      _db.commit();
+      commit(matches.size());
     } catch (Db4oIOException | DatabaseClosedException | DatabaseReadOnlyException ex) {
       handleDbException(ex);
     } finally {
-      close();
+      release();
     }
   }
 
   
-  public List<String> getAllNames(E elemType)
+  public synchronized List<String> getAllNames(E elemType)
   {
     List<String> nameList = getAllNamesByType(elemType);
-    close();
+    release();
     return nameList;
   }
 
@@ -184,7 +533,7 @@ public class DbReadWriter<E extends IRegistryElement>
    * @param name key of the target object to match against for comparison
    * @return the object with matching name; else null if not found
    */
-  public E get(String name)
+  public synchronized E get(String name)
   {
     if (!exists(name)) {
       return null;
@@ -192,137 +541,767 @@ public class DbReadWriter<E extends IRegistryElement>
 
     _db = open();
     try {
-      List<E> elementList = getAllList();
-      for (E obj : elementList) {
-        if (obj.getKey().equalsIgnoreCase(name)) {
-          return obj;
-        }
+      List<E> matches = findByKey(name, true);
+      if (!matches.isEmpty()) {
+        return matches.get(0);
       }
     } finally {
-      close();
+      release();
     }
     return null;
   }
 
 
-  public List<E> getAll()
+  /**
+   * Retrieve the first element that matches the name, activated to the profile's edit depth so
+   * that its whole object graph can be changed and stored again with {@code updateElement}
+   * 
+   * @param name key of the target object, without regard to case
+   * @return the fully activated object; else null if not found
+   */
+  public synchronized E getForEdit(String name)
   {
+    if (!exists(name)) {
+      return null;
+    }
+
+    _db = open();
     try {
-      open();
-      List<E> list = getAllList();
-      return list;
+      List<E> matches = findByKey(name, true);
+      if (!matches.isEmpty()) {
+        E elem = matches.get(0);
+        _db.activate(elem, _profile.getEditDepth());
+        return elem;
+      }
     } finally {
-      close();
+      release();
     }
+    return null;
   }
 
-  public List<E> query(Predicate<E> pred)
+
+  /**
+   * List the keys of all stored elements, activating each only to the profile's listing depth,
+   * so that nested objects such as descriptions are not read
+   * 
+   * @return the keys, in storage order
+   */
+  public synchronized List<String> getKeys()
   {
-    List<E> alist = new ArrayList<E>();
+    List<String> keys = new ArrayList<String>();
     try {
-      open();
-      alist.addAll(_db.query(pred));
-      return alist;
+      _db = open();
+      for (long id : extentQuery().execute().ext().getIDs()) {
+        E elem = cast(_db.ext().getByID(id));
+        _db.activate(elem, _profile.getListingDepth());
+        keys.add(elem.getKey());
+      }
+    } catch (Db4oIOException | DatabaseClosedException ex) {
+      handleDbException(ex);
     } finally {
-      close();
+      release();
     }
+    return keys;
+  }
+
+
+  /** @return number of opens that found the file locked at least once */
+  public synchronized int getLockContentions()
+  {
+    return _lockContentions;
+  }
+
+
+  /** @return total time spent waiting for the file lock, in milliseconds */
+  public synchronized long getLockWaitMillis()
+  {
+    return _lockWaitMillis;
+  }
+
+
+  /** @return the activation and update depths in use */
+  public synchronized DbActivationProfile getProfile()
+  {
+    return _profile;
   }
 
 
-  /** Finds all elements in the given Registry ReadWriter */
-  public int size()
+  public synchronized List<E> getAll()
   {
     try {
-      _db = open();
-      List<E> alist = getAllList();
-      return alist.size();
+      open();
+      List<E> list = getAllList();
+      return list;
     } finally {
-      close();
+      release();
     }
   }
 
 
-  // ================================================================================
-  // PRIVATE METHODS
-  // ================================================================================
+  /** @return true if the database is opened read-only, without the file lock */
+  public synchronized boolean isReadOnly()
+  {
+    return _readOnly;
+  }
+
 
   /**
-   * Close the open database (and resets the open/close flag).
+   * Verify if a session is keeping the database open between calls
+   * 
+   * @return true if a session is open
    */
-  private void close()
+  public synchronized boolean isSessionOpen()
   {
-    if (_open) {
-      try {
-        _db.close();
-        _open = false;
-      } catch (Db4oIOException ex) {
-        handleDbException(ex);
-      }
-    }
+    return _session;
   }
 
 
   /**
-   * Verify if a particular object exists, found by calling that object's {@code equals} method
+   * Open the database and keep it open between calls, committing writes every
+   * {@code DEFAULT_COMMIT_BATCH} writes. The session does not time out.
+   */
+  public void openSession()
+  {
+    openSession(DEFAULT_COMMIT_BATCH, 0);
+  }
+
+
+  /**
+   * Open the database and keep it open between calls until {@code closeSession()} is called, the
+   * session is idle for {@code idleMillis}, or the JVM shuts down. Pending writes are committed
+   * each time that many writes have been made, and whenever the session closes.
    * 
-   * @param target name of the object with specific fields to find
-   * @return the object found, else null
+   * @param commitBatch number of writes to commit together; 1 commits every write
+   * @param idleMillis close the session after this many idle milliseconds; 0 for never
+   * @throws IllegalArgumentException if the batch size is less than 1 or the timeout is negative
    */
-  private boolean containsElement(final String target)
+  public synchronized void openSession(int commitBatch, long idleMillis)
   {
-    if (target == null)
-      return false;
+    if ((commitBatch < 1) || (idleMillis < 0)) {
+      throw new IllegalArgumentException(
+          "Commit batch must be positive, and idle time cannot be negative");
+    }
+    _commitBatch = commitBatch;
+    _lastUse = System.currentTimeMillis();
+    if (_session) {
+      return;
+    }
+    open();
+    _session = true;
+    _shutdownHook = new Thread(() -> closeSession(), "DbReadWriter shutdown " + _regPath);
+    Runtime.getRuntime().addShutdownHook(_shutdownHook);
+    if (idleMillis > 0) {
+      long period = Math.max(1, idleMillis / 2);
+      _idleCheck = idleTimer().scheduleWithFixedDelay(() -> closeIfIdle(idleMillis), period,
+          period, TimeUnit.MILLISECONDS);
+    }
+  }
 
-    for (E elem : getAllList()) {
-      if (elem.getKey().equals(target)) {
-        return true;
-      }
+
+  /**
+   * Set how often, and how patiently, a locked database file is retried when opened
+   * 
+   * @param attempts number of times to try; 1 gives up at once
+   * @param backoffMillis wait before the first retry, doubled for each retry after that
+   * @param maxBackoffMillis longest wait between retries
+   * @throws IllegalArgumentException if attempts is less than 1, or a wait is negative
+   */
+  public synchronized void setLockRetry(int attempts, long backoffMillis, long maxBackoffMillis)
+  {
+    if ((attempts < 1) || (backoffMillis < 0) || (maxBackoffMillis < 0)) {
+      throw new IllegalArgumentException(
+          "Lock attempts must be positive, and backoff cannot be negative");
     }
-    return false;
+    _lockAttempts = attempts;
+    _lockBackoff = backoffMillis;
+    _lockMaxBackoff = maxBackoffMillis;
   }
 
 
   /**
-   * Verify that argument is neither null nor empty (white space only)
+   * Open the database read-only, without taking the file lock, so that this read writer can read
+   * while another process or read writer holds the file for writing. Writes made while read-only
+   * fail with a {@code DatabaseReadOnlyException}, which is reported as other db errors are. If
+   * the database is open, it is reopened in the new mode.
    * 
-   * @return true if arg contains data
+   * @param readOnly true to share the file as a reader; false to lock it for writing
+   * @throws IllegalStateException if a cursor is open
    */
-  private boolean exists(String arg)
+  public synchronized void setReadOnly(boolean readOnly)
   {
-    return ((arg != null) && (arg.trim().length() > 0));
+    if (_cursors > 0) {
+      throw new IllegalStateException("Cannot change the read-only mode while a cursor is open");
+    }
+    if (readOnly == _readOnly) {
+      return;
+    }
+    _readOnly = readOnly;
+    reopen();
   }
 
 
   /**
-   * Helper method to get all the elements in the registry. It opens the db and returns all
-   * elements, leaving the db open so that the resulting List is valid.
-   * <P>
-   * Warning: The List returned is an ObjectSetFacade, and is only available when the db is open.
-   * Trying to use the List after the db is closed will throw a DatabaseClosedException.
+   * Set how deeply elements are read and stored. If the database is open, pending writes are
+   * committed and it is reopened with the new profile.
    * 
-   * @return the list for further action, leaving the db open
+   * @param profile the activation and update depths to use
+   * @throws NullPointerException if the profile is null
+   * @throws IllegalStateException if a cursor is open
    */
-  @SuppressWarnings("serial")
-  private List<E> getAllList()
+  public synchronized void setProfile(DbActivationProfile profile)
   {
-    List<E> alist = new ArrayList<E>();
-    alist.addAll(_db.query(new Predicate<E>() {
-      @Override
-      public boolean match(E candidate)
-      {
-        return true;
-      }
-    }));
-    return alist;
+    if (profile == null) {
+      throw new NullPointerException(ERR_NULL_ARG);
+    }
+    if (_cursors > 0) {
+      throw new IllegalStateException("Cannot change the profile while a cursor is open");
+    }
+    _profile = profile;
+    reopen();
   }
 
-  @SuppressWarnings("serial")
-  private <T> List<String> getAllNamesByType(T elemType)
+
+  public synchronized List<E> query(Predicate<E> pred)
   {
-    List<T> alist = new ArrayList<>();
-    _db = open();
-    alist.addAll(_db.query(new Predicate<T>() {
-      public boolean match(T candidate)
+    List<E> alist = new ArrayList<E>();
+    try {
+      open();
+      alist.addAll(_db.query(pred));
+      return alist;
+    } finally {
+      release();
+    }
+  }
+
+
+  /**
+   * Counts all elements in the given Registry ReadWriter. Only the object IDs are counted; no
+   * elements are activated.
+   * 
+   * @return the number of elements stored
+   */
+  public synchronized int size()
+  {
+    try {
+      _db = open();
+      return extentQuery().execute().size();
+    } finally {
+      release();
+    }
+  }
+
+
+  /**
+   * Stream all stored elements through a cursor, each activated {@code DEFAULT_CURSOR_DEPTH} deep.
+   * The stream must be closed, e.g., by try-with-resources, to release the database.
+   * 
+   * @return a sequential stream of the stored elements
+   */
+  public Stream<E> stream()
+  {
+    return stream(null, DEFAULT_CURSOR_DEPTH);
+  }
+
+
+  /**
+   * Stream the stored elements that match a filter through a cursor, as
+   * {@code cursor(filter, depth)} would return them. The stream must be closed, e.g., by
+   * try-with-resources, to release the database.
+   * 
+   * @param filter elements not matched are skipped; null to accept all
+   * @param depth levels of each element's object graph to load; at least 1
+   * @return a sequential stream of the matching elements
+   */
+  public Stream<E> stream(Predicate<E> filter, int depth)
+  {
+    DbCursor<E> cursor = cursor(filter, depth);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor,
+        Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(cursor::close);
+  }
+
+
+  /**
+   * Store the changes made to an element already in the database. Within a session, an element
+   * retrieved earlier in the session is updated in place, to the update depth set by the profile
+   * for its class (or its whole graph, if its class cascades on update). Otherwise the container
+   * that retrieved it has since been closed, so the stored element with the same key is replaced.
+   * 
+   * @param obj an element retrieved from this database, e.g., by {@code getForEdit}
+   * @return true if the element was stored; false if its key is not in the database
+   */
+  public synchronized boolean updateElement(E obj)
+  {
+    if (obj == null) {
+      return false;
+    }
+    try {
+      _db = open();
+      if (_db.ext().isStored(obj)) {
+        store(obj);
+        commit(1);
+        return true;
+      }
+      List<E> matches = findByKey(obj.getKey(), false);
+      if (!matches.isEmpty()) {
+        for (E el : matches) {
+          _db.delete(el);
+        }
+        store(obj);
+        commit(matches.size() + 1);
+        return true;
+      }
+    } catch (Db4oIOException | DatabaseClosedException | DatabaseReadOnlyException ex) {
+      handleDbException(ex);
+    } finally {
+      release();
+    }
+    return false;
+  }
+
+
+  /**
+   * Store each object in one transaction, replacing any stored object whose key matches without
+   * regard to case, as a {@code deleteElement} followed by an {@code addElement} would.
+   * 
+   * @param objs objects to add or replace; null elements are skipped
+   * @return the counts and throughput for the batch; written is the number of objects stored
+   */
+  public synchronized DbBatchResult upsertAll(Collection<E> objs)
+  {
+    long start = System.nanoTime();
+    int written = 0;
+    try {
+      _db = open();
+      beginBatch();
+      Map<String, List<E>> stored = storedByKey();
+      for (E obj : objs) {
+        if (obj == null) {
+          continue;
+        }
+        List<E> matches = stored.remove(obj.getKey().toLowerCase());
+        if (matches != null) {
+          for (E el : matches) {
+            if (el != obj) {
+              _db.delete(el);
+            }
+          }
+        }
+        store(obj);
+        addByKey(stored, obj);
+        written++;
+      }
+      commitBatch();
+    } catch (Db4oIOException | DatabaseClosedException | DatabaseReadOnlyException ex) {
+      written = rollbackBatch(ex);
+    } catch (RuntimeException ex) {
+      abortBatch();
+      throw ex;
+    } finally {
+      release();
+    }
+    return new DbBatchResult("upsertAll", objs.size(), written, System.nanoTime() - start);
+  }
+
+
+  // ================================================================================
+  // PACKAGE METHODS
+  // ================================================================================
+
+  /**
+   * Claim a database file for writing within this JVM, as a writer does before opening it
+   * 
+   * @param filepath path of the database file
+   * @return true if claimed; false if another writer in this JVM already holds the claim
+   */
+  static boolean claim(String filepath)
+  {
+    synchronized (_claimedPaths) {
+      return _claimedPaths.add(pathKey(filepath));
+    }
+  }
+
+
+  /**
+   * Release a claim made by {@code claim}
+   * 
+   * @param filepath path of the database file
+   */
+  static void unclaim(String filepath)
+  {
+    synchronized (_claimedPaths) {
+      _claimedPaths.remove(pathKey(filepath));
+    }
+  }
+
+
+  /**
+   * Called by a {@code DbCursor} when it is closed; the database is closed once no cursor or
+   * session is still using it
+   */
+  synchronized void releaseCursor()
+  {
+    if (_cursors > 0) {
+      _cursors--;
+    }
+    _lastUse = System.currentTimeMillis();
+    release();
+  }
+
+
+  // ================================================================================
+  // PRIVATE METHODS
+  // ================================================================================
+
+  /**
+   * File an element under its lower-case key
+   * 
+   * @param stored elements by lower-case key
+   * @param elem element to add to the map
+   */
+  private void addByKey(Map<String, List<E>> stored, E elem)
+  {
+    String key = elem.getKey().toLowerCase();
+    List<E> elems = stored.get(key);
+    if (elems == null) {
+      elems = new ArrayList<E>(1);
+      stored.put(key, elems);
+    }
+    elems.add(elem);
+  }
+
+  /**
+   * Close the session if no call has been made for the idle time given. Called by the idle timer.
+   * 
+   * @param idleMillis idle time allowed, in milliseconds
+   */
+  private synchronized void closeIfIdle(long idleMillis)
+  {
+    if (_session && (System.currentTimeMillis() - _lastUse >= idleMillis)) {
+      closeSession();
+    }
+  }
+
+
+  /**
+   * Roll back the writes of a batch operation stopped by any error, so that closing the database
+   * afterwards, which commits, does not keep part of the batch
+   */
+  private void abortBatch()
+  {
+    if (_open) {
+      _db.rollback();
+      _pending = 0;
+    }
+  }
+
+
+  /**
+   * Start a batch operation by committing the writes still pending from the session, so that a
+   * failed batch rolls back only its own writes, and never those already acknowledged
+   */
+  private void beginBatch()
+  {
+    if (_pending > 0) {
+      _db.commit();
+      _pending = 0;
+    }
+  }
+
+
+  /**
+   * Commit a batch operation
+   */
+  private void commitBatch()
+  {
+    _db.commit();
+    _pending = 0;
+  }
+
+
+  /**
+   * Commit the writes just made, or, during a session, defer the commit until a full batch of
+   * writes is pending.
+   * 
+   * @param nbrWrites number of objects just stored or deleted
+   */
+  private void commit(int nbrWrites)
+  {
+    _pending += nbrWrites;
+    if (!_session || (_pending >= _commitBatch)) {
+      _db.commit();
+      _pending = 0;
+    }
+  }
+
+
+  /**
+   * Close the open database (and resets the open/close flag). The file is released even if
+   * closing it fails, so that it can be opened again.
+   */
+  private void close()
+  {
+    if (_open) {
+      try {
+        _db.close();
+      } catch (Db4oIOException ex) {
+        handleDbException(ex);
+      } finally {
+        _open = false;
+        unclaimPath();
+      }
+    }
+  }
+
+
+  /**
+   * Claim this read writer's file for writing within this JVM. Read-only read writers make no
+   * claim.
+   * 
+   * @throws DatabaseFileLockedException if another read writer in this JVM has claimed it
+   */
+  private void claimPath()
+  {
+    if (_readOnly) {
+      return;
+    }
+    if (!claim(_regPath)) {
+      throw new DatabaseFileLockedException(_regPath);
+    }
+    _claimed = true;
+  }
+
+
+  /** Release this read writer's claim on its file, if it holds one */
+  private void unclaimPath()
+  {
+    if (_claimed) {
+      unclaim(_regPath);
+      _claimed = false;
+    }
+  }
+
+
+  /**
+   * Verify if a particular object exists, found by calling that object's {@code equals} method
+   * 
+   * @param target name of the object with specific fields to find
+   * @return the object found, else null
+   */
+  private boolean containsElement(final String target)
+  {
+    if (target == null)
+      return false;
+
+    return !findByKey(target, false).isEmpty();
+  }
+
+
+  /**
+   * Verify if an element with exactly the given key is filed in the map
+   * 
+   * @param stored elements by lower-case key
+   * @param key the key to look for, case included
+   * @return true if an element has that exact key
+   */
+  private boolean hasExactKey(Map<String, List<E>> stored, String key)
+  {
+    List<E> elems = stored.get(key.toLowerCase());
+    if (elems != null) {
+      for (E elem : elems) {
+        if (elem.getKey().equals(key)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Verify that argument is neither null nor empty (white space only)
+   * 
+   * @return true if arg contains data
+   */
+  private boolean exists(String arg)
+  {
+    return ((arg != null) && (arg.trim().length() > 0));
+  }
+
+
+  /**
+   * Query for the stored elements whose key matches the target key. The key-field index is used
+   * if there is one. An exact match is tried first; if none is found and case is to be ignored,
+   * the query is repeated on the indexed lower-case key field, or, if there is none, as a
+   * case-insensitive {@code like()} query, which db4o cannot answer from the index.
+   * <P>
+   * Without a key field, the match is a native query on {@code getKey()}, which db4o cannot turn
+   * into a constraint: every stored element is activated and tested, as in a full scan, though
+   * no copy of the whole database is made. Use the constructor that names the key field for an
+   * indexed lookup.
+   * <P>
+   * Warning: As with {@code getAllList()}, the List returned is only valid while the db is open.
+   * 
+   * @param key the key to find
+   * @param ignoreCase true if keys that differ only by case also match
+   * @return the matching elements, possibly empty
+   */
+  @SuppressWarnings("serial")
+  private List<E> findByKey(final String key, final boolean ignoreCase)
+  {
+    if (_keyField == null) {
+      // Not optimizable: activates every candidate
+      return _db.query(new Predicate<E>() {
+        @Override
+        public boolean match(E candidate)
+        {
+          return ignoreCase ? candidate.getKey().equalsIgnoreCase(key)
+              : candidate.getKey().equals(key);
+        }
+      });
+    }
+
+    Query query = extentQuery();
+    query.descend(_keyField).constrain(key);
+    List<E> found = query.execute();
+    if (found.isEmpty() && ignoreCase && (_lowerKeyField != null)) {
+      query = extentQuery();
+      query.descend(_lowerKeyField).constrain(key.toLowerCase());
+      found = query.execute();
+    } else if (found.isEmpty() && ignoreCase) {
+      // like() is a case-insensitive substring match, so keep only the whole-key matches
+      query = extentQuery();
+      query.descend(_keyField).constrain(key).like();
+      found = new ArrayList<E>();
+      for (Object candidate : query.execute()) {
+        E elem = cast(candidate);
+        if (elem.getKey().equalsIgnoreCase(key)) {
+          found.add(elem);
+        }
+      }
+    }
+    return found;
+  }
+
+
+  /**
+   * Create a query constrained to the stored elements: the element class if it is known, else
+   * all {@code IRegistryElement}s.
+   * 
+   * @return the query, not yet executed
+   */
+  private Query extentQuery()
+  {
+    Query query = _db.query();
+    query.constrain((_type != null) ? _type : IRegistryElement.class);
+    return query;
+  }
+
+
+  /**
+   * Store an element, first setting its lower-case key field, if there is one, from its key
+   * 
+   * @param obj the element to store
+   */
+  private void store(E obj)
+  {
+    if (_lowerKey != null) {
+      try {
+        _lowerKey.set(obj, obj.getKey().toLowerCase());
+      } catch (IllegalAccessException ex) {
+        throw new IllegalStateException("Cannot set " + _lowerKeyField, ex);
+      }
+    }
+    _db.store(obj);
+  }
+
+
+  /** Unchecked conversion of a query result to the element type */
+  @SuppressWarnings("unchecked")
+  private E cast(Object obj)
+  {
+    return (E) obj;
+  }
+
+
+  /**
+   * Verify that a class, or one of its superclasses, declares a field of the given name
+   * 
+   * @param type class to inspect
+   * @param fieldName name of the field
+   * @return true if the field is declared
+   */
+  private static boolean hasField(Class<?> type, String fieldName)
+  {
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      try {
+        c.getDeclaredField(fieldName);
+        return true;
+      } catch (NoSuchFieldException ex) {
+        // look in the superclass
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Find the String field of the given name declared by a class or one of its superclasses, and
+   * make it settable
+   * 
+   * @param type class to inspect
+   * @param fieldName name of the field
+   * @return the field
+   * @throws IllegalArgumentException if there is no such String field
+   */
+  private static Field stringField(Class<?> type, String fieldName)
+      throws IllegalArgumentException
+  {
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      try {
+        Field field = c.getDeclaredField(fieldName);
+        if (field.getType() != String.class) {
+          break;
+        }
+        field.setAccessible(true);
+        return field;
+      } catch (NoSuchFieldException ex) {
+        // look in the superclass
+      }
+    }
+    throw new IllegalArgumentException(type.getName() + " has no String field " + fieldName);
+  }
+
+
+  /**
+   * Helper method to get all the elements in the registry. It opens the db and returns all
+   * elements, leaving the db open so that the resulting List is valid.
+   * <P>
+   * Warning: The List returned is an ObjectSetFacade, and is only available when the db is open.
+   * Trying to use the List after the db is closed will throw a DatabaseClosedException.
+   * 
+   * @return the list for further action, leaving the db open
+   */
+  @SuppressWarnings("serial")
+  private List<E> getAllList()
+  {
+    List<E> alist = new ArrayList<E>();
+    alist.addAll(_db.query(new Predicate<E>() {
+      @Override
+      public boolean match(E candidate)
+      {
+        return true;
+      }
+    }));
+    return alist;
+  }
+
+  @SuppressWarnings("serial")
+  private <T> List<String> getAllNamesByType(T elemType)
+  {
+    List<T> alist = new ArrayList<>();
+    _db = open();
+    alist.addAll(_db.query(new Predicate<T>() {
+      public boolean match(T candidate)
       {
         return candidate.getClass().equals(elemType.getClass());
       }
@@ -349,32 +1328,177 @@ public class DbReadWriter<E extends IRegistryElement>
   }
 
 
+  /**
+   * Roll back a failed batch operation. The writes pending from the session were committed when
+   * the batch began, so only the batch's own writes are lost.
+   * 
+   * @param ex the exception that stopped the batch
+   * @return 0, the number of elements written
+   */
+  private int rollbackBatch(Exception ex)
+  {
+    handleDbException(ex);
+    abortBatch();
+    return 0;
+  }
+
+
+  /**
+   * Read the key of every stored element in one pass, activating each only one level deep so
+   * that the key field is loaded but not the rest of its object graph.
+   * 
+   * @return the stored elements by lower-case key
+   */
+  private Map<String, List<E>> storedByKey()
+  {
+    long[] ids = extentQuery().execute().ext().getIDs();
+    Map<String, List<E>> stored = new HashMap<String, List<E>>(ids.length * 2);
+    for (long id : ids) {
+      E elem = cast(_db.ext().getByID(id));
+      _db.activate(elem, 1);
+      addByKey(stored, elem);
+    }
+    return stored;
+  }
+
+
+  /** @return the absolute, normalized path of a file, used as its claim */
+  static private String pathKey(String filepath)
+  {
+    return new File(filepath).getAbsoluteFile().toPath().normalize().toString();
+  }
+
+
+  /**
+   * Get the daemon thread that closes idle sessions, creating it on first use
+   * 
+   * @return the timer shared by all DbReadWriters
+   */
+  static private synchronized ScheduledExecutorService idleTimer()
+  {
+    if (_idleTimer == null) {
+      _idleTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "DbReadWriter idle timer");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+    return _idleTimer;
+  }
+
+
   /**
    * Create a new db only if it doesn't exist; else db4o will throw an exception. Create the object
    * container for transaction processing with the default configuration. db4o tutorial says, "If
    * the file with this name already exists, it will be opened as db4o database, otherwise a new
    * db4o database will be created."
    * <P>
+   * If the file is locked by another container, the open is retried with exponential backoff; the
+   * time spent waiting is added to the lock wait metric.
+   * <P>
    * NOTE: The folder structure must exist before a db file within it can be created. db4o will not
    * create folders: db4o will throw an enigmatic System IO error.
+   * 
+   * @throws DatabaseFileLockedException if the file is still locked after the last attempt
+   * @throws Db4oIOException, IncompatibleFileFormatException, OldFormatException if the file
+   *           cannot be opened at all
    */
   private EmbeddedObjectContainer open()
   {
-    try {
-      if (_open == false) {
-        EmbeddedConfiguration config = Db4oEmbedded.newConfiguration();
-        config.common().activationDepth(255);
-        config.common().updateDepth(255);
-
-        _db = Db4oEmbedded.openFile(config, _regPath);
+    _lastUse = System.currentTimeMillis();
+    if (_open) {
+      return _db;
+    }
+    long backoff = _lockBackoff;
+    long waitStart = 0;
+    for (int attempt = 1;; attempt++) {
+      try {
+        claimPath();
+        try {
+          _db = Db4oEmbedded.openFile(newConfiguration(), _regPath);
+        } catch (RuntimeException ex) {
+          unclaimPath();
+          throw ex;
+        }
         _open = true;
+        break;
+      } catch (DatabaseFileLockedException ex) {
+        if (waitStart == 0) {
+          waitStart = System.nanoTime();
+          _lockContentions++;
+        }
+        if (attempt >= _lockAttempts) {
+          _lockWaitMillis += (System.nanoTime() - waitStart) / 1000000;
+          handleDbException(ex);
+          throw ex;
+        }
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException iex) {
+          Thread.currentThread().interrupt();
+          _lockWaitMillis += (System.nanoTime() - waitStart) / 1000000;
+          throw ex;
+        }
+        backoff = Math.min(backoff * 2, _lockMaxBackoff);
+      } catch (Db4oIOException | IncompatibleFileFormatException | OldFormatException ex) {
+        handleDbException(ex);
+        throw ex;
       }
-    } catch (Db4oIOException | DatabaseFileLockedException | IncompatibleFileFormatException
-        | OldFormatException | DatabaseReadOnlyException ex) {
-      System.out.println(ex.getMessage());
-      ex.printStackTrace();
-      System.exit(-1);
+    }
+    if (waitStart != 0) {
+      _lockWaitMillis += (System.nanoTime() - waitStart) / 1000000;
     }
     return _db;
   }
+
+
+  /**
+   * Build the configuration for opening the file: the activation profile, the key-field index,
+   * and, if read-only, no file lock
+   * 
+   * @return a new configuration
+   */
+  private EmbeddedConfiguration newConfiguration()
+  {
+    EmbeddedConfiguration config = Db4oEmbedded.newConfiguration();
+    _profile.configure(config.common());
+    if (_keyField != null) {
+      config.common().objectClass(_type).objectField(_keyField).indexed(true);
+    }
+    if (_lowerKeyField != null) {
+      config.common().objectClass(_type).objectField(_lowerKeyField).indexed(true);
+    }
+    if (_readOnly) {
+      config.file().readOnly(true);
+      config.file().lockDatabaseFile(false);
+    }
+    return config;
+  }
+
+
+  /**
+   * Close the db so that a new configuration takes effect, committing any pending writes, and
+   * open it again at once if a session is keeping it open
+   */
+  private void reopen()
+  {
+    if (_open) {
+      commit();
+      close();
+      if (_session) {
+        _db = open();
+      }
+    }
+  }
+
+
+  /**
+   * Close the database after a call, unless a session or an open cursor is keeping it open
+   */
+  private void release()
+  {
+    if (!_session && (_cursors == 0)) {
+      close();
+    }
+  }
 } // end of RegistryReadWriter class
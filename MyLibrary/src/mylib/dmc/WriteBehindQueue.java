@@ -0,0 +1,402 @@
+/**
+ * WriteBehindQueue.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+package mylib.dmc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves changed objects in the background, so that the thread that changed them, usually the
+ * Swing event thread, never waits on the disk. The caller {@code put}s a snapshot of each changed
+ * object under its key, and returns at once; after a short delay, every snapshot queued since is
+ * handed to a {@code BatchWriter} in a single batch, on a background thread.
+ * <P>
+ * Updates are coalesced: a snapshot put while an older one for the same key is still waiting
+ * replaces it, so an object changed many times between flushes is written only once, in its
+ * latest state. Snapshots are written in the order their keys were first queued.
+ * <P>
+ * A batch that fails is put back in the queue, except for keys that have a newer snapshot
+ * waiting, and is tried again after the next delay. {@code flush} writes all waiting snapshots on
+ * the caller's thread and returns when they are written; {@code flushAll} flushes every queue,
+ * and is called when the application quits, and again by a shutdown hook, so nothing queued is
+ * lost when the JVM exits normally.
+ * <P>
+ * Snapshots must not be changed once queued: they are written by another thread. Taking a
+ * snapshot, such as encoding the object to bytes, is left to the caller, since only the caller
+ * knows when the object is in a consistent state.
+ * <P>
+ * A key stays pending until its batch is written, so that a caller that skips objects unchanged
+ * since they were last written does not skip one whose older snapshot is still being written.
+ *
+ * @param <K> key of the objects saved, such as a name
+ * @param <V> snapshot of an object as it is to be written
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // the keys of the batch being written are pending, too <br>
+ */
+public class WriteBehindQueue<K, V>
+{
+  /** Writes one batch of snapshots; called on one thread at a time */
+  public interface BatchWriter<K, V>
+  {
+    /**
+     * Write the snapshots of a batch
+     *
+     * @param batch snapshots by key, in the order they were first queued
+     * @throws IOException if the batch, or any part of it, could not be written; the whole batch
+     *         is queued again
+     */
+    void write(Map<K, V> batch) throws IOException;
+  }
+
+  /** Default time that a snapshot waits for others to join its batch, in milliseconds */
+  static public final long DEFAULT_DELAY_MILLIS = 250;
+
+  /** Name of the queue, for reporting */
+  private final String _name;
+  /** Writes each batch */
+  private final BatchWriter<K, V> _writer;
+  /** Time that a snapshot waits for others to join its batch, in milliseconds */
+  private final long _delayMillis;
+
+  /** Snapshots waiting to be written, by key, in the order first queued; guarded by this */
+  private final Map<K, V> _pending = new LinkedHashMap<K, V>();
+  /** Whether a background flush is scheduled; guarded by this */
+  private boolean _scheduled = false;
+  /** Snapshots of the batch being written; guarded by this */
+  private Map<K, V> _writing = Collections.emptyMap();
+  /** Whether the queue has been closed; guarded by this */
+  private boolean _closed = false;
+  /** Held while a batch is written, so that batches are written one at a time, in order */
+  private final Object _writeLock = new Object();
+
+  /** Snapshots put */
+  private long _puts = 0;
+  /** Snapshots that replaced one still waiting */
+  private long _coalesced = 0;
+  /** Snapshots written */
+  private long _written = 0;
+  /** Batches written */
+  private long _batches = 0;
+  /** Batches that failed and were queued again */
+  private long _failures = 0;
+
+  /** Every queue not yet closed, so that all can be flushed when the application quits */
+  static private final Set<WriteBehindQueue<?, ?>> _open =
+      Collections.synchronizedSet(Collections.newSetFromMap(
+          new WeakHashMap<WriteBehindQueue<?, ?>, Boolean>()));
+  /** Runs background flushes; shared by all WriteBehindQueues */
+  static private ScheduledExecutorService _scheduler = null;
+
+
+  // ================================================================================
+  // CONSTRUCTOR(S) AND RELATED METHODS
+  // ================================================================================
+
+  /**
+   * Creates a queue that writes its batches after the default delay
+   *
+   * @param name name of the queue, for reporting
+   * @param writer writes each batch
+   */
+  public WriteBehindQueue(String name, BatchWriter<K, V> writer)
+  {
+    this(name, writer, DEFAULT_DELAY_MILLIS);
+  }
+
+
+  /**
+   * Creates a queue
+   *
+   * @param name name of the queue, for reporting
+   * @param writer writes each batch
+   * @param delayMillis time that a snapshot waits for others to join its batch; a longer delay
+   *        coalesces more updates, but leaves them unsaved for longer
+   * @throws NullPointerException if the writer is null
+   * @throws IllegalArgumentException if the delay is negative
+   */
+  public WriteBehindQueue(String name, BatchWriter<K, V> writer, long delayMillis)
+  {
+    if (writer == null) {
+      throw new NullPointerException("BatchWriter cannot be null");
+    }
+    if (delayMillis < 0) {
+      throw new IllegalArgumentException("Delay cannot be negative: " + delayMillis);
+    }
+    _name = name;
+    _writer = writer;
+    _delayMillis = delayMillis;
+    _open.add(this);
+  }
+
+
+  /**
+   * Creates a queue that saves registry elements to their db4o file, replacing any stored element
+   * with the same key
+   *
+   * @param <E> type of registry element
+   * @param rw the reader-writer for the registry file
+   * @param delayMillis time that an element waits for others to join its batch
+   * @return the queue, keyed by {@code getKey()} of each element
+   */
+  static public <E extends IRegistryElement> WriteBehindQueue<String, E> forRegistry(
+      DbReadWriter<E> rw, long delayMillis)
+  {
+    return new WriteBehindQueue<String, E>(rw._regPath, batch -> {
+      DbBatchResult result = rw.upsertAll(batch.values());
+      if (result.getWritten() != batch.size()) {
+        throw new IOException("Wrote only " + result.getWritten() + " of " + batch.size()
+            + " elements to " + rw._regPath);
+      }
+    }, delayMillis);
+  }
+
+
+  // ================================================================================
+  // PUBLIC METHODS
+  // ================================================================================
+
+  /**
+   * Flush every queue not yet closed, reporting any that fail. Called when the application quits,
+   * and by a shutdown hook.
+   *
+   * @return the number of snapshots written
+   */
+  static public int flushAll()
+  {
+    List<WriteBehindQueue<?, ?>> queues;
+    synchronized (_open) {
+      queues = new ArrayList<WriteBehindQueue<?, ?>>(_open);
+    }
+    int written = 0;
+    for (WriteBehindQueue<?, ?> q : queues) {
+      try {
+        written += q.flush();
+      } catch (IOException | RuntimeException ex) {
+        System.err.println("Could not save " + q._name);
+        System.err.println("\t" + ex.getMessage());
+      }
+    }
+    return written;
+  }
+
+
+  /**
+   * Write all waiting snapshots, then stop accepting new ones
+   *
+   * @throws IOException if the waiting snapshots could not be written; they stay queued
+   */
+  public void close() throws IOException
+  {
+    synchronized (this) {
+      _closed = true;
+    }
+    _open.remove(this);
+    flush();
+  }
+
+
+  /**
+   * Write all waiting snapshots now, on the caller's thread, in one batch. Returns once any batch
+   * already being written in the background has finished, too.
+   *
+   * @return the number of snapshots written, zero if none were waiting
+   * @throws IOException if the batch could not be written; it stays queued
+   */
+  public int flush() throws IOException
+  {
+    synchronized (_writeLock) {
+      Map<K, V> batch;
+      synchronized (this) {
+        if (_pending.isEmpty()) {
+          return 0;
+        }
+        batch = new LinkedHashMap<K, V>(_pending);
+        _pending.clear();
+        _writing = batch;
+      }
+      try {
+        _writer.write(batch);
+      } catch (IOException | RuntimeException ex) {
+        requeue(batch);
+        throw ex;
+      } finally {
+        synchronized (this) {
+          _writing = Collections.emptyMap();
+        }
+      }
+      synchronized (this) {
+        _written += batch.size();
+        _batches++;
+      }
+      return batch.size();
+    }
+  }
+
+
+  /** @return batches that failed and were queued again */
+  public synchronized long getFailures()
+  {
+    return _failures;
+  }
+
+
+  /** @return name of the queue */
+  public String getName()
+  {
+    return _name;
+  }
+
+
+  /** @return number of snapshots not yet written, whether waiting or being written */
+  public synchronized int getPending()
+  {
+    return _pending.size() + _writing.size();
+  }
+
+
+  /**
+   * Verify if a snapshot for a key is waiting to be written, or is being written
+   *
+   * @param key key of the object
+   * @return true if its latest snapshot has not yet been written
+   */
+  public synchronized boolean isPending(K key)
+  {
+    return _pending.containsKey(key) || _writing.containsKey(key);
+  }
+
+
+  /**
+   * Queue a snapshot to be written, replacing any for the same key that is still waiting, and
+   * return at once
+   *
+   * @param key key of the object
+   * @param snapshot the object as it is to be written; must not be changed afterwards
+   * @throws NullPointerException if the key or snapshot is null
+   * @throws IllegalStateException if the queue has been closed
+   */
+  public void put(K key, V snapshot)
+  {
+    if ((key == null) || (snapshot == null)) {
+      throw new NullPointerException("Key and snapshot cannot be null");
+    }
+    synchronized (this) {
+      if (_closed) {
+        throw new IllegalStateException(_name + " is closed");
+      }
+      _puts++;
+      if (_pending.put(key, snapshot) != null) {
+        _coalesced++;
+      }
+      scheduleFlush();
+    }
+  }
+
+
+  /**
+   * Drop the snapshot waiting for a key, as when the object is deleted. A batch already being
+   * written is not affected.
+   *
+   * @param key key of the object
+   * @return the snapshot dropped, or null if none was waiting
+   */
+  public synchronized V remove(K key)
+  {
+    return _pending.remove(key);
+  }
+
+
+  /**
+   * Show the counts of snapshots queued, coalesced, and written
+   */
+  @Override
+  public synchronized String toString()
+  {
+    return String.format("%s: %d put, %d coalesced, %d written in %d batches, %d waiting, "
+        + "%d failed batches", _name, _puts, _coalesced, _written, _batches, _pending.size(),
+        _failures);
+  }
+
+
+  // ================================================================================
+  // PRIVATE METHODS
+  // ================================================================================
+
+  /** Flush in the background; a batch that fails is reported, and tried again later */
+  private void backgroundFlush()
+  {
+    synchronized (this) {
+      _scheduled = false;
+    }
+    try {
+      flush();
+    } catch (IOException | RuntimeException ex) {
+      System.err.println("Could not save " + _name + "; will try again");
+      System.err.println("\t" + ex.getMessage());
+      synchronized (this) {
+        scheduleFlush();
+      }
+    }
+  }
+
+
+  /**
+   * Put a failed batch back in the queue, ahead of anything queued since, except for keys that
+   * have a newer snapshot waiting
+   *
+   * @param batch the batch that failed
+   */
+  private synchronized void requeue(Map<K, V> batch)
+  {
+    Map<K, V> newer = new LinkedHashMap<K, V>(_pending);
+    _pending.clear();
+    _pending.putAll(batch);
+    _pending.putAll(newer);
+    _failures++;
+  }
+
+
+  /** Schedule a background flush, unless one is already scheduled; caller must hold this */
+  private void scheduleFlush()
+  {
+    if (!_scheduled && !_pending.isEmpty()) {
+      _scheduled = true;
+      scheduler().schedule(this::backgroundFlush, _delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+
+  /** Create the shared scheduler, and the hook that flushes all queues at exit, when needed */
+  static private synchronized ScheduledExecutorService scheduler()
+  {
+    if (_scheduler == null) {
+      _scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "WriteBehindQueue");
+        t.setDaemon(true);
+        return t;
+      });
+      Runtime.getRuntime().addShutdownHook(
+          new Thread(WriteBehindQueue::flushAll, "WriteBehindQueue flush"));
+    }
+    return _scheduler;
+  }
+
+
+} // end of WriteBehindQueue class
@@ -0,0 +1,318 @@
+/**
+ * ConcurrentRegistry.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists,
+ * requires prior specific permission and/or a fee. Request permission to use from Carolla
+ * Development, Inc. by email: acline@carolla.com
+ */
+
+package mylib.pdc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import mylib.dmc.IRegistryElement;
+
+/**
+ * A thread-safe wrapper around any existing {@code Registry}, so that subclasses can opt in
+ * without code changes, e.g., {@code new ConcurrentRegistry<Hero>(new HeroRegistry())}.
+ * <p>
+ * Keyed reads ({@code get}, {@code contains}, {@code size}) go to a {@code ConcurrentHashMap}
+ * and never block. Writes are serialized on a single lock and are passed through to the wrapped
+ * registry, so it stays current for its own subclass methods (e.g., {@code HeroRegistry.saveAll}).
+ * {@code getAll()} returns a read-only snapshot that is rebuilt only after a write, so iterating
+ * it can never throw {@code ConcurrentModificationException}.
+ * <p>
+ * WARNING: Once wrapped, the source registry should only be changed through this wrapper. The
+ * wrapper does not see the methods a subclass adds, such as {@code HeroRegistry.saveAll}: called
+ * on the source directly, they do not take the write lock, and so may run alongside a write made
+ * through the wrapper. Call them through {@code withSource()} instead.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // update() returns the source's result; added withSource() <br>
+ *          Oct 18, 2026 // keys re-read into a new map, so readers never see it emptied <br>
+ */
+public class ConcurrentRegistry<E extends IRegistryElement> extends Registry<E>
+{
+  // Required for serialization
+  static final long serialVersionUID = 20261018001L;
+
+  /** The registry wrapped, which holds the elements in insertion order */
+  private final Registry<E> _source;
+
+  /**
+   * Lock-free keyed access, keyed the same way as {@code Registry._index}; replaced whole when
+   * the keys are re-read
+   */
+  private volatile ConcurrentHashMap<String, E> _keyMap;
+
+  /** Read-only copy of the source list; null after a write until the next {@code getAll()} */
+  private volatile List<E> _snapshot;
+
+  /** Number of elements in the source registry, updated by each write */
+  private volatile int _size;
+
+  /** All writes to the source registry are made while holding this lock */
+  private final Object _writeLock = new Object();
+
+
+  // ============================================================
+  // CONSTRUCTOR AND RELATED METHODS
+  // ============================================================
+
+  /**
+   * Wrap an existing registry, indexing the elements it already contains
+   *
+   * @param source the registry to make thread-safe
+   * @throws NullPointerException if the source registry is null
+   */
+  public ConcurrentRegistry(Registry<E> source)
+  {
+    super();
+    if (source == null) {
+      throw new NullPointerException("Source registry cannot be null");
+    }
+    _source = source;
+    _name = source.getRegistryName();
+    synchronized (_writeLock) {
+      refresh();
+    }
+  }
+
+
+  /** The wrapped registry has already been initialized, so there is nothing to do here */
+  @Override
+  protected void initialize()
+  {}
+
+
+  // ============================================================
+  // PUBLIC METHODS
+  // ============================================================
+
+  /**
+   * Add a new unique element into the wrapped registry
+   *
+   * @param obj object to add
+   * @return true if the add was successful, else false (as with duplicate attempts)
+   */
+  @Override
+  public boolean add(E obj)
+  {
+    synchronized (_writeLock) {
+      if (!_source.add(obj)) {
+        return false;
+      }
+      _keyMap.put(normalize(obj.getKey()), obj);
+      changed();
+      return true;
+    }
+  }
+
+
+  /**
+   * Verifies if the given object exists in the registry without blocking
+   *
+   * @param target object to match against for comparison
+   * @return true if the registry contains the element, else false
+   */
+  @Override
+  public boolean contains(E target)
+  {
+    if (target == null) {
+      return false;
+    }
+    return _keyMap.containsKey(normalize(target.getKey()));
+  }
+
+
+  /**
+   * Delete an object from the wrapped registry
+   *
+   * @param obj object to delete
+   * @throws NullPointerException if the obj is null
+   */
+  @Override
+  public void delete(E obj)
+  {
+    synchronized (_writeLock) {
+      _source.delete(obj);
+      _keyMap.remove(normalize(obj.getKey()));
+      changed();
+    }
+  }
+
+
+  /**
+   * Retrieve an element by key without blocking
+   *
+   * @param key of the target object
+   * @return the element object that matches the name, else null
+   */
+  @Override
+  public E get(String key)
+  {
+    if (key == null) {
+      return null;
+    }
+    return _keyMap.get(normalize(key));
+  }
+
+
+  /**
+   * Gets a consistent snapshot of all the elements in the registry. Later writes are not
+   * reflected in a snapshot already returned.
+   *
+   * @return read-only list of the registry elements
+   */
+  @Override
+  public List<E> getAll()
+  {
+    List<E> snapshot = _snapshot;
+    if (snapshot == null) {
+      synchronized (_writeLock) {
+        if (_snapshot == null) {
+          _snapshot = Collections.unmodifiableList(new ArrayList<E>(_source.getAll()));
+        }
+        snapshot = _snapshot;
+      }
+    }
+    return snapshot;
+  }
+
+
+  /**
+   * Retrieve a snapshot of the elements that match the concrete type of the object passed in
+   *
+   * @param obj any object of the desired type
+   * @return read-only list of elements, empty if there are none of that type
+   */
+  @Override
+  public List<Object> getElementsByType(Object obj)
+  {
+    synchronized (_writeLock) {
+      return Collections.unmodifiableList(new ArrayList<Object>(_source.getElementsByType(obj)));
+    }
+  }
+
+
+  /**
+   * Gets the registry that this one wraps
+   *
+   * @return the source registry
+   */
+  public Registry<E> getSource()
+  {
+    return _source;
+  }
+
+
+  /**
+   * Get the number of elements currently in the registry without blocking
+   *
+   * @return the number of objects in the registry
+   */
+  @Override
+  public int size()
+  {
+    return _size;
+  }
+
+
+  /**
+   * Replace an existing object in the wrapped registry as one atomic step, so that no reader
+   * sees the element missing between the delete and the add.
+   *
+   * @param target replacement for modified object
+   * @return false if the target is null, or the wrapped registry did not update it (as when it
+   *         is frozen); else true
+   */
+  @Override
+  public boolean update(final E target)
+  {
+    if (target == null) {
+      return false;
+    }
+    synchronized (_writeLock) {
+      boolean updated = _source.update(target);
+      // Keep whatever the wrapped registry now holds for the key
+      String key = normalize(target.getKey());
+      E current = _source.get(target.getKey());
+      if (current == null) {
+        _keyMap.remove(key);
+      } else {
+        _keyMap.put(key, current);
+      }
+      changed();
+      return updated;
+    }
+  }
+
+
+  /**
+   * Run a method of the wrapped registry, such as one its subclass adds, while holding the write
+   * lock, so that it never runs alongside a write made through this wrapper. The keys are then
+   * re-read, in case the method changed the registry.
+   *
+   * @param action what to do with the wrapped registry
+   */
+  public void withSource(Consumer<Registry<E>> action)
+  {
+    synchronized (_writeLock) {
+      try {
+        action.accept(_source);
+      } finally {
+        refresh();
+      }
+    }
+  }
+
+
+  // ============================================================
+  // PROTECTED METHODS
+  // ============================================================
+
+  /** Remove all elements from the wrapped registry */
+  @Override
+  protected void clear()
+  {
+    synchronized (_writeLock) {
+      _source.clear();
+      refresh();
+    }
+  }
+
+
+  // ============================================================
+  // PRIVATE METHODS
+  // ============================================================
+
+  /** Drop the old snapshot and record the new size; caller must hold the write lock */
+  private void changed()
+  {
+    _snapshot = null;
+    _size = _source.size();
+  }
+
+
+  /**
+   * Re-read the keys from the wrapped registry into a new map, then publish it, so that a reader
+   * sees either the old keys or the new ones; caller must hold the write lock
+   */
+  private void refresh()
+  {
+    ConcurrentHashMap<String, E> keyMap = new ConcurrentHashMap<String, E>();
+    for (E elem : _source.getAll()) {
+      keyMap.putIfAbsent(normalize(elem.getKey()), elem);
+    }
+    _keyMap = keyMap;
+    changed();
+  }
+
+
+} // end of ConcurrentRegistry class
@@ -0,0 +1,200 @@
+/**
+ * FrozenIndex.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists,
+ * requires prior specific permission and/or a fee. Request permission to use from Carolla
+ * Development, Inc. by email: acline@carolla.com
+ */
+
+package mylib.pdc;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only key index for a frozen {@code Registry}, stored in two parallel arrays and addressed
+ * by a perfect hash, so that every lookup is one array probe and one key compare with no
+ * collision chains.
+ * <p>
+ * Implementation Note: the hash-and-displace method is used. Keys are grouped into small
+ * buckets by their hash; then, largest bucket first, each bucket is given the smallest
+ * displacement that places all of its keys in free, distinct slots. A lookup finds the key's
+ * bucket, mixes the hash with that bucket's displacement, and goes straight to its slot.
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ */
+class FrozenIndex<E> implements Serializable
+{
+  // Required for serialization
+  static final long serialVersionUID = 20261018002L;
+
+  /** Average number of keys per bucket */
+  private static final int KEYS_PER_BUCKET = 4;
+
+  /** Slot for each key, or null for an unused slot */
+  private final String[] _keys;
+  /** Element for each key, in the same slot as its key */
+  private final Object[] _elems;
+  /** Displacement for each bucket of keys */
+  private final int[] _displace;
+  /** Table size minus one; the table size is always a power of two */
+  private final int _mask;
+
+
+  // ============================================================
+  // CONSTRUCTOR AND RELATED METHODS
+  // ============================================================
+
+  /**
+   * Build the perfect-hash table for the given keys and elements
+   *
+   * @param index normalized keys and the elements they find
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  FrozenIndex(Map<String, E> index)
+  {
+    int nbrKeys = index.size();
+    int tableSize = tableSize(nbrKeys);
+    _mask = tableSize - 1;
+    _keys = new String[tableSize];
+    _elems = new Object[tableSize];
+    _displace = new int[Math.max(1, (nbrKeys + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET)];
+
+    // Group the keys into buckets
+    List<String>[] buckets = new List[_displace.length];
+    for (int k = 0; k < buckets.length; k++) {
+      buckets[k] = new ArrayList<String>(KEYS_PER_BUCKET);
+    }
+    for (String key : index.keySet()) {
+      buckets[bucket(key.hashCode())].add(key);
+    }
+
+    // Place the largest buckets first, while the table is still mostly empty
+    Integer[] order = new Integer[buckets.length];
+    for (int k = 0; k < order.length; k++) {
+      order[k] = k;
+    }
+    Arrays.sort(order, (a, b) -> buckets[b].size() - buckets[a].size());
+
+    int[] slots = new int[KEYS_PER_BUCKET];
+    for (int b : order) {
+      List<String> bucket = buckets[b];
+      if (bucket.isEmpty()) {
+        break;
+      }
+      if (slots.length < bucket.size()) {
+        slots = new int[bucket.size()];
+      }
+      int d = 0;
+      while (!fits(bucket, d, slots)) {
+        d++;
+      }
+      _displace[b] = d;
+      for (int k = 0; k < bucket.size(); k++) {
+        _keys[slots[k]] = bucket.get(k);
+        _elems[slots[k]] = index.get(bucket.get(k));
+      }
+    }
+  }
+
+
+  // ============================================================
+  // PACKAGE METHODS
+  // ============================================================
+
+  /**
+   * Find the element for a normalized key
+   *
+   * @param key normalized key to find
+   * @return the element, else null if the key is not indexed
+   */
+  @SuppressWarnings("unchecked")
+  E get(String key)
+  {
+    int slot = slot(key, _displace[bucket(key.hashCode())]);
+    return key.equals(_keys[slot]) ? (E) _elems[slot] : null;
+  }
+
+
+  /**
+   * Verify if a normalized key is indexed
+   *
+   * @param key normalized key to find
+   * @return true if the key is indexed
+   */
+  boolean containsKey(String key)
+  {
+    return key.equals(_keys[slot(key, _displace[bucket(key.hashCode())])]);
+  }
+
+
+  // ============================================================
+  // PRIVATE METHODS
+  // ============================================================
+
+  /** Find the bucket for a key's hash */
+  private int bucket(int hash)
+  {
+    return (hash & 0x7fffffff) % _displace.length;
+  }
+
+
+  /**
+   * Verify that every key in a bucket lands in a free slot, and no two in the same one
+   *
+   * @param bucket keys to place
+   * @param d displacement to try
+   * @param slots receives the slot for each key when the displacement fits
+   * @return true if the displacement fits
+   */
+  private boolean fits(List<String> bucket, int d, int[] slots)
+  {
+    for (int k = 0; k < bucket.size(); k++) {
+      int slot = slot(bucket.get(k), d);
+      if (_keys[slot] != null) {
+        return false;
+      }
+      for (int j = 0; j < k; j++) {
+        if (slots[j] == slot) {
+          return false;
+        }
+      }
+      slots[k] = slot;
+    }
+    return true;
+  }
+
+
+  /**
+   * Hash a key, seeded by its bucket's displacement, to get its slot. The key's characters are
+   * hashed again rather than reusing {@code hashCode()}, so that two keys with the same
+   * {@code hashCode()} can still be given different slots.
+   */
+  private int slot(String key, int d)
+  {
+    int h = 0x811C9DC5 ^ (d * 0x9E3779B9);
+    for (int k = 0; k < key.length(); k++) {
+      h = (h ^ key.charAt(k)) * 0x01000193;
+    }
+    h ^= h >>> 16;
+    return h & _mask;
+  }
+
+
+  /** Smallest power of two that keeps the table no more than about 80% full */
+  private static int tableSize(int nbrKeys)
+  {
+    int size = 1;
+    while (size * 4 < nbrKeys * 5) {
+      size <<= 1;
+    }
+    return size;
+  }
+
+
+} // end of FrozenIndex class
@@ -5,7 +5,12 @@
 
 package mylib.pdc;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,6 +50,17 @@ import mylib.ApplicationException;
  * <p>
  * {@code MetaDie} can be created either in debug mode (repeatable numeric sequences) or with
  * the standard randomizer (non-repeatable). <br>
+ * <p>
+ * A session seed makes every die created without a seed repeatable as well, so that a recorded
+ * game session can be replayed with the same rolls. Each such die is then seeded from the
+ * session seed and from the name of the class that created it, with the order in which that class
+ * created its dice, so the rolls do not depend on the order the classes were loaded, nor on the
+ * JVM. A die created while the session seed is set is numbered among the dice its class created
+ * in that session; a die created earlier is numbered among all the dice its class ever created,
+ * so that the two never roll the same sequence. <br>
+ * <p>
+ * A die may be shared by Commands that run on different threads; each roll takes the die's lock,
+ * since the generator behind it is not thread-safe. <br>
  * 
  *
  * @author Alan Cline
@@ -56,11 +72,32 @@ import mylib.ApplicationException;
  *          Aug 18, 2017 // repaired getRandom(int, int) for 1-based numbers <br>
  *          Mar 17, 2018 // getting isOdd() working with new Eclipse and JUnit 5 <br>
  *          Apr 16, 2018 // replaced Java Random class with Apache MersenneTwister class <br>
+ *          Oct 18, 2026 // added a session seed for dice created without one <br>
+ *          Oct 18, 2026 // dice created before the session seed keep seeds of their own <br>
+ *          Oct 18, 2026 // a die may be rolled from several threads <br>
  */
 public class MetaDie
 {
   /** Specialized Apache random generator class that powers the <code>MetaDie</code> class */
   private MersenneTwister _generator;
+  /** Name of the class that created this die; null if given a seed */
+  private final String _creator;
+  /** Number of dice its class had created when this die was, counting this one */
+  private final int _createdNbr;
+  /** Tells this die apart from the other dice seeded by the session seed; 0 if given a seed */
+  private long _sessionKey;
+
+  /** Seeds the dice created without a seed, or null to leave them non-repeatable */
+  private static Long _sessionSeed = null;
+  /** Every die created without a seed, so that each can be reseeded for a session */
+  private static final List<WeakReference<MetaDie>> _unseeded =
+      new ArrayList<WeakReference<MetaDie>>();
+  /** Number of dice created without a seed by each class */
+  private static final Map<String, Integer> _createdBy = new HashMap<String, Integer>();
+  /** Number of dice created without a seed by each class, since the session seed was set */
+  private static final Map<String, Integer> _createdInSession = new HashMap<String, Integer>();
+  /** Size of the list of dice at which those no longer used are dropped from it */
+  private static int _pruneAt = 64;
 
   /** 34% of the population centered one side of the mean, within 1 sigma. */
   public static final double SIGMA = 0.3413; // positive side of the mean
@@ -88,10 +125,26 @@ public class MetaDie
 
   /**
    * Creates a Random class for single die throws; pre-defines a sequence of random numbers.
+   * The sequence is repeatable only while a session seed is set.
    */
   public MetaDie()
   {
-    _generator = new MersenneTwister();
+    _creator = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE)
+        .getCallerClass().getName();
+    synchronized (MetaDie.class) {
+      _createdNbr = _createdBy.merge(_creator, 1, Integer::sum);
+      if (_unseeded.size() >= _pruneAt) {
+        _unseeded.removeIf(ref -> ref.get() == null);
+        _pruneAt = 2 * _unseeded.size() + 64;
+      }
+      _unseeded.add(new WeakReference<MetaDie>(this));
+      if (_sessionSeed == null) {
+        _generator = new MersenneTwister();
+      } else {
+        _sessionKey = sessionKey(_creator, _createdInSession.merge(_creator, 1, Integer::sum));
+        _generator = new MersenneTwister(sessionSeedFor(_sessionSeed, _sessionKey));
+      }
+    }
   }
 
 
@@ -104,10 +157,81 @@ public class MetaDie
    */
   public MetaDie(long seed)
   {
+    _creator = null;
+    _createdNbr = 0;
+    _sessionKey = 0;
     _generator = new MersenneTwister(seed);
   }
 
 
+  /**
+   * Stops seeding the dice created without a seed; those already reseeded keep their sequences
+   */
+  public static synchronized void clearSessionSeed()
+  {
+    _sessionSeed = null;
+  }
+
+
+  /**
+   * @return true while a session seed is set, so that the rolls of dice created without a seed
+   *         repeat from one play of the session to the next
+   */
+  public static synchronized boolean isSessionSeeded()
+  {
+    return _sessionSeed != null;
+  }
+
+
+  /**
+   * Reseeds every die created without a seed, and those created later, so that the same session
+   * seed rolls the same numbers again for the same calls. The dice each class creates from now
+   * on are counted afresh, so that a session played again creates the same dice; the dice already
+   * created are numbered among all those of their class instead, so that none shares a sequence
+   * with a die created later.
+   *
+   * @param seed a number that determines the number sequences of the session
+   */
+  public static synchronized void setSessionSeed(long seed)
+  {
+    _sessionSeed = seed;
+    _createdInSession.clear();
+    Iterator<WeakReference<MetaDie>> it = _unseeded.iterator();
+    while (it.hasNext()) {
+      MetaDie die = it.next().get();
+      if (die == null) {
+        it.remove();
+      } else {
+        synchronized (die) {
+          die._sessionKey = sessionKey(die._creator, -die._createdNbr);
+          die._generator.setSeed(sessionSeedFor(seed, die._sessionKey));
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Tells apart the dice of a session by the class that created them and their number; the
+   * string hash of a class name is the same in every JVM
+   *
+   * @param creator name of the class that created the die
+   * @param nbr positive for a die created in the session, negative for one created before
+   * @return a key that no other die of the session shares
+   */
+  private static long sessionKey(String creator, int nbr)
+  {
+    return ((long) creator.hashCode() << 32) | (nbr & 0xFFFFFFFFL);
+  }
+
+
+  /** Spreads the dice of a session apart, so that no two roll the same sequence */
+  private static long sessionSeedFor(long seed, long key)
+  {
+    return seed ^ (key * 0x9E3779B97F4A7C15L);
+  }
+
+
   // ============================================================================================
   // Public Methods
   // ============================================================================================
@@ -122,7 +246,7 @@ public class MetaDie
    * @return a random number within the range inclusive (always greater than 0)
    * @throws IllegalArgumentException if the input parms are negative or out of range
    */
-  public int getRandom(int minRange, int maxRange) throws IllegalArgumentException
+  public synchronized int getRandom(int minRange, int maxRange) throws IllegalArgumentException
   {
     if ((minRange <= 0) || (maxRange <= 0)) {
       throw new IllegalArgumentException("Both minRange and maxRange must be positive");
@@ -233,7 +357,7 @@ public class MetaDie
    * 
    * @return random true or false value
    */
-  public boolean isOdd()
+  public synchronized boolean isOdd()
   {
     return _generator.nextBoolean();
   }
@@ -309,7 +433,7 @@ public class MetaDie
    * @param high the high end of the range
    * @return a value within range, centered on the average
    */
-  public int rollVariance(int low, int high) throws IllegalArgumentException
+  public synchronized int rollVariance(int low, int high) throws IllegalArgumentException
   {
     // Guards: only positive values are valid, and average must be greater than low
     if ((low < 0) || (high < 0)) {
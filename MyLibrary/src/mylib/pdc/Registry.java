@@ -11,6 +11,8 @@ package mylib.pdc;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 
@@ -32,6 +34,9 @@ import mylib.dmc.IRegistryElement;
  *          Mar 28 2016 // ABC refactored to in-memory List instead of dbReadWriter <br>
  *          July 30, 2017 // revised per QATool <br>
  *          Aug 1, 2017 // added HeroRegistry to cadre of Registry subclasses <br>
+ *          Oct 18, 2026 // added case-insensitive key index for constant-time lookups <br>
+ *          Oct 18, 2026 // added per-class index for getElementsByType() <br>
+ *          Oct 18, 2026 // added freeze() for shared, read-only reference registries <br>
  */
 public abstract class Registry<E extends IRegistryElement> implements Serializable
 {
@@ -44,6 +49,21 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
   /** Each Registry has its own name */
   protected String _name;
 
+  /**
+   * Key index into {@code _list}, keyed by the lower-cased element key. Subclasses that load
+   * {@code _list} directly must call {@code reindex()} afterwards to keep it in sync.
+   */
+  protected HashMap<String, E> _index;
+
+  /** Elements of {@code _list} partitioned by their concrete class, kept in sync with the index */
+  protected HashMap<Class<?>, List<E>> _typeIndex;
+
+  /** Perfect-hash key index that replaces {@code _index} once the registry is frozen */
+  private FrozenIndex<E> _frozenIndex = null;
+
+  /** Read-only view of {@code _list} returned by {@code getAll()} once the registry is frozen */
+  private List<E> _frozenList = null;
+
   /**
    * Initialize registry with beginning data from static tables, called when the registry file
    * does not exist. Method is abstract because each derived registry has its own type-specific
@@ -63,7 +83,10 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
   public Registry()
   {
     _list = new ArrayList<E>();
+    _index = new HashMap<String, E>();
+    _typeIndex = new HashMap<Class<?>, List<E>>();
     initialize();
+    reindex();
   }
 
 
@@ -75,7 +98,10 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
   public Registry(String filename)
   {
     _list = new ArrayList<E>();
+    _index = new HashMap<String, E>();
+    _typeIndex = new HashMap<Class<?>, List<E>>();
     initialize();
+    reindex();
   }
 
 
@@ -92,12 +118,15 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
    */
   public boolean add(E obj)
   {
-    // Ensure that a null or an empty key is not being added
-    if ((obj == null) || (obj.getKey().trim().length() == 0)) {
+    // Ensure that a null or an empty key is not being added, or added to a frozen registry
+    if ((obj == null) || isFrozen() || (obj.getKey().trim().length() == 0)) {
       return false;
     }
     // Add only entries unique to the list
-    if (!contains(obj)) {
+    String key = normalize(obj.getKey());
+    if (!_index.containsKey(key)) {
+      _index.put(key, obj);
+      addToType(obj);
       return _list.add(obj);
     }
     return false;
@@ -105,8 +134,8 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
 
 
   /**
-   * Verifies if the given object exists in the registry. The object's equal() method is
-   * called.
+   * Verifies if the given object exists in the registry. The object's {@code getKey()} method
+   * is called, and keys are compared without regard to case.
    * 
    * @param target object to match against for comparison
    * @return true if the registry contains the element, else false
@@ -116,27 +145,28 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
     if (target == null)
       return false;
 
-    for (E elem : _list) {
-      if (elem.getKey().equals(target.getKey())) {
-        return true;
-      }
-    }
-    return false;
+    String key = normalize(target.getKey());
+    return isFrozen() ? _frozenIndex.containsKey(key) : _index.containsKey(key);
   }
 
 
   /**
-   * Delete an object from the registry
+   * Delete an object from the registry. Nothing is deleted from a frozen registry.
    * 
    * @param obj object to delete
    * @throws NullPointerException if the obj is null
    */
   public void delete(E obj)
   {
+    String key = normalize(obj.getKey());
+    if (isFrozen() || _index.remove(key) == null) {
+      return;
+    }
     for (Iterator<E> it = _list.iterator(); it.hasNext();) {
       E elem = it.next();
-      if (elem.getKey().equals(obj.getKey())) {
+      if (normalize(elem.getKey()).equals(key)) {
         it.remove();
+        removeFromType(elem);
       }
     }
   }
@@ -151,41 +181,55 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
    */
   public E get(String key)
   {
-    for (E elem : _list) {
-      if (elem.getKey().equalsIgnoreCase(key)) {
-        return elem;
-      }
+    if (key == null) {
+      return null;
     }
-    return null;
+    String normKey = normalize(key);
+    return isFrozen() ? _frozenIndex.get(normKey) : _index.get(normKey);
   }
 
 
   /**
-   * Gets all the elements of the Registry
+   * Gets all the elements of the Registry. The list is read-only if the registry is frozen.
    * 
    * @return one or more registry elements that match the Predicate, else returns null.
    */
   public List<E> getAll()
   {
-    return _list;
+    return isFrozen() ? _frozenList : _list;
   }
 
   /**
    * Retrieve elements in the particular Registry that match the type of the object passed in.
+   * Only the concrete class is matched, not its superclasses. The list returned is a read-only
+   * view that reflects later adds and deletes.
    * 
-   * @return list of elements
+   * @param obj any object of the desired type
+   * @return read-only list of elements, empty if there are none of that type
    */
   public List<Object> getElementsByType(Object obj)
   {
-    List<Object> selectedElements = new ArrayList<Object>();
-    for (IRegistryElement elem : getAll()) {
-      if (elem.getClass().equals(obj.getClass())) {
-        selectedElements.add(elem);
-      }
+    return Collections.<Object> unmodifiableList(typeList(obj.getClass()));
+  }
+
+  /**
+   * Make this registry permanently read-only so that it can be shared by all callers in the JVM.
+   * The list is trimmed to its size, and the key index is replaced by a compact perfect-hash
+   * index. Afterwards, {@code add} and {@code update} return false, and {@code delete} does
+   * nothing.
+   */
+  public void freeze()
+  {
+    if (isFrozen()) {
+      return;
     }
-    return selectedElements;
+    _list.trimToSize();
+    _frozenList = Collections.unmodifiableList(_list);
+    _frozenIndex = new FrozenIndex<E>(_index);
+    _index = null;
   }
 
+
   /**
    * Gets the name of the registry in question, set by each subclass
    * 
@@ -197,6 +241,17 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
   }
 
 
+  /**
+   * Verify if this registry has been made read-only by {@code freeze()}
+   * 
+   * @return true if the registry is frozen
+   */
+  public boolean isFrozen()
+  {
+    return _frozenIndex != null;
+  }
+
+
   /**
    * Get the number of elements currently in the registry
    * 
@@ -214,21 +269,128 @@ public abstract class Registry<E extends IRegistryElement> implements Serializab
    * Note: db4o provides a field-replacement based update, but this is a delete-add method.
    * 
    * @param target replacement for modified object
-   * @return false if the update failed because original was not found; else true
+   * @return false if the update failed because the target is null or the registry is frozen;
+   *         else true
    */
   public boolean update(final E target)
   {
-    if (target == null) {
+    if ((target == null) || isFrozen()) {
       return false;
     }
 
-    if (contains(target)) {
-      delete(target); // by name
-    }
+    delete(target); // by name, if it exists
     add(target);
     return true;
   }
 
 
+  // ============================================================
+  // PROTECTED METHODS
+  // ============================================================
+
+  /**
+   * Remove all elements from the registry, and from its index, unless the registry is frozen
+   */
+  protected void clear()
+  {
+    if (isFrozen()) {
+      return;
+    }
+    _list.clear();
+    _index.clear();
+    for (List<E> typeList : _typeIndex.values()) {
+      typeList.clear();
+    }
+  }
+
+
+  /**
+   * Rebuild the key and type indexes from {@code _list}. The first element found for a key wins,
+   * as it would for a linear search. Called after {@code initialize()}, and by any subclass that
+   * modifies {@code _list} directly.
+   */
+  protected void reindex()
+  {
+    if (isFrozen()) {
+      return;
+    }
+    _index.clear();
+    for (List<E> typeList : _typeIndex.values()) {
+      typeList.clear();
+    }
+    for (E elem : _list) {
+      String key = normalize(elem.getKey());
+      if (!_index.containsKey(key)) {
+        _index.put(key, elem);
+      }
+      addToType(elem);
+    }
+  }
+
+
+  // ============================================================
+  // PRIVATE METHODS
+  // ============================================================
+
+  /**
+   * Add an element to the partition for its concrete class
+   * 
+   * @param elem element just added to {@code _list}
+   */
+  private void addToType(E elem)
+  {
+    typeList(elem.getClass()).add(elem);
+  }
+
+
+  /**
+   * Remove an element from the partition for its concrete class. The partition itself is kept,
+   * even when empty, so that views handed out by {@code getElementsByType} stay current.
+   * 
+   * @param elem element just removed from {@code _list}
+   */
+  private void removeFromType(E elem)
+  {
+    List<E> typeList = _typeIndex.get(elem.getClass());
+    if (typeList != null) {
+      for (Iterator<E> it = typeList.iterator(); it.hasNext();) {
+        if (it.next() == elem) {
+          it.remove();
+          break;
+        }
+      }
+    }
+  }
+
+
+  /**
+   * Get the partition for a concrete class, creating an empty one if needed
+   * 
+   * @param type concrete class of the elements wanted
+   * @return the live list of elements of that class
+   */
+  private List<E> typeList(Class<?> type)
+  {
+    List<E> typeList = _typeIndex.get(type);
+    if (typeList == null) {
+      typeList = new ArrayList<E>();
+      _typeIndex.put(type, typeList);
+    }
+    return typeList;
+  }
+
+  /**
+   * Normalize a key once, so that all lookups can be made without regard to case. Package
+   * visible so that {@code ConcurrentRegistry} indexes keys the same way.
+   * 
+   * @param key the element key
+   * @return the lower-case version of the key
+   */
+  static String normalize(String key)
+  {
+    return key.toLowerCase();
+  }
+
+
 } // end of Registry base class
 
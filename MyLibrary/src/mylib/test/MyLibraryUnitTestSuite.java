@@ -12,7 +12,11 @@ package mylib.test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import mylib.test.dmc.TestCachedDbReadWriter;
+import mylib.test.dmc.TestConcurrentRegistry;
+import mylib.test.dmc.TestDbCompactor;
 import mylib.test.dmc.TestRegistry;
+import mylib.test.dmc.TestWriteBehindQueue;
 import mylib.test.pdc.TestMetaDie;
 import mylib.test.pdc.TestUtilities;
 
@@ -23,12 +27,20 @@ import mylib.test.pdc.TestUtilities;
  *          Jul 11 2010 // updated for tests with CIV support <br>
  *          Jul 26 2014 // {@code UC00a. Initialization} classes added: {@code Registry} <br>
  *          Sep 20, 2014 // removed unneeded test files and uncommented needed ones <br>
+ *          Oct 18, 2026 // added TestConcurrentRegistry <br>
+ *          Oct 18, 2026 // added TestCachedDbReadWriter <br>
+ *          Oct 18, 2026 // added TestDbCompactor <br>
+ *          Oct 18, 2026 // added TestWriteBehindQueue <br>
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 
     /** DMC Test files */
     TestRegistry.class, // base class
+    TestConcurrentRegistry.class,
+    TestCachedDbReadWriter.class,
+    TestDbCompactor.class,
+    TestWriteBehindQueue.class,
 
     /** PDC Test files */
     TestMetaDie.class,
@@ -19,11 +19,14 @@ import mylib.dmc.IRegistryElement;
  * @author Alan Cline
  * @version Dec 3, 2012 // original <br>
  *          Mar 13, 2013 // adapted to implement IRegistryElement <br>
+ *          Oct 18, 2026 // added lower-case key for indexed lookups that ignore case <br>
  */
 public class SomeObject implements IRegistryElement
 {
   /** Field to use as search key */
   private String _key;
+  /** Search key in lower case, set by the read writer when it stores this object */
+  private String _lowerKey;
   /** Test field */
   private int _num = 9;
   /** Test field, also used as key */
@@ -93,6 +96,15 @@ public class SomeObject implements IRegistryElement
   }
 
 
+  /**
+   * @return the key in lower case, as last stored by a read writer; null if never stored
+   */
+  public String getLowerKey()
+  {
+    return _lowerKey;
+  }
+
+
   /**
    * @return the numerical field of this object
    */
@@ -0,0 +1,162 @@
+/**
+ * TestCachedDbReadWriter.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package mylib.test.dmc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mylib.Constants;
+import mylib.MsgCtrl;
+import mylib.dmc.CachedDbReadWriter;
+
+
+/**
+ * Tests the read-through cache of {@code CachedDbReadWriter}, using {@code SomeObject} as its
+ * {@code IRegistryElement}
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // uses the indexed key fields <br>
+ */
+public class TestCachedDbReadWriter
+{
+  /** Object under test, with room for three elements */
+  private CachedDbReadWriter<SomeObject> _dbrw;
+
+  /** Place temporary test files in resource directory */
+  static private final String REG_PATH = Constants.MYLIB_RESOURCES + "Test.reg";
+
+  @Before
+  public void setUp()
+  {
+    _dbrw = new CachedDbReadWriter<SomeObject>(REG_PATH, SomeObject.class, "_key", "_lowerKey", 3);
+    for (int k = 0; k < 5; k++) {
+      _dbrw.addElement(new SomeObject(k, "cached " + k));
+    }
+  }
+
+  @After
+  public void tearDown()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    _dbrw.clear();
+  }
+
+
+  // ============================================================
+  // BEGIN TESTS
+  // ============================================================
+
+  /**
+   * mylib.dmc.CachedDbReadWriter.get(String)
+   *
+   * @Normal.Test Repeated lookups, in any case, are answered from the cache <br>
+   * @Normal.Test Keys not found are not cached <br>
+   */
+  @Test
+  public void testReadThrough()
+  {
+    SomeObject so = _dbrw.get("cached 1");
+    assertEquals(1, so.getNum());
+    assertSame(so, _dbrw.get("CACHED 1"));
+    assertSame(so, _dbrw.get("cached 1"));
+    assertEquals(2, _dbrw.getHits());
+    assertEquals(1, _dbrw.getMisses());
+
+    assertNull(_dbrw.get("not stored"));
+    assertNull(_dbrw.get("not stored"));
+    assertEquals(3, _dbrw.getMisses());
+    assertEquals(1, _dbrw.getCacheSize());
+    assertEquals(0.4, _dbrw.getHitRatio(), 0.001);
+
+    _dbrw.resetStats();
+    assertEquals(0, _dbrw.getHits());
+    assertEquals(1, _dbrw.getCacheSize());
+  }
+
+
+  /**
+   * mylib.dmc.CachedDbReadWriter.get(String)
+   *
+   * @Normal.Test The least recently used element is evicted when the cache is full <br>
+   */
+  @Test
+  public void testEviction()
+  {
+    _dbrw.get("cached 0");
+    _dbrw.get("cached 1");
+    _dbrw.get("cached 2");
+    _dbrw.get("cached 0"); // now cached 1 is the least recently used
+    _dbrw.get("cached 3");
+    assertEquals(3, _dbrw.getCacheSize());
+    assertEquals(1, _dbrw.getEvictions());
+
+    long misses = _dbrw.getMisses();
+    _dbrw.get("cached 0");
+    assertEquals(misses, _dbrw.getMisses());
+    _dbrw.get("cached 1");
+    assertEquals(misses + 1, _dbrw.getMisses());
+    assertEquals(2, _dbrw.getEvictions());
+  }
+
+
+  /**
+   * mylib.dmc.CachedDbReadWriter
+   *
+   * @Normal.Test Writes invalidate the keys they touch; clear empties the cache <br>
+   */
+  @Test
+  public void testInvalidation()
+  {
+    SomeObject so = _dbrw.get("cached 2");
+    _dbrw.deleteElement(new SomeObject("Cached 2"));
+    assertNull(_dbrw.get("cached 2"));
+
+    _dbrw.addElement(new SomeObject(22, "cached 2"));
+    assertEquals(22, _dbrw.get("cached 2").getNum());
+    assertNotSame(so, _dbrw.get("cached 2"));
+
+    List<SomeObject> changes = new ArrayList<SomeObject>();
+    changes.add(new SomeObject(33, "cached 3"));
+    _dbrw.get("cached 3");
+    _dbrw.upsertAll(changes);
+    assertEquals(33, _dbrw.get("cached 3").getNum());
+
+    _dbrw.clear();
+    assertEquals(0, _dbrw.getCacheSize());
+    assertNull(_dbrw.get("cached 3"));
+  }
+
+
+  /**
+   * mylib.dmc.CachedDbReadWriter(String, int)
+   *
+   * @Error.Test The cache must hold at least one element <br>
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testErrorCapacity()
+  {
+    new CachedDbReadWriter<SomeObject>(REG_PATH, 0);
+  }
+
+
+} // end of TestCachedDbReadWriter class
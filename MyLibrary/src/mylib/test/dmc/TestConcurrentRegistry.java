@@ -0,0 +1,252 @@
+/**
+ * TestConcurrentRegistry.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package mylib.test.dmc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mylib.Constants;
+import mylib.MsgCtrl;
+import mylib.pdc.ConcurrentRegistry;
+
+
+/**
+ * Tests {@code ConcurrentRegistry} wrapped around a {@code ConcreteRegistry}, using
+ * {@code SomeObject} as its {@code IRegistryElement}
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // added test that readers see every key while the keys are re-read <br>
+ */
+public class TestConcurrentRegistry
+{
+  private ConcreteRegistry<SomeObject> _source = null;
+  private ConcurrentRegistry<SomeObject> _testReg = null;
+  private static final String TEST_FILEPATH = Constants.MYLIB_RESOURCES + "Test.reg";
+
+  @Before
+  public void setUp() throws Exception
+  {
+    _source = new ConcreteRegistry<SomeObject>(TEST_FILEPATH);
+    _source.add(new SomeObject(1, "object one"));
+    _testReg = new ConcurrentRegistry<SomeObject>(_source);
+  }
+
+  @After
+  public void tearDown() throws Exception
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+  }
+
+
+  // ============================================================
+  // BEGIN TESTS
+  // ============================================================
+
+  /**
+   * mylib.pdc.ConcurrentRegistry(Registry)
+   *
+   * @Normal.Test Elements already in the source registry are found through the wrapper <br>
+   * @Normal.Test Adds and deletes through the wrapper are passed to the source registry <br>
+   */
+  @Test
+  public void testWrapsSource()
+  {
+    assertEquals(1, _testReg.size());
+    assertTrue(_testReg.contains(new SomeObject("OBJECT ONE")));
+
+    SomeObject so2 = new SomeObject(2, "object two");
+    assertTrue(_testReg.add(so2));
+    assertFalse(_testReg.add(new SomeObject(3, "Object Two")));
+    assertEquals(2, _testReg.size());
+    assertEquals(2, _source.size());
+    assertEquals(so2, _source.get("object two"));
+
+    _testReg.delete(so2);
+    assertEquals(1, _testReg.size());
+    assertNull(_testReg.get("object two"));
+    assertFalse(_source.contains(so2));
+  }
+
+
+  /**
+   * mylib.pdc.ConcurrentRegistry.getAll()
+   *
+   * @Normal.Test A snapshot does not change when the registry is written to <br>
+   * @Error.Test A snapshot cannot be modified <br>
+   */
+  @Test
+  public void testGetAllIsSnapshot()
+  {
+    List<SomeObject> before = _testReg.getAll();
+    _testReg.add(new SomeObject(2, "object two"));
+    assertEquals(1, before.size());
+    assertEquals(2, _testReg.getAll().size());
+
+    try {
+      before.add(new SomeObject(3, "object three"));
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (UnsupportedOperationException ex) {
+      MsgCtrl.errMsg("\tExpected exception: " + ex.getMessage());
+    }
+  }
+
+
+  /**
+   * mylib.pdc.ConcurrentRegistry.update(E)
+   *
+   * @Normal.Test The replacement is returned for the same key <br>
+   */
+  @Test
+  public void testUpdate()
+  {
+    SomeObject replacement = new SomeObject(42, "object one");
+    assertTrue(_testReg.update(replacement));
+    assertEquals(1, _testReg.size());
+    assertEquals(42, _testReg.get("object one").getNum());
+    assertFalse(_testReg.update(null));
+  }
+
+
+  /**
+   * mylib.pdc.ConcurrentRegistry
+   *
+   * @Error.Test An update the wrapped registry rejects is not seen through the wrapper <br>
+   */
+  @Test
+  public void testUpdate_Rejected()
+  {
+    _source.freeze();
+    SomeObject replacement = new SomeObject(42, "object one");
+    assertFalse(_testReg.update(replacement));
+    assertEquals(1, _testReg.get("object one").getNum());
+    assertTrue(_testReg.get("object one") == _source.get("object one"));
+  }
+
+
+  /**
+   * mylib.pdc.ConcurrentRegistry
+   *
+   * @Normal.Test A change made on the wrapped registry under the write lock is seen through the
+   *              wrapper <br>
+   */
+  @Test
+  public void testWithSource()
+  {
+    _testReg.withSource(reg -> reg.add(new SomeObject(2, "object two")));
+    assertEquals(2, _testReg.size());
+    assertEquals(2, _testReg.get("object two").getNum());
+    assertEquals(2, _testReg.getAll().size());
+  }
+
+
+  /**
+   * mylib.pdc.ConcurrentRegistry
+   *
+   * @Normal.Test An element is never missing to a reader while the keys are re-read <br>
+   */
+  @Test
+  public void testWithSource_ReadersSeeEveryKey() throws Exception
+  {
+    final int NBR_REFRESHES = 2000;
+    final List<String> misses = new ArrayList<String>();
+    final AtomicBoolean done = new AtomicBoolean(false);
+    for (int k = 2; k < 50; k++) {
+      _testReg.add(new SomeObject(k, "object " + k));
+    }
+    Thread reader = new Thread(() -> {
+      while (!done.get()) {
+        if (_testReg.get("object one") == null) {
+          synchronized (misses) {
+            misses.add("object one");
+          }
+        }
+      }
+    });
+    reader.start();
+    try {
+      for (int k = 0; k < NBR_REFRESHES; k++) {
+        _testReg.withSource(reg -> {});
+      }
+    } finally {
+      done.set(true);
+      reader.join();
+    }
+    assertTrue(misses.isEmpty());
+  }
+
+
+  /**
+   * mylib.pdc.ConcurrentRegistry
+   *
+   * @Normal.Test Readers iterate snapshots while writers add and delete on other threads <br>
+   */
+  @Test
+  public void testConcurrentReadersAndWriters() throws Exception
+  {
+    final int NBR_WRITERS = 4;
+    final int NBR_ELEMS = 500;
+    final List<Throwable> errors = new ArrayList<Throwable>();
+    List<Thread> threads = new ArrayList<Thread>();
+
+    for (int w = 0; w < NBR_WRITERS; w++) {
+      final int writer = w;
+      threads.add(new Thread(() -> {
+        for (int k = 0; k < NBR_ELEMS; k++) {
+          SomeObject so = new SomeObject(k, "w" + writer + "-" + k);
+          _testReg.add(so);
+          if (k % 2 == 1) {
+            _testReg.delete(so);
+          }
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      try {
+        for (int k = 0; k < NBR_ELEMS; k++) {
+          for (SomeObject so : _testReg.getAll()) {
+            _testReg.get(so.getKey());
+          }
+        }
+      } catch (Throwable ex) {
+        synchronized (errors) {
+          errors.add(ex);
+        }
+      }
+    }));
+    for (Thread t : threads) {
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+
+    assertTrue(errors.isEmpty());
+    int expected = 1 + NBR_WRITERS * NBR_ELEMS / 2;
+    assertEquals(expected, _testReg.size());
+    assertEquals(expected, _testReg.getAll().size());
+    assertEquals(expected, _source.size());
+  }
+
+
+} // end of TestConcurrentRegistry class
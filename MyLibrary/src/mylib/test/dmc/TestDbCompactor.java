@@ -0,0 +1,122 @@
+/**
+ * TestDbCompactor.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package mylib.test.dmc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.db4o.ext.DatabaseFileLockedException;
+
+import mylib.Constants;
+import mylib.MsgCtrl;
+import mylib.dmc.DbCompactor;
+import mylib.dmc.DbReadWriter;
+
+
+/**
+ * Tests {@code DbCompactor} on a file of {@code SomeObject}s with most of them deleted
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // uses the indexed key fields <br>
+ */
+public class TestDbCompactor
+{
+  /** Place temporary test files in resource directory */
+  static private final String REG_PATH = Constants.MYLIB_RESOURCES + "Compact.reg";
+
+  private DbReadWriter<SomeObject> _dbrw;
+
+  @Before
+  public void setUp()
+  {
+    _dbrw = new DbReadWriter<SomeObject>(REG_PATH, SomeObject.class, "_key", "_lowerKey");
+    List<SomeObject> batch = new ArrayList<SomeObject>();
+    for (int k = 0; k < 400; k++) {
+      batch.add(new SomeObject(k, "compact " + k));
+    }
+    _dbrw.addAll(batch);
+    batch.subList(0, 100).clear();
+    _dbrw.deleteAll(batch);
+  }
+
+  @After
+  public void tearDown()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    _dbrw.closeSession();
+    new File(REG_PATH).delete();
+  }
+
+
+  // ============================================================
+  // BEGIN TESTS
+  // ============================================================
+
+  /**
+   * mylib.dmc.DbCompactor.compact()
+   *
+   * @Normal.Test The file shrinks, and every remaining element can still be found by key <br>
+   */
+  @Test
+  public void testCompact() throws IOException
+  {
+    DbCompactor compactor = new DbCompactor(REG_PATH, SomeObject.class, "_key", "_lowerKey");
+    compactor.compact();
+    MsgCtrl.msgln("\t" + compactor);
+
+    assertEquals(100, compactor.getObjectCount());
+    assertTrue(compactor.getBytesAfter() < compactor.getBytesBefore());
+    assertEquals(compactor.getBytesAfter(), new File(REG_PATH).length());
+    assertFalse(new File(REG_PATH + DbCompactor.COMPACT_SUFFIX).exists());
+
+    assertEquals(100, _dbrw.size());
+    assertNotNull(_dbrw.get("compact 99"));
+    assertEquals(42, _dbrw.get("COMPACT 42").getNum());
+  }
+
+
+  /**
+   * mylib.dmc.DbCompactor.compact()
+   *
+   * @Error.Test A file held open by a session is not compacted, and is left as it was <br>
+   */
+  @Test
+  public void testErrorFileInUse() throws IOException
+  {
+    long before = new File(REG_PATH).length();
+    _dbrw.openSession();
+    try {
+      new DbCompactor(REG_PATH).compact();
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (DatabaseFileLockedException ex) {
+      MsgCtrl.errMsg("\tExpected exception: " + ex.getMessage());
+    }
+    _dbrw.closeSession();
+    assertEquals(before, new File(REG_PATH).length());
+    assertEquals(100, _dbrw.size());
+  }
+
+
+} // end of TestDbCompactor class
@@ -14,13 +14,24 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 import mylib.Constants;
 import mylib.MsgCtrl;
+import mylib.dmc.DbActivationProfile;
+import mylib.dmc.DbBatchResult;
+import mylib.dmc.DbCursor;
 import mylib.dmc.DbReadWriter;
 
+import com.db4o.ext.DatabaseFileLockedException;
+import com.db4o.query.Predicate;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -39,6 +50,13 @@ import org.junit.Test;
  *          Dec 7, 2014 // revised dbOpen(String) signature and associated tests <br>
  *          Dec 23, 2015 // test new refactoring for better encapsulation <br>
  *          Mar 29 2016 // reviewed tests after refactoring it out of {@code Registry} <br>
+ *          Oct 18, 2026 // added session tests <br>
+ *          Oct 18, 2026 // added indexed key query tests <br>
+ *          Oct 18, 2026 // added batch operation tests <br>
+ *          Oct 18, 2026 // added cursor and stream tests <br>
+ *          Oct 18, 2026 // added activation profile tests <br>
+ *          Oct 18, 2026 // added lock contention and read-only tests <br>
+ *          Oct 18, 2026 // added test that a batch stopped by any error is rolled back <br>
  */
 public class TestDbReadWriter
 {
@@ -63,6 +81,7 @@ public class TestDbReadWriter
     MsgCtrl.auditMsgsOn(false);
     MsgCtrl.errorMsgsOn(false);
 
+    _dbrw.closeSession();
     _dbrw.clear();
   }
 
@@ -91,6 +110,298 @@ public class TestDbReadWriter
   }
 
 
+  /**
+   * @Normal.Test DbBatchResult addAll(Collection), deleteAll(Collection), upsertAll(Collection)
+   */
+  @Test
+  public void testBatchOperations()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _dbrw.addElement(new SomeObject(-1, "batch 0"));
+
+    // Add skips the key already stored, and the duplicate within the batch
+    List<SomeObject> batch = new ArrayList<SomeObject>();
+    for (int k = 0; k < 50; k++) {
+      batch.add(new SomeObject(k, "batch " + k));
+    }
+    batch.add(new SomeObject(99, "batch 10"));
+    DbBatchResult result = _dbrw.addAll(batch);
+    MsgCtrl.msgln("\t" + result);
+    assertEquals(51, result.getRequested());
+    assertEquals(49, result.getWritten());
+    assertEquals(2, result.getSkipped());
+    assertTrue(result.getThroughput() > 0);
+    assertEquals(50, _dbrw.size());
+    assertEquals(-1, _dbrw.get("batch 0").getNum());
+    assertEquals(10, _dbrw.get("batch 10").getNum());
+
+    // Upsert replaces the stored elements and adds the new one
+    List<SomeObject> changes = new ArrayList<SomeObject>();
+    changes.add(new SomeObject(100, "BATCH 0"));
+    changes.add(new SomeObject(110, "batch 10"));
+    changes.add(new SomeObject(150, "batch 50"));
+    result = _dbrw.upsertAll(changes);
+    assertEquals(3, result.getWritten());
+    assertEquals(51, _dbrw.size());
+    assertEquals(100, _dbrw.get("batch 0").getNum());
+    assertEquals(110, _dbrw.get("batch 10").getNum());
+
+    // Delete ignores case and skips the key not stored
+    List<SomeObject> targets = new ArrayList<SomeObject>();
+    targets.add(new SomeObject("batch 0"));
+    targets.add(new SomeObject("Batch 1"));
+    targets.add(new SomeObject("batch 99"));
+    result = _dbrw.deleteAll(targets);
+    assertEquals(2, result.getWritten());
+    assertEquals(1, result.getSkipped());
+    assertEquals(49, _dbrw.size());
+    assertNull(_dbrw.get("batch 1"));
+  }
+
+
+  /**
+   * @Error.Test DbBatchResult addAll(Collection), upsertAll(Collection) -- a batch stopped by an
+   *             error of one of its elements stores none of them
+   */
+  @Test
+  public void testErrorBatchRolledBack()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _dbrw.addElement(new SomeObject(-1, "stored"));
+    List<SomeObject> batch = new ArrayList<SomeObject>();
+    batch.add(new SomeObject(1, "first"));
+    batch.add(new SomeObject(2, "second"));
+    batch.add(new SomeObject(3, "broken") {
+      @Override
+      public String getKey()
+      {
+        throw new IllegalStateException("No key");
+      }
+    });
+    try {
+      _dbrw.addAll(batch);
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (IllegalStateException ex) {
+      MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+    }
+    assertEquals(1, _dbrw.size());
+    assertNull(_dbrw.get("first"));
+
+    try {
+      _dbrw.upsertAll(batch);
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (IllegalStateException ex) {
+      MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+    }
+    assertEquals(1, _dbrw.size());
+    assertNull(_dbrw.get("second"));
+    assertNotNull(_dbrw.get("stored"));
+  }
+
+
+  /**
+   * @Normal.Test DbCursor cursor(), Stream stream()
+   */
+  @SuppressWarnings("serial")
+  @Test
+  public void testCursor()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    List<SomeObject> batch = new ArrayList<SomeObject>();
+    for (int k = 0; k < 20; k++) {
+      batch.add(new SomeObject(k, "cursor " + k));
+    }
+    _dbrw.addAll(batch);
+
+    // Every element is reached once, and the cursor can be closed more than once
+    int count = 0;
+    DbCursor<SomeObject> first = _dbrw.cursor();
+    try (DbCursor<SomeObject> cursor = first) {
+      while (cursor.hasNext()) {
+        assertNotNull(cursor.next().getKey());
+        count++;
+      }
+      try {
+        cursor.next();
+        fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+      } catch (NoSuchElementException ex) {
+        MsgCtrl.errMsg("\tExpected exception: " + ex.getMessage());
+      }
+    }
+    first.close();
+    assertEquals(20, count);
+
+    // Other calls can be made while a cursor is open, and do not close the db under it
+    try (DbCursor<SomeObject> cursor = _dbrw.cursor(new Predicate<SomeObject>() {
+      @Override
+      public boolean match(SomeObject candidate)
+      {
+        return candidate.getNum() % 2 == 0;
+      }
+    }, 1)) {
+      assertTrue(cursor.hasNext());
+      assertEquals(20, _dbrw.size());
+      count = 0;
+      while (cursor.hasNext()) {
+        assertEquals(0, cursor.next().getNum() % 2);
+        count++;
+      }
+    }
+    assertEquals(10, count);
+
+    // A stream closes its cursor when it is closed
+    try (Stream<SomeObject> stream = _dbrw.stream()) {
+      assertEquals(190, stream.mapToInt(SomeObject::getNum).sum());
+    }
+    assertEquals(20, _dbrw.getAll().size());
+  }
+
+
+  /**
+   * @Error.Test DbCursor cannot be used after it is closed
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testErrorCursorClosed()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    SomeObject so = new SomeObject(1, "closed cursor");
+    _dbrw.addElement(so);
+    DbCursor<SomeObject> cursor = _dbrw.cursor();
+    cursor.close();
+    assertFalse(cursor.hasNext());
+    cursor.activate(so, 2);
+  }
+
+
+  /**
+   * @Normal.Test void setProfile(DbActivationProfile), getKeys(), getForEdit(String),
+   *              updateElement(E)
+   */
+  @Test
+  public void testProfile()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    // Per-class depths are inherited by subclasses
+    DbActivationProfile profile = DbActivationProfile.keysOnly().activate(Object.class, 3)
+        .update(SomeObject.class, 2).cascadeOnUpdate(SomeObject.class).editDepth(10);
+    assertEquals(1, profile.getActivationDepth());
+    assertEquals(3, profile.getActivationDepth(SomeObject.class));
+    assertEquals(2, profile.getUpdateDepth(SomeObject.class));
+    assertEquals(1, profile.getUpdateDepth(String.class));
+    assertTrue(profile.getCascades().contains(SomeObject.class));
+    assertEquals(10, profile.getEditDepth());
+    assertEquals(DbActivationProfile.ALL, _dbrw.getProfile().getActivationDepth());
+
+    for (int k = 0; k < 5; k++) {
+      _dbrw.addElement(new SomeObject(k, "profile " + k));
+    }
+    _dbrw.setProfile(DbActivationProfile.keysOnly());
+    List<String> keys = _dbrw.getKeys();
+    assertEquals(5, keys.size());
+    assertTrue(keys.contains("profile 3"));
+
+    // Outside a session, the stored element with the same key is replaced
+    SomeObject so = _dbrw.getForEdit("PROFILE 2");
+    assertEquals(2, so.getNum());
+    so.setNum(20);
+    assertTrue(_dbrw.updateElement(so));
+    assertEquals(20, _dbrw.get("profile 2").getNum());
+    assertEquals(5, _dbrw.size());
+
+    // Within a session, the element is updated in place, and the profile can still be changed
+    _dbrw.openSession();
+    so = _dbrw.getForEdit("profile 4");
+    so.setNum(40);
+    _dbrw.setProfile(DbActivationProfile.full());
+    assertTrue(_dbrw.updateElement(so));
+    assertEquals(40, _dbrw.get("profile 4").getNum());
+    assertEquals(5, _dbrw.size());
+    assertFalse(_dbrw.updateElement(new SomeObject(9, "not stored")));
+  }
+
+
+  /**
+   * @Error.Test Depths must be positive
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testErrorProfileDepth()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DbActivationProfile.full().editDepth(0);
+  }
+
+
+  /**
+   * @Normal.Test A locked file is retried until the lock is released <br>
+   * @Normal.Test A read-only read writer shares the file with a writer <br>
+   * @Error.Test A file still locked after the last retry throws instead of exiting <br>
+   */
+  @Test
+  public void testLockContention() throws InterruptedException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _dbrw.addElement(new SomeObject(1, "locked"));
+    _dbrw.openSession();
+    DbReadWriter<SomeObject> other = new DbReadWriter<SomeObject>(REG_PATH);
+
+    // Gives up after the last attempt, and records the wait
+    other.setLockRetry(3, 5, 10);
+    try {
+      other.get("locked");
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (DatabaseFileLockedException ex) {
+      MsgCtrl.errMsg("\tExpected exception: " + ex.getMessage());
+    }
+    assertEquals(1, other.getLockContentions());
+    assertTrue(other.getLockWaitMillis() >= 15);
+
+    // A reader does not wait for the writer's lock, and cannot write
+    DbReadWriter<SomeObject> reader = new DbReadWriter<SomeObject>(REG_PATH);
+    reader.setReadOnly(true);
+    assertTrue(reader.isReadOnly());
+    assertEquals(1, reader.get("locked").getNum());
+    assertFalse(reader.addElement(new SomeObject(2, "read only")));
+    assertEquals(0, reader.getLockContentions());
+
+    // Succeeds once the writer lets go
+    Thread writer = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException ex) {
+        // close at once
+      }
+      _dbrw.closeSession();
+    });
+    other.setLockRetry(20, 5, 20);
+    writer.start();
+    assertTrue(other.addElement(new SomeObject(2, "unlocked")));
+    writer.join();
+    assertEquals(2, other.getLockContentions());
+    assertEquals(2, _dbrw.size());
+  }
+
+
   /**
    * @Normal.Test void clear()
    */
@@ -285,6 +596,159 @@ public class TestDbReadWriter
   }
 
 
+  /**
+   * @Normal.Test void openSession(int, long), void closeSession() -- writes in a session are seen
+   *              by later calls, and are still there after the session closes
+   */
+  @Test
+  public void testSession()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _dbrw.openSession(2, 0);
+    assertTrue(_dbrw.isSessionOpen());
+    for (int k = 0; k < 5; k++) {
+      assertTrue(_dbrw.addElement(new SomeObject(k, "session object " + k)));
+    }
+    assertFalse(_dbrw.addElement(new SomeObject("session object 3")));
+    assertEquals(5, _dbrw.size());
+    assertNotNull(_dbrw.get("session object 4"));
+
+    // The fifth write was still pending until the session closed
+    _dbrw.closeSession();
+    assertFalse(_dbrw.isSessionOpen());
+    assertEquals(5, _dbrw.size());
+    assertNotNull(_dbrw.get("session object 4"));
+  }
+
+
+  /**
+   * @Normal.Test void openSession(int, long) -- an idle session closes itself
+   */
+  @Test
+  public void testSessionIdleTimeout() throws InterruptedException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _dbrw.openSession(DbReadWriter.DEFAULT_COMMIT_BATCH, 50);
+    _dbrw.addElement(new SomeObject("idle object"));
+    for (int k = 0; (k < 100) && _dbrw.isSessionOpen(); k++) {
+      Thread.sleep(20);
+    }
+    assertFalse(_dbrw.isSessionOpen());
+    assertNotNull(_dbrw.get("idle object"));
+  }
+
+
+  /**
+   * @Normal.Test DbReadWriter(String, Class, String) -- get, contains, delete, and size work the
+   *              same with an indexed key field
+   */
+  @Test
+  public void testIndexedKey()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DbReadWriter<SomeObject> indexed =
+        new DbReadWriter<SomeObject>(REG_PATH, SomeObject.class, "_key");
+    for (int k = 0; k < 20; k++) {
+      assertTrue(indexed.addElement(new SomeObject(k, "Indexed " + k)));
+    }
+    assertFalse(indexed.addElement(new SomeObject("Indexed 7")));
+    assertEquals(20, indexed.size());
+
+    // Exact and case-insensitive lookups
+    assertEquals(7, indexed.get("Indexed 7").getNum());
+    assertEquals(7, indexed.get("INDEXED 7").getNum());
+    assertNull(indexed.get("Indexed"));
+    assertTrue(indexed.contains(new SomeObject("Indexed 12")));
+    assertFalse(indexed.contains(new SomeObject("Indexed 20")));
+
+    // Delete without regard to case
+    indexed.deleteElement(new SomeObject("indexed 12"));
+    assertFalse(indexed.contains(new SomeObject("Indexed 12")));
+    assertEquals(19, indexed.size());
+
+    // The unindexed read writer sees the same elements
+    assertEquals(19, _dbrw.size());
+    assertNotNull(_dbrw.get("indexed 3"));
+  }
+
+
+  /**
+   * @Normal.Test DbReadWriter(String, Class, String, String) -- lookups that ignore case are
+   *              answered from the lower-case key field, which is set each time an element is
+   *              stored
+   */
+  @Test
+  public void testLowerKeyIndexed()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    DbReadWriter<SomeObject> indexed =
+        new DbReadWriter<SomeObject>(REG_PATH, SomeObject.class, "_key", "_lowerKey");
+    List<SomeObject> batch = new ArrayList<SomeObject>();
+    for (int k = 0; k < 20; k++) {
+      batch.add(new SomeObject(k, "Lower " + k));
+    }
+    indexed.addAll(batch);
+    assertTrue(indexed.addElement(new SomeObject(20, "Lower 20")));
+    assertFalse(indexed.addElement(new SomeObject("Lower 20")));
+    assertEquals(21, indexed.size());
+
+    // Exact and case-insensitive lookups
+    SomeObject so = indexed.get("lOWER 7");
+    assertEquals(7, so.getNum());
+    assertEquals("lower 7", so.getLowerKey());
+    assertEquals(20, indexed.get("LOWER 20").getNum());
+    assertNull(indexed.get("Lower"));
+
+    // Replace and delete without regard to case
+    indexed.upsertAll(Arrays.asList(new SomeObject(99, "LOWER 3")));
+    assertEquals(99, indexed.get("lower 3").getNum());
+    indexed.deleteElement(new SomeObject("lower 12"));
+    assertNull(indexed.get("Lower 12"));
+    assertEquals(20, indexed.size());
+  }
+
+
+  /**
+   * @Error.Test DbReadWriter(String, Class, String, String) -- lower-case key field must be a
+   *             String field in the element class
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testErrorLowerKeyNotString()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    new DbReadWriter<SomeObject>(REG_PATH, SomeObject.class, "_key", "_num");
+  }
+
+
+  /**
+   * @Error.Test DbReadWriter(String, Class, String) -- key field must exist in the element class
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testErrorIndexedKeyNoField()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    new DbReadWriter<SomeObject>(REG_PATH, SomeObject.class, "_name");
+  }
+
+
   // ====================================================================
   // SUPPLEMENTAL TESTS
   // ====================================================================
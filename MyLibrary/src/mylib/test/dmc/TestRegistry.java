@@ -300,6 +300,32 @@ public class TestRegistry
   }
 
 
+  /**
+   * mylib.test.pdc.get(String)
+   *
+   * @Normal.Test Keys are matched without regard to case for get, contains, add, and delete <br>
+   */
+  @Test
+  public void testKeysIgnoreCase()
+  {
+    SomeObject so1 = new SomeObject(4, "Object One");
+    assertTrue(_testReg.add(so1));
+    assertEquals(so1, _testReg.get("object one"));
+    assertEquals(so1, _testReg.get("OBJECT ONE"));
+
+    // A key that differs only by case is a duplicate
+    SomeObject so1Upper = new SomeObject(5, "OBJECT ONE");
+    assertTrue(_testReg.contains(so1Upper));
+    assertFalse(_testReg.add(so1Upper));
+    assertEquals(1, _testReg.size());
+
+    // Delete by a key that differs only by case
+    _testReg.delete(so1Upper);
+    assertEquals(0, _testReg.size());
+    assertNull(_testReg.get("Object One"));
+  }
+
+
   /**
    * mylib.test.pdc.update(RegistryElement)
    * 
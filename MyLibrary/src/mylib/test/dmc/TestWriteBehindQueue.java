@@ -0,0 +1,217 @@
+/**
+ * TestWriteBehindQueue.java Copyright (c) 2026, Carolla Development, Inc. All Rights Reserved
+ *
+ * Permission to make digital or hard copies of all or parts of this work for commercial use is
+ * prohibited. To republish, to post on servers, to reuse, or to redistribute to lists, requires
+ * prior specific permission and/or a fee. Request permission to use from Carolla Development, Inc.
+ * by email: acline@carolla.com
+ */
+
+
+package mylib.test.dmc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mylib.MsgCtrl;
+import mylib.dmc.WriteBehindQueue;
+
+
+/**
+ * Tests {@code WriteBehindQueue} with a writer that records each batch in memory
+ *
+ * @author Alan Cline
+ * @version Oct 18, 2026 // original <br>
+ *          Oct 18, 2026 // added test that a key is pending while its batch is written <br>
+ */
+public class TestWriteBehindQueue
+{
+  /** Long enough that a test can queue several snapshots before the background flush */
+  static private final long DELAY_MILLIS = 200;
+
+  /** Each batch written, in order */
+  private List<Map<String, String>> _batches;
+  /** Whether the writer fails */
+  private volatile boolean _failing;
+  /** Whether the first key of the last batch was pending while the batch was written */
+  private volatile boolean _pendingWhileWritten;
+  private WriteBehindQueue<String, String> _queue;
+
+  @Before
+  public void setUp()
+  {
+    _batches = new ArrayList<Map<String, String>>();
+    _failing = false;
+    _queue = new WriteBehindQueue<String, String>("Test queue", batch -> {
+      _pendingWhileWritten = _queue.isPending(batch.keySet().iterator().next());
+      if (_failing) {
+        throw new IOException("Disk full");
+      }
+      synchronized (_batches) {
+        _batches.add(new LinkedHashMap<String, String>(batch));
+      }
+    }, DELAY_MILLIS);
+  }
+
+  @After
+  public void tearDown() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    _failing = false;
+    _queue.close();
+  }
+
+
+  // ===============================================================================
+  // BEGIN TESTING
+  // ===============================================================================
+
+  /**
+   * @Normal.Test void put(K, V) -- snapshots are written later in one batch, on another thread,
+   *              and a newer snapshot replaces one still waiting
+   */
+  @Test
+  public void testPut_Coalesced() throws InterruptedException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _queue.put("Falsoon", "v1");
+    _queue.put("Blythe", "v1");
+    _queue.put("Falsoon", "v2");
+    assertEquals(2, _queue.getPending());
+    assertTrue(_queue.isPending("Falsoon"));
+    synchronized (_batches) {
+      assertTrue(_batches.isEmpty());
+    }
+
+    waitForWrite();
+    assertEquals(0, _queue.getPending());
+    assertEquals(1, _batches.size());
+    Map<String, String> batch = _batches.get(0);
+    assertEquals(Arrays.asList("Falsoon", "Blythe"), new ArrayList<String>(batch.keySet()));
+    assertEquals("v2", batch.get("Falsoon"));
+    MsgCtrl.msgln("\t" + _queue);
+  }
+
+
+  /**
+   * @Normal.Test int flush() -- waiting snapshots are written at once, on the caller's thread,
+   *              and stay pending until written; dropped snapshots are not written
+   */
+  @Test
+  public void testFlush() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    assertEquals(0, _queue.flush());
+    _queue.put("Falsoon", "v1");
+    _queue.put("Blythe", "v1");
+    assertEquals("v1", _queue.remove("Blythe"));
+    assertEquals(1, _queue.flush());
+    assertEquals(1, _batches.size());
+    assertEquals(1, _batches.get(0).size());
+    assertEquals(0, _queue.getPending());
+    // Pending until written, not only until taken for writing
+    assertTrue(_pendingWhileWritten);
+    assertFalse(_queue.isPending("Falsoon"));
+
+    // flushAll writes every open queue
+    _queue.put("Borca", "v1");
+    assertTrue(WriteBehindQueue.flushAll() >= 1);
+    assertEquals(2, _batches.size());
+  }
+
+
+  /**
+   * @Error.Test int flush() -- a batch that fails stays queued, behind nothing, and a newer
+   *             snapshot queued meanwhile is the one written
+   */
+  @Test
+  public void testErrorFlush_Requeued() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    _failing = true;
+    _queue.put("Falsoon", "v1");
+    _queue.put("Blythe", "v1");
+    try {
+      _queue.flush();
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (IOException ex) {
+      MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+    }
+    assertEquals(2, _queue.getPending());
+    assertEquals(1, _queue.getFailures());
+
+    _queue.put("Blythe", "v2");
+    _failing = false;
+    assertEquals(2, _queue.flush());
+    Map<String, String> batch = _batches.get(0);
+    assertEquals(Arrays.asList("Falsoon", "Blythe"), new ArrayList<String>(batch.keySet()));
+    assertEquals("v2", batch.get("Blythe"));
+  }
+
+
+  /**
+   * @Error.Test void put(K, V) -- nulls are rejected, and nothing can be queued once closed
+   */
+  @Test
+  public void testErrorPut() throws IOException
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    try {
+      _queue.put(null, "v1");
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (NullPointerException ex) {
+      MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+    }
+    _queue.put("Falsoon", "v1");
+    _queue.close();
+    assertEquals(1, _batches.size());
+    try {
+      _queue.put("Falsoon", "v2");
+      fail(MsgCtrl.EXCEPTION_NOT_THROWN);
+    } catch (IllegalStateException ex) {
+      MsgCtrl.msgln(MsgCtrl.EXP_EXCEPTION + ex.getMessage());
+    }
+    assertFalse(_queue.isPending("Falsoon"));
+  }
+
+
+  // ===============================================================================
+  // PRIVATE HELPER METHODS
+  // ===============================================================================
+
+  /** Wait for the background flush, for at most a few seconds */
+  private void waitForWrite() throws InterruptedException
+  {
+    for (int k = 0; (k < 100) && (_queue.getPending() > 0); k++) {
+      Thread.sleep(50);
+    }
+  }
+
+
+} // end of TestWriteBehindQueue class
@@ -10,10 +10,13 @@
 package mylib.test.pdc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -54,6 +57,8 @@ import mylib.pdc.Utilities;
  *          Sept 23, 2017 // added stats to rollVariance() needed with nextGaussion() <br>
  *          Mar 17, 2018 // moved to Eclipse Oxygen, JUnit 5 <br>
  *          Apr 16, 2018 // replaced Java Random class with Apache MersenneTwister class <br>
+ *          Oct 18, 2026 // added test for the session seed <br>
+ *          Oct 18, 2026 // session seed test of dice created before and after it is set <br>
  */
 public class TestMetaDie
 {
@@ -554,6 +559,51 @@ public class TestMetaDie
   }
 
 
+  /**
+   * @Normal.Test void setSessionSeed(long) -- dice created without a seed roll the same numbers
+   *              again for the same session seed, whether created before or after it is set, and
+   *              two dice of one session do not roll the same numbers, even when created by the
+   *              same class before and after the seed is set
+   */
+  @Test
+  public void testSetSessionSeed()
+  {
+    MsgCtrl.auditMsgsOn(false);
+    MsgCtrl.errorMsgsOn(false);
+    MsgCtrl.where(this);
+
+    MetaDie before = new MetaDie();
+    try {
+      MetaDie.setSessionSeed(1806L);
+      MetaDie after = new MetaDie();
+      int[] first = new int[100];
+      int[] second = new int[100];
+      for (int k = 0; k < first.length; k++) {
+        first[k] = before.getRandom(1, 1000);
+        second[k] = after.getRandom(1, 1000);
+      }
+      MsgCtrl.msgln("\t First rolls: " + first[0] + ", " + second[0]);
+      assertFalse(Arrays.equals(first, second));
+
+      // Reseeding rewinds the die created before the seed, and a die created after it again
+      // rolls as the first one created after it did; the die created in the first session is
+      // now one created before the seed, and so rolls apart from both
+      MetaDie.setSessionSeed(1806L);
+      MetaDie again = new MetaDie();
+      int[] third = new int[100];
+      for (int k = 0; k < first.length; k++) {
+        assertEquals(first[k], before.getRandom(1, 1000));
+        assertEquals(second[k], again.getRandom(1, 1000));
+        third[k] = after.getRandom(1, 1000);
+      }
+      assertFalse(Arrays.equals(first, third));
+      assertFalse(Arrays.equals(second, third));
+    } finally {
+      MetaDie.clearSessionSeed();
+    }
+  }
+
+
   // --------------------------------------------------------------------------------------------------------------
   // Private Methods
   // --------------------------------------------------------------------------------------------------------------